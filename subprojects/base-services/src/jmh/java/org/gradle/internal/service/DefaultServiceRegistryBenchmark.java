@@ -0,0 +1,112 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@Fork(4)
+@Threads(2)
+@Warmup(iterations = 10)
+@State(Scope.Benchmark)
+public class DefaultServiceRegistryBenchmark {
+    private DefaultServiceRegistry global;
+    private DefaultServiceRegistry build;
+    private DefaultServiceRegistry project;
+
+    @Setup
+    public void setupRegistries() {
+        global = new DefaultServiceRegistry("global");
+        global.addProvider(new GlobalServices());
+        build = new DefaultServiceRegistry("build", global);
+        build.addProvider(new BuildServices());
+        project = new DefaultServiceRegistry("project", build);
+        project.addProvider(new ProjectServices());
+        project.get(ProjectService.class);
+    }
+
+    @Benchmark
+    public void createRegistry(Blackhole bh) {
+        DefaultServiceRegistry registry = new DefaultServiceRegistry("project", build);
+        registry.addProvider(new ProjectServices());
+        bh.consume(registry.get(ProjectService.class));
+    }
+
+    @Benchmark
+    public void lookupOwnService(Blackhole bh) {
+        bh.consume(project.get(ProjectService.class));
+    }
+
+    @Benchmark
+    public void lookupGrandparentService(Blackhole bh) {
+        bh.consume(project.get(GlobalService.class));
+    }
+
+    @Benchmark
+    public void lookupServiceBySupertype(Blackhole bh) {
+        bh.consume(project.get(Runnable.class));
+    }
+
+    @Benchmark
+    public void lookupAllServices(Blackhole bh) {
+        bh.consume(project.getAll(Service.class));
+    }
+
+    public interface Service {
+    }
+
+    public static class GlobalService implements Service {
+    }
+
+    public static class BuildService implements Service {
+        public BuildService(GlobalService globalService) {
+        }
+    }
+
+    public static class ProjectService implements Service, Runnable {
+        public ProjectService(GlobalService globalService, BuildService buildService) {
+        }
+
+        @Override
+        public void run() {
+        }
+    }
+
+    private static class GlobalServices {
+        GlobalService createGlobalService() {
+            return new GlobalService();
+        }
+    }
+
+    private static class BuildServices {
+        BuildService createBuildService(GlobalService globalService) {
+            return new BuildService(globalService);
+        }
+    }
+
+    private static class ProjectServices {
+        ProjectService createProjectService(GlobalService globalService, BuildService buildService) {
+            return new ProjectService(globalService, buildService);
+        }
+    }
+}
@@ -15,8 +15,12 @@
  */
 package org.gradle.internal.service;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Maps;
 import org.gradle.api.Action;
 import org.gradle.internal.Factory;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.concurrent.Stoppable;
 
@@ -33,13 +37,16 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Formatter;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -70,18 +77,24 @@ import java.util.concurrent.atomic.AtomicInteger;
  * org.gradle.internal.concurrent.Stoppable} then the appropriate close() or stop() method is called. Instances are closed in reverse dependency order.</p>
  *
  * <p>Service registries are arranged in a hierarchy. If a service of a given type cannot be located, the registry uses its parent registry, if any, to locate the service.</p>
+ *
+ * <p>Once a registry is in use, its services and those of its parents can no longer change, so the registry remembers the result of each service lookup.</p>
  */
 public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
     private enum State {INIT, IN_USE, CLOSING, CLOSED};
     private final static ServiceRegistry[] NO_PARENTS = new ServiceRegistry[0];
     private final static Service[] NO_DEPENDENTS = new Service[0];
     private final static Object[] NO_PARAMS = new Object[0];
+    private final static Object NO_SERVICE = new Object();
+    private final static Cache<Class<?>, Class<?>[]> SERVICE_TYPES = CacheBuilder.newBuilder().weakKeys().build();
 
     private final OwnServices ownServices;
     private final ServiceProvider allServices;
     private final ServiceProvider parentServices;
     private final String displayName;
     private final ServiceProvider thisAsServiceProvider;
+    // Null when some ancestor is not a DefaultServiceRegistry, as the services of such an ancestor may change
+    private final ConcurrentMap<Type, Object> resolvedServices;
 
     private State state = State.INIT;
     private final Object stateLock = new Object();
@@ -111,6 +124,7 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
             parentServices = setupParentServices(parents);
             allServices = new CompositeServiceProvider(ownServices, parentServices);
         }
+        this.resolvedServices = canCacheLookups(parents) ? Maps.<Type, Object>newConcurrentMap() : null;
 
         findProviderMethods(this);
     }
@@ -129,6 +143,16 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
         return parentServices;
     }
 
+    private static boolean canCacheLookups(ServiceRegistry[] parents) {
+        for (ServiceRegistry parent : parents) {
+            // A parent that caches its own lookups has only DefaultServiceRegistry ancestors
+            if (!(parent instanceof DefaultServiceRegistry) || ((DefaultServiceRegistry) parent).resolvedServices == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private ServiceProvider asProvider() {
         return thisAsServiceProvider;
     }
@@ -266,6 +290,9 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
             state = State.CLOSING;
             waitForPendingRequests();
             CompositeStoppable.stoppable(allServices).stop();
+            if (resolvedServices != null) {
+                resolvedServices.clear();
+            }
             state = State.CLOSED;
         }
     }
@@ -293,7 +320,6 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
             synchronized (stateLock) {
                 if (state == State.INIT) {
                     state = State.IN_USE;
-                    ownServices.noLongerMutable();
                 }
             }
         }
@@ -329,12 +355,28 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
     private Service getService(Type serviceType) {
         try {
             newRequestInProgress();
-            return find(serviceType, allServices);
+            return resolve(serviceType);
         } finally {
             requestFinished();
         }
     }
 
+    /**
+     * Locates the given service in this registry or its parents. Must only be called once this registry is no longer mutable.
+     */
+    private Service resolve(Type serviceType) {
+        if (resolvedServices == null) {
+            return find(serviceType, allServices);
+        }
+        Object resolved = resolvedServices.get(serviceType);
+        if (resolved == null) {
+            Service service = find(serviceType, allServices);
+            resolved = service == null ? NO_SERVICE : service;
+            resolvedServices.putIfAbsent(serviceType, resolved);
+        }
+        return resolved == NO_SERVICE ? null : (Service) resolved;
+    }
+
     public <T> Factory<T> getFactory(Class<T> type) {
         assertValidServiceType(type);
         Service provider = getFactoryService(type);
@@ -434,7 +476,6 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
     private class OwnServices implements ServiceProvider {
         private final Map<Class<?>, List<ServiceProvider>> providersByType = new HashMap<Class<?>, List<ServiceProvider>>(16, 0.5f);
         private final CompositeStoppable stoppable = CompositeStoppable.stoppable();
-        private ProviderAnalyser analyser = new ProviderAnalyser();
 
         @Override
         public Service getFactory(Class<?> type) {
@@ -536,41 +577,48 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
                 throw new UnsupportedOperationException("Unsupported service provider type: " + serviceProvider);
             }
             stoppable.add(serviceProvider);
-            analyser.addProviderForClassHierarchy(((SingletonService) serviceProvider).serviceClass, serviceProvider);
-        }
-
-        public void noLongerMutable() {
-            analyser = null;
+            for (Class<?> type : serviceTypesOf(((SingletonService) serviceProvider).serviceClass)) {
+                putServiceType(type, serviceProvider);
+            }
         }
 
-        private class ProviderAnalyser {
-            private Set<Class<?>> seen = new HashSet<Class<?>>(4, 0.5f);
-
-            public void addProviderForClassHierarchy(Class<?> serviceType, ServiceProvider serviceProvider) {
-                analyseType(serviceType, serviceProvider);
-                seen.clear();
+        private void putServiceType(Class<?> type, ServiceProvider serviceProvider) {
+            List<ServiceProvider> serviceProviders = providersByType.get(type);
+            if (serviceProviders == null) {
+                serviceProviders = new ArrayList<ServiceProvider>(2);
+                providersByType.put(type, serviceProviders);
             }
+            serviceProviders.add(serviceProvider);
+        }
+    }
 
-            private void analyseType(Class<?> type, ServiceProvider serviceProvider) {
-                if (type == null || type == Object.class) {
-                    return;
-                }
-                if (seen.add(type)) {
-                    putServiceType(type, serviceProvider);
-                    analyseType(type.getSuperclass(), serviceProvider);
-                    for (Class<?> iface : type.getInterfaces()) {
-                        analyseType(iface, serviceProvider);
-                    }
+    /**
+     * Returns the types that the given service class can be located by, that is, the class and its supertypes other than {@link Object}. This is calculated once per class
+     * and shared by all registries.
+     */
+    private static Class<?>[] serviceTypesOf(final Class<?> serviceClass) {
+        try {
+            return SERVICE_TYPES.get(serviceClass, new Callable<Class<?>[]>() {
+                @Override
+                public Class<?>[] call() {
+                    Set<Class<?>> types = new LinkedHashSet<Class<?>>();
+                    collectServiceTypes(serviceClass, types);
+                    return types.toArray(new Class<?>[0]);
                 }
-            }
+            });
+        } catch (ExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        }
+    }
 
-            private void putServiceType(Class<?> type, ServiceProvider serviceProvider) {
-                List<ServiceProvider> serviceProviders = providersByType.get(type);
-                if (serviceProviders == null) {
-                    serviceProviders = new ArrayList<ServiceProvider>(2);
-                    providersByType.put(type, serviceProviders);
-                }
-                serviceProviders.add(serviceProvider);
+    private static void collectServiceTypes(Class<?> type, Set<Class<?>> types) {
+        if (type == null || type == Object.class) {
+            return;
+        }
+        if (types.add(type)) {
+            collectServiceTypes(type.getSuperclass(), types);
+            for (Class<?> iface : type.getInterfaces()) {
+                collectServiceTypes(iface, types);
             }
         }
     }
@@ -779,7 +827,7 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
                 } else {
                     Service paramProvider;
                     try {
-                        paramProvider = owner.find(paramType, owner.allServices);
+                        paramProvider = owner.resolve(paramType);
                     } catch (ServiceLookupException e) {
                         throw new ServiceCreationException(String.format("Cannot create service of type %s using %s.%s() as there is a problem with parameter #%s of type %s.",
                             format(serviceType),
@@ -70,6 +70,73 @@ class DefaultServiceRegistryTest extends Specification {
         1 * parent2.get(BigDecimal) >> value
     }
 
+    def "delegates to parent for each lookup when parent is not a DefaultServiceRegistry"() {
+        def value = BigDecimal.TEN
+        def parent = Mock(ServiceRegistry)
+        def registry = new TestRegistry(parent)
+
+        when:
+        def first = registry.get(BigDecimal)
+        def second = registry.get(BigDecimal)
+
+        then:
+        first == value
+        second == value
+
+        and:
+        2 * parent.get(BigDecimal) >> value
+    }
+
+    def "delegates to grandparent for each lookup when grandparent is not a DefaultServiceRegistry"() {
+        def value = BigDecimal.TEN
+        def grandparent = Mock(ServiceRegistry)
+        def parent = new DefaultServiceRegistry(grandparent)
+        def registry = new TestRegistry(parent)
+
+        when:
+        def first = registry.get(BigDecimal)
+        def second = registry.get(BigDecimal)
+
+        then:
+        first == value
+        second == value
+
+        and:
+        2 * grandparent.get(BigDecimal) >> value
+    }
+
+    def "locates services of parent and grandparent registries repeatedly"() {
+        def grandparent = new DefaultServiceRegistry()
+        grandparent.add(BigDecimal, BigDecimal.TEN)
+        def parent = new DefaultServiceRegistry(grandparent)
+        parent.add(String, "value")
+        def child = new DefaultServiceRegistry(parent)
+
+        expect:
+        child.get(BigDecimal) == BigDecimal.TEN
+        child.get(BigDecimal) == BigDecimal.TEN
+        child.get(Number) == BigDecimal.TEN
+        child.get(String) == "value"
+        child.getAll(Number) == [BigDecimal.TEN]
+    }
+
+    def "fails repeatedly for service that is not available in any registry"() {
+        def parent = new DefaultServiceRegistry()
+        def child = new DefaultServiceRegistry(parent)
+
+        when:
+        child.get(StringBuilder)
+
+        then:
+        thrown UnknownServiceException
+
+        when:
+        child.get(StringBuilder)
+
+        then:
+        thrown UnknownServiceException
+    }
+
     def throwsExceptionForUnknownParentService() {
         def parent = Mock(ServiceRegistry);
         def registry = new TestRegistry(parent)
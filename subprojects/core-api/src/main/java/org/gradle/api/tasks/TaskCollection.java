@@ -17,6 +17,7 @@ package org.gradle.api.tasks;
 
 import groovy.lang.Closure;
 import org.gradle.api.Action;
+import org.gradle.api.Incubating;
 import org.gradle.api.NamedDomainObjectSet;
 import org.gradle.api.Task;
 import org.gradle.api.UnknownTaskException;
@@ -76,4 +77,26 @@ public interface TaskCollection<T extends Task> extends NamedDomainObjectSet<T>
      * {@inheritDoc}
      */
     T getAt(String name) throws UnknownTaskException;
+
+    /**
+     * Returns a lazy reference to the task with the given name. Unlike {@link #getByName(String)}, this method does not create or configure the task.
+     * The task is located when the value of the returned provider is queried, which fails if there is no such task in this collection.
+     *
+     * @param name The task name.
+     * @return A provider for the task.
+     * @since 4.6
+     */
+    @Incubating
+    TaskProvider<T> named(String name);
+
+    /**
+     * Configures each task in this collection with the given action, including tasks that are added or created later. Unlike {@link #all(Action)},
+     * this method does not create tasks that have been registered using {@link TaskContainer#register(String, Class, Action)}.
+     * Such tasks are configured with the action when they are created.
+     *
+     * @param action The action to configure each task with.
+     * @since 4.6
+     */
+    @Incubating
+    void configureEach(Action<? super T> action);
 }
@@ -163,6 +163,61 @@ public interface TaskContainer extends TaskCollection<Task>, PolymorphicDomainOb
      */
     <T extends Task> T create(String name, Class<T> type, Action<? super T> configuration) throws InvalidUserDataException;
 
+    /**
+     * <p>Registers a {@link Task} with the given name and type, to be created and configured with the given action when it is required.</p>
+     *
+     * <p>The task is created when the returned provider is queried, when the task is located by name or path, when it is required by
+     * the task graph or when an eager method of this container, such as iterating over it, is used. Until then, no instance of the task
+     * exists and the configuration action is not executed.</p>
+     *
+     * @param name The name of the task.
+     * @param type The type of task to create.
+     * @param configurationAction The action to configure the task with, once it is created.
+     * @return A provider for the task.
+     * @throws InvalidUserDataException If a task with the given name already exists in this project.
+     * @since 4.6
+     */
+    @Incubating
+    <T extends Task> TaskProvider<T> register(String name, Class<T> type, Action<? super T> configurationAction) throws InvalidUserDataException;
+
+    /**
+     * <p>Registers a {@link Task} with the given name and type, to be created when it is required.</p>
+     *
+     * @param name The name of the task.
+     * @param type The type of task to create.
+     * @return A provider for the task.
+     * @throws InvalidUserDataException If a task with the given name already exists in this project.
+     * @see #register(String, Class, Action)
+     * @since 4.6
+     */
+    @Incubating
+    <T extends Task> TaskProvider<T> register(String name, Class<T> type) throws InvalidUserDataException;
+
+    /**
+     * <p>Registers a {@link Task} with the given name, to be created and configured with the given action when it is required.</p>
+     *
+     * @param name The name of the task.
+     * @param configurationAction The action to configure the task with, once it is created.
+     * @return A provider for the task.
+     * @throws InvalidUserDataException If a task with the given name already exists in this project.
+     * @see #register(String, Class, Action)
+     * @since 4.6
+     */
+    @Incubating
+    TaskProvider<Task> register(String name, Action<? super Task> configurationAction) throws InvalidUserDataException;
+
+    /**
+     * <p>Registers a {@link Task} with the given name, to be created when it is required.</p>
+     *
+     * @param name The name of the task.
+     * @return A provider for the task.
+     * @throws InvalidUserDataException If a task with the given name already exists in this project.
+     * @see #register(String, Class, Action)
+     * @since 4.6
+     */
+    @Incubating
+    TaskProvider<Task> register(String name) throws InvalidUserDataException;
+
     /**
      * <p>Creates a {@link Task} with the given name and adds it to this container, replacing any existing task with the
      * same name.</p>
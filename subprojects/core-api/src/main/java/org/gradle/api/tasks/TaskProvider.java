@@ -0,0 +1,47 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.tasks;
+
+import org.gradle.api.Action;
+import org.gradle.api.Incubating;
+import org.gradle.api.Task;
+import org.gradle.api.provider.Provider;
+
+/**
+ * A lazy reference to a {@link Task}. The task is only created and configured when its value is queried, by calling {@link #get()}
+ * or by an eager method of the task container, or when it is required to build the task graph.
+ *
+ * <p>A {@code TaskProvider} can be used anywhere a task dependency is accepted, for example with {@link Task#dependsOn(Object...)}.</p>
+ *
+ * @param <T> The type of the task.
+ * @since 4.6
+ */
+@Incubating
+public interface TaskProvider<T extends Task> extends Provider<T> {
+    /**
+     * Returns the name of the task.
+     */
+    String getName();
+
+    /**
+     * Configures the task with the given action. The action is executed when the task is created, or immediately if it already has been.
+     *
+     * @param action The action to configure the task with.
+     */
+    void configure(Action<? super T> action);
+}
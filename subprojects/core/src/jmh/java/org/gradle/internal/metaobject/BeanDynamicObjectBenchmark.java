@@ -0,0 +1,82 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.metaobject;
+
+import groovy.lang.Closure;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@Fork(4)
+@Threads(2)
+@Warmup(iterations = 10)
+@State(Scope.Benchmark)
+public class BeanDynamicObjectBenchmark {
+    private final Bean bean = new Bean();
+    private final BeanDynamicObject dynamicObject = new BeanDynamicObject(bean);
+    private final Closure<Object> closure = new Closure<Object>(this) {
+        @Override
+        public Object call() {
+            return null;
+        }
+    };
+
+    @Benchmark
+    public void getProperty(Blackhole bh) {
+        bh.consume(dynamicObject.tryGetProperty("prop"));
+    }
+
+    @Benchmark
+    public void setProperty(Blackhole bh) {
+        bh.consume(dynamicObject.trySetProperty("prop", "value"));
+    }
+
+    @Benchmark
+    public void getMissingProperty(Blackhole bh) {
+        bh.consume(dynamicObject.tryGetProperty("unknown"));
+    }
+
+    @Benchmark
+    public void invokeMethodWithClosure(Blackhole bh) {
+        bh.consume(dynamicObject.tryInvokeMethod("doSomething", closure));
+    }
+
+    @Benchmark
+    public void invokeMissingMethod(Blackhole bh) {
+        bh.consume(dynamicObject.tryInvokeMethod("unknown", "value"));
+    }
+
+    public static class Bean {
+        private String prop;
+
+        public String getProp() {
+            return prop;
+        }
+
+        public void setProp(String prop) {
+            this.prop = prop;
+        }
+
+        public Object doSomething(Closure<?> closure) {
+            return closure.call();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.process.internal.worker.request;
+
+import org.gradle.api.Action;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.logging.events.OperationIdentifier;
+import org.gradle.internal.remote.ConnectionAcceptor;
+import org.gradle.internal.remote.MessagingClient;
+import org.gradle.internal.remote.MessagingServer;
+import org.gradle.internal.remote.ObjectConnection;
+import org.gradle.internal.remote.services.MessagingServices;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the round trip time of a {@link RequestProtocol#run(String, Class[], Object[], Object)} request to a worker and its {@link ResponseProtocol#completed(Object)}
+ * response over loopback, with the {@link RequestArgumentSerializers} and with the Java serialization fallback for the request parameters.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RequestProtocolBenchmark {
+    private static final Class<?>[] PARAM_TYPES = new Class<?>[]{WorkSpec.class, File.class};
+    private static final Object[] ARGS = new Object[]{
+        new WorkSpec("compileJava", Arrays.asList("-source", "1.6", "-target", "1.6", "-encoding", "UTF-8")),
+        new File("build/classes/java/main")
+    };
+    private static final OperationIdentifier OPERATION_IDENTIFIER = new OperationIdentifier(123L);
+
+    @Param({"registered", "java"})
+    String serialization;
+
+    private MessagingServices serverServices;
+    private MessagingServices clientServices;
+    private ConnectionAcceptor acceptor;
+    private ObjectConnection workerConnection;
+    private ObjectConnection buildConnection;
+    private CountingResponseProtocol responses;
+    private RequestProtocol requests;
+
+    @Setup(Level.Trial)
+    public void setup() throws InterruptedException {
+        serverServices = new MessagingServices();
+        clientServices = new MessagingServices();
+        final BlockingQueue<ObjectConnection> connections = new LinkedBlockingQueue<ObjectConnection>();
+        acceptor = serverServices.get(MessagingServer.class).accept(new Action<ObjectConnection>() {
+            @Override
+            public void execute(ObjectConnection connection) {
+                connections.add(connection);
+            }
+        });
+        workerConnection = clientServices.get(MessagingClient.class).getConnection(acceptor.getAddress());
+        buildConnection = connections.take();
+
+        workerConnection.addIncoming(RequestProtocol.class, new CompletingRequestProtocol(workerConnection.addOutgoing(ResponseProtocol.class)));
+        responses = new CountingResponseProtocol();
+        buildConnection.addIncoming(ResponseProtocol.class, responses);
+        requests = buildConnection.addOutgoing(RequestProtocol.class);
+        if (serialization.equals("registered")) {
+            workerConnection.useParameterSerializers(RequestArgumentSerializers.create(getClass().getClassLoader()));
+            buildConnection.useParameterSerializers(RequestArgumentSerializers.create(getClass().getClassLoader()));
+        }
+        workerConnection.connect();
+        buildConnection.connect();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        CompositeStoppable.stoppable(buildConnection, workerConnection, acceptor, clientServices, serverServices).stop();
+    }
+
+    @Benchmark
+    public void runRequest() throws InterruptedException {
+        CountDownLatch completed = responses.expect();
+        requests.run("execute", PARAM_TYPES, ARGS, OPERATION_IDENTIFIER);
+        completed.await();
+    }
+
+    private static class CompletingRequestProtocol implements RequestProtocol {
+        private final ResponseProtocol responses;
+
+        CompletingRequestProtocol(ResponseProtocol responses) {
+            this.responses = responses;
+        }
+
+        @Override
+        public void run(String methodName, Class<?>[] paramTypes, Object[] args, Object operationIdentifier) {
+            responses.completed(null);
+        }
+
+        @Override
+        public void runThenStop(String methodName, Class<?>[] paramTypes, Object[] args, Object operationIdentifier) {
+            responses.completed(null);
+        }
+
+        @Override
+        public void stop() {
+        }
+    }
+
+    private static class CountingResponseProtocol implements ResponseProtocol {
+        private volatile CountDownLatch completed;
+
+        CountDownLatch expect() {
+            completed = new CountDownLatch(1);
+            return completed;
+        }
+
+        @Override
+        public void completed(Object result) {
+            completed.countDown();
+        }
+
+        @Override
+        public void failed(Throwable failure) {
+            completed.countDown();
+        }
+
+        @Override
+        public void infrastructureFailed(Throwable failure) {
+            completed.countDown();
+        }
+    }
+
+    public static class WorkSpec implements Serializable {
+        private final String name;
+        private final List<String> args;
+
+        WorkSpec(String name, List<String> args) {
+            this.name = name;
+            this.args = args;
+        }
+    }
+}
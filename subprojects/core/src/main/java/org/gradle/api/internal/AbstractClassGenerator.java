@@ -16,42 +16,56 @@
 
 package org.gradle.api.internal;
 
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.SetMultimap;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import groovy.lang.Closure;
 import groovy.lang.GroovyObject;
-import org.apache.commons.collections.map.AbstractReferenceMap;
-import org.apache.commons.collections.map.ReferenceMap;
+import java.util.Collections;
 import org.gradle.api.Action;
 import org.gradle.api.GradleException;
 import org.gradle.api.NonExtensible;
 import org.gradle.api.plugins.ExtensionAware;
 import org.gradle.api.provider.HasMultipleValues;
 import org.gradle.api.provider.Property;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.classloader.ClassLoaderUtils;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
 import org.gradle.internal.reflect.ClassDetails;
 import org.gradle.internal.reflect.ClassInspector;
 import org.gradle.internal.reflect.DirectInstantiator;
 import org.gradle.internal.reflect.JavaReflectionUtil;
 import org.gradle.internal.reflect.PropertyDetails;
 import org.gradle.internal.service.ServiceRegistry;
+import org.objectweb.asm.ClassReader;
 
 import javax.annotation.Nullable;
 import javax.inject.Inject;
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Generates a subclass of the target class to mix-in some DSL behaviour.
@@ -66,37 +80,59 @@ import java.util.concurrent.locks.ReentrantLock;
  * </ul>
  */
 public abstract class AbstractClassGenerator implements ClassGenerator {
-    private static final Map<Class<?>, Map<Class<?>, Class<?>>> GENERATED_CLASSES = new HashMap<Class<?>, Map<Class<?>, Class<?>>>();
-    private static final Lock CACHE_LOCK = new ReentrantLock();
+    // Use weak references for both key and value of each mapping. The generated class has a strong reference to the source class (by extending it), so
+    // a mapping with a strong reference to its value would keep the source class and its ClassLoader strongly reachable.
+    // Each entry is loaded at most once, and different types can be generated concurrently.
+    private static final LoadingCache<Class<?>, Cache<Class<?>, Class<?>>> GENERATED_CLASSES = CacheBuilder.newBuilder().build(new CacheLoader<Class<?>, Cache<Class<?>, Class<?>>>() {
+        @Override
+        public Cache<Class<?>, Class<?>> load(Class<?> generatorType) {
+            return CacheBuilder.newBuilder().weakKeys().weakValues().build();
+        }
+    });
+    private static final Cache<Class<?>, Optional<HashCode>> CLASS_FILE_HASHES = CacheBuilder.newBuilder().weakKeys().build();
     private static final Collection<String> SKIP_PROPERTIES = Arrays.asList("class", "metaClass", "conventionMapping", "convention", "asDynamicObject", "extensions");
 
-    public <T> T newInstance(Class<T> type, Object... parameters) {
-        return DirectInstantiator.instantiate(generate(type), parameters);
+    private final GeneratedClassStore generatedClassStore;
+    private volatile Optional<HashCode> implementationHash;
+
+    protected AbstractClassGenerator() {
+        this(GeneratedClassStore.NONE);
     }
 
-    public <T> Class<? extends T> generate(Class<T> type) {
-        try {
-            CACHE_LOCK.lock();
-            return generateUnderLock(type);
-        } finally {
-            CACHE_LOCK.unlock();
-        }
+    protected AbstractClassGenerator(GeneratedClassStore generatedClassStore) {
+        this.generatedClassStore = generatedClassStore;
     }
 
-    private <T> Class<? extends T> generateUnderLock(Class<T> type) {
-        Map<Class<?>, Class<?>> cache = GENERATED_CLASSES.get(getClass());
-        if (cache == null) {
-            // WeakHashMap won't work here. It keeps a strong reference to the mapping value, which is the generated class in this case
-            // However, the generated class has a strong reference to the source class (by extending it), so the keys will always be
-            // strongly reachable while this Class is strongly reachable. Use weak references for both key and value of the mapping instead.
-            cache = new ReferenceMap(AbstractReferenceMap.WEAK, AbstractReferenceMap.WEAK);
-            GENERATED_CLASSES.put(getClass(), cache);
-        }
-        Class<?> generatedClass = cache.get(type);
+    public <T> T newInstance(Class<T> type, Object... parameters) {
+        return DirectInstantiator.instantiate(generate(type), parameters);
+    }
+
+    public <T> Class<? extends T> generate(final Class<T> type) {
+        Cache<Class<?>, Class<?>> cache = GENERATED_CLASSES.getUnchecked(getClass());
+        Class<?> generatedClass = cache.getIfPresent(type);
         if (generatedClass != null) {
             return generatedClass.asSubclass(type);
         }
 
+        try {
+            generatedClass = cache.get(type, new Callable<Class<?>>() {
+                @Override
+                public Class<?> call() {
+                    return loadOrGenerate(type);
+                }
+            });
+        } catch (ExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        } catch (UncheckedExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        } catch (ExecutionError e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        }
+        cache.put(generatedClass, generatedClass);
+        return generatedClass.asSubclass(type);
+    }
+
+    private <T> Class<? extends T> loadOrGenerate(Class<T> type) {
         if (Modifier.isPrivate(type.getModifiers())) {
             throw new GradleException(String.format("Cannot create a proxy class for private class '%s'.",
                     type.getSimpleName()));
@@ -106,7 +142,38 @@ public abstract class AbstractClassGenerator implements ClassGenerator {
                     type.getSimpleName()));
         }
 
-        Class<? extends T> subclass;
+        HashCode key = generatedClassStore == GeneratedClassStore.NONE ? null : generatedClassKey(type);
+        if (key != null) {
+            byte[] bytecode = generatedClassStore.load(key);
+            if (bytecode != null) {
+                try {
+                    return defineClass(type, bytecode);
+                } catch (LinkageError e) {
+                    // The class may have been partially defined in the ClassLoader of the type, so it cannot be generated again in the same ClassLoader
+                    generatedClassStore.remove(key);
+                    throw new GradleException(String.format("Could not load the generated proxy class for class %s from the generated class cache.", type.getName()), e);
+                } catch (Exception e) {
+                    // Treat as a cache miss, and replace the entry
+                    generatedClassStore.remove(key);
+                }
+            }
+        }
+
+        byte[] bytecode = generateBytecode(type);
+        Class<? extends T> subclass = defineClass(type, bytecode);
+        if (key != null) {
+            generatedClassStore.store(key, bytecode);
+        }
+        return subclass;
+    }
+
+    private static <T> Class<? extends T> defineClass(Class<T> type, byte[] bytecode) {
+        String className = new ClassReader(bytecode).getClassName().replace('/', '.');
+        Class<?> generatedClass = ClassLoaderUtils.define(type.getClassLoader(), className, bytecode);
+        return generatedClass.asSubclass(type);
+    }
+
+    private <T> byte[] generateBytecode(Class<T> type) {
         try {
             ClassMetaData classMetaData = inspectType(type);
 
@@ -146,7 +213,7 @@ public abstract class AbstractClassGenerator implements ClassGenerator {
                     continue;
                 }
 
-                if (!property.getters.isEmpty() && (Property.class.isAssignableFrom(property.getType()) || HasMultipleValues.class.isAssignableFrom(property.getType()))) {
+                if (!property.getters.isEmpty() && isProviderType(property.getType())) {
                     builder.addPropertySetters(property, property.getters.get(0));
                     continue;
                 }
@@ -219,14 +286,115 @@ public abstract class AbstractClassGenerator implements ClassGenerator {
                 }
             }
 
-            subclass = builder.generate();
+            return builder.generate();
         } catch (Throwable e) {
             throw new GradleException(String.format("Could not generate a proxy class for class %s.", type.getName()), e);
         }
+    }
 
-        cache.put(type, subclass);
-        cache.put(subclass, subclass);
-        return subclass;
+    /**
+     * Calculates a key for the class generated for the given type, from the class files of the type and its supertypes and of the generator implementation.
+     * Returns null when some class file is not available, for example for a class defined at runtime.
+     */
+    @Nullable
+    private HashCode generatedClassKey(Class<?> type) {
+        Optional<HashCode> generatorHash = implementationHash;
+        if (generatorHash == null) {
+            Set<Class<?>> implementationClasses = new LinkedHashSet<Class<?>>();
+            for (Class<?> c = getClass(); c != Object.class; c = c.getSuperclass()) {
+                implementationClasses.add(c);
+                implementationClasses.addAll(Arrays.asList(c.getDeclaredClasses()));
+            }
+            for (Class<?> c : getImplementationDependencies()) {
+                implementationClasses.add(c);
+                implementationClasses.addAll(Arrays.asList(c.getDeclaredClasses()));
+            }
+            generatorHash = hashClassFiles(implementationClasses);
+            implementationHash = generatorHash;
+        }
+        if (!generatorHash.isPresent()) {
+            return null;
+        }
+
+        Set<Class<?>> hierarchy = new LinkedHashSet<Class<?>>();
+        collectHierarchy(type, hierarchy);
+        Optional<HashCode> hierarchyHash = hashClassFiles(hierarchy);
+        if (!hierarchyHash.isPresent()) {
+            return null;
+        }
+
+        Hasher hasher = Hashing.md5().newHasher();
+        hasher.putHash(generatorHash.get());
+        hasher.putHash(hierarchyHash.get());
+        // The generated class also depends on whether the type of each property is a provider type, which is not captured by the class files of the type
+        for (Class<?> c : hierarchy) {
+            for (Method method : c.getDeclaredMethods()) {
+                if (!Modifier.isPrivate(method.getModifiers()) && method.getParameterTypes().length == 0) {
+                    hasher.putBoolean(isProviderType(method.getReturnType()));
+                }
+            }
+        }
+        return hasher.hash();
+    }
+
+    private static void collectHierarchy(Class<?> type, Set<Class<?>> hierarchy) {
+        if (type == null || !hierarchy.add(type)) {
+            return;
+        }
+        collectHierarchy(type.getSuperclass(), hierarchy);
+        for (Class<?> superInterface : type.getInterfaces()) {
+            collectHierarchy(superInterface, hierarchy);
+        }
+    }
+
+    private static Optional<HashCode> hashClassFiles(Iterable<Class<?>> classes) {
+        Hasher hasher = Hashing.md5().newHasher();
+        hasher.putString(System.getProperty("java.version"));
+        for (Class<?> c : classes) {
+            hasher.putString(c.getName());
+            if (c.getClassLoader() == null) {
+                // A JVM class, covered by the Java version
+                continue;
+            }
+            Optional<HashCode> classFileHash = CLASS_FILE_HASHES.getIfPresent(c);
+            if (classFileHash == null) {
+                classFileHash = hashClassFile(c);
+                CLASS_FILE_HASHES.put(c, classFileHash);
+            }
+            if (!classFileHash.isPresent()) {
+                return Optional.absent();
+            }
+            hasher.putHash(classFileHash.get());
+        }
+        return Optional.of(hasher.hash());
+    }
+
+    private static Optional<HashCode> hashClassFile(Class<?> c) {
+        InputStream inputStream = c.getClassLoader().getResourceAsStream(c.getName().replace('.', '/') + ".class");
+        if (inputStream == null) {
+            return Optional.absent();
+        }
+        try {
+            try {
+                return Optional.of(Hashing.md5().hashBytes(ByteStreams.toByteArray(inputStream)));
+            } finally {
+                inputStream.close();
+            }
+        } catch (IOException e) {
+            return Optional.absent();
+        }
+    }
+
+    private static boolean isProviderType(Class<?> type) {
+        return Property.class.isAssignableFrom(type) || HasMultipleValues.class.isAssignableFrom(type);
+    }
+
+    /**
+     * Returns the classes, other than this generator and its nested classes, that the generated bytecode depends on. These include the helpers used to generate
+     * the bytecode and the types that the generated classes call into. Their class files are part of the key of the classes kept in the {@link GeneratedClassStore}.
+     */
+    protected Collection<Class<?>> getImplementationDependencies() {
+        return Collections.emptyList();
     }
 
     protected abstract <T> ClassBuilder<T> start(Class<T> type, ClassMetaData classMetaData);
@@ -472,6 +640,9 @@ public abstract class AbstractClassGenerator implements ClassGenerator {
 
         void generateServiceRegistrySupportMethods() throws Exception;
 
-        Class<? extends T> generate() throws Exception;
+        /**
+         * Completes the class and returns its bytecode. The class is defined by the caller.
+         */
+        byte[] generate() throws Exception;
     }
 }
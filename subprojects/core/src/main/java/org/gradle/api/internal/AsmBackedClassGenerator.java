@@ -15,6 +15,7 @@
  */
 package org.gradle.api.internal;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 import groovy.lang.Closure;
@@ -22,6 +23,7 @@ import groovy.lang.GroovyObject;
 import groovy.lang.GroovySystem;
 import groovy.lang.MetaClass;
 import groovy.lang.MetaClassRegistry;
+import java.util.Collection;
 import org.apache.commons.lang.StringUtils;
 import org.gradle.api.Action;
 import org.gradle.api.Transformer;
@@ -36,6 +38,7 @@ import org.gradle.internal.metaobject.PropertyAccess;
 import org.gradle.internal.reflect.JavaReflectionUtil;
 import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.model.internal.asm.AsmClassGenerator;
+import org.gradle.model.internal.asm.AsmClassGeneratorUtils;
 import org.gradle.util.CollectionUtils;
 import org.gradle.util.ConfigureUtil;
 import org.objectweb.asm.AnnotationVisitor;
@@ -63,6 +66,27 @@ import static org.objectweb.asm.Opcodes.*;
 import static org.objectweb.asm.Type.VOID_TYPE;
 
 public class AsmBackedClassGenerator extends AbstractClassGenerator {
+    public AsmBackedClassGenerator() {
+    }
+
+    public AsmBackedClassGenerator(GeneratedClassStore generatedClassStore) {
+        super(generatedClassStore);
+    }
+
+    @Override
+    protected Collection<Class<?>> getImplementationDependencies() {
+        return ImmutableList.<Class<?>>of(
+            AsmClassGenerator.class,
+            AsmClassGeneratorUtils.class,
+            ClassWriter.class,
+            AbstractDynamicObject.class,
+            BeanDynamicObject.class,
+            ConventionAwareHelper.class,
+            MixInExtensibleDynamicObject.class,
+            ConfigureUtil.class
+        );
+    }
+
     @Override
     protected <T> ClassBuilder<T> start(Class<T> type, ClassMetaData classMetaData) {
         return new ClassBuilderImpl<T>(type, classMetaData);
@@ -130,7 +154,6 @@ public class AsmBackedClassGenerator extends AbstractClassGenerator {
         private final Type generatedType;
         private final Type superclassType;
         private final Map<java.lang.reflect.Type, ReturnTypeEntry> genericReturnTypeConstantsIndex = Maps.newHashMap();
-        private final AsmClassGenerator classGenerator;
         private boolean hasMappingField;
         private final boolean conventionAware;
         private final boolean extensible;
@@ -139,7 +162,7 @@ public class AsmBackedClassGenerator extends AbstractClassGenerator {
         private ClassBuilderImpl(Class<T> type, ClassMetaData classMetaData) {
             this.type = type;
 
-            classGenerator = new AsmClassGenerator(type, "_Decorated");
+            AsmClassGenerator classGenerator = new AsmClassGenerator(type, "_Decorated");
             visitor = classGenerator.getVisitor();
             generatedType = classGenerator.getGeneratedType();
             superclassType = Type.getType(type);
@@ -960,11 +983,11 @@ public class AsmBackedClassGenerator extends AbstractClassGenerator {
             }
         }
 
-        public Class<? extends T> generate() {
+        public byte[] generate() {
             writeGenericReturnTypeFields();
             visitor.visitEnd();
 
-            return classGenerator.define().asSubclass(type);
+            return visitor.toByteArray();
         }
 
         private void writeGenericReturnTypeFields() {
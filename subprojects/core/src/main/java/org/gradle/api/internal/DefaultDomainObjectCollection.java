@@ -24,15 +24,18 @@ import org.gradle.api.internal.collections.BroadcastingCollectionEventRegister;
 import org.gradle.api.internal.collections.CollectionEventRegister;
 import org.gradle.api.internal.collections.CollectionFilter;
 import org.gradle.api.internal.collections.FilteredCollection;
+import org.gradle.api.internal.collections.TypeIndexedSet;
 import org.gradle.api.specs.Spec;
 import org.gradle.api.specs.Specs;
 import org.gradle.internal.ImmutableActionSet;
 import org.gradle.util.ConfigureUtil;
 
+import javax.annotation.Nullable;
 import java.util.AbstractCollection;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.Set;
 
 public class DefaultDomainObjectCollection<T> extends AbstractCollection<T> implements DomainObjectCollection<T>, WithEstimatedSize {
 
@@ -86,7 +89,20 @@ public class DefaultDomainObjectCollection<T> extends AbstractCollection<T> impl
     }
 
     protected <S extends T> Collection<S> filteredStore(CollectionFilter<S> filter) {
-        return new FilteredCollection<T, S>(this, filter);
+        Set<T> indexed = indexedElementsOfType(filter.getType());
+        return new FilteredCollection<T, S>(indexed != null ? indexed : this, filter);
+    }
+
+    /**
+     * Returns a live view of the elements of the given type when the store is indexed by type, so that filtered collections scale with the number of
+     * matches rather than with the size of this collection. Returns null when the store is not indexed.
+     */
+    @Nullable
+    protected Set<T> indexedElementsOfType(Class<?> type) {
+        if (store instanceof TypeIndexedSet) {
+            return ((TypeIndexedSet<T>) store).elementsOfType(type);
+        }
+        return null;
     }
 
     protected <S extends T> CollectionEventRegister<S> filteredEvents(CollectionFilter<S> filter) {
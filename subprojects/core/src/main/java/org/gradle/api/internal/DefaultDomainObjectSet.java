@@ -20,6 +20,7 @@ import org.gradle.api.DomainObjectSet;
 import org.gradle.api.internal.collections.CollectionEventRegister;
 import org.gradle.api.internal.collections.CollectionFilter;
 import org.gradle.api.internal.collections.FilteredSet;
+import org.gradle.api.internal.collections.TypeIndexedSet;
 import org.gradle.api.specs.Spec;
 import org.gradle.api.specs.Specs;
 
@@ -31,7 +32,7 @@ import java.util.Set;
 public class DefaultDomainObjectSet<T> extends DefaultDomainObjectCollection<T> implements DomainObjectSet<T> {
 
     public DefaultDomainObjectSet(Class<? extends T> type) {
-        this(type, new LinkedHashSet<T>());
+        this(type, new TypeIndexedSet<T>(new LinkedHashSet<T>()));
     }
 
     public DefaultDomainObjectSet(Class<? extends T> type, Collection<T> store) {
@@ -53,7 +54,8 @@ public class DefaultDomainObjectSet<T> extends DefaultDomainObjectCollection<T>
 
     @Override
     protected <S extends T> Set<S> filteredStore(CollectionFilter<S> filter) {
-        return new FilteredSet<T, S>(this, filter);
+        Set<T> indexed = indexedElementsOfType(filter.getType());
+        return new FilteredSet<T, S>(indexed != null ? indexed : this, filter);
     }
 
     @Override
@@ -150,6 +150,13 @@ public class DefaultNamedDomainObjectCollection<T> extends DefaultDomainObjectCo
         return instantiator;
     }
 
+    /**
+     * Returns the index of the elements that have been added to this collection, which does not create any elements.
+     */
+    protected Index<T> getIndex() {
+        return index;
+    }
+
     protected <S extends T> Index<S> filteredIndex(CollectionFilter<S> filter) {
         return index.filter(filter);
     }
@@ -22,6 +22,7 @@ import org.gradle.api.Namer;
 import org.gradle.api.internal.collections.CollectionEventRegister;
 import org.gradle.api.internal.collections.CollectionFilter;
 import org.gradle.api.internal.collections.FilteredSet;
+import org.gradle.api.internal.collections.TypeIndexedSet;
 import org.gradle.api.specs.Spec;
 import org.gradle.api.specs.Specs;
 import org.gradle.internal.reflect.Instantiator;
@@ -33,7 +34,7 @@ import java.util.TreeSet;
 public class DefaultNamedDomainObjectSet<T> extends DefaultNamedDomainObjectCollection<T> implements NamedDomainObjectSet<T> {
 
     public DefaultNamedDomainObjectSet(Class<? extends T> type, Instantiator instantiator, Namer<? super T> namer) {
-        super(type, new TreeSet(new Namer.Comparator(namer)), instantiator, namer);
+        super(type, new TypeIndexedSet<T>(new TreeSet(new Namer.Comparator(namer))), instantiator, namer);
     }
 
     public DefaultNamedDomainObjectSet(Class<? extends T> type, Instantiator instantiator) {
@@ -58,7 +59,8 @@ public class DefaultNamedDomainObjectSet<T> extends DefaultNamedDomainObjectColl
     }
 
     protected <S extends T> Set<S> filteredStore(CollectionFilter<S> filter) {
-        return new FilteredSet<T, S>(this, filter);
+        Set<T> indexed = indexedElementsOfType(filter.getType());
+        return new FilteredSet<T, S>(indexed != null ? indexed : this, filter);
     }
 
     @Override
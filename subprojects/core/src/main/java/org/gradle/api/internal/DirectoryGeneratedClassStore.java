@@ -0,0 +1,108 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal;
+
+import com.google.common.io.Files;
+import org.gradle.cache.PersistentCache;
+import org.gradle.internal.hash.HashCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * A {@link GeneratedClassStore} that keeps each class in a file named after its key, in the base directory of the given cache.
+ *
+ * <p>As entries are content addressed and never change once written, no locking is required. Each entry is written to a temporary file that is then moved into
+ * place, so that a reader in this or another process never sees a partially written entry. Loading an entry marks it as recently used, so that the cleanup of the
+ * cache only removes the entries that have not been used for {@value #REMOVE_UNUSED_ENTRIES_AFTER_DAYS} days. An entry removed while it is being read is treated as missing.</p>
+ */
+public class DirectoryGeneratedClassStore implements GeneratedClassStore, Closeable {
+    public static final int REMOVE_UNUSED_ENTRIES_AFTER_DAYS = 7;
+    private static final Logger LOGGER = LoggerFactory.getLogger(DirectoryGeneratedClassStore.class);
+
+    private final PersistentCache cache;
+    private final File baseDir;
+
+    public DirectoryGeneratedClassStore(PersistentCache cache) {
+        this.cache = cache;
+        this.baseDir = cache.getBaseDir();
+    }
+
+    @Nullable
+    @Override
+    public byte[] load(HashCode key) {
+        File file = fileFor(key);
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            byte[] bytecode = Files.toByteArray(file);
+            // Mark as recently used
+            file.setLastModified(System.currentTimeMillis());
+            return bytecode;
+        } catch (IOException e) {
+            LOGGER.debug("Could not read generated class from {}.", file, e);
+            return null;
+        }
+    }
+
+    @Override
+    public void store(HashCode key, byte[] bytecode) {
+        File file = fileFor(key);
+        if (file.isFile()) {
+            return;
+        }
+        File tempFile = null;
+        try {
+            if (!baseDir.isDirectory() && !baseDir.mkdirs() && !baseDir.isDirectory()) {
+                throw new IOException("Could not create directory " + baseDir);
+            }
+            tempFile = File.createTempFile(key.toString(), ".tmp", baseDir);
+            Files.write(bytecode, tempFile);
+            if (!tempFile.renameTo(file) && !file.isFile()) {
+                throw new IOException("Could not move " + tempFile + " to " + file);
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Could not write generated class to {}.", file, e);
+        } finally {
+            if (tempFile != null && tempFile.isFile()) {
+                tempFile.delete();
+            }
+        }
+    }
+
+    @Override
+    public void remove(HashCode key) {
+        File file = fileFor(key);
+        if (file.isFile() && !file.delete() && file.isFile()) {
+            LOGGER.debug("Could not remove generated class {}.", file);
+        }
+    }
+
+    @Override
+    public void close() {
+        cache.close();
+    }
+
+    private File fileFor(HashCode key) {
+        return new File(baseDir, key + ".class");
+    }
+}
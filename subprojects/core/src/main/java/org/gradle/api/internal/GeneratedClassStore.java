@@ -0,0 +1,57 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal;
+
+import org.gradle.internal.hash.HashCode;
+
+import javax.annotation.Nullable;
+
+/**
+ * A persistent store for the bytecode of classes generated by an {@link AbstractClassGenerator}, keyed by a hash of the inputs to the generator.
+ *
+ * <p>Implementations are used concurrently and must be thread-safe. A store is a cache only, so failures should be treated as a miss rather than reported.</p>
+ */
+public interface GeneratedClassStore {
+    GeneratedClassStore NONE = new GeneratedClassStore() {
+        @Nullable
+        @Override
+        public byte[] load(HashCode key) {
+            return null;
+        }
+
+        @Override
+        public void store(HashCode key, byte[] bytecode) {
+        }
+
+        @Override
+        public void remove(HashCode key) {
+        }
+    };
+
+    /**
+     * Returns the bytecode stored for the given key, or null when there is none.
+     */
+    @Nullable
+    byte[] load(HashCode key);
+
+    void store(HashCode key, byte[] bytecode);
+
+    /**
+     * Removes the bytecode stored for the given key, for example when it cannot be loaded.
+     */
+    void remove(HashCode key);
+}
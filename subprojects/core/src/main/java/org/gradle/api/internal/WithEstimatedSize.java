@@ -15,6 +15,8 @@
  */
 package org.gradle.api.internal;
 
+import org.gradle.api.internal.collections.TypeIndexedSet;
+
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
@@ -51,7 +53,7 @@ public interface WithEstimatedSize {
 
         public static <T> boolean isKnownToHaveConstantTimeSizeMethod(Collection<T> collection) {
             Class<? extends Collection> clazz = collection.getClass();
-            if (clazz == HashSet.class || clazz == ArrayList.class || clazz == LinkedList.class || clazz == TreeSet.class) {
+            if (clazz == HashSet.class || clazz == ArrayList.class || clazz == LinkedList.class || clazz == TreeSet.class || clazz == TypeIndexedSet.class) {
                 return true;
             }
             return false;
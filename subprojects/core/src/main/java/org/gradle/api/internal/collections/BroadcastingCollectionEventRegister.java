@@ -17,11 +17,10 @@ package org.gradle.api.internal.collections;
 
 import org.gradle.api.Action;
 import org.gradle.internal.Cast;
-import org.gradle.internal.MutableActionSet;
 
 public class BroadcastingCollectionEventRegister<T> implements CollectionEventRegister<T> {
-    private final MutableActionSet<T> addActions = new MutableActionSet<T>();
-    private final MutableActionSet<T> removeActions = new MutableActionSet<T>();
+    private final TypeIndexedActionSet<T> addActions = new TypeIndexedActionSet<T>();
+    private final TypeIndexedActionSet<T> removeActions = new TypeIndexedActionSet<T>();
 
     public Action<T> getAddAction() {
         return addActions;
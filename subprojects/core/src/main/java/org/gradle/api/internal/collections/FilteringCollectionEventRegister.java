@@ -18,7 +18,6 @@ package org.gradle.api.internal.collections;
 
 import org.gradle.api.Action;
 import org.gradle.api.specs.Specs;
-import org.gradle.internal.Actions;
 
 class FilteringCollectionEventRegister<T> implements CollectionEventRegister<T> {
     private final CollectionFilter<? super T> filter;
@@ -40,11 +39,11 @@ class FilteringCollectionEventRegister<T> implements CollectionEventRegister<T>
     }
 
     public Action<? super T> registerAddAction(Action<? super T> addAction) {
-        return delegate.registerAddAction(Actions.<T>filter(addAction, filter));
+        return delegate.registerAddAction(TypeIndexedActionSet.<T>filtered(addAction, filter));
     }
 
     public Action<? super T> registerRemoveAction(Action<? super T> removeAction) {
-        return delegate.registerRemoveAction(Actions.<T>filter(removeAction, filter));
+        return delegate.registerRemoveAction(TypeIndexedActionSet.<T>filtered(removeAction, filter));
     }
 
     public <S extends T> CollectionEventRegister<S> filtered(CollectionFilter<S> filter) {
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.collections;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.gradle.api.Action;
+import org.gradle.internal.ImmutableActionSet;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A mutable composite {@link Action} that is executed for the elements of a collection. Actions are executed in the order added, stopping on the first failure.
+ *
+ * <p>Actions that only apply to elements of a certain type, such as those registered through {@code withType()}, are indexed by that type. When executed for an
+ * element, only the actions whose type matches the class of the element are considered, rather than all registered actions. The set of matching actions is
+ * calculated once per element class and recalculated only when actions are added.</p>
+ *
+ * This type is not thread-safe.
+ */
+class TypeIndexedActionSet<T> implements Action<T> {
+    private final List<Action<? super T>> actions = Lists.newArrayList();
+    private final Map<Class<?>, ImmutableActionSet<T>> actionsByElementType = Maps.newHashMap();
+
+    /**
+     * Creates an action that forwards the elements accepted by the given filter to the given action.
+     */
+    static <T> Action<T> filtered(Action<? super T> action, CollectionFilter<? super T> filter) {
+        return new TypeFilteredAction<T>(action, filter);
+    }
+
+    public void add(Action<? super T> action) {
+        actions.add(action);
+        actionsByElementType.clear();
+    }
+
+    public void execute(T element) {
+        if (actions.isEmpty()) {
+            return;
+        }
+        if (element == null) {
+            actionsFor(null).execute(null);
+            return;
+        }
+        Class<?> elementType = element.getClass();
+        ImmutableActionSet<T> matching = actionsByElementType.get(elementType);
+        if (matching == null) {
+            matching = actionsFor(elementType);
+            actionsByElementType.put(elementType, matching);
+        }
+        matching.execute(element);
+    }
+
+    private ImmutableActionSet<T> actionsFor(Class<?> elementType) {
+        List<Action<? super T>> matching = Lists.newArrayListWithCapacity(actions.size());
+        for (Action<? super T> action : actions) {
+            if (!(action instanceof TypeFilteredAction) || (elementType != null && ((TypeFilteredAction<?>) action).filter.getType().isAssignableFrom(elementType))) {
+                matching.add(action);
+            }
+        }
+        @SuppressWarnings("unchecked")
+        Action<? super T>[] matchingActions = matching.toArray(new Action[0]);
+        return ImmutableActionSet.of(matchingActions);
+    }
+
+    public boolean isEmpty() {
+        return actions.isEmpty();
+    }
+
+    private static class TypeFilteredAction<T> implements Action<T> {
+        private final Action<? super T> action;
+        private final CollectionFilter<? super T> filter;
+
+        TypeFilteredAction(Action<? super T> action, CollectionFilter<? super T> filter) {
+            this.action = action;
+            this.filter = filter;
+        }
+
+        @Override
+        public void execute(T t) {
+            if (filter.isSatisfiedBy(t)) {
+                action.execute(t);
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.collections;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * A set that indexes its elements by type, used as the backing store of domain object collections. The elements of a given type can be queried
+ * in time proportional to the number of matching elements, rather than to the size of the set, so that filtered views created by {@code withType()}
+ * scale with the number of matches.
+ *
+ * <p>The index for a type is built on the first query for that type and then kept up to date as elements are added and removed. The index preserves the
+ * iteration order of the backing set, which must be either sorted or in insertion order. The backing set must only be changed through this set.</p>
+ *
+ * This type is not thread-safe.
+ */
+public class TypeIndexedSet<T> extends AbstractSet<T> {
+    private final Set<T> elements;
+    private final Map<Class<?>, Set<T>> elementsByType = Maps.newHashMap();
+    private final Map<Class<?>, List<Set<T>>> indexesByElementType = Maps.newHashMap();
+
+    public TypeIndexedSet(Set<T> elements) {
+        this.elements = elements;
+    }
+
+    /**
+     * Returns a live, unmodifiable view of the elements that are instances of the given type, in the iteration order of this set.
+     */
+    public Set<T> elementsOfType(Class<?> type) {
+        Set<T> matching = elementsByType.get(type);
+        if (matching == null) {
+            matching = createIndex();
+            for (T element : elements) {
+                if (type.isInstance(element)) {
+                    matching.add(element);
+                }
+            }
+            elementsByType.put(type, matching);
+            indexesByElementType.clear();
+        }
+        return Collections.unmodifiableSet(matching);
+    }
+
+    private Set<T> createIndex() {
+        if (elements instanceof SortedSet) {
+            @SuppressWarnings("unchecked")
+            SortedSet<T> sortedElements = (SortedSet<T>) elements;
+            return new TreeSet<T>(sortedElements.comparator());
+        }
+        return new LinkedHashSet<T>();
+    }
+
+    @Override
+    public boolean add(T element) {
+        if (!elements.add(element)) {
+            return false;
+        }
+        if (element != null) {
+            for (Set<T> index : indexesFor(element.getClass())) {
+                index.add(element);
+            }
+        }
+        return true;
+    }
+
+    private List<Set<T>> indexesFor(Class<?> elementType) {
+        List<Set<T>> indexes = indexesByElementType.get(elementType);
+        if (indexes == null) {
+            indexes = Lists.newArrayList();
+            for (Map.Entry<Class<?>, Set<T>> entry : elementsByType.entrySet()) {
+                if (entry.getKey().isAssignableFrom(elementType)) {
+                    indexes.add(entry.getValue());
+                }
+            }
+            indexesByElementType.put(elementType, indexes);
+        }
+        return indexes;
+    }
+
+    @Override
+    public boolean remove(Object element) {
+        if (!elements.remove(element)) {
+            return false;
+        }
+        removeFromIndexes(element);
+        return true;
+    }
+
+    private void removeFromIndexes(Object element) {
+        for (Set<T> index : elementsByType.values()) {
+            index.remove(element);
+        }
+    }
+
+    @Override
+    public void clear() {
+        elements.clear();
+        for (Set<T> index : elementsByType.values()) {
+            index.clear();
+        }
+    }
+
+    @Override
+    public boolean contains(Object element) {
+        return elements.contains(element);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return elements.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return elements.size();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        final Iterator<T> iterator = elements.iterator();
+        return new Iterator<T>() {
+            private T current;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public T next() {
+                current = iterator.next();
+                return current;
+            }
+
+            @Override
+            public void remove() {
+                iterator.remove();
+                removeFromIndexes(current);
+            }
+        };
+    }
+}
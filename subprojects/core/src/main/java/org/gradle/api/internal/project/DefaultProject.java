@@ -78,13 +78,16 @@ import org.gradle.configuration.ScriptPluginFactory;
 import org.gradle.configuration.project.ProjectConfigurationActionContainer;
 import org.gradle.configuration.project.ProjectEvaluator;
 import org.gradle.groovy.scripts.ScriptSource;
+import org.gradle.initialization.ProjectAccessListener;
 import org.gradle.internal.Actions;
 import org.gradle.internal.Factories;
 import org.gradle.internal.Factory;
 import org.gradle.internal.event.ListenerBroadcast;
 import org.gradle.internal.logging.LoggingManagerInternal;
 import org.gradle.internal.logging.StandardOutputCapture;
+import org.gradle.internal.metaobject.AbstractDynamicObject;
 import org.gradle.internal.metaobject.BeanDynamicObject;
+import org.gradle.internal.metaobject.DynamicInvokeResult;
 import org.gradle.internal.metaobject.DynamicObject;
 import org.gradle.internal.reflect.Instantiator;
 import org.gradle.internal.resource.TextResourceLoader;
@@ -143,7 +146,9 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     private final ClassLoaderScope classLoaderScope;
     private final ClassLoaderScope baseClassLoaderScope;
-    private ServiceRegistry services;
+    private final ServiceRegistryFactory serviceRegistryFactory;
+    // Created on first use, so that projects that are never configured or executed do not pay for their services and model registry
+    private volatile ServiceRegistry services;
 
     private final ProjectInternal rootProject;
 
@@ -181,7 +186,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     private final int depth;
 
-    private TaskContainerInternal taskContainer;
+    private volatile TaskContainerInternal taskContainer;
 
     private DependencyHandler dependencyHandler;
 
@@ -226,18 +231,31 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
             depth = parent.getDepth() + 1;
         }
 
-        services = serviceRegistryFactory.createFor(this);
-        taskContainer = services.newInstance(TaskContainerInternal.class);
+        this.serviceRegistryFactory = serviceRegistryFactory;
 
-        extensibleDynamicObject = new ExtensibleDynamicObject(this, Project.class, services.get(Instantiator.class));
+        extensibleDynamicObject = new ExtensibleDynamicObject(this, Project.class, gradle.getServices().get(Instantiator.class));
         if (parent != null) {
             extensibleDynamicObject.setParent(parent.getInheritedScope());
         }
-        extensibleDynamicObject.addObject(taskContainer.getTasksAsDynamicObject(), ExtensibleDynamicObject.Location.AfterConvention);
+        extensibleDynamicObject.addObject(new TasksDynamicObject(), ExtensibleDynamicObject.Location.AfterConvention);
 
         evaluationListener.add(gradle.getProjectEvaluationBroadcaster());
+    }
+
+    private synchronized ServiceRegistry createServices() {
+        if (services == null) {
+            ServiceRegistry services = serviceRegistryFactory.createFor(this);
+            populateModelRegistry(services, services.get(ModelRegistry.class));
+            this.services = services;
+        }
+        return services;
+    }
 
-        populateModelRegistry(services.get(ModelRegistry.class));
+    private synchronized TaskContainerInternal createTaskContainer() {
+        if (taskContainer == null) {
+            taskContainer = getServices().newInstance(TaskContainerInternal.class);
+        }
+        return taskContainer;
     }
 
     @SuppressWarnings("unused")
@@ -288,7 +306,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
         }
     }
 
-    private void populateModelRegistry(ModelRegistry modelRegistry) {
+    private void populateModelRegistry(ServiceRegistry services, ModelRegistry modelRegistry) {
         registerServiceOn(modelRegistry, "serviceRegistry", SERVICE_REGISTRY_MODEL_TYPE, services, instanceDescriptorFor("serviceRegistry"));
         // TODO:LPTR This ignores changes to Project.buildDir after model node has been created
         registerFactoryOn(modelRegistry, "buildDir", FILE_MODEL_TYPE, new Factory<File>() {
@@ -337,7 +355,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     public ProjectEvaluator getProjectEvaluator() {
         if (projectEvaluator == null) {
-            projectEvaluator = services.get(ProjectEvaluator.class);
+            projectEvaluator = getServices().get(ProjectEvaluator.class);
         }
         return projectEvaluator;
     }
@@ -468,7 +486,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
     @Override
     public FileResolver getFileResolver() {
         if (fileResolver == null) {
-            fileResolver = services.get(FileResolver.class);
+            fileResolver = getServices().get(FileResolver.class);
         }
         return fileResolver;
     }
@@ -484,7 +502,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
     @Override
     public ArtifactHandler getArtifacts() {
         if (artifactHandler == null) {
-            artifactHandler = services.get(ArtifactHandler.class);
+            artifactHandler = getServices().get(ArtifactHandler.class);
         }
         return artifactHandler;
     }
@@ -503,7 +521,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
     @Override
     public ConfigurationContainer getConfigurations() {
         if (configurationContainer == null) {
-            configurationContainer = services.get(ConfigurationContainer.class);
+            configurationContainer = getServices().get(ConfigurationContainer.class);
         }
         return configurationContainer;
     }
@@ -610,17 +628,29 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
         if (isNullOrEmpty(path)) {
             throw new InvalidUserDataException("A path must be specified!");
         }
-        return getProjectRegistry().getProject(absoluteProjectPath(path));
+        ProjectInternal project = getProjectRegistry().getProject(absoluteProjectPath(path));
+        if (project != null) {
+            getProjectAccessListener().beforeAccessingProject(project);
+        }
+        return project;
     }
 
     @Override
     public Set<Project> getAllprojects() {
-        return new TreeSet<Project>(getProjectRegistry().getAllProjects(getPath()));
+        return accessProjects(getProjectRegistry().getAllProjects(getPath()));
     }
 
     @Override
     public Set<Project> getSubprojects() {
-        return new TreeSet<Project>(getProjectRegistry().getSubProjects(getPath()));
+        return accessProjects(getProjectRegistry().getSubProjects(getPath()));
+    }
+
+    private Set<Project> accessProjects(Set<ProjectInternal> projects) {
+        ProjectAccessListener projectAccessListener = getProjectAccessListener();
+        for (ProjectInternal project : projects) {
+            projectAccessListener.beforeAccessingProject(project);
+        }
+        return new TreeSet<Project>(projects);
     }
 
     @Override
@@ -680,6 +710,10 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public TaskContainerInternal getTasks() {
+        TaskContainerInternal taskContainer = this.taskContainer;
+        if (taskContainer == null) {
+            taskContainer = createTaskContainer();
+        }
         return taskContainer;
     }
 
@@ -740,6 +774,8 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
     }
 
     private Project evaluationDependsOn(DefaultProject projectToEvaluate) {
+        // When configuring in parallel, waits for another thread that is configuring the project
+        getProjectAccessListener().beforeAccessingProject(projectToEvaluate);
         if (projectToEvaluate.getState().getExecuting()) {
             throw new CircularReferenceException(String.format("Circular referencing during evaluation for %s.",
                 projectToEvaluate));
@@ -936,7 +972,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     public Factory<AntBuilder> getAntBuilderFactory() {
         if (antBuilderFactory == null) {
-            antBuilderFactory = services.getFactory(AntBuilder.class);
+            antBuilderFactory = getServices().getFactory(AntBuilder.class);
         }
         return antBuilderFactory;
     }
@@ -944,7 +980,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
     @Override
     public DependencyHandler getDependencies() {
         if (dependencyHandler == null) {
-            dependencyHandler = services.get(DependencyHandler.class);
+            dependencyHandler = getServices().get(DependencyHandler.class);
         }
         return dependencyHandler;
     }
@@ -1089,17 +1125,21 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public ServiceRegistry getServices() {
+        ServiceRegistry services = this.services;
+        if (services == null) {
+            services = createServices();
+        }
         return services;
     }
 
     @Override
     public ServiceRegistryFactory getServiceRegistryFactory() {
-        return services.get(ServiceRegistryFactory.class);
+        return getServices().get(ServiceRegistryFactory.class);
     }
 
     @Override
     public Module getModule() {
-        return services.get(DependencyMetaDataProvider.class).getModule();
+        return getServices().get(DependencyMetaDataProvider.class).getModule();
     }
 
     @Override
@@ -1179,16 +1219,16 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public Task task(String task) {
-        return taskContainer.create(task);
+        return getTasks().create(task);
     }
 
     public Task task(Object task) {
-        return taskContainer.create(task.toString());
+        return getTasks().create(task.toString());
     }
 
     @Override
     public Task task(String task, Closure configureClosure) {
-        return taskContainer.create(task).configure(configureClosure);
+        return getTasks().create(task).configure(configureClosure);
     }
 
     public Task task(Object task, Closure configureClosure) {
@@ -1197,7 +1237,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public Task task(Map options, String task) {
-        return taskContainer.create(addMaps(options, singletonMap(Task.TASK_NAME, task)));
+        return getTasks().create(addMaps(options, singletonMap(Task.TASK_NAME, task)));
     }
 
     public Task task(Map options, Object task) {
@@ -1206,7 +1246,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public Task task(Map options, String task, Closure configureClosure) {
-        return taskContainer.create(addMaps(options, singletonMap(Task.TASK_NAME, task))).configure(configureClosure);
+        return getTasks().create(addMaps(options, singletonMap(Task.TASK_NAME, task))).configure(configureClosure);
     }
 
     public Task task(Map options, Object task, Closure configureClosure) {
@@ -1250,6 +1290,12 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
         throw new UnsupportedOperationException();
     }
 
+    @Inject
+    protected ProjectAccessListener getProjectAccessListener() {
+        // Decoration takes care of the implementation
+        throw new UnsupportedOperationException();
+    }
+
     @Inject
     protected ScriptPluginFactory getScriptPluginFactory() {
         // Decoration takes care of the implementation
@@ -1344,4 +1390,47 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
         configuration.execute(getNormalization());
     }
 
+    /**
+     * Exposes the tasks of this project as properties and methods, without creating the task container until a property or method is looked up.
+     */
+    private class TasksDynamicObject extends AbstractDynamicObject {
+        private DynamicObject getTasksAsDynamicObject() {
+            return getTasks().getTasksAsDynamicObject();
+        }
+
+        @Override
+        public String getDisplayName() {
+            return getTasksAsDynamicObject().toString();
+        }
+
+        @Override
+        public boolean hasProperty(String name) {
+            return getTasksAsDynamicObject().hasProperty(name);
+        }
+
+        @Override
+        public DynamicInvokeResult tryGetProperty(String name) {
+            return getTasksAsDynamicObject().tryGetProperty(name);
+        }
+
+        @Override
+        public DynamicInvokeResult trySetProperty(String name, Object value) {
+            return getTasksAsDynamicObject().trySetProperty(name, value);
+        }
+
+        @Override
+        public Map<String, ?> getProperties() {
+            return getTasksAsDynamicObject().getProperties();
+        }
+
+        @Override
+        public boolean hasMethod(String name, Object... arguments) {
+            return getTasksAsDynamicObject().hasMethod(name, arguments);
+        }
+
+        @Override
+        public DynamicInvokeResult tryInvokeMethod(String name, Object... arguments) {
+            return getTasksAsDynamicObject().tryInvokeMethod(name, arguments);
+        }
+    }
 }
@@ -16,9 +16,24 @@
 
 package org.gradle.api.internal.project;
 
+import org.gradle.configuration.project.ProjectConfigurationLocks;
 import org.gradle.initialization.ProjectAccessListener;
 
+import javax.annotation.Nullable;
+
 public class DefaultProjectAccessListener implements ProjectAccessListener {
+    private final ProjectConfigurationLocks projectConfigurationLocks;
+
+    public DefaultProjectAccessListener() {
+        this(null);
+    }
+
+    /**
+     * @param projectConfigurationLocks The locks for projects that are configured in parallel, or null when projects are configured sequentially.
+     */
+    public DefaultProjectAccessListener(@Nullable ProjectConfigurationLocks projectConfigurationLocks) {
+        this.projectConfigurationLocks = projectConfigurationLocks;
+    }
 
     public void beforeRequestingTaskByPath(ProjectInternal targetProject) {
         evaluateProjectAndDiscoverTasks(targetProject);
@@ -28,7 +43,25 @@ public class DefaultProjectAccessListener implements ProjectAccessListener {
         evaluateProjectAndDiscoverTasks(targetProject);
     }
 
-    private synchronized void evaluateProjectAndDiscoverTasks(final ProjectInternal targetProject) {
+    public void beforeAccessingProject(ProjectInternal targetProject) {
+        if (projectConfigurationLocks != null) {
+            projectConfigurationLocks.beforeAccessingProject(targetProject);
+        }
+    }
+
+    private void evaluateProjectAndDiscoverTasks(ProjectInternal targetProject) {
+        if (projectConfigurationLocks != null && projectConfigurationLocks.isConfiguring()) {
+            // The target project stays locked by the current thread until the current configuration has completed. Waiting for it while holding the monitor could deadlock
+            projectConfigurationLocks.beforeAccessingProject(targetProject);
+            doEvaluateProjectAndDiscoverTasks(targetProject);
+            return;
+        }
+        synchronized (this) {
+            doEvaluateProjectAndDiscoverTasks(targetProject);
+        }
+    }
+
+    private static void doEvaluateProjectAndDiscoverTasks(ProjectInternal targetProject) {
         targetProject.evaluate();
         targetProject.getTasks().discoverTasks();
     }
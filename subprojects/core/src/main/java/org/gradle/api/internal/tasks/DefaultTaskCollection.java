@@ -15,6 +15,7 @@
  */
 package org.gradle.api.internal.tasks;
 
+import com.google.common.collect.Lists;
 import groovy.lang.Closure;
 import org.gradle.api.Action;
 import org.gradle.api.Task;
@@ -23,11 +24,22 @@ import org.gradle.api.UnknownTaskException;
 import org.gradle.api.internal.DefaultNamedDomainObjectSet;
 import org.gradle.api.internal.collections.CollectionFilter;
 import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.internal.provider.AbstractProvider;
 import org.gradle.api.specs.Spec;
 import org.gradle.api.specs.Specs;
 import org.gradle.api.tasks.TaskCollection;
+import org.gradle.api.tasks.TaskContainer;
+import org.gradle.api.tasks.TaskProvider;
+import org.gradle.internal.Cast;
 import org.gradle.internal.reflect.Instantiator;
 
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+
 public class DefaultTaskCollection<T extends Task> extends DefaultNamedDomainObjectSet<T> implements TaskCollection<T> {
     private static final Task.Namer NAMER = new Task.Namer();
 
@@ -62,6 +74,98 @@ public class DefaultTaskCollection<T extends Task> extends DefaultNamedDomainObj
         return matching(Specs.<T>convertClosureToSpec(spec));
     }
 
+    @Override
+    public T findByName(String name) {
+        T task = super.findByName(name);
+        if (task != null) {
+            return task;
+        }
+        // Tasks registered with the project's task container are only added to this collection once they are created
+        TaskContainer tasks = project.getTasks();
+        if (tasks == null || tasks == this || tasks.findByName(name) == null) {
+            return null;
+        }
+        return findByNameWithoutRules(name);
+    }
+
+    @Override
+    public TaskProvider<T> named(String name) {
+        return new TaskLookupProvider(name);
+    }
+
+    @Override
+    public void configureEach(Action<? super T> action) {
+        whenObjectAdded(action);
+        // Only configure the tasks that have been created so far
+        for (T task : Lists.newArrayList(getIndex().asMap().values())) {
+            action.execute(task);
+        }
+    }
+
+    /**
+     * Creates the registered tasks that may be elements of this collection, as they are required by an eager method of this collection.
+     */
+    protected void realizePendingTasks() {
+        TaskContainer tasks = project.getTasks();
+        if (tasks instanceof DefaultTaskContainer && tasks != this) {
+            ((DefaultTaskContainer) tasks).realizePendingTasks(getType());
+        }
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        realizePendingTasks();
+        return super.iterator();
+    }
+
+    @Override
+    public int size() {
+        realizePendingTasks();
+        return super.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        realizePendingTasks();
+        return super.isEmpty();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        realizePendingTasks();
+        return super.contains(o);
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        realizePendingTasks();
+        return super.containsAll(c);
+    }
+
+    @Override
+    public void all(Action<? super T> action) {
+        realizePendingTasks();
+        super.all(action);
+    }
+
+    @Override
+    public Set<T> findAll(Closure cl) {
+        realizePendingTasks();
+        return super.findAll(cl);
+    }
+
+    @Override
+    public SortedMap<String, T> getAsMap() {
+        realizePendingTasks();
+        return super.getAsMap();
+    }
+
+    @Override
+    public SortedSet<String> getNames() {
+        realizePendingTasks();
+        return super.getNames();
+    }
+
     public Action<? super T> whenTaskAdded(Action<? super T> action) {
         return whenObjectAdded(action);
     }
@@ -79,4 +183,49 @@ public class DefaultTaskCollection<T extends Task> extends DefaultNamedDomainObj
     protected UnknownDomainObjectException createNotFoundException(String name) {
         return new UnknownTaskException(String.format("Task with name '%s' not found in %s.", name, project));
     }
+
+    private class TaskLookupProvider extends AbstractProvider<T> implements TaskProvider<T>, TaskDependencyContainer {
+        private final String name;
+
+        TaskLookupProvider(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Nullable
+        @Override
+        public Class<T> getType() {
+            return Cast.uncheckedCast(DefaultTaskCollection.this.getType());
+        }
+
+        @Override
+        public T get() {
+            return getByName(name);
+        }
+
+        @Nullable
+        @Override
+        public T getOrNull() {
+            return findByName(name);
+        }
+
+        @Override
+        public void configure(Action<? super T> action) {
+            action.execute(get());
+        }
+
+        @Override
+        public void visitDependencies(TaskDependencyResolveContext context) {
+            context.add(get());
+        }
+
+        @Override
+        public String toString() {
+            return String.format("provider(task '%s', %s)", name, DefaultTaskCollection.this.getType());
+        }
+    }
 }
@@ -16,6 +16,8 @@
 package org.gradle.api.internal.tasks;
 
 import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import groovy.lang.Closure;
 import org.apache.commons.lang.StringUtils;
@@ -30,9 +32,13 @@ import org.gradle.api.internal.NamedDomainObjectContainerConfigureDelegate;
 import org.gradle.api.internal.TaskInternal;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.internal.project.taskfactory.ITaskFactory;
+import org.gradle.api.internal.provider.AbstractProvider;
 import org.gradle.api.tasks.TaskCollection;
+import org.gradle.api.tasks.TaskProvider;
 import org.gradle.api.tasks.TaskReference;
 import org.gradle.initialization.ProjectAccessListener;
+import org.gradle.internal.Cast;
+import org.gradle.internal.ImmutableActionSet;
 import org.gradle.internal.Transformers;
 import org.gradle.internal.metaobject.DynamicObject;
 import org.gradle.internal.reflect.Instantiator;
@@ -58,6 +64,7 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
     private final ITaskFactory taskFactory;
     private final ProjectAccessListener projectAccessListener;
     private final Set<String> placeholders = Sets.newHashSet();
+    private final Map<String, TaskCreatingProvider<?>> pendingTasks = Maps.newLinkedHashMap();
     private final NamedEntityInstantiator<Task> instantiator;
 
     public DefaultTaskContainer(MutableModelNode modelNode, ProjectInternal project, Instantiator instantiator, ITaskFactory taskFactory, ProjectAccessListener projectAccessListener) {
@@ -88,6 +95,15 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
             modelNode.removeLink(name);
         }
 
+        if (pendingTasks.containsKey(name)) {
+            if (replaceExisting) {
+                pendingTasks.remove(name);
+            } else {
+                throw new InvalidUserDataException(String.format(
+                    "Cannot add %s as a task with that name already exists.", task));
+            }
+        }
+
         Task existing = findByNameWithoutRules(name);
         if (existing != null) {
             if (replaceExisting) {
@@ -152,6 +168,66 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         return task;
     }
 
+    @Override
+    public <T extends Task> TaskProvider<T> register(String name, Class<T> type, Action<? super T> configurationAction) throws InvalidUserDataException {
+        TaskProvider<T> provider = register(name, type);
+        provider.configure(configurationAction);
+        return provider;
+    }
+
+    @Override
+    public <T extends Task> TaskProvider<T> register(String name, Class<T> type) throws InvalidUserDataException {
+        assertMutable();
+        if (findByNameWithoutRules(name) != null || pendingTasks.containsKey(name)) {
+            throw new InvalidUserDataException(String.format(
+                "Cannot register task '%s' as a task with that name already exists.", name));
+        }
+        TaskCreatingProvider<T> provider = new TaskCreatingProvider<T>(name, type);
+        pendingTasks.put(name, provider);
+        return provider;
+    }
+
+    @Override
+    public TaskProvider<Task> register(String name, Action<? super Task> configurationAction) throws InvalidUserDataException {
+        TaskProvider<Task> provider = register(name);
+        provider.configure(configurationAction);
+        return provider;
+    }
+
+    @Override
+    public TaskProvider<Task> register(String name) throws InvalidUserDataException {
+        return Cast.uncheckedCast(register(name, DefaultTask.class));
+    }
+
+    @Override
+    public TaskProvider<Task> named(String name) {
+        TaskCreatingProvider<?> pending = pendingTasks.get(name);
+        if (pending != null) {
+            return Cast.uncheckedCast(pending);
+        }
+        return super.named(name);
+    }
+
+    @Override
+    protected void realizePendingTasks() {
+        realizePendingTasks(Task.class);
+    }
+
+    /**
+     * Creates the tasks that have been registered but not yet created and that may be instances of the given type, as they are required by an eager method of this container or one of its filtered views.
+     */
+    void realizePendingTasks(Class<?> type) {
+        if (pendingTasks.isEmpty()) {
+            return;
+        }
+        for (TaskCreatingProvider<?> provider : Lists.newArrayList(pendingTasks.values())) {
+            // May have been created by a previous task's configuration
+            if (pendingTasks.get(provider.getName()) == provider && provider.mayBeInstanceOf(type)) {
+                provider.get();
+            }
+        }
+    }
+
     public <T extends Task> T replace(String name, Class<T> type) {
         T task = instantiator.create(name, type);
         return addTask(task, true);
@@ -215,11 +291,15 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         return getElementsAsDynamicObject();
     }
 
+    @Override
     public SortedSet<String> getNames() {
-        return Sets.newTreeSet(modelNode.getLinkNames());
+        SortedSet<String> names = Sets.newTreeSet(modelNode.getLinkNames());
+        names.addAll(pendingTasks.keySet());
+        return names;
     }
 
     public void realize() {
+        realizePendingTasks();
         project.getModelRegistry().realizeNode(modelNode.getPath());
     }
 
@@ -249,6 +329,10 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
     }
 
     public Task findByName(String name) {
+        TaskCreatingProvider<?> pending = pendingTasks.get(name);
+        if (pending != null) {
+            return pending.get();
+        }
         Task task = super.findByName(name);
         if (task != null) {
             return task;
@@ -332,4 +416,98 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
     public <S extends Task> TaskCollection<S> withType(Class<S> type) {
         return new RealizableTaskCollection<S>(type, super.withType(type), modelNode);
     }
+
+    /**
+     * A task that has been registered, and is created and configured the first time it is required.
+     */
+    private class TaskCreatingProvider<T extends Task> extends AbstractProvider<T> implements TaskProvider<T>, TaskDependencyContainer {
+        private final String name;
+        private final Class<T> type;
+        private ImmutableActionSet<T> onCreate = ImmutableActionSet.empty();
+        private T task;
+        private RuntimeException failure;
+
+        TaskCreatingProvider(String name, Class<T> type) {
+            this.name = name;
+            this.type = type;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Class<T> getType() {
+            return type;
+        }
+
+        /**
+         * Returns false when a task of the registered type can never be an instance of the given type. The decorated task type implements
+         * some additional interfaces, so any interface may match.
+         */
+        boolean mayBeInstanceOf(Class<?> type) {
+            return type.isAssignableFrom(this.type) || type.isInterface();
+        }
+
+        @Override
+        public T get() {
+            if (task != null) {
+                return task;
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            if (pendingTasks.get(name) != this) {
+                // Already being created, or replaced by another task
+                return type.cast(getByName(name));
+            }
+            pendingTasks.remove(name);
+            T createdTask;
+            try {
+                createdTask = create(name, type);
+            } catch (RuntimeException e) {
+                if (findByNameWithoutRules(name) == null) {
+                    // Keep the task registered, so that later lookups report this failure rather than an unknown task
+                    failure = e;
+                    pendingTasks.put(name, this);
+                }
+                throw e;
+            }
+            ImmutableActionSet<T> actions = onCreate;
+            onCreate = ImmutableActionSet.empty();
+            task = createdTask;
+            actions.execute(createdTask);
+            return createdTask;
+        }
+
+        @Override
+        public T getOrNull() {
+            return get();
+        }
+
+        @Override
+        public boolean isPresent() {
+            return task != null || pendingTasks.get(name) == this || findByNameWithoutRules(name) != null;
+        }
+
+        @Override
+        public void configure(Action<? super T> action) {
+            if (task != null) {
+                action.execute(task);
+            } else {
+                onCreate = onCreate.add(action);
+            }
+        }
+
+        @Override
+        public void visitDependencies(TaskDependencyResolveContext context) {
+            context.add(get());
+        }
+
+        @Override
+        public String toString() {
+            return String.format("provider(task '%s', %s)", name, type);
+        }
+    }
 }
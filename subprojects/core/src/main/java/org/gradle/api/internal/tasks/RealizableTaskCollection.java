@@ -20,6 +20,7 @@ import groovy.lang.Closure;
 import org.gradle.api.*;
 import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.TaskCollection;
+import org.gradle.api.tasks.TaskProvider;
 import org.gradle.model.internal.core.ModelNode;
 import org.gradle.model.internal.core.MutableModelNode;
 import org.gradle.model.internal.type.ModelType;
@@ -87,6 +88,16 @@ public class RealizableTaskCollection<T extends Task> implements TaskCollection<
         return realizable(type, delegate.withType(type));
     }
 
+    @Override
+    public TaskProvider<T> named(String name) {
+        return delegate.named(name);
+    }
+
+    @Override
+    public void configureEach(Action<? super T> action) {
+        delegate.configureEach(action);
+    }
+
     @Override
     public Action<? super T> whenTaskAdded(Action<? super T> action) {
         return delegate.whenTaskAdded(action);
@@ -26,6 +26,7 @@ import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory;
 import org.gradle.api.internal.initialization.ClassLoaderScope;
 import org.gradle.api.internal.initialization.ScriptHandlerFactory;
 import org.gradle.api.internal.initialization.ScriptHandlerInternal;
+import org.gradle.api.internal.plugins.DefaultPluginManager;
 import org.gradle.api.internal.plugins.PluginManagerInternal;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.provider.ProviderFactory;
@@ -52,6 +53,7 @@ import org.gradle.internal.resource.TextResourceLoader;
 import org.gradle.internal.service.DefaultServiceRegistry;
 import org.gradle.model.dsl.internal.transform.ClosureCreationInterceptingVerifier;
 import org.gradle.model.internal.inspect.ModelRuleSourceDetector;
+import org.gradle.plugin.management.internal.PluginRequestInternal;
 import org.gradle.plugin.management.internal.PluginRequests;
 import org.gradle.plugin.management.internal.PluginRequestsSerializer;
 import org.gradle.plugin.management.internal.autoapply.AutoAppliedPluginHandler;
@@ -122,6 +124,58 @@ public class DefaultScriptPluginFactory implements ScriptPluginFactory {
         return new ScriptPluginImpl(scriptSource, (ScriptHandlerInternal) scriptHandler, targetScope, baseScope, topLevelScript);
     }
 
+    /**
+     * Compiles the build script of the given project into the script cache, without running it, so that the compiled script can be loaded when the project is
+     * evaluated. Compiles the first pass against the classloader of the parent project. Compiles the second pass only when the first pass will not add
+     * anything to the classpath of the project, as the second pass is otherwise compiled against a classloader that is not known until the first pass runs.
+     *
+     * <p>Requires that the classloader scope of the parent project is locked.</p>
+     */
+    public void precompileBuildScript(ProjectInternal project) {
+        ScriptSource scriptSource = project.getBuildScriptSource();
+        ClassLoader classLoader = project.getBaseClassLoaderScope().getExportClassLoader();
+        ScriptCompiler compiler = scriptCompilerFactory.createCompiler(scriptSource);
+        ScriptTarget scriptTarget = new ProjectScriptTarget(project);
+
+        ScriptRunner<? extends BasicScript, PluginRequests> initialRunner = compileInitialPass(compiler, scriptSource, scriptTarget, classLoader);
+        if (initialRunner.getRunDoesSomething() || !onlyRequestsCorePlugins(initialRunner.getData())) {
+            return;
+        }
+        compileSecondPass(compiler, scriptSource, scriptTarget, classLoader);
+    }
+
+    private static boolean onlyRequestsCorePlugins(PluginRequests pluginRequests) {
+        for (PluginRequestInternal pluginRequest : pluginRequests) {
+            String namespace = pluginRequest.getId().getNamespace();
+            if (namespace != null && !namespace.equals(DefaultPluginManager.CORE_PLUGIN_NAMESPACE)) {
+                return false;
+            }
+            if (pluginRequest.getVersion() != null || pluginRequest.getModule() != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Extracts plugin requests and plugin repositories and buildscript {}
+    private ScriptRunner<? extends BasicScript, PluginRequests> compileInitialPass(ScriptCompiler compiler, ScriptSource scriptSource, ScriptTarget initialPassScriptTarget, ClassLoader classLoader) {
+        Class<? extends BasicScript> scriptType = initialPassScriptTarget.getScriptClass();
+        InitialPassStatementTransformer initialPassStatementTransformer = new InitialPassStatementTransformer(scriptSource, initialPassScriptTarget, documentationRegistry);
+        SubsetScriptTransformer initialTransformer = new SubsetScriptTransformer(initialPassStatementTransformer);
+        String id = INTERNER.intern("cp_" + initialPassScriptTarget.getId());
+        CompileOperation<PluginRequests> initialOperation = new FactoryBackedCompileOperation<PluginRequests>(id, initialTransformer, initialPassStatementTransformer, pluginRequestsSerializer);
+        return compiler.compile(scriptType, initialOperation, classLoader, Actions.doNothing());
+    }
+
+    // Compiles everything except buildscript {}, pluginRepositories{}, and plugin requests
+    private ScriptRunner<? extends BasicScript, BuildScriptData> compileSecondPass(ScriptCompiler compiler, ScriptSource scriptSource, ScriptTarget scriptTarget, ClassLoader classLoader) {
+        Class<? extends BasicScript> scriptType = scriptTarget.getScriptClass();
+        BuildScriptTransformer buildScriptTransformer = new BuildScriptTransformer(scriptSource, scriptTarget);
+        String operationId = scriptTarget.getId();
+        CompileOperation<BuildScriptData> operation = new FactoryBackedCompileOperation<BuildScriptData>(operationId, buildScriptTransformer, buildScriptTransformer, buildScriptDataSerializer);
+        return compiler.compile(scriptType, operation, classLoader, ClosureCreationInterceptingVerifier.INSTANCE);
+    }
+
     private class ScriptPluginImpl implements ScriptPlugin {
         private final ScriptSource scriptSource;
         private final ClassLoaderScope targetScope;
@@ -168,13 +222,7 @@ public class DefaultScriptPluginFactory implements ScriptPluginFactory {
 
             // Pass 1, extract plugin requests and plugin repositories and execute buildscript {}, ignoring (i.e. not even compiling) anything else
 
-            Class<? extends BasicScript> scriptType = initialPassScriptTarget.getScriptClass();
-            InitialPassStatementTransformer initialPassStatementTransformer = new InitialPassStatementTransformer(scriptSource, initialPassScriptTarget, documentationRegistry);
-            SubsetScriptTransformer initialTransformer = new SubsetScriptTransformer(initialPassStatementTransformer);
-            String id = INTERNER.intern("cp_" + initialPassScriptTarget.getId());
-            CompileOperation<PluginRequests> initialOperation = new FactoryBackedCompileOperation<PluginRequests>(id, initialTransformer, initialPassStatementTransformer, pluginRequestsSerializer);
-
-            ScriptRunner<? extends BasicScript, PluginRequests> initialRunner = compiler.compile(scriptType, initialOperation, baseScope.getExportClassLoader(), Actions.doNothing());
+            ScriptRunner<? extends BasicScript, PluginRequests> initialRunner = compileInitialPass(compiler, scriptSource, initialPassScriptTarget, baseScope.getExportClassLoader());
             initialRunner.run(target, services);
 
             PluginRequests initialPluginRequests = initialRunner.getData();
@@ -185,13 +233,7 @@ public class DefaultScriptPluginFactory implements ScriptPluginFactory {
 
             // Pass 2, compile everything except buildscript {}, pluginRepositories{}, and plugin requests, then run
             final ScriptTarget scriptTarget = secondPassTarget(target);
-            scriptType = scriptTarget.getScriptClass();
-
-            BuildScriptTransformer buildScriptTransformer = new BuildScriptTransformer(scriptSource, scriptTarget);
-            String operationId = scriptTarget.getId();
-            CompileOperation<BuildScriptData> operation = new FactoryBackedCompileOperation<BuildScriptData>(operationId, buildScriptTransformer, buildScriptTransformer, buildScriptDataSerializer);
-
-            final ScriptRunner<? extends BasicScript, BuildScriptData> runner = compiler.compile(scriptType, operation, targetScope.getLocalClassLoader(), ClosureCreationInterceptingVerifier.INSTANCE);
+            final ScriptRunner<? extends BasicScript, BuildScriptData> runner = compileSecondPass(compiler, scriptSource, scriptTarget, targetScope.getLocalClassLoader());
             if (scriptTarget.getSupportsMethodInheritance() && runner.getHasMethods()) {
                 scriptTarget.attachScript(runner.getScript());
             }
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration.project;
+
+import org.gradle.StartParameter;
+import org.gradle.api.Project;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.configuration.DefaultScriptPluginFactory;
+import org.gradle.groovy.scripts.ScriptCompilationException;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.scripts.ScriptingLanguages;
+import org.gradle.scripts.ScriptingLanguage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Compiles the build scripts of the child projects of a project in the background, once the build script of the project has been applied and so the classloader
+ * the child scripts are compiled against is known. The project continues to be configured while the scripts are compiled. When each child project is later
+ * evaluated, {@link #awaitBuildScript()} waits for its script to be compiled, and the script is then loaded from the script cache.
+ *
+ * <p>A compilation failure is kept and reported when the child project is evaluated, rather than compiling the script a second time. Other failures are
+ * ignored here, and the script is compiled again when the child project is evaluated.</p>
+ */
+public class ChildProjectBuildScriptPrecompiler implements ProjectConfigureAction, Stoppable {
+    /**
+     * System property that enables compiling the build scripts of child projects ahead of their evaluation.
+     */
+    public static final String PRECOMPILE_CHILD_BUILD_SCRIPTS_PROPERTY = "org.gradle.configure.precompileChildBuildScripts";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChildProjectBuildScriptPrecompiler.class);
+
+    private final DefaultScriptPluginFactory scriptPluginFactory;
+    private final ExecutorFactory executorFactory;
+    private final int maxThreads;
+    private final ConcurrentMap<ProjectInternal, Future<ScriptCompilationException>> compilations = new ConcurrentHashMap<ProjectInternal, Future<ScriptCompilationException>>();
+    private ManagedExecutor executor;
+
+    public ChildProjectBuildScriptPrecompiler(DefaultScriptPluginFactory scriptPluginFactory, ExecutorFactory executorFactory, int maxThreads) {
+        this.scriptPluginFactory = scriptPluginFactory;
+        this.executorFactory = executorFactory;
+        this.maxThreads = maxThreads;
+    }
+
+    /**
+     * Compiling ahead of evaluation is opt-in. It is not used when projects are configured in parallel, as each child then compiles its own script in parallel,
+     * or when configuring on demand, as the children may never be evaluated.
+     */
+    public static boolean isEnabled(StartParameter startParameter, boolean parallelConfiguration) {
+        return !parallelConfiguration && !startParameter.isConfigureOnDemand() && Boolean.getBoolean(PRECOMPILE_CHILD_BUILD_SCRIPTS_PROPERTY);
+    }
+
+    @Override
+    public void execute(ProjectInternal project) {
+        if (!project.getClassLoaderScope().isLocked()) {
+            return;
+        }
+        List<ProjectInternal> children = new ArrayList<ProjectInternal>();
+        for (Project child : project.getChildProjects().values()) {
+            ProjectInternal childProject = (ProjectInternal) child;
+            if (!childProject.getState().getExecuting() && !childProject.getState().getExecuted() && isCompiledByDefaultFactory(childProject)) {
+                children.add(childProject);
+            }
+        }
+        if (children.size() < 2) {
+            // Nothing to gain from compiling ahead of evaluation
+            return;
+        }
+        ManagedExecutor executor = getExecutor();
+        for (ProjectInternal child : children) {
+            if (!compilations.containsKey(child)) {
+                compilations.put(child, executor.submit(new PrecompileBuildScript(child)));
+            }
+        }
+    }
+
+    /**
+     * Returns an action that waits for the build script of a project to be compiled ahead of its evaluation, and that rethrows the failure to compile it.
+     * Must be run before the build script of the project is applied.
+     */
+    public ProjectConfigureAction awaitBuildScript() {
+        return new ProjectConfigureAction() {
+            @Override
+            public void execute(ProjectInternal project) {
+                Future<ScriptCompilationException> compilation = compilations.remove(project);
+                if (compilation == null) {
+                    return;
+                }
+                ScriptCompilationException failure;
+                try {
+                    failure = compilation.get();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                } catch (ExecutionException e) {
+                    throw UncheckedException.throwAsUncheckedException(e.getCause());
+                }
+                if (failure != null) {
+                    throw failure;
+                }
+            }
+        };
+    }
+
+    @Override
+    public void stop() {
+        ManagedExecutor executor;
+        synchronized (this) {
+            executor = this.executor;
+            this.executor = null;
+        }
+        compilations.clear();
+        if (executor != null) {
+            executor.stop();
+        }
+    }
+
+    private synchronized ManagedExecutor getExecutor() {
+        if (executor == null) {
+            executor = executorFactory.create("Build script precompiler", maxThreads);
+        }
+        return executor;
+    }
+
+    private static boolean isCompiledByDefaultFactory(ProjectInternal project) {
+        String fileName = project.getBuildScriptSource().getFileName();
+        for (ScriptingLanguage scriptingLanguage : ScriptingLanguages.all()) {
+            if (fileName.endsWith(scriptingLanguage.getExtension())) {
+                return scriptingLanguage.getProvider() == null;
+            }
+        }
+        return true;
+    }
+
+    private class PrecompileBuildScript implements Callable<ScriptCompilationException> {
+        private final ProjectInternal project;
+
+        PrecompileBuildScript(ProjectInternal project) {
+            this.project = project;
+        }
+
+        @Override
+        public ScriptCompilationException call() {
+            try {
+                scriptPluginFactory.precompileBuildScript(project);
+            } catch (ScriptCompilationException e) {
+                return e;
+            } catch (Exception e) {
+                LOGGER.debug("Could not compile {} ahead of evaluation.", project.getBuildScriptSource().getDisplayName(), e);
+            }
+            return null;
+        }
+    }
+}
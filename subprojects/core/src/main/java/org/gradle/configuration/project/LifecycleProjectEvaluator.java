@@ -53,7 +53,7 @@ public class LifecycleProjectEvaluator implements ProjectEvaluator {
     private void doConfigure(ProjectInternal project, ProjectStateInternal state) {
         ProjectEvaluationListener listener = project.getProjectEvaluationBroadcaster();
         try {
-            listener.beforeEvaluate(project);
+            buildOperationExecutor.run(new NotifyBeforeEvaluate(listener, project));
         } catch (Exception e) {
             addConfigurationFailure(project, state, e);
             return;
@@ -73,7 +73,7 @@ public class LifecycleProjectEvaluator implements ProjectEvaluator {
 
     private void notifyAfterEvaluate(ProjectEvaluationListener listener, ProjectInternal project, ProjectStateInternal state) {
         try {
-            listener.afterEvaluate(project, state);
+            buildOperationExecutor.run(new NotifyAfterEvaluate(listener, project, state));
         } catch (Exception e) {
             if (state.hasFailure()) {
                 // Just log this failure, and pass the existing failure out in the project state
@@ -121,4 +121,52 @@ public class LifecycleProjectEvaluator implements ProjectEvaluator {
         }
 
     }
+
+    private static class NotifyBeforeEvaluate implements RunnableBuildOperation {
+
+        private final ProjectEvaluationListener listener;
+        private final ProjectInternal project;
+
+        private NotifyBeforeEvaluate(ProjectEvaluationListener listener, ProjectInternal project) {
+            this.listener = listener;
+            this.project = project;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            listener.beforeEvaluate(project);
+            context.setResult(NotifyProjectBeforeEvaluatedBuildOperationType.RESULT);
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Notify beforeEvaluate listeners of " + project.getIdentityPath())
+                .details(new NotifyProjectBeforeEvaluatedBuildOperationType.DetailsImpl(project.getProjectPath(), project.getGradle().getIdentityPath()));
+        }
+    }
+
+    private static class NotifyAfterEvaluate implements RunnableBuildOperation {
+
+        private final ProjectEvaluationListener listener;
+        private final ProjectInternal project;
+        private final ProjectStateInternal state;
+
+        private NotifyAfterEvaluate(ProjectEvaluationListener listener, ProjectInternal project, ProjectStateInternal state) {
+            this.listener = listener;
+            this.project = project;
+            this.state = state;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            listener.afterEvaluate(project, state);
+            context.setResult(NotifyProjectAfterEvaluatedBuildOperationType.RESULT);
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Notify afterEvaluate listeners of " + project.getIdentityPath())
+                .details(new NotifyProjectAfterEvaluatedBuildOperationType.DetailsImpl(project.getProjectPath(), project.getGradle().getIdentityPath()));
+        }
+    }
 }
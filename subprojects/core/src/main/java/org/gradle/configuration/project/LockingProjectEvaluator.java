@@ -0,0 +1,51 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration.project;
+
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.internal.project.ProjectStateInternal;
+
+/**
+ * Evaluates a project while holding its project lock, using {@link ProjectConfigurationLocks}, so that projects can be configured in parallel.
+ *
+ * <p>A project that needs another project to be configured, for example by calling {@code evaluationDependsOn()}, waits until the thread
+ * that is configuring the other project has completed. The project locks held by the waiting thread are not released while it waits, so that
+ * no other thread sees a project that is only partly configured.</p>
+ */
+public class LockingProjectEvaluator implements ProjectEvaluator {
+    private final ProjectEvaluator delegate;
+    private final ProjectConfigurationLocks projectConfigurationLocks;
+
+    public LockingProjectEvaluator(ProjectEvaluator delegate, ProjectConfigurationLocks projectConfigurationLocks) {
+        this.delegate = delegate;
+        this.projectConfigurationLocks = projectConfigurationLocks;
+    }
+
+    @Override
+    public void evaluate(final ProjectInternal project, final ProjectStateInternal state) {
+        if (state.getExecuted() && !projectConfigurationLocks.isConfiguring()) {
+            // Nothing to do, and the project lock may be held by a thread that executes the tasks of the project
+            return;
+        }
+        projectConfigurationLocks.configure(project, new Runnable() {
+            @Override
+            public void run() {
+                delegate.evaluate(project, state);
+            }
+        });
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration.project;
+
+import net.jcip.annotations.ThreadSafe;
+import org.gradle.api.CircularReferenceException;
+import org.gradle.api.Transformer;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.internal.resources.ResourceLock;
+import org.gradle.internal.resources.ResourceLockCoordinationService;
+import org.gradle.internal.resources.ResourceLockState;
+import org.gradle.internal.work.WorkerLeaseService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Manages the project locks of the threads that configure projects in parallel. These are the same locks that are held while executing the tasks of a project.
+ *
+ * <p>A thread that configures a project holds the lock of that project, and of every other project that it configures or accesses while doing so, until
+ * the configuration of the project has completed. A project is never handed to another thread while it is being configured. A thread that needs a
+ * project locked by another thread waits until that thread has finished its work, at which point the project has been configured.</p>
+ *
+ * <p>When waiting would deadlock, because the thread that holds the lock is itself waiting for a project locked by the current thread, the current
+ * thread fails with a {@link CircularReferenceException} instead. Projects that depend on each other in this way cannot be configured in parallel.</p>
+ */
+@ThreadSafe
+public class ProjectConfigurationLocks {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProjectConfigurationLocks.class);
+
+    private final WorkerLeaseService workerLeaseService;
+    private final ResourceLockCoordinationService coordinationService;
+    // Guarded by the state lock of the coordination service
+    private final Map<ResourceLock, Thread> owners = new HashMap<ResourceLock, Thread>();
+    private final Map<Thread, ResourceLock> waitingFor = new HashMap<Thread, ResourceLock>();
+    private final ThreadLocal<Configuration> currentConfiguration = new ThreadLocal<Configuration>();
+
+    public ProjectConfigurationLocks(WorkerLeaseService workerLeaseService, ResourceLockCoordinationService coordinationService) {
+        this.workerLeaseService = workerLeaseService;
+        this.coordinationService = coordinationService;
+    }
+
+    /**
+     * Runs the given action to configure the given project. The lock of the project is held by the current thread until the outermost configuration
+     * of the current thread has completed.
+     */
+    public void configure(ProjectInternal project, Runnable action) {
+        Configuration configuration = currentConfiguration.get();
+        boolean outermost = configuration == null;
+        if (outermost) {
+            configuration = new Configuration();
+            currentConfiguration.set(configuration);
+        }
+        ProjectInternal previous = configuration.project;
+        try {
+            lock(project, configuration);
+            configuration.project = project;
+            action.run();
+        } finally {
+            configuration.project = previous;
+            if (outermost) {
+                currentConfiguration.remove();
+                release(configuration);
+            }
+        }
+    }
+
+    /**
+     * Called before the given project is accessed by the current thread. When the current thread is configuring a project, waits until the given
+     * project is no longer being configured by another thread and then locks it, so that it cannot be changed concurrently by other threads.
+     */
+    public void beforeAccessingProject(ProjectInternal project) {
+        Configuration configuration = currentConfiguration.get();
+        if (configuration != null) {
+            lock(project, configuration);
+        }
+    }
+
+    /**
+     * Returns true when the current thread is configuring a project.
+     */
+    public boolean isConfiguring() {
+        return currentConfiguration.get() != null;
+    }
+
+    private void lock(final ProjectInternal project, final Configuration configuration) {
+        final ResourceLock projectLock = workerLeaseService.getProjectLock(project.getGradle().getIdentityPath().toString(), project.getIdentityPath().toString());
+        if (configuration.locks.contains(projectLock)) {
+            return;
+        }
+        final Thread currentThread = Thread.currentThread();
+        coordinationService.withStateLock(new Transformer<ResourceLockState.Disposition, ResourceLockState>() {
+            private boolean waiting;
+
+            @Override
+            public ResourceLockState.Disposition transform(ResourceLockState resourceLockState) {
+                if (projectLock.isLockedByCurrentThread()) {
+                    // Locked by the caller, which also takes care of releasing it
+                    waitingFor.remove(currentThread);
+                    return ResourceLockState.Disposition.FINISHED;
+                }
+                if (projectLock.tryLock()) {
+                    waitingFor.remove(currentThread);
+                    owners.put(projectLock, currentThread);
+                    configuration.locks.add(projectLock);
+                    return ResourceLockState.Disposition.FINISHED;
+                }
+                if (isWaitingFor(owners.get(projectLock), currentThread)) {
+                    waitingFor.remove(currentThread);
+                    throw new CircularReferenceException(String.format("Circular referencing during parallel configuration of %s and %s. Projects that depend on each other cannot be configured in parallel.",
+                        describe(configuration.project), project.getDisplayName()));
+                }
+                if (!waiting) {
+                    LOGGER.info("{} is waiting for {}, which is being configured by another thread.", describe(configuration.project), project.getDisplayName());
+                    waiting = true;
+                }
+                waitingFor.put(currentThread, projectLock);
+                return ResourceLockState.Disposition.RETRY;
+            }
+        });
+    }
+
+    private boolean isWaitingFor(Thread thread, Thread target) {
+        // Waits cannot form a cycle, as a thread never waits for a thread that is waiting for it
+        Thread current = thread;
+        while (current != null) {
+            if (current == target) {
+                return true;
+            }
+            ResourceLock lock = waitingFor.get(current);
+            current = lock == null ? null : owners.get(lock);
+        }
+        return false;
+    }
+
+    private void release(final Configuration configuration) {
+        final Thread currentThread = Thread.currentThread();
+        coordinationService.withStateLock(new Transformer<ResourceLockState.Disposition, ResourceLockState>() {
+            @Override
+            public ResourceLockState.Disposition transform(ResourceLockState resourceLockState) {
+                // Also discards the wait of a thread that was interrupted while waiting
+                waitingFor.remove(currentThread);
+                for (ResourceLock lock : configuration.locks) {
+                    owners.remove(lock);
+                    lock.unlock();
+                }
+                return ResourceLockState.Disposition.FINISHED;
+            }
+        });
+    }
+
+    private static String describe(ProjectInternal project) {
+        return project == null ? "Build" : project.getDisplayName();
+    }
+
+    private static class Configuration {
+        final List<ResourceLock> locks = new ArrayList<ResourceLock>();
+        ProjectInternal project;
+    }
+}
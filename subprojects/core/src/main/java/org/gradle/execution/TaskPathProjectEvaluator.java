@@ -16,16 +16,47 @@
 
 package org.gradle.execution;
 
+import org.gradle.StartParameter;
+import org.gradle.api.Action;
 import org.gradle.api.BuildCancelledException;
 import org.gradle.api.Project;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.initialization.BuildCancellationToken;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.MultipleBuildOperationFailures;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.internal.progress.BuildOperationDescriptor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 public class TaskPathProjectEvaluator implements ProjectConfigurer {
+    /**
+     * System property that enables configuring the projects of a build in parallel, when parallel execution is enabled.
+     */
+    public static final String PARALLEL_CONFIGURATION_PROPERTY = "org.gradle.configure.parallel";
+
     private final BuildCancellationToken cancellationToken;
+    private final BuildOperationExecutor buildOperationExecutor;
+    private final boolean parallelConfiguration;
 
-    public TaskPathProjectEvaluator(BuildCancellationToken cancellationToken) {
+    public TaskPathProjectEvaluator(BuildCancellationToken cancellationToken, BuildOperationExecutor buildOperationExecutor, boolean parallelConfiguration) {
         this.cancellationToken = cancellationToken;
+        this.buildOperationExecutor = buildOperationExecutor;
+        this.parallelConfiguration = parallelConfiguration;
+    }
+
+    /**
+     * Parallel configuration is opt-in, and is only used when parallel execution is enabled.
+     */
+    public static boolean isParallelConfigurationEnabled(StartParameter startParameter) {
+        return startParameter.isParallelProjectExecutionEnabled() && Boolean.getBoolean(PARALLEL_CONFIGURATION_PROPERTY);
     }
 
     public void configure(ProjectInternal project) {
@@ -58,11 +89,50 @@ public class TaskPathProjectEvaluator implements ProjectConfigurer {
 
     public void configureHierarchy(ProjectInternal project) {
         configure(project);
+        if (parallelConfiguration) {
+            configureInParallel(project.getSubprojects());
+            return;
+        }
         for (Project sub : project.getSubprojects()) {
             configure((ProjectInternal) sub);
         }
     }
 
+    /**
+     * Configures the given projects one level of the hierarchy at a time, so that a project is always configured after its parent.
+     * Projects on the same level are configured in parallel,
+     * coordinated by {@link org.gradle.configuration.project.ProjectConfigurationLocks}.
+     */
+    private void configureInParallel(Collection<Project> projects) {
+        Map<Integer, List<ProjectInternal>> projectsByDepth = new TreeMap<Integer, List<ProjectInternal>>();
+        for (Project project : projects) {
+            List<ProjectInternal> level = projectsByDepth.get(project.getDepth());
+            if (level == null) {
+                level = new ArrayList<ProjectInternal>();
+                projectsByDepth.put(project.getDepth(), level);
+            }
+            level.add((ProjectInternal) project);
+        }
+        for (final List<ProjectInternal> level : projectsByDepth.values()) {
+            try {
+                buildOperationExecutor.runAll(new Action<BuildOperationQueue<RunnableBuildOperation>>() {
+                    @Override
+                    public void execute(BuildOperationQueue<RunnableBuildOperation> queue) {
+                        for (ProjectInternal project : level) {
+                            queue.add(new ConfigureProjectInParallel(project));
+                        }
+                    }
+                });
+            } catch (MultipleBuildOperationFailures e) {
+                // Report a single failure in the same way as when configuring sequentially
+                if (e.getCauses().size() == 1) {
+                    throw UncheckedException.throwAsUncheckedException(e.getCauses().get(0));
+                }
+                throw e;
+            }
+        }
+    }
+
     @Override
     public void configureHierarchyFully(ProjectInternal project) {
         configureFully(project);
@@ -70,4 +140,22 @@ public class TaskPathProjectEvaluator implements ProjectConfigurer {
             configureFully((ProjectInternal) sub);
         }
     }
+
+    private class ConfigureProjectInParallel implements RunnableBuildOperation {
+        private final ProjectInternal project;
+
+        ConfigureProjectInParallel(ProjectInternal project) {
+            this.project = project;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            configure(project);
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Configure " + project.getDisplayName() + " in parallel");
+        }
+    }
 }
@@ -0,0 +1,391 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.initialization;
+
+import java.util.Collection;
+import java.util.List;
+import org.gradle.StartParameter;
+import org.gradle.TaskExecutionRequest;
+import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.initialization.dsl.ScriptHandler;
+import org.gradle.api.internal.GradleInternal;
+import org.gradle.api.internal.SettingsInternal;
+import org.gradle.api.internal.TaskInternal;
+import org.gradle.api.internal.changedetection.state.FileSystemSnapshotter;
+import org.gradle.api.internal.tasks.TaskExecutionOutcome;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.FileLockManager;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.internal.CleanupActionFactory;
+import org.gradle.cache.internal.FixedAgeOldestCacheCleanup;
+import org.gradle.caching.internal.DefaultBuildCacheHasher;
+import org.gradle.configuration.ApplyScriptPluginBuildOperationType;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.internal.progress.BuildOperationDescriptor;
+import org.gradle.internal.progress.BuildOperationListener;
+import org.gradle.internal.progress.BuildOperationListenerManager;
+import org.gradle.internal.progress.OperationFinishEvent;
+import org.gradle.internal.progress.OperationProgressEvent;
+import org.gradle.internal.progress.OperationStartEvent;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.gradle.util.GFileUtils;
+import org.gradle.util.GradleVersion;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
+/**
+ * Skips configuration and task execution of a build when an earlier build with the same request found every task up-to-date, and nothing it depended on has changed since.
+ *
+ * <p>After a build in which every scheduled task was up-to-date or had no source, an entry is recorded for the request. The entry is keyed on the Gradle version, the start parameters,
+ * the system properties and the environment. It holds snapshots of the build logic (scripts, {@code gradle.properties} files, buildscript classpaths and the {@code buildSrc} sources)
+ * and of the input and output files of every scheduled task. When a later build makes the same request and none of these files has changed, the build is reported as successful
+ * without loading settings or configuring projects.</p>
+ *
+ * <p>Files that build logic reads in other ways, and new versions of dynamic or changing dependencies, are not noticed. This is why the cache is opt-in, by setting the
+ * {@value #SYSPROP} system property to {@code true}.</p>
+ */
+public class ConfigurationResultCache implements BuildOperationListener, Closeable {
+    public static final String SYSPROP = "org.gradle.internal.configuration.resultCache";
+    private static final Logger LOGGER = Logging.getLogger(ConfigurationResultCache.class);
+    private static final int REMOVE_UNUSED_ENTRIES_AFTER_DAYS = 7;
+    private static final String[] SETTINGS_FILE_NAMES = {"settings.gradle", "settings.gradle.kts"};
+
+    private final StartParameter startParameter;
+    private final CacheRepository cacheRepository;
+    private final CleanupActionFactory cleanupActionFactory;
+    private final FileSystemSnapshotter fileSystemSnapshotter;
+    private final BuildOperationListenerManager buildOperationListenerManager;
+    private final boolean enabled;
+    private final Set<File> appliedScripts = new ConcurrentSkipListSet<File>();
+    private volatile boolean appliedRemoteScript;
+    private PersistentCache cache;
+    private File entryFile;
+
+    public ConfigurationResultCache(StartParameter startParameter, CacheRepository cacheRepository, CleanupActionFactory cleanupActionFactory, FileSystemSnapshotter fileSystemSnapshotter, BuildOperationListenerManager buildOperationListenerManager) {
+        this.startParameter = startParameter;
+        this.cacheRepository = cacheRepository;
+        this.cleanupActionFactory = cleanupActionFactory;
+        this.fileSystemSnapshotter = fileSystemSnapshotter;
+        this.buildOperationListenerManager = buildOperationListenerManager;
+        String value = startParameter.getSystemPropertiesArgs().get(SYSPROP);
+        if (value == null) {
+            value = System.getProperty(SYSPROP);
+        }
+        this.enabled = Boolean.parseBoolean(value);
+    }
+
+    /**
+     * Returns true when the given build is known to have nothing to do. Otherwise starts recording the build logic that the build applies,
+     * so that the outcome of the build can be recorded by {@link #buildSucceeded(GradleInternal)}.
+     */
+    public boolean isUpToDate(GradleInternal gradle) {
+        if (!enabled || gradle.getParent() != null || !isCacheable(startParameter)) {
+            return false;
+        }
+        entryFile = new File(getCache().getBaseDir(), requestKey().toString() + ".bin");
+        if (entryFile.isFile()) {
+            try {
+                int taskCount = readEntry(entryFile);
+                if (taskCount >= 0) {
+                    LOGGER.lifecycle("Nothing has changed since the last build with the same request, skipping configuration and all {} tasks.", taskCount);
+                    entryFile.setLastModified(System.currentTimeMillis());
+                    return true;
+                }
+            } catch (Exception e) {
+                LOGGER.info("Could not read configuration result from {}.", entryFile, e);
+            }
+        }
+        buildOperationListenerManager.addListener(this);
+        return false;
+    }
+
+    /**
+     * Records the outcome of a build for which {@link #isUpToDate(GradleInternal)} returned false.
+     */
+    public void buildSucceeded(GradleInternal gradle) {
+        if (entryFile == null) {
+            return;
+        }
+        buildOperationListenerManager.removeListener(this);
+        try {
+            List<Task> tasks = gradle.getTaskGraph().getAllTasks();
+            if (appliedRemoteScript || !gradle.getIncludedBuilds().isEmpty() || !allUpToDate(tasks)) {
+                GFileUtils.deleteQuietly(entryFile);
+                return;
+            }
+            writeEntry(entryFile, tasks.size(), snapshot(collectFiles(gradle, tasks)));
+        } catch (Exception e) {
+            LOGGER.info("Could not record configuration result to {}.", entryFile, e);
+            GFileUtils.deleteQuietly(entryFile);
+        } finally {
+            entryFile = null;
+        }
+    }
+
+    @Override
+    public void started(BuildOperationDescriptor buildOperation, OperationStartEvent startEvent) {
+        if (buildOperation.getDetails() instanceof ApplyScriptPluginBuildOperationType.Details) {
+            ApplyScriptPluginBuildOperationType.Details details = (ApplyScriptPluginBuildOperationType.Details) buildOperation.getDetails();
+            if (details.getFile() != null) {
+                appliedScripts.add(new File(details.getFile()));
+            } else if (details.getUri() != null) {
+                // Cannot tell whether a remote script has changed
+                appliedRemoteScript = true;
+            }
+        }
+    }
+
+    @Override
+    public void progress(BuildOperationDescriptor buildOperation, OperationProgressEvent progressEvent) {
+    }
+
+    @Override
+    public void finished(BuildOperationDescriptor buildOperation, OperationFinishEvent finishEvent) {
+    }
+
+    @Override
+    public void close() {
+        buildOperationListenerManager.removeListener(this);
+        if (cache != null) {
+            cache.close();
+            cache = null;
+        }
+    }
+
+    private PersistentCache getCache() {
+        if (cache == null) {
+            cache = cacheRepository
+                .cache("configuration-results")
+                .withCleanup(cleanupActionFactory.create(new FixedAgeOldestCacheCleanup(REMOVE_UNUSED_ENTRIES_AFTER_DAYS)))
+                .withDisplayName("configuration result cache")
+                .withLockOptions(mode(FileLockManager.LockMode.None)) // Entries are replaced atomically
+                .open();
+        }
+        return cache;
+    }
+
+    private static boolean isCacheable(StartParameter startParameter) {
+        return !startParameter.isRerunTasks()
+            && !startParameter.isRefreshDependencies()
+            && !startParameter.isRecompileScripts()
+            && !startParameter.isDryRun()
+            && !startParameter.isContinuous()
+            && !startParameter.isProfile()
+            && !startParameter.isBuildScan()
+            && startParameter.getIncludedBuilds().isEmpty();
+    }
+
+    private static boolean allUpToDate(Collection<Task> tasks) {
+        for (Task task : tasks) {
+            TaskExecutionOutcome outcome = ((TaskInternal) task).getState().getOutcome();
+            if (outcome != TaskExecutionOutcome.UP_TO_DATE && outcome != TaskExecutionOutcome.NO_SOURCE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private HashCode requestKey() {
+        Hasher hasher = Hashing.md5().newHasher();
+        hasher.putString(GradleVersion.current().getVersion());
+        for (TaskExecutionRequest request : startParameter.getTaskRequests()) {
+            hasher.putString(String.valueOf(request.getProjectPath()));
+            hasher.putString(String.valueOf(request.getRootDir()));
+            putStrings(hasher, request.getArgs());
+        }
+        putStrings(hasher, new TreeSet<String>(startParameter.getExcludedTaskNames()));
+        putFile(hasher, startParameter.getCurrentDir());
+        putFile(hasher, startParameter.getProjectDir());
+        putFile(hasher, startParameter.getBuildFile());
+        putFile(hasher, startParameter.getSettingsFile());
+        putFile(hasher, startParameter.getProjectCacheDir());
+        putFile(hasher, startParameter.getGradleUserHomeDir());
+        for (File initScript : startParameter.getAllInitScripts()) {
+            putFile(hasher, initScript);
+        }
+        hasher.putBoolean(startParameter.isSearchUpwards());
+        hasher.putBoolean(startParameter.isUseEmptySettings());
+        hasher.putBoolean(startParameter.isBuildProjectDependencies());
+        hasher.putBoolean(startParameter.isContinueOnFailure());
+        hasher.putBoolean(startParameter.isOffline());
+        hasher.putBoolean(startParameter.isParallelProjectExecutionEnabled());
+        hasher.putBoolean(startParameter.isConfigureOnDemand());
+        hasher.putBoolean(startParameter.isBuildCacheEnabled());
+        hasher.putInt(startParameter.getMaxWorkerCount());
+        hasher.putString(startParameter.getLogLevel().name());
+        hasher.putString(startParameter.getWarningMode().name());
+        putMap(hasher, startParameter.getProjectProperties());
+        putMap(hasher, startParameter.getSystemPropertiesArgs());
+        SortedMap<String, String> systemProperties = new TreeMap<String, String>();
+        for (String name : System.getProperties().stringPropertyNames()) {
+            systemProperties.put(name, System.getProperty(name));
+        }
+        putMap(hasher, systemProperties);
+        putMap(hasher, System.getenv());
+        return hasher.hash();
+    }
+
+    private static void putStrings(Hasher hasher, Iterable<String> values) {
+        int count = 0;
+        for (String value : values) {
+            hasher.putString(value);
+            count++;
+        }
+        hasher.putInt(count);
+    }
+
+    private static void putFile(Hasher hasher, File file) {
+        hasher.putString(file == null ? "" : file.getAbsolutePath());
+    }
+
+    private static void putMap(Hasher hasher, Map<String, String> map) {
+        for (Map.Entry<String, String> entry : new TreeMap<String, String>(map).entrySet()) {
+            hasher.putString(entry.getKey());
+            hasher.putString(String.valueOf(entry.getValue()));
+        }
+        hasher.putInt(map.size());
+    }
+
+    private SortedSet<File> collectFiles(GradleInternal gradle, Collection<Task> tasks) {
+        SortedSet<File> files = new TreeSet<File>(appliedScripts);
+
+        File gradleUserHome = startParameter.getGradleUserHomeDir();
+        files.add(new File(gradleUserHome, "gradle.properties"));
+        files.add(new File(gradleUserHome, "init.gradle"));
+        files.add(new File(gradleUserHome, "init.d"));
+
+        SettingsInternal settings = gradle.getSettings();
+        for (String name : SETTINGS_FILE_NAMES) {
+            files.add(new File(settings.getSettingsDir(), name));
+            files.add(new File(startParameter.getCurrentDir(), name));
+        }
+        File settingsScript = settings.getSettingsScript().getResource().getLocation().getFile();
+        if (settingsScript != null) {
+            files.add(settingsScript);
+        }
+        addClasspath(files, settings.getBuildscript());
+
+        File buildSrc = new File(settings.getRootDir(), "buildSrc");
+        files.add(buildSrc);
+        File[] buildSrcFiles = buildSrc.listFiles();
+        if (buildSrcFiles != null) {
+            for (File file : buildSrcFiles) {
+                // The build output and task history change with each build of buildSrc
+                if (!file.getName().equals("build") && !file.getName().equals(".gradle")) {
+                    files.add(file);
+                }
+            }
+        }
+
+        for (Project project : gradle.getRootProject().getAllprojects()) {
+            files.add(project.getBuildFile());
+            files.add(new File(project.getProjectDir(), "gradle.properties"));
+            addClasspath(files, project.getBuildscript());
+        }
+
+        for (Task task : tasks) {
+            files.addAll(task.getInputs().getFiles().getFiles());
+            files.addAll(task.getOutputs().getFiles().getFiles());
+        }
+        return files;
+    }
+
+    private static void addClasspath(Set<File> files, ScriptHandler scriptHandler) {
+        Configuration classpath = scriptHandler.getConfigurations().findByName(ScriptHandler.CLASSPATH_CONFIGURATION);
+        if (classpath != null) {
+            files.addAll(classpath.getFiles());
+        }
+    }
+
+    private SortedMap<String, HashCode> snapshot(Set<File> files) {
+        SortedMap<String, HashCode> snapshots = new TreeMap<String, HashCode>();
+        for (File file : files) {
+            snapshots.put(file.getAbsolutePath(), snapshot(file));
+        }
+        return snapshots;
+    }
+
+    private HashCode snapshot(File file) {
+        DefaultBuildCacheHasher hasher = new DefaultBuildCacheHasher();
+        fileSystemSnapshotter.snapshotAll(file).appendToHasher(hasher);
+        return hasher.hash();
+    }
+
+    private static void writeEntry(File entryFile, int taskCount, SortedMap<String, HashCode> snapshots) throws Exception {
+        File tempFile = File.createTempFile("entry", ".tmp", entryFile.getParentFile());
+        try {
+            KryoBackedEncoder encoder = new KryoBackedEncoder(new FileOutputStream(tempFile));
+            try {
+                encoder.writeSmallInt(taskCount);
+                encoder.writeSmallInt(snapshots.size());
+                for (Map.Entry<String, HashCode> entry : snapshots.entrySet()) {
+                    encoder.writeString(entry.getKey());
+                    encoder.writeBinary(entry.getValue().toByteArray());
+                }
+            } finally {
+                encoder.close();
+            }
+            GFileUtils.deleteQuietly(entryFile);
+            if (!tempFile.renameTo(entryFile)) {
+                throw new IllegalStateException("Could not move " + tempFile + " to " + entryFile + ".");
+            }
+        } finally {
+            GFileUtils.deleteQuietly(tempFile);
+        }
+    }
+
+    /**
+     * Returns the number of tasks of the entry, or -1 when a file of the entry has changed.
+     */
+    private int readEntry(File entryFile) throws Exception {
+        KryoBackedDecoder decoder = new KryoBackedDecoder(new FileInputStream(entryFile));
+        try {
+            int taskCount = decoder.readSmallInt();
+            int fileCount = decoder.readSmallInt();
+            for (int i = 0; i < fileCount; i++) {
+                File file = new File(decoder.readString());
+                HashCode expected = HashCode.fromBytes(decoder.readBinary());
+                if (!expected.equals(snapshot(file))) {
+                    LOGGER.info("Cannot skip configuration as {} has changed.", file);
+                    return -1;
+                }
+            }
+            return taskCount;
+        } finally {
+            decoder.close();
+        }
+    }
+}
@@ -66,6 +66,7 @@ public class DefaultGradleLauncher implements GradleLauncher {
     private final BuildOperationExecutor buildOperationExecutor;
     private final BuildConfigurationActionExecuter buildConfigurationActionExecuter;
     private final BuildExecuter buildExecuter;
+    private final ConfigurationResultCache configurationResultCache;
     private final BuildScopeServices buildServices;
     private final List<?> servicesToStop;
     private GradleInternal gradle;
@@ -77,7 +78,7 @@ public class DefaultGradleLauncher implements GradleLauncher {
                                  BuildListener buildListener, ModelConfigurationListener modelConfigurationListener,
                                  BuildCompletionListener buildCompletionListener, BuildOperationExecutor operationExecutor,
                                  BuildConfigurationActionExecuter buildConfigurationActionExecuter, BuildExecuter buildExecuter,
-                                 BuildScopeServices buildServices, List<?> servicesToStop) {
+                                 ConfigurationResultCache configurationResultCache, BuildScopeServices buildServices, List<?> servicesToStop) {
         this.gradle = gradle;
         this.initScriptHandler = initScriptHandler;
         this.settingsLoader = settingsLoader;
@@ -89,6 +90,7 @@ public class DefaultGradleLauncher implements GradleLauncher {
         this.buildOperationExecutor = operationExecutor;
         this.buildConfigurationActionExecuter = buildConfigurationActionExecuter;
         this.buildExecuter = buildExecuter;
+        this.configurationResultCache = configurationResultCache;
         this.buildCompletionListener = buildCompletionListener;
         this.buildServices = buildServices;
         this.servicesToStop = servicesToStop;
@@ -112,6 +114,12 @@ public class DefaultGradleLauncher implements GradleLauncher {
     }
 
     public GradleInternal executeTasks() {
+        if (stage == null && configurationResultCache.isUpToDate(gradle)) {
+            buildListener.buildStarted(gradle);
+            stage = Stage.Build;
+            finishBuild();
+            return gradle;
+        }
         doBuildStages(Stage.Build);
         return gradle;
     }
@@ -138,6 +146,7 @@ public class DefaultGradleLauncher implements GradleLauncher {
                 return;
             }
             runTasks();
+            configurationResultCache.buildSucceeded(gradle);
             finishBuild();
         } catch (Throwable t) {
             Throwable failure = exceptionAnalyser.transform(t);
@@ -194,6 +194,7 @@ public class DefaultGradleLauncherFactory implements GradleLauncherFactory {
             serviceRegistry.get(BuildOperationExecutor.class),
             gradle.getServices().get(BuildConfigurationActionExecuter.class),
             gradle.getServices().get(BuildExecuter.class),
+            serviceRegistry.get(ConfigurationResultCache.class),
             serviceRegistry,
             servicesToStop
         );
@@ -19,9 +19,14 @@ package org.gradle.initialization;
 import org.gradle.api.internal.project.ProjectInternal;
 
 /**
- * Internal interface, used by our configuration on demand mode.
+ * Internal interface, used by our configuration on demand and parallel configuration modes.
  */
 public interface ProjectAccessListener {
     void beforeRequestingTaskByPath(ProjectInternal targetProject);
     void beforeResolvingProjectDependency(ProjectInternal dependencyProject);
+
+    /**
+     * Called before a project looks up another project, for example using {@code project(':other')}.
+     */
+    void beforeAccessingProject(ProjectInternal targetProject);
 }
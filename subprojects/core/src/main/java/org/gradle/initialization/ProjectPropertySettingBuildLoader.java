@@ -24,60 +24,72 @@ import org.gradle.api.plugins.ExtraPropertiesExtension;
 import org.gradle.internal.Pair;
 import org.gradle.internal.reflect.JavaReflectionUtil;
 import org.gradle.internal.reflect.PropertyMutator;
-import org.gradle.util.GUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Properties;
 
 public class ProjectPropertySettingBuildLoader implements BuildLoader {
     private static final Logger LOGGER = LoggerFactory.getLogger(ProjectPropertySettingBuildLoader.class);
 
     private final IGradlePropertiesLoader propertiesLoader;
     private final BuildLoader buildLoader;
+    private final PropertiesFileCache propertiesFileCache;
 
-    public ProjectPropertySettingBuildLoader(IGradlePropertiesLoader propertiesLoader, BuildLoader buildLoader) {
+    public ProjectPropertySettingBuildLoader(IGradlePropertiesLoader propertiesLoader, BuildLoader buildLoader, PropertiesFileCache propertiesFileCache) {
         this.buildLoader = buildLoader;
         this.propertiesLoader = propertiesLoader;
+        this.propertiesFileCache = propertiesFileCache;
     }
 
     @Override
     public void load(SettingsInternal settings, GradleInternal gradle) {
         buildLoader.load(settings, gradle);
-        setProjectProperties(gradle.getRootProject(), new CachingPropertyApplicator());
+        setProjectProperties(gradle.getRootProject(), new CachingPropertyApplicator(), new PropertiesMerger());
     }
 
-    private void setProjectProperties(Project project, CachingPropertyApplicator applicator) {
-        addPropertiesToProject(project, applicator);
+    private void setProjectProperties(Project project, CachingPropertyApplicator applicator, PropertiesMerger merger) {
+        addPropertiesToProject(project, applicator, merger);
         for (Project childProject : project.getChildProjects().values()) {
-            setProjectProperties(childProject, applicator);
+            setProjectProperties(childProject, applicator, merger);
         }
     }
 
-    private void addPropertiesToProject(Project project, CachingPropertyApplicator applicator) {
-        Properties projectProperties = new Properties();
+    private void addPropertiesToProject(Project project, CachingPropertyApplicator applicator, PropertiesMerger merger) {
         File projectPropertiesFile = new File(project.getProjectDir(), Project.GRADLE_PROPERTIES);
         LOGGER.debug("Looking for project properties from: {}", projectPropertiesFile);
-        if (projectPropertiesFile.isFile()) {
-            projectProperties = GUtil.loadProperties(projectPropertiesFile);
+        Map<String, String> projectProperties = propertiesFileCache.loadProperties(projectPropertiesFile);
+        if (!projectProperties.isEmpty()) {
             LOGGER.debug("Adding project properties (if not overwritten by user properties): {}",
                 projectProperties.keySet());
-        } else {
-            LOGGER.debug("project property file does not exists. We continue!");
         }
 
-        // this should really be <String, Object>, however properties loader signature expects a <String, String>
-        // even if in practice it was never enforced (one can pass other property types, such as boolean) an
-        // fixing the method signature would be a binary breaking change in a public API.
-        Map<String, String> mergedProperties = propertiesLoader.mergeProperties(new HashMap(projectProperties));
+        Map<String, String> mergedProperties = merger.merge(projectProperties);
         for (Map.Entry<String, String> entry : mergedProperties.entrySet()) {
             applicator.configureProperty(project, entry.getKey(), entry.getValue());
         }
     }
 
+    /**
+     * Merges the properties of each project with the build properties. Most projects do not define any properties of their own,
+     * so the build properties are merged once and shared by those projects.
+     */
+    private class PropertiesMerger {
+        private Map<String, String> buildProperties;
+
+        Map<String, String> merge(Map<String, String> projectProperties) {
+            if (!projectProperties.isEmpty()) {
+                return propertiesLoader.mergeProperties(new HashMap<String, String>(projectProperties));
+            }
+            if (buildProperties == null) {
+                buildProperties = propertiesLoader.mergeProperties(new HashMap<String, String>());
+            }
+            return buildProperties;
+        }
+    }
+
     /**
      * Applies the given properties to the project and its subprojects, caching property mutators whenever possible
      * to avoid too many searches.
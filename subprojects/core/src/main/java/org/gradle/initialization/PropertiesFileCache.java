@@ -0,0 +1,83 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.initialization;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import net.jcip.annotations.ThreadSafe;
+import org.gradle.cache.internal.CrossBuildInMemoryCache;
+import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory;
+import org.gradle.internal.hash.FileHasher;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.util.GUtil;
+
+import java.io.File;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Caches the properties loaded from properties files, such as the {@code gradle.properties} files of the build and of each project, across builds.
+ *
+ * <p>A cached entry is reused for as long as the content hash of the file is unchanged. The hash is provided by a {@link FileHasher} that
+ * takes care of changes that are not visible in the length and last modified time of the file. A missing file is treated as an empty properties file.</p>
+ */
+@ThreadSafe
+public class PropertiesFileCache {
+    private final FileHasher fileHasher;
+    private final CrossBuildInMemoryCache<File, CachedProperties> cache;
+
+    public PropertiesFileCache(FileHasher fileHasher, CrossBuildInMemoryCacheFactory cacheFactory) {
+        this.fileHasher = fileHasher;
+        this.cache = cacheFactory.newCache();
+    }
+
+    /**
+     * Returns the properties defined in the given file, or an empty map when the file does not exist.
+     */
+    public Map<String, String> loadProperties(File propertiesFile) {
+        if (!propertiesFile.isFile()) {
+            return ImmutableMap.of();
+        }
+        HashCode hash = fileHasher.hash(propertiesFile);
+        CachedProperties cached = cache.get(propertiesFile);
+        if (cached != null && cached.hash.equals(hash)) {
+            return cached.properties;
+        }
+        Map<String, String> properties = load(propertiesFile);
+        cache.put(propertiesFile, new CachedProperties(hash, properties));
+        return properties;
+    }
+
+    private static Map<String, String> load(File propertiesFile) {
+        Properties properties = GUtil.loadProperties(propertiesFile);
+        Map<String, String> result = Maps.newHashMapWithExpectedSize(properties.size());
+        for (String name : properties.stringPropertyNames()) {
+            result.put(name, properties.getProperty(name));
+        }
+        return ImmutableMap.copyOf(result);
+    }
+
+    private static class CachedProperties {
+        private final HashCode hash;
+        private final Map<String, String> properties;
+
+        private CachedProperties(HashCode hash, Map<String, String> properties) {
+            this.hash = hash;
+            this.properties = properties;
+        }
+    }
+}
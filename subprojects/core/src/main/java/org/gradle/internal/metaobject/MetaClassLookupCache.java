@@ -0,0 +1,210 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.metaobject;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Maps;
+import groovy.lang.Closure;
+import groovy.lang.MetaClassImpl;
+import groovy.lang.MetaMethod;
+import groovy.lang.MetaProperty;
+import org.codehaus.groovy.runtime.GroovyCategorySupport;
+import org.gradle.internal.UncheckedException;
+
+import javax.annotation.Nullable;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Looks up properties and methods on a {@link MetaClassImpl}, caching the result of each lookup per meta-class, including lookups that find nothing.
+ *
+ * <p>The properties and methods of a {@link MetaClassImpl} cannot change once it has been initialized, so its lookups can be cached. Subclasses such as
+ * {@code ExpandoMetaClass} can change, so their lookups are not cached. Lookups are also not cached while a category is in use by the current thread,
+ * as a category adds methods and properties for that thread only.</p>
+ *
+ * <p>The cache must not keep the meta-class or the types it is used with strongly reachable, as these may belong to a ClassLoader that should be discarded,
+ * such as the ClassLoader of a build script. Meta-classes are weakly referenced, and cache entries are keyed by name and refer to the properties, methods and
+ * argument types using weak references. Properties and methods are strongly referenced by their meta-class, so remain cached for as long as the meta-class
+ * is used.</p>
+ */
+class MetaClassLookupCache {
+    private static final Method META_PROP_METHOD;
+    private static final Object MISSING = new Object();
+    private static final Cache<MetaClassImpl, MetaClassLookupCache> CACHES = CacheBuilder.newBuilder().weakKeys().build();
+
+    static {
+        try {
+            META_PROP_METHOD = MetaClassImpl.class.getDeclaredMethod("getMetaProperty", String.class, boolean.class);
+            META_PROP_METHOD.setAccessible(true);
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private final ConcurrentMap<String, Object> properties = Maps.newConcurrentMap();
+    private final ConcurrentMap<String, MethodLookup> methods = Maps.newConcurrentMap();
+
+    /*
+     * MetaClass.getMetaProperty(name) is very expensive when the property is not known.
+     * Instead, we reach into the meta class to call a much more efficient lookup method.
+     */
+    @Nullable
+    static MetaProperty lookupProperty(MetaClassImpl metaClass, String name) {
+        MetaClassLookupCache cache = cacheFor(metaClass);
+        if (cache == null) {
+            return getMetaProperty(metaClass, name);
+        }
+
+        Object cached = cache.properties.get(name);
+        if (cached == MISSING) {
+            return null;
+        }
+        if (cached != null) {
+            MetaProperty property = ((PropertyReference) cached).get();
+            if (property != null) {
+                return property;
+            }
+        }
+
+        MetaProperty property = getMetaProperty(metaClass, name);
+        cache.properties.put(name, property == null ? MISSING : new PropertyReference(property));
+        return property;
+    }
+
+    /**
+     * Equivalent to {@link MetaClassImpl#pickMethod(String, Class[])}.
+     */
+    @Nullable
+    static MetaMethod lookupMethod(MetaClassImpl metaClass, String name, Class[] argumentTypes) {
+        MetaClassLookupCache cache = cacheFor(metaClass);
+        if (cache == null) {
+            return metaClass.pickMethod(name, argumentTypes);
+        }
+
+        Class[] lookupTypes = normalize(argumentTypes);
+        String key = methodKey(name, lookupTypes);
+        MethodLookup cached = cache.methods.get(key);
+        if (cached != null && cached.matches(lookupTypes)) {
+            if (cached.method == null) {
+                return null;
+            }
+            MetaMethod method = cached.method.get();
+            if (method != null) {
+                return method;
+            }
+        }
+
+        MetaMethod method = metaClass.pickMethod(name, lookupTypes);
+        cache.methods.put(key, new MethodLookup(lookupTypes, method));
+        return method;
+    }
+
+    @Nullable
+    private static MetaClassLookupCache cacheFor(MetaClassImpl metaClass) {
+        if (metaClass.getClass() != MetaClassImpl.class) {
+            return null;
+        }
+        if (GroovyCategorySupport.hasCategoryInCurrentThread()) {
+            // A category adds methods and properties for the current thread only, so the result of a lookup is specific to the thread
+            return null;
+        }
+        MetaClassLookupCache cache = CACHES.getIfPresent(metaClass);
+        if (cache == null) {
+            MetaClassLookupCache newCache = new MetaClassLookupCache();
+            cache = CACHES.asMap().putIfAbsent(metaClass, newCache);
+            if (cache == null) {
+                cache = newCache;
+            }
+        }
+        return cache;
+    }
+
+    @Nullable
+    private static MetaProperty getMetaProperty(MetaClassImpl metaClass, String name) {
+        try {
+            return (MetaProperty) META_PROP_METHOD.invoke(metaClass, name, false);
+        } catch (Throwable e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    /**
+     * Each closure is an instance of its own class. Treat them all as {@link Closure}, which selects the same method, so that the lookup is cached once
+     * rather than once per closure.
+     */
+    private static Class[] normalize(Class[] argumentTypes) {
+        Class[] normalized = argumentTypes;
+        for (int i = 0; i < argumentTypes.length; i++) {
+            Class<?> argumentType = argumentTypes[i];
+            if (argumentType != null && argumentType != Closure.class && Closure.class.isAssignableFrom(argumentType)) {
+                if (normalized == argumentTypes) {
+                    normalized = argumentTypes.clone();
+                }
+                normalized[i] = Closure.class;
+            }
+        }
+        return normalized;
+    }
+
+    private static String methodKey(String name, Class[] argumentTypes) {
+        if (argumentTypes.length == 0) {
+            return name;
+        }
+        StringBuilder builder = new StringBuilder(name);
+        for (Class<?> argumentType : argumentTypes) {
+            builder.append(',');
+            builder.append(argumentType == null ? "null" : argumentType.getName());
+        }
+        return builder.toString();
+    }
+
+    private static class PropertyReference extends WeakReference<MetaProperty> {
+        PropertyReference(MetaProperty property) {
+            super(property);
+        }
+    }
+
+    /**
+     * The result of a method lookup. As the lookup is keyed by the names of the argument types, the types themselves are checked, in case a type with the
+     * same name from a different ClassLoader is used.
+     */
+    private static class MethodLookup {
+        private final WeakReference<Class<?>>[] argumentTypes;
+        @Nullable
+        private final WeakReference<MetaMethod> method;
+
+        @SuppressWarnings("unchecked")
+        MethodLookup(Class[] argumentTypes, @Nullable MetaMethod method) {
+            this.argumentTypes = new WeakReference[argumentTypes.length];
+            for (int i = 0; i < argumentTypes.length; i++) {
+                this.argumentTypes[i] = new WeakReference<Class<?>>(argumentTypes[i]);
+            }
+            this.method = method == null ? null : new WeakReference<MetaMethod>(method);
+        }
+
+        boolean matches(Class[] argumentTypes) {
+            for (int i = 0; i < argumentTypes.length; i++) {
+                if (this.argumentTypes[i].get() != argumentTypes[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -30,6 +30,7 @@ import org.gradle.api.internal.artifacts.DefaultModule;
 import org.gradle.api.internal.artifacts.DependencyManagementServices;
 import org.gradle.api.internal.artifacts.Module;
 import org.gradle.api.internal.artifacts.configurations.DependencyMetaDataProvider;
+import org.gradle.api.internal.changedetection.state.FileSystemSnapshotter;
 import org.gradle.api.internal.classpath.ModuleRegistry;
 import org.gradle.api.internal.classpath.PluginModuleRegistry;
 import org.gradle.api.internal.component.ComponentTypeRegistry;
@@ -77,6 +78,7 @@ import org.gradle.api.internal.tasks.userinput.UserInputHandler;
 import org.gradle.api.provider.ProviderFactory;
 import org.gradle.cache.CacheRepository;
 import org.gradle.cache.CacheValidator;
+import org.gradle.cache.internal.CleanupActionFactory;
 import org.gradle.caching.internal.BuildCacheServices;
 import org.gradle.composite.internal.IncludedBuildRegistry;
 import org.gradle.configuration.BuildConfigurer;
@@ -87,10 +89,14 @@ import org.gradle.configuration.ImportsReader;
 import org.gradle.configuration.ScriptPluginFactory;
 import org.gradle.configuration.ScriptPluginFactorySelector;
 import org.gradle.configuration.project.BuildScriptProcessor;
+import org.gradle.configuration.project.ChildProjectBuildScriptPrecompiler;
 import org.gradle.configuration.project.ConfigureActionsProjectEvaluator;
 import org.gradle.configuration.project.DelayedConfigurationActions;
 import org.gradle.configuration.project.LifecycleProjectEvaluator;
+import org.gradle.configuration.project.LockingProjectEvaluator;
 import org.gradle.configuration.project.PluginsProjectConfigureActions;
+import org.gradle.configuration.project.ProjectConfigurationLocks;
+import org.gradle.configuration.project.ProjectConfigureAction;
 import org.gradle.configuration.project.ProjectEvaluator;
 import org.gradle.execution.ProjectConfigurer;
 import org.gradle.execution.TaskPathProjectEvaluator;
@@ -108,6 +114,7 @@ import org.gradle.initialization.BuildLoader;
 import org.gradle.initialization.BuildOperationSettingsProcessor;
 import org.gradle.initialization.ClassLoaderRegistry;
 import org.gradle.initialization.ClassLoaderScopeRegistry;
+import org.gradle.initialization.ConfigurationResultCache;
 import org.gradle.initialization.DefaultClassLoaderScopeRegistry;
 import org.gradle.initialization.DefaultGradlePropertiesLoader;
 import org.gradle.initialization.DefaultSettingsFinder;
@@ -119,6 +126,7 @@ import org.gradle.initialization.NestedBuildFactory;
 import org.gradle.initialization.NotifyingBuildLoader;
 import org.gradle.initialization.ProjectAccessListener;
 import org.gradle.initialization.ProjectPropertySettingBuildLoader;
+import org.gradle.initialization.PropertiesFileCache;
 import org.gradle.initialization.PropertiesLoadingSettingsProcessor;
 import org.gradle.initialization.RootBuildCacheControllerSettingsProcessor;
 import org.gradle.initialization.ScriptEvaluatingSettingsProcessor;
@@ -148,14 +156,17 @@ import org.gradle.internal.logging.sink.OutputEventRenderer;
 import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.operations.logging.BuildOperationLoggerFactory;
 import org.gradle.internal.operations.logging.DefaultBuildOperationLoggerFactory;
+import org.gradle.internal.progress.BuildOperationListenerManager;
 import org.gradle.internal.reflect.DirectInstantiator;
 import org.gradle.internal.reflect.Instantiator;
 import org.gradle.internal.resource.TextResourceLoader;
+import org.gradle.internal.resources.ResourceLockCoordinationService;
 import org.gradle.internal.service.CachingServiceLocator;
 import org.gradle.internal.service.DefaultServiceRegistry;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.internal.time.Clock;
+import org.gradle.internal.work.WorkerLeaseService;
 import org.gradle.model.internal.inspect.ModelRuleSourceDetector;
 import org.gradle.plugin.management.internal.autoapply.AutoAppliedPluginHandler;
 import org.gradle.plugin.use.internal.PluginRequestApplicator;
@@ -166,6 +177,7 @@ import org.gradle.tooling.provider.model.ToolingModelBuilderRegistry;
 import org.gradle.tooling.provider.model.internal.BuildScopeToolingModelBuilderRegistryAction;
 import org.gradle.tooling.provider.model.internal.DefaultToolingModelBuilderRegistry;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -211,29 +223,46 @@ public class BuildScopeServices extends DefaultServiceRegistry {
         return new DefaultActorFactory(get(ExecutorFactory.class));
     }
 
-    protected IGradlePropertiesLoader createGradlePropertiesLoader() {
-        return new DefaultGradlePropertiesLoader(get(StartParameter.class));
+    protected IGradlePropertiesLoader createGradlePropertiesLoader(PropertiesFileCache propertiesFileCache) {
+        return new DefaultGradlePropertiesLoader(get(StartParameter.class), propertiesFileCache);
     }
 
-    protected BuildLoader createBuildLoader(IGradlePropertiesLoader propertiesLoader, IProjectFactory projectFactory, BuildOperationExecutor buildOperationExecutor) {
+    protected BuildLoader createBuildLoader(IGradlePropertiesLoader propertiesLoader, IProjectFactory projectFactory, BuildOperationExecutor buildOperationExecutor, PropertiesFileCache propertiesFileCache) {
         return new NotifyingBuildLoader(
             new ProjectPropertySettingBuildLoader(
                 propertiesLoader,
                 new InstantiatingBuildLoader(
                     projectFactory
-                )
+                ),
+                propertiesFileCache
             ),
             buildOperationExecutor
         );
     }
 
-    protected ProjectEvaluator createProjectEvaluator(BuildOperationExecutor buildOperationExecutor, CachingServiceLocator cachingServiceLocator, ScriptPluginFactory scriptPluginFactory) {
-        ConfigureActionsProjectEvaluator withActionsEvaluator = new ConfigureActionsProjectEvaluator(
-            PluginsProjectConfigureActions.from(cachingServiceLocator),
-            new BuildScriptProcessor(scriptPluginFactory),
-            new DelayedConfigurationActions()
-        );
-        return new LifecycleProjectEvaluator(buildOperationExecutor, withActionsEvaluator);
+    protected ChildProjectBuildScriptPrecompiler createChildProjectBuildScriptPrecompiler(ExecutorFactory executorFactory, StartParameter startParameter) {
+        return new ChildProjectBuildScriptPrecompiler(defaultScriptPluginFactory(), executorFactory, startParameter.getMaxWorkerCount());
+    }
+
+    protected ProjectEvaluator createProjectEvaluator(BuildOperationExecutor buildOperationExecutor, CachingServiceLocator cachingServiceLocator, ScriptPluginFactory scriptPluginFactory, StartParameter startParameter, ProjectConfigurationLocks projectConfigurationLocks, ChildProjectBuildScriptPrecompiler childProjectBuildScriptPrecompiler) {
+        boolean parallelConfiguration = TaskPathProjectEvaluator.isParallelConfigurationEnabled(startParameter);
+        boolean precompileChildBuildScripts = ChildProjectBuildScriptPrecompiler.isEnabled(startParameter, parallelConfiguration);
+        List<ProjectConfigureAction> configureActions = new ArrayList<ProjectConfigureAction>();
+        configureActions.add(PluginsProjectConfigureActions.from(cachingServiceLocator));
+        if (precompileChildBuildScripts) {
+            configureActions.add(childProjectBuildScriptPrecompiler.awaitBuildScript());
+        }
+        configureActions.add(new BuildScriptProcessor(scriptPluginFactory));
+        if (precompileChildBuildScripts) {
+            configureActions.add(childProjectBuildScriptPrecompiler);
+        }
+        configureActions.add(new DelayedConfigurationActions());
+        ConfigureActionsProjectEvaluator withActionsEvaluator = new ConfigureActionsProjectEvaluator(configureActions.toArray(new ProjectConfigureAction[0]));
+        ProjectEvaluator evaluator = new LifecycleProjectEvaluator(buildOperationExecutor, withActionsEvaluator);
+        if (parallelConfiguration) {
+            evaluator = new LockingProjectEvaluator(evaluator, projectConfigurationLocks);
+        }
+        return evaluator;
     }
 
     protected PropertyMetadataStore createPropertyMetadataStore(List<PropertyAnnotationHandler> annotationHandlers) {
@@ -382,15 +411,22 @@ public class BuildScopeServices extends DefaultServiceRegistry {
         );
     }
 
-    protected ProjectConfigurer createProjectConfigurer(BuildCancellationToken cancellationToken) {
-        return new TaskPathProjectEvaluator(cancellationToken);
+    protected ProjectConfigurer createProjectConfigurer(BuildCancellationToken cancellationToken, BuildOperationExecutor buildOperationExecutor, StartParameter startParameter) {
+        return new TaskPathProjectEvaluator(cancellationToken, buildOperationExecutor, TaskPathProjectEvaluator.isParallelConfigurationEnabled(startParameter));
     }
 
     protected BuildConfigurer createBuildConfigurer(ProjectConfigurer projectConfigurer) {
         return new DefaultBuildConfigurer(projectConfigurer);
     }
 
-    protected ProjectAccessListener createProjectAccessListener() {
+    protected ProjectConfigurationLocks createProjectConfigurationLocks(WorkerLeaseService workerLeaseService, ResourceLockCoordinationService coordinationService) {
+        return new ProjectConfigurationLocks(workerLeaseService, coordinationService);
+    }
+
+    protected ProjectAccessListener createProjectAccessListener(StartParameter startParameter, ProjectConfigurationLocks projectConfigurationLocks) {
+        if (TaskPathProjectEvaluator.isParallelConfigurationEnabled(startParameter)) {
+            return new DefaultProjectAccessListener(projectConfigurationLocks);
+        }
         return new DefaultProjectAccessListener();
     }
 
@@ -398,6 +434,10 @@ public class BuildScopeServices extends DefaultServiceRegistry {
         return new ProfileEventAdapter(get(BuildStartedTime.class), get(Clock.class), get(ListenerManager.class).getBroadcaster(ProfileListener.class));
     }
 
+    protected ConfigurationResultCache createConfigurationResultCache(StartParameter startParameter, CacheRepository cacheRepository, CleanupActionFactory cleanupActionFactory, FileSystemSnapshotter fileSystemSnapshotter, BuildOperationListenerManager buildOperationListenerManager) {
+        return new ConfigurationResultCache(startParameter, cacheRepository, cleanupActionFactory, fileSystemSnapshotter, buildOperationListenerManager);
+    }
+
     protected PluginRegistry createPluginRegistry(ClassLoaderScopeRegistry scopeRegistry, PluginInspector pluginInspector) {
         return new DefaultPluginRegistry(pluginInspector, scopeRegistry.getCoreAndPluginsScope());
     }
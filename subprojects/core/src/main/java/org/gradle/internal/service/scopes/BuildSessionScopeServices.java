@@ -96,6 +96,7 @@ import org.gradle.internal.work.DefaultAsyncWorkTracker;
 import org.gradle.internal.work.DefaultWorkerLeaseService;
 import org.gradle.internal.work.WorkerLeaseService;
 import org.gradle.plugin.use.internal.InjectedPluginClasspath;
+import org.gradle.profile.ConfigurationProfiler;
 import org.gradle.util.GradleVersion;
 
 import java.io.File;
@@ -144,6 +145,10 @@ public class BuildSessionScopeServices extends DefaultServiceRegistry {
         return new BuildOperationTrace(startParameter, buildOperationlistenerManager);
     }
 
+    ConfigurationProfiler createConfigurationProfiler(StartParameter startParameter, BuildOperationListenerManager buildOperationlistenerManager) {
+        return new ConfigurationProfiler(startParameter, buildOperationlistenerManager);
+    }
+
     BuildOperationExecutor createBuildOperationExecutor(
         ListenerManager listenerManager,
         Clock clock,
@@ -153,7 +158,8 @@ public class BuildSessionScopeServices extends DefaultServiceRegistry {
         ResourceLockCoordinationService resourceLockCoordinationService,
         ParallelismConfigurationManager parallelismConfigurationManager,
         BuildOperationIdFactory buildOperationIdFactory,
-        @SuppressWarnings("unused") BuildOperationTrace buildOperationTrace // required in order to init this
+        @SuppressWarnings("unused") BuildOperationTrace buildOperationTrace, // required in order to init this
+        @SuppressWarnings("unused") ConfigurationProfiler configurationProfiler // required in order to init this
 
     ) {
         return new DefaultBuildOperationExecutor(
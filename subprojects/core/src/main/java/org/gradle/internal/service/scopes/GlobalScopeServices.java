@@ -113,11 +113,14 @@ import org.gradle.model.internal.manage.schema.extract.ModelSchemaAspectExtracto
 import org.gradle.model.internal.manage.schema.extract.ModelSchemaExtractionStrategy;
 import org.gradle.model.internal.manage.schema.extract.ModelSchemaExtractor;
 import org.gradle.process.internal.health.memory.DefaultJvmMemoryInfo;
+import org.gradle.process.internal.health.memory.DefaultMemoryBudget;
 import org.gradle.process.internal.health.memory.DefaultMemoryManager;
 import org.gradle.process.internal.health.memory.DefaultOsMemoryInfo;
 import org.gradle.process.internal.health.memory.JvmMemoryInfo;
+import org.gradle.process.internal.health.memory.MemoryBudget;
 import org.gradle.process.internal.health.memory.MemoryManager;
 import org.gradle.process.internal.health.memory.OsMemoryInfo;
+import org.gradle.process.internal.worker.MemoryBudgetWaitReporter;
 
 import java.util.List;
 
@@ -308,6 +311,12 @@ public class GlobalScopeServices extends BasicGlobalScopeServices {
         return new DefaultMemoryManager(osMemoryInfo, jvmMemoryInfo, listenerManager, executorFactory);
     }
 
+    MemoryBudget createMemoryBudget(ListenerManager listenerManager) {
+        MemoryBudget memoryBudget = new DefaultMemoryBudget();
+        listenerManager.addListener(new MemoryBudgetWaitReporter(memoryBudget));
+        return memoryBudget;
+    }
+
     ObjectFactory createObjectFactory(InstantiatorFactory instantiatorFactory, ServiceRegistry services) {
         return new DefaultObjectFactory(instantiatorFactory.injectAndDecorate(services), NamedObjectInstantiator.INSTANCE);
     }
@@ -16,9 +16,14 @@
 
 package org.gradle.internal.service.scopes;
 
+import org.gradle.api.internal.AsmBackedClassGenerator;
+import org.gradle.api.internal.ClassGenerator;
 import org.gradle.api.internal.ClassPathRegistry;
 import org.gradle.api.internal.DefaultClassPathProvider;
 import org.gradle.api.internal.DefaultClassPathRegistry;
+import org.gradle.api.internal.DefaultInstantiatorFactory;
+import org.gradle.api.internal.DirectoryGeneratedClassStore;
+import org.gradle.api.internal.InstantiatorFactory;
 import org.gradle.api.internal.cache.StringInterner;
 import org.gradle.api.internal.changedetection.state.CachingFileHasher;
 import org.gradle.api.internal.changedetection.state.ClasspathSnapshotter;
@@ -43,16 +48,20 @@ import org.gradle.api.internal.initialization.loadercache.DefaultClassLoaderCach
 import org.gradle.api.internal.initialization.loadercache.DefaultClasspathHasher;
 import org.gradle.api.internal.model.NamedObjectInstantiator;
 import org.gradle.cache.CacheRepository;
+import org.gradle.cache.FileLockManager;
+import org.gradle.cache.PersistentCache;
 import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.cache.internal.CacheRepositoryServices;
 import org.gradle.cache.internal.CacheScopeMapping;
 import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory;
+import org.gradle.cache.internal.FixedAgeOldestCacheCleanup;
 import org.gradle.groovy.scripts.internal.CrossBuildInMemoryCachingScriptClassCache;
 import org.gradle.groovy.scripts.internal.DefaultScriptSourceHasher;
 import org.gradle.groovy.scripts.internal.RegistryAwareClassLoaderHierarchyHasher;
 import org.gradle.groovy.scripts.internal.ScriptSourceHasher;
 import org.gradle.initialization.ClassLoaderRegistry;
 import org.gradle.initialization.GradleUserHomeDirProvider;
+import org.gradle.initialization.PropertiesFileCache;
 import org.gradle.internal.classloader.ClassLoaderHasher;
 import org.gradle.internal.classloader.ClassLoaderHierarchyHasher;
 import org.gradle.internal.classloader.ClasspathHasher;
@@ -78,6 +87,7 @@ import org.gradle.internal.serialize.HashCodeSerializer;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.process.internal.JavaExecHandleFactory;
+import org.gradle.process.internal.health.memory.MemoryBudget;
 import org.gradle.process.internal.health.memory.MemoryManager;
 import org.gradle.process.internal.worker.DefaultWorkerProcessFactory;
 import org.gradle.process.internal.worker.WorkerProcessFactory;
@@ -85,6 +95,8 @@ import org.gradle.process.internal.worker.child.WorkerProcessClassPathProvider;
 
 import java.util.List;
 
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
 /**
  * Defines the shared services scoped to a particular Gradle user home directory. These services are reused across multiple builds and operations.
  */
@@ -106,6 +118,25 @@ public class GradleUserHomeScopeServices {
         return parent.createChild();
     }
 
+    DirectoryGeneratedClassStore createGeneratedClassStore(CacheRepository cacheRepository) {
+        // The cleanup is not decorated as a build operation, as this cache is closed outside of any build
+        PersistentCache cache = cacheRepository
+            .cache("generated-classes")
+            .withDisplayName("generated classes cache")
+            .withCleanup(new FixedAgeOldestCacheCleanup(DirectoryGeneratedClassStore.REMOVE_UNUSED_ENTRIES_AFTER_DAYS))
+            .withLockOptions(mode(FileLockManager.LockMode.None)) // Lock on demand
+            .open();
+        return new DirectoryGeneratedClassStore(cache);
+    }
+
+    ClassGenerator createClassGenerator(DirectoryGeneratedClassStore generatedClassStore) {
+        return new AsmBackedClassGenerator(generatedClassStore);
+    }
+
+    InstantiatorFactory createInstantiatorFactory(ClassGenerator classGenerator, CrossBuildInMemoryCacheFactory cacheFactory) {
+        return new DefaultInstantiatorFactory(classGenerator, cacheFactory);
+    }
+
     CrossBuildFileHashCache createCrossBuildFileHashCache(CacheRepository cacheRepository, InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory) {
         return new CrossBuildFileHashCache(null, cacheRepository, inMemoryCacheDecoratorFactory);
     }
@@ -126,6 +157,10 @@ public class GradleUserHomeScopeServices {
         return new DefaultScriptSourceHasher(fileHasher, contentHasherFactory);
     }
 
+    PropertiesFileCache createPropertiesFileCache(FileHasher fileHasher, CrossBuildInMemoryCacheFactory cacheFactory) {
+        return new PropertiesFileCache(fileHasher, cacheFactory);
+    }
+
     CrossBuildInMemoryCachingScriptClassCache createCachingScriptCompiler(ScriptSourceHasher hasher, CrossBuildInMemoryCacheFactory cacheFactory) {
         return new CrossBuildInMemoryCachingScriptClassCache(hasher, cacheFactory);
     }
@@ -172,7 +207,7 @@ public class GradleUserHomeScopeServices {
 
     WorkerProcessFactory createWorkerProcessFactory(LoggingManagerInternal loggingManagerInternal, MessagingServer messagingServer, ClassPathRegistry classPathRegistry,
                                                     TemporaryFileProvider temporaryFileProvider, JavaExecHandleFactory execHandleFactory, JvmVersionDetector jvmVersionDetector,
-                                                    MemoryManager memoryManager, GradleUserHomeDirProvider gradleUserHomeDirProvider, OutputEventListener outputEventListener) {
+                                                    MemoryManager memoryManager, MemoryBudget memoryBudget, GradleUserHomeDirProvider gradleUserHomeDirProvider, OutputEventListener outputEventListener) {
         return new DefaultWorkerProcessFactory(
             loggingManagerInternal,
             messagingServer,
@@ -183,7 +218,8 @@ public class GradleUserHomeScopeServices {
             execHandleFactory,
             jvmVersionDetector,
             outputEventListener,
-            memoryManager
+            memoryManager,
+            memoryBudget
         );
     }
 
@@ -26,11 +26,16 @@ import org.gradle.internal.remote.MessagingServer;
 import org.gradle.internal.remote.ObjectConnection;
 import org.gradle.process.ExecResult;
 import org.gradle.process.internal.ExecHandle;
+import org.gradle.process.internal.ExecHandleListener;
 import org.gradle.process.internal.JavaExecHandleBuilder;
 import org.gradle.process.internal.JavaExecHandleFactory;
 import org.gradle.process.internal.health.memory.JvmMemoryStatus;
+import org.gradle.process.internal.health.memory.MaximumHeapHelper;
 import org.gradle.process.internal.health.memory.MemoryAmount;
+import org.gradle.process.internal.health.memory.MemoryBudget;
 import org.gradle.process.internal.health.memory.MemoryManager;
+import org.gradle.process.internal.health.memory.MemoryReservation;
+import org.gradle.process.internal.health.memory.TotalPhysicalMemoryProvider;
 import org.gradle.process.internal.worker.child.ApplicationClassesInSystemClassLoaderWorkerImplementationFactory;
 import org.gradle.process.internal.worker.child.WorkerJvmMemoryInfoProtocol;
 import org.gradle.process.internal.worker.child.WorkerLoggingProtocol;
@@ -57,6 +62,7 @@ public class DefaultWorkerProcessBuilder implements WorkerProcessBuilder {
     private final Set<String> packages = new HashSet<String>();
     private final Set<File> applicationClasspath = new LinkedHashSet<File>();
     private final MemoryManager memoryManager;
+    private final MemoryBudget memoryBudget;
     private Action<? super WorkerProcessContext> action;
     private LogLevel logLevel = LogLevel.LIFECYCLE;
     private String baseName = "Gradle Worker";
@@ -65,13 +71,14 @@ public class DefaultWorkerProcessBuilder implements WorkerProcessBuilder {
     private List<URL> implementationClassPath;
     private boolean shouldPublishJvmMemoryInfo;
 
-    DefaultWorkerProcessBuilder(JavaExecHandleFactory execHandleFactory, MessagingServer server, IdGenerator<?> idGenerator, ApplicationClassesInSystemClassLoaderWorkerImplementationFactory workerImplementationFactory, OutputEventListener outputEventListener, MemoryManager memoryManager) {
+    DefaultWorkerProcessBuilder(JavaExecHandleFactory execHandleFactory, MessagingServer server, IdGenerator<?> idGenerator, ApplicationClassesInSystemClassLoaderWorkerImplementationFactory workerImplementationFactory, OutputEventListener outputEventListener, MemoryManager memoryManager, MemoryBudget memoryBudget) {
         this.javaCommand = execHandleFactory.newJavaExec();
         this.server = server;
         this.idGenerator = idGenerator;
         this.workerImplementationFactory = workerImplementationFactory;
         this.outputEventListener = outputEventListener;
         this.memoryManager = memoryManager;
+        this.memoryBudget = memoryBudget;
     }
 
     public int getConnectTimeoutSeconds() {
@@ -198,24 +205,66 @@ public class DefaultWorkerProcessBuilder implements WorkerProcessBuilder {
 
         workerProcess.setExecHandle(execHandle);
 
-        return new MemoryRequestingWorkerProcess(workerProcess, memoryManager, MemoryAmount.parseNotation(javaCommand.getMinHeapSize()));
+        MemoryRequestingWorkerProcess memoryRequestingWorkerProcess = new MemoryRequestingWorkerProcess(workerProcess, displayName, memoryManager, MemoryAmount.parseNotation(javaCommand.getMinHeapSize()), memoryBudget, getMaxHeapSize(javaCommand));
+        execHandle.addListener(memoryRequestingWorkerProcess);
+        return memoryRequestingWorkerProcess;
     }
 
-    private static class MemoryRequestingWorkerProcess implements WorkerProcess {
+    private static long getMaxHeapSize(JavaExecHandleBuilder javaCommand) {
+        long maxHeapSize = MemoryAmount.parseNotation(javaCommand.getMaxHeapSize());
+        if (maxHeapSize > 0) {
+            return maxHeapSize;
+        }
+        try {
+            return new MaximumHeapHelper().getDefaultMaximumHeapSize(TotalPhysicalMemoryProvider.getTotalPhysicalMemory());
+        } catch (UnsupportedOperationException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Reserves the maximum heap of the worker process from the memory budget before starting it, and returns it once the process has finished.
+     */
+    private static class MemoryRequestingWorkerProcess implements WorkerProcess, ExecHandleListener {
         private final WorkerProcess delegate;
+        private final String displayName;
         private final MemoryManager memoryResourceManager;
         private final long memoryAmount;
+        private final MemoryBudget memoryBudget;
+        private final long maxHeapSize;
+        private volatile MemoryReservation reservation;
 
-        private MemoryRequestingWorkerProcess(WorkerProcess delegate, MemoryManager memoryResourceManager, long memoryAmount) {
+        private MemoryRequestingWorkerProcess(WorkerProcess delegate, String displayName, MemoryManager memoryResourceManager, long memoryAmount, MemoryBudget memoryBudget, long maxHeapSize) {
             this.delegate = delegate;
+            this.displayName = displayName;
             this.memoryResourceManager = memoryResourceManager;
             this.memoryAmount = memoryAmount;
+            this.memoryBudget = memoryBudget;
+            this.maxHeapSize = maxHeapSize;
         }
 
         @Override
         public WorkerProcess start() {
+            reservation = memoryBudget.reserve(displayName, maxHeapSize);
             memoryResourceManager.requestFreeMemory(memoryAmount);
-            return delegate.start();
+            try {
+                return delegate.start();
+            } catch (RuntimeException e) {
+                reservation.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public void executionStarted(ExecHandle execHandle) {
+        }
+
+        @Override
+        public void executionFinished(ExecHandle execHandle, ExecResult execResult) {
+            MemoryReservation reservation = this.reservation;
+            if (reservation != null) {
+                reservation.release();
+            }
         }
 
         @Override
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal.worker;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.initialization.SessionLifecycleListener;
+import org.gradle.internal.time.TimeFormatting;
+import org.gradle.process.internal.health.memory.MemoryBudget;
+
+/**
+ * Reports the time that worker processes have spent waiting for the memory budget during a build session.
+ */
+public class MemoryBudgetWaitReporter implements SessionLifecycleListener {
+    private static final Logger LOGGER = Logging.getLogger(MemoryBudgetWaitReporter.class);
+
+    private final MemoryBudget memoryBudget;
+    private int waitCountAtStart;
+    private long waitTimeAtStart;
+
+    public MemoryBudgetWaitReporter(MemoryBudget memoryBudget) {
+        this.memoryBudget = memoryBudget;
+    }
+
+    @Override
+    public void afterStart() {
+        waitCountAtStart = memoryBudget.getWaitCount();
+        waitTimeAtStart = memoryBudget.getWaitTimeMillis();
+    }
+
+    @Override
+    public void beforeComplete() {
+        int waitCount = memoryBudget.getWaitCount() - waitCountAtStart;
+        if (waitCount > 0) {
+            long waitTime = memoryBudget.getWaitTimeMillis() - waitTimeAtStart;
+            LOGGER.lifecycle("{} worker process(es) waited {} in total for the memory budget.", waitCount, TimeFormatting.formatDurationVerbose(waitTime));
+        }
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal.worker.request;
+
+import com.google.common.collect.ImmutableMap;
+import org.gradle.internal.logging.events.OperationIdentifier;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.DefaultSerializerRegistry;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.Message;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.SerializerRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serializers for the parameters of {@link RequestProtocol} and {@link ResponseProtocol}. The method name, parameter types and build operation identifier of
+ * a request are written in binary form. The request arguments that are not strings are Java serialized together, using a single stream.
+ */
+public class RequestArgumentSerializers {
+    public static SerializerRegistry create(ClassLoader classLoader) {
+        DefaultSerializerRegistry registry = new DefaultSerializerRegistry(false);
+        ObjectSerializer objectSerializer = new ObjectSerializer(classLoader);
+        registry.register(String.class, BaseSerializerFactory.STRING_SERIALIZER);
+        registry.register(Class[].class, new ClassArraySerializer(classLoader));
+        registry.register(Object.class, objectSerializer);
+        registry.register(Object[].class, new ObjectArraySerializer(objectSerializer));
+        return registry;
+    }
+
+    private static class ObjectSerializer implements Serializer<Object> {
+        private static final byte NULL = 0;
+        private static final byte OPERATION_IDENTIFIER = 1;
+        private static final byte STRING = 2;
+        private static final byte JAVA_SERIALIZED = 3;
+        private final ClassLoader classLoader;
+
+        private ObjectSerializer(ClassLoader classLoader) {
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        public Object read(Decoder decoder) throws Exception {
+            byte tag = decoder.readByte();
+            if (tag == JAVA_SERIALIZED) {
+                return receive(decoder);
+            }
+            return readInline(decoder, tag);
+        }
+
+        @Override
+        public void write(Encoder encoder, Object value) throws Exception {
+            if (!writeInline(encoder, value)) {
+                send(encoder, value);
+            }
+        }
+
+        /**
+         * Writes the type tag of the given value, followed by the value itself when it has a binary form.
+         *
+         * @return false when the value needs to be Java serialized.
+         */
+        boolean writeInline(Encoder encoder, Object value) throws Exception {
+            if (value == null) {
+                encoder.writeByte(NULL);
+            } else if (value.getClass() == OperationIdentifier.class) {
+                encoder.writeByte(OPERATION_IDENTIFIER);
+                encoder.writeLong(((OperationIdentifier) value).getId());
+            } else if (value instanceof String) {
+                encoder.writeByte(STRING);
+                encoder.writeString((String) value);
+            } else {
+                encoder.writeByte(JAVA_SERIALIZED);
+                return false;
+            }
+            return true;
+        }
+
+        boolean isJavaSerialized(byte tag) {
+            return tag == JAVA_SERIALIZED;
+        }
+
+        Object readInline(Decoder decoder, byte tag) throws Exception {
+            switch (tag) {
+                case NULL:
+                    return null;
+                case OPERATION_IDENTIFIER:
+                    return new OperationIdentifier(decoder.readLong());
+                case STRING:
+                    return decoder.readString();
+                default:
+                    throw new IllegalArgumentException(String.format("Unexpected type tag %d found.", tag));
+            }
+        }
+
+        Object receive(Decoder decoder) throws Exception {
+            return Message.receive(decoder.getInputStream(), classLoader);
+        }
+
+        void send(Encoder encoder, Object value) throws Exception {
+            Message.send(value, encoder.getOutputStream());
+        }
+    }
+
+    private static class ObjectArraySerializer implements Serializer<Object[]> {
+        private final ObjectSerializer elementSerializer;
+
+        private ObjectArraySerializer(ObjectSerializer elementSerializer) {
+            this.elementSerializer = elementSerializer;
+        }
+
+        @Override
+        public Object[] read(Decoder decoder) throws Exception {
+            int length = decoder.readSmallInt() - 1;
+            if (length < 0) {
+                return null;
+            }
+            Object[] result = new Object[length];
+            List<Integer> serializedIndexes = null;
+            for (int i = 0; i < length; i++) {
+                byte tag = decoder.readByte();
+                if (elementSerializer.isJavaSerialized(tag)) {
+                    if (serializedIndexes == null) {
+                        serializedIndexes = new ArrayList<Integer>(length);
+                    }
+                    serializedIndexes.add(i);
+                } else {
+                    result[i] = elementSerializer.readInline(decoder, tag);
+                }
+            }
+            if (serializedIndexes != null) {
+                Object[] serialized = (Object[]) elementSerializer.receive(decoder);
+                for (int i = 0; i < serialized.length; i++) {
+                    result[serializedIndexes.get(i)] = serialized[i];
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public void write(Encoder encoder, Object[] value) throws Exception {
+            if (value == null) {
+                encoder.writeSmallInt(0);
+                return;
+            }
+            encoder.writeSmallInt(value.length + 1);
+            // Java serialize the remaining elements together, as each stream carries the class descriptors it uses
+            List<Object> serialized = null;
+            for (Object element : value) {
+                if (!elementSerializer.writeInline(encoder, element)) {
+                    if (serialized == null) {
+                        serialized = new ArrayList<Object>(value.length);
+                    }
+                    serialized.add(element);
+                }
+            }
+            if (serialized != null) {
+                elementSerializer.send(encoder, serialized.toArray());
+            }
+        }
+    }
+
+    private static class ClassArraySerializer implements Serializer<Class[]> {
+        private static final Map<String, Class<?>> PRIMITIVE_TYPES;
+
+        static {
+            ImmutableMap.Builder<String, Class<?>> builder = ImmutableMap.builder();
+            for (Class<?> type : new Class<?>[]{boolean.class, byte.class, char.class, short.class, int.class, long.class, float.class, double.class, void.class}) {
+                builder.put(type.getName(), type);
+            }
+            PRIMITIVE_TYPES = builder.build();
+        }
+
+        private final ClassLoader classLoader;
+
+        private ClassArraySerializer(ClassLoader classLoader) {
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        public Class[] read(Decoder decoder) throws Exception {
+            int length = decoder.readSmallInt() - 1;
+            if (length < 0) {
+                return null;
+            }
+            Class<?>[] result = new Class<?>[length];
+            for (int i = 0; i < length; i++) {
+                String name = decoder.readString();
+                Class<?> type = PRIMITIVE_TYPES.get(name);
+                result[i] = type != null ? type : Class.forName(name, false, classLoader);
+            }
+            return result;
+        }
+
+        @Override
+        public void write(Encoder encoder, Class[] value) throws Exception {
+            if (value == null) {
+                encoder.writeSmallInt(0);
+                return;
+            }
+            encoder.writeSmallInt(value.length + 1);
+            for (Class<?> type : value) {
+                encoder.writeString(type.getName());
+            }
+        }
+    }
+}
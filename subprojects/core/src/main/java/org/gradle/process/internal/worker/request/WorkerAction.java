@@ -61,6 +61,7 @@ public class WorkerAction implements Action<WorkerProcessContext>, Serializable,
 
         ObjectConnection connection = workerProcessContext.getServerConnection();
         connection.addIncoming(RequestProtocol.class, this);
+        connection.useParameterSerializers(RequestArgumentSerializers.create(getClass().getClassLoader()));
         responder = connection.addOutgoing(ResponseProtocol.class);
         connection.connect();
 
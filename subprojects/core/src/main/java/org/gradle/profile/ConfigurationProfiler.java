@@ -0,0 +1,304 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.profile;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.Files;
+import groovy.json.JsonOutput;
+import org.gradle.StartParameter;
+import org.gradle.api.internal.plugins.ApplyPluginBuildOperationType;
+import org.gradle.configuration.ApplyScriptPluginBuildOperationType;
+import org.gradle.configuration.project.ConfigureProjectBuildOperationType;
+import org.gradle.configuration.project.NotifyProjectAfterEvaluatedBuildOperationType;
+import org.gradle.configuration.project.NotifyProjectBeforeEvaluatedBuildOperationType;
+import org.gradle.initialization.EvaluateSettingsBuildOperationType;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.progress.BuildOperationDescriptor;
+import org.gradle.internal.progress.BuildOperationListener;
+import org.gradle.internal.progress.BuildOperationListenerManager;
+import org.gradle.internal.progress.OperationFinishEvent;
+import org.gradle.internal.progress.OperationProgressEvent;
+import org.gradle.internal.progress.OperationStartEvent;
+import org.gradle.util.GFileUtils;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Attributes the wall time, CPU time and memory allocated during configuration to each settings script, script, plugin application,
+ * project configuration and notification of project evaluation listeners.
+ * Can be enabled for any build with `-Dorg.gradle.internal.profile.configuration=«path-base»`, and works with any JVM without an external profiler.
+ *
+ * Imposes no overhead when not enabled.
+ *
+ * Each measured build operation becomes a frame, nested in the frame of the closest enclosing measured operation.
+ * Resources are measured on the thread that runs the operation, using the per-thread counters of the JVM.
+ * The total of a frame includes its nested frames, and the self value of a frame excludes the totals of nested frames that ran on the same thread.
+ *
+ * The files are written when the build session finishes:
+ *
+ * - «path-base»-configuration.json: a JSON tree of the frames, with total and self values
+ * - «path-base»-wall.folded, «path-base»-cpu.folded and «path-base»-alloc.folded: the self values in folded stack format, one line per stack,
+ *   as used by flamegraph.pl and compatible viewers. Time is in microseconds, allocation in bytes.
+ *
+ * CPU time and allocation are omitted when the JVM does not support per-thread counters for them.
+ *
+ * The «path-base» param is optional, and is resolved relative to the current directory of the build.
+ * If invoked as `-Dorg.gradle.internal.profile.configuration`, a base value of "configuration-profile" will be used.
+ *
+ * @since 4.6
+ */
+public class ConfigurationProfiler implements Stoppable, BuildOperationListener {
+
+    public static final String SYSPROP = "org.gradle.internal.profile.configuration";
+
+    private final BuildOperationListenerManager listenerManager;
+    private final File basePath;
+    private final ThreadResourceUsage resourceUsage;
+    private final Frame root = new Frame(null, null, null, -1, null, 0, 0, 0);
+    private final ConcurrentMap<Object, Frame> running = Maps.newConcurrentMap();
+
+    public ConfigurationProfiler(StartParameter startParameter, BuildOperationListenerManager buildOperationListenerManager) {
+        this.listenerManager = buildOperationListenerManager;
+
+        String basePath = startParameter.getSystemPropertiesArgs().get(SYSPROP);
+        if (basePath == null) {
+            basePath = System.getProperty(SYSPROP);
+        }
+        if (basePath == null || basePath.equals(Boolean.FALSE.toString())) {
+            this.basePath = null;
+            this.resourceUsage = null;
+            return;
+        }
+
+        File base = new File(basePath.trim().isEmpty() || basePath.equals(Boolean.TRUE.toString()) ? "configuration-profile" : basePath);
+        this.basePath = base.isAbsolute() ? base : new File(startParameter.getCurrentDir(), base.getPath());
+        this.resourceUsage = new ThreadResourceUsage();
+        buildOperationListenerManager.addListener(this);
+    }
+
+    @Override
+    public void started(BuildOperationDescriptor buildOperation, OperationStartEvent startEvent) {
+        Frame parent = buildOperation.getParentId() == null ? null : running.get(buildOperation.getParentId());
+        if (parent == null) {
+            parent = root;
+        }
+        if (!isMeasured(buildOperation.getDetails())) {
+            // Nested measured operations belong to the closest measured ancestor
+            running.put(buildOperation.getId(), parent);
+            return;
+        }
+        Thread thread = Thread.currentThread();
+        running.put(buildOperation.getId(), new Frame(buildOperation.getId(), buildOperation.getDisplayName(), parent, thread.getId(), thread.getName(),
+            System.nanoTime(), resourceUsage.getCurrentThreadCpuTime(), resourceUsage.getCurrentThreadAllocatedBytes()));
+    }
+
+    @Override
+    public void progress(BuildOperationDescriptor buildOperation, OperationProgressEvent progressEvent) {
+    }
+
+    @Override
+    public void finished(BuildOperationDescriptor buildOperation, OperationFinishEvent finishEvent) {
+        Frame frame = running.remove(buildOperation.getId());
+        if (frame == null || !buildOperation.getId().equals(frame.id)) {
+            return;
+        }
+        long wallTime = System.nanoTime();
+        if (Thread.currentThread().getId() == frame.threadId) {
+            frame.finished(wallTime, resourceUsage.getCurrentThreadCpuTime(), resourceUsage.getCurrentThreadAllocatedBytes());
+        } else {
+            frame.finished(wallTime, ThreadResourceUsage.UNSUPPORTED, ThreadResourceUsage.UNSUPPORTED);
+        }
+        frame.parent.childFinished(frame);
+    }
+
+    private static boolean isMeasured(@Nullable Object details) {
+        return details instanceof ApplyPluginBuildOperationType.Details
+            || details instanceof ApplyScriptPluginBuildOperationType.Details
+            || details instanceof ConfigureProjectBuildOperationType.Details
+            || details instanceof NotifyProjectBeforeEvaluatedBuildOperationType.Details
+            || details instanceof NotifyProjectAfterEvaluatedBuildOperationType.Details
+            || details instanceof EvaluateSettingsBuildOperationType.Details;
+    }
+
+    @Override
+    public void stop() {
+        if (basePath == null) {
+            return;
+        }
+        listenerManager.removeListener(this);
+
+        List<Frame> frames = root.getChildren();
+        try {
+            GFileUtils.mkdirs(basePath.getAbsoluteFile().getParentFile());
+            writeJson(frames);
+            writeFolded(frames, "-wall.folded", Measure.WALL_TIME);
+            if (resourceUsage.isCpuTimeSupported()) {
+                writeFolded(frames, "-cpu.folded", Measure.CPU_TIME);
+            }
+            if (resourceUsage.isAllocationSupported()) {
+                writeFolded(frames, "-alloc.folded", Measure.ALLOCATION);
+            }
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private void writeJson(List<Frame> frames) throws IOException {
+        Map<String, Object> json = Maps.newLinkedHashMap();
+        json.put("cpuTimeSupported", resourceUsage.isCpuTimeSupported());
+        json.put("allocationSupported", resourceUsage.isAllocationSupported());
+        json.put("frames", toJson(frames));
+        Files.asCharSink(file("-configuration.json"), Charsets.UTF_8).write(JsonOutput.prettyPrint(JsonOutput.toJson(json)));
+    }
+
+    private static List<Map<String, Object>> toJson(List<Frame> frames) {
+        List<Map<String, Object>> result = new ArrayList<Map<String, Object>>(frames.size());
+        for (Frame frame : frames) {
+            Map<String, Object> json = Maps.newLinkedHashMap();
+            json.put("name", frame.name);
+            json.put("thread", frame.threadName);
+            json.put("wallTimeNanos", frame.wallTime);
+            json.put("selfWallTimeNanos", frame.self(Measure.WALL_TIME));
+            if (frame.cpuTime != ThreadResourceUsage.UNSUPPORTED) {
+                json.put("cpuTimeNanos", frame.cpuTime);
+                json.put("selfCpuTimeNanos", frame.self(Measure.CPU_TIME));
+            }
+            if (frame.allocatedBytes != ThreadResourceUsage.UNSUPPORTED) {
+                json.put("allocatedBytes", frame.allocatedBytes);
+                json.put("selfAllocatedBytes", frame.self(Measure.ALLOCATION));
+            }
+            json.put("children", toJson(frame.getChildren()));
+            result.add(json);
+        }
+        return result;
+    }
+
+    private void writeFolded(List<Frame> frames, String suffix, Measure measure) throws IOException {
+        Map<String, Long> stacks = Maps.newLinkedHashMap();
+        collectStacks(frames, "", measure, stacks);
+        List<String> lines = new ArrayList<String>(stacks.size());
+        for (Map.Entry<String, Long> entry : stacks.entrySet()) {
+            lines.add(entry.getKey() + " " + entry.getValue());
+        }
+        Files.asCharSink(file(suffix), Charsets.UTF_8).writeLines(lines);
+    }
+
+    private static void collectStacks(List<Frame> frames, String prefix, Measure measure, Map<String, Long> stacks) {
+        for (Frame frame : frames) {
+            String stack = prefix + frame.name.replace(';', ',').replace('\n', ' ');
+            long value = measure.scale(frame.self(measure));
+            if (value > 0) {
+                Long existing = stacks.get(stack);
+                stacks.put(stack, existing == null ? value : existing + value);
+            }
+            collectStacks(frame.getChildren(), stack + ";", measure, stacks);
+        }
+    }
+
+    private File file(String suffix) {
+        return new File(basePath.getPath() + suffix);
+    }
+
+    private enum Measure {
+        WALL_TIME, CPU_TIME, ALLOCATION;
+
+        long of(Frame frame) {
+            switch (this) {
+                case WALL_TIME:
+                    return frame.wallTime;
+                case CPU_TIME:
+                    return frame.cpuTime;
+                default:
+                    return frame.allocatedBytes;
+            }
+        }
+
+        long scale(long value) {
+            return this == ALLOCATION ? value : value / 1000;
+        }
+    }
+
+    private static class Frame {
+        final Object id;
+        final String name;
+        final Frame parent;
+        final long threadId;
+        final String threadName;
+        private final long startWallTime;
+        private final long startCpuTime;
+        private final long startAllocatedBytes;
+        private final List<Frame> children = Lists.newArrayList();
+        long wallTime;
+        long cpuTime;
+        long allocatedBytes;
+
+        Frame(@Nullable Object id, @Nullable String name, @Nullable Frame parent, long threadId, @Nullable String threadName, long startWallTime, long startCpuTime, long startAllocatedBytes) {
+            this.id = id;
+            this.name = name;
+            this.parent = parent;
+            this.threadId = threadId;
+            this.threadName = threadName;
+            this.startWallTime = startWallTime;
+            this.startCpuTime = startCpuTime;
+            this.startAllocatedBytes = startAllocatedBytes;
+        }
+
+        void finished(long endWallTime, long endCpuTime, long endAllocatedBytes) {
+            wallTime = endWallTime - startWallTime;
+            cpuTime = delta(startCpuTime, endCpuTime);
+            allocatedBytes = delta(startAllocatedBytes, endAllocatedBytes);
+        }
+
+        private static long delta(long start, long end) {
+            return start == ThreadResourceUsage.UNSUPPORTED || end == ThreadResourceUsage.UNSUPPORTED ? ThreadResourceUsage.UNSUPPORTED : end - start;
+        }
+
+        synchronized void childFinished(Frame child) {
+            children.add(child);
+        }
+
+        synchronized List<Frame> getChildren() {
+            return new ArrayList<Frame>(children);
+        }
+
+        /**
+         * The value of this frame, less the values of the nested frames that ran on the same thread.
+         */
+        long self(Measure measure) {
+            long value = measure.of(this);
+            if (value == ThreadResourceUsage.UNSUPPORTED) {
+                return value;
+            }
+            for (Frame child : getChildren()) {
+                long childValue = measure.of(child);
+                if (child.threadId == threadId && childValue != ThreadResourceUsage.UNSUPPORTED) {
+                    value -= childValue;
+                }
+            }
+            return Math.max(value, 0);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.profile;
+
+import javax.annotation.Nullable;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures the CPU time used and the memory allocated by the current thread, using the counters of the JVM when available.
+ */
+class ThreadResourceUsage {
+    static final long UNSUPPORTED = -1;
+
+    private final ThreadMXBean threadMXBean;
+    private final boolean cpuTimeSupported;
+    @Nullable
+    private final AllocationCounter allocationCounter;
+
+    ThreadResourceUsage() {
+        threadMXBean = ManagementFactory.getThreadMXBean();
+        cpuTimeSupported = threadMXBean.isCurrentThreadCpuTimeSupported() && threadMXBean.isThreadCpuTimeEnabled();
+        allocationCounter = AllocationCounter.create(threadMXBean);
+    }
+
+    boolean isCpuTimeSupported() {
+        return cpuTimeSupported;
+    }
+
+    boolean isAllocationSupported() {
+        return allocationCounter != null;
+    }
+
+    /**
+     * Returns the CPU time used by the current thread, in nanoseconds, or {@link #UNSUPPORTED}.
+     */
+    long getCurrentThreadCpuTime() {
+        return cpuTimeSupported ? threadMXBean.getCurrentThreadCpuTime() : UNSUPPORTED;
+    }
+
+    /**
+     * Returns the number of bytes allocated by the current thread, or {@link #UNSUPPORTED}.
+     */
+    long getCurrentThreadAllocatedBytes() {
+        return allocationCounter != null ? allocationCounter.getCurrentThreadAllocatedBytes() : UNSUPPORTED;
+    }
+
+    /**
+     * Per-thread allocation counters are an extension provided by HotSpot and compatible JVMs, so are only used once the extension is known to be present.
+     */
+    private static class AllocationCounter {
+        private final com.sun.management.ThreadMXBean threadMXBean;
+
+        private AllocationCounter(com.sun.management.ThreadMXBean threadMXBean) {
+            this.threadMXBean = threadMXBean;
+        }
+
+        @Nullable
+        static AllocationCounter create(ThreadMXBean threadMXBean) {
+            try {
+                Class.forName("com.sun.management.ThreadMXBean");
+            } catch (ClassNotFoundException e) {
+                return null;
+            }
+            if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean hotSpotThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+                if (hotSpotThreadMXBean.isThreadAllocatedMemorySupported() && hotSpotThreadMXBean.isThreadAllocatedMemoryEnabled()) {
+                    return new AllocationCounter(hotSpotThreadMXBean);
+                }
+            }
+            return null;
+        }
+
+        long getCurrentThreadAllocatedBytes() {
+            return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+    }
+}
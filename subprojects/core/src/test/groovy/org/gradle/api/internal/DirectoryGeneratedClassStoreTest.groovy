@@ -0,0 +1,246 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal
+
+import org.gradle.api.GradleException
+import org.gradle.cache.PersistentCache
+import org.gradle.internal.hash.HashCode
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.Opcodes
+import spock.lang.Specification
+
+class DirectoryGeneratedClassStoreTest extends Specification {
+    @Rule
+    final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def key = HashCode.fromString("0123456789abcdef0123456789abcdef")
+    def cache = Stub(PersistentCache) {
+        getBaseDir() >> tmpDir.file("generated")
+    }
+    def store = new DirectoryGeneratedClassStore(cache)
+
+    def "returns null for missing entry"() {
+        expect:
+        store.load(key) == null
+    }
+
+    def "can load stored entry"() {
+        when:
+        store.store(key, [1, 2, 3] as byte[])
+
+        then:
+        store.load(key) == [1, 2, 3] as byte[]
+        tmpDir.file("generated").list() as List == ["${key}.class"]
+    }
+
+    def "marks entry as recently used when it is loaded"() {
+        given:
+        store.store(key, [1, 2, 3] as byte[])
+        def file = tmpDir.file("generated/${key}.class")
+        file.lastModified = 0
+
+        when:
+        store.load(key)
+
+        then:
+        file.lastModified() > 0
+    }
+
+    def "can remove entry"() {
+        given:
+        store.store(key, [1, 2, 3] as byte[])
+
+        when:
+        store.remove(key)
+
+        then:
+        store.load(key) == null
+        tmpDir.file("generated").list().length == 0
+    }
+
+    def "closes cache"() {
+        def cache = Mock(PersistentCache)
+        def store = new DirectoryGeneratedClassStore(cache)
+
+        when:
+        store.close()
+
+        then:
+        1 * cache.close()
+    }
+
+    def "does not replace existing entry"() {
+        given:
+        store.store(key, [1, 2, 3] as byte[])
+
+        when:
+        store.store(key, [4, 5] as byte[])
+
+        then:
+        store.load(key) == [1, 2, 3] as byte[]
+    }
+
+    def "ignores failure to write entry"() {
+        given:
+        tmpDir.file("generated").text = "not a directory"
+
+        when:
+        store.store(key, [1, 2, 3] as byte[])
+
+        then:
+        noExceptionThrown()
+        store.load(key) == null
+    }
+
+    def "class generator stores bytecode of generated class"() {
+        def generatedClassStore = Mock(GeneratedClassStore)
+        def generator = new AsmBackedClassGenerator(generatedClassStore)
+
+        when:
+        def generated = generator.generate(StoredBean)
+
+        then:
+        1 * generatedClassStore.load(_) >> null
+        1 * generatedClassStore.store(_, { it.length > 0 })
+        generated.superclass == StoredBean
+
+        when:
+        def again = generator.generate(StoredBean)
+
+        then:
+        again == generated
+        0 * generatedClassStore._
+    }
+
+    static class StoredBean {
+        String prop
+    }
+
+    def "class generator uses class stored by another generator for the same class hierarchy"() {
+        def storedBytecode = null
+        def firstType = defineBean("first", false)
+        def secondType = defineBean("second", false)
+        def generatedClassStore = Mock(GeneratedClassStore)
+
+        when:
+        def generated = new AsmBackedClassGenerator(store).generate(firstType)
+
+        then:
+        tmpDir.file("generated").list().length == 1
+
+        when:
+        def loaded = new AsmBackedClassGenerator(generatedClassStore).generate(secondType)
+
+        then:
+        1 * generatedClassStore.load(_) >> { HashCode key ->
+            storedBytecode = store.load(key)
+            return storedBytecode
+        }
+        0 * generatedClassStore._
+        storedBytecode != null
+
+        and:
+        loaded != generated
+        loaded.name == generated.name
+        loaded.superclass == secondType
+        loaded.classLoader == secondType.classLoader
+        loaded.newInstance().prop == null
+    }
+
+    def "class generator does not use stored class when class hierarchy has changed"() {
+        def firstType = defineBean("first", false)
+        def changedType = defineBean("changed", true)
+
+        when:
+        new AsmBackedClassGenerator(store).generate(firstType)
+        def generated = new AsmBackedClassGenerator(store).generate(changedType)
+
+        then:
+        tmpDir.file("generated").list().length == 2
+        generated.superclass == changedType
+        generated.getMethod("getOther")
+    }
+
+    def "class generator replaces stored entry that cannot be read"() {
+        def generatedClassStore = Mock(GeneratedClassStore)
+        def type = defineBean("first", false)
+
+        when:
+        def generated = new AsmBackedClassGenerator(generatedClassStore).generate(type)
+
+        then:
+        1 * generatedClassStore.load(_) >> ([1, 2, 3] as byte[])
+        1 * generatedClassStore.remove(_)
+        1 * generatedClassStore.store(_, { it.length > 0 })
+        generated.superclass == type
+    }
+
+    def "class generator removes stored entry and fails when stored class cannot be linked"() {
+        def generatedClassStore = Mock(GeneratedClassStore)
+        def type = defineBean("first", false)
+
+        when:
+        new AsmBackedClassGenerator(generatedClassStore).generate(type)
+
+        then:
+        1 * generatedClassStore.load(_) >> classWithMissingSuperclass("${type.name}_Decorated")
+        1 * generatedClassStore.remove(_)
+        0 * generatedClassStore._
+        def e = thrown(GradleException)
+        e.message == "Could not load the generated proxy class for class ${type.name} from the generated class cache."
+        e.cause instanceof LinkageError
+    }
+
+    private static byte[] classWithMissingSuperclass(String className) {
+        def classWriter = new ClassWriter(0)
+        classWriter.visit(Opcodes.V1_6, Opcodes.ACC_PUBLIC, className.replace('.', '/'), null, "org/gradle/api/internal/DoesNotExist", null)
+        classWriter.visitEnd()
+        return classWriter.toByteArray()
+    }
+
+    /**
+     * Defines a bean class in a new class loader, so that each generated class is generated or loaded again rather than reused from memory.
+     */
+    private Class<?> defineBean(String dirName, boolean withOtherProperty) {
+        def className = "org.gradle.api.internal.DirectoryGeneratedClassStoreTestBean"
+        def internalName = className.replace('.', '/')
+        def classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS)
+        classWriter.visit(Opcodes.V1_6, Opcodes.ACC_PUBLIC, internalName, null, "java/lang/Object", null)
+        def constructor = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null)
+        constructor.visitCode()
+        constructor.visitVarInsn(Opcodes.ALOAD, 0)
+        constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false)
+        constructor.visitInsn(Opcodes.RETURN)
+        constructor.visitMaxs(0, 0)
+        constructor.visitEnd()
+        for (String getter : withOtherProperty ? ["getProp", "getOther"] : ["getProp"]) {
+            def method = classWriter.visitMethod(Opcodes.ACC_PUBLIC, getter, "()Ljava/lang/String;", null, null)
+            method.visitCode()
+            method.visitInsn(Opcodes.ACONST_NULL)
+            method.visitInsn(Opcodes.ARETURN)
+            method.visitMaxs(0, 0)
+            method.visitEnd()
+        }
+        classWriter.visitEnd()
+
+        def classesDir = tmpDir.file("classes", dirName)
+        classesDir.file("${internalName}.class").createFile().bytes = classWriter.toByteArray()
+        def classLoader = new URLClassLoader([classesDir.toURI().toURL()] as URL[], getClass().classLoader)
+        return classLoader.loadClass(className)
+    }
+}
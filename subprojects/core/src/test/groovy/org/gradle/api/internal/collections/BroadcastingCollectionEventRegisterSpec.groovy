@@ -110,4 +110,46 @@ class BroadcastingCollectionEventRegisterSpec extends Specification {
         added == ["root", "filtering for number"]
     }
 
+    def "runs filtered and unfiltered actions in the order they were registered"() {
+        given:
+        r.filtered(filter(Integer)).registerAddAction a({ added << "integer" })
+        r.registerAddAction a({ added << "root" })
+        r.filtered(filter(Number)).registerAddAction a({ added << "number" })
+        r.filtered(filter(Number, { it > 1 })).registerAddAction a({ added << "large number" })
+
+        when:
+        r.addAction.execute 1
+        r.addAction.execute 2L
+        r.addAction.execute "not a number"
+
+        then:
+        added == ["integer", "root", "number", "root", "number", "large number", "root"]
+    }
+
+    def "uses actions registered after an element of the same type has been dispatched"() {
+        given:
+        r.filtered(filter(Integer)).registerAddAction a({ added << "first " + it })
+        r.addAction.execute 1
+
+        when:
+        r.filtered(filter(Number)).registerAddAction a({ added << "second " + it })
+        r.filtered(filter(String)).registerAddAction a({ added << "string " + it })
+        r.addAction.execute 2
+
+        then:
+        added == ["first 1", "first 2", "second 2"]
+    }
+
+    def "runs action registered multiple times once"() {
+        given:
+        def action = a({ added << it })
+        r.registerAddAction action
+        r.registerAddAction action
+
+        when:
+        r.addAction.execute 1
+
+        then:
+        added == [1]
+    }
 }
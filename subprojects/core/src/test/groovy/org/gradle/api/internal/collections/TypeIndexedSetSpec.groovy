@@ -0,0 +1,88 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.scala
+package org.gradle.api.internal.collections
+
+import spock.lang.Specification
+
+class TypeIndexedSetSpec extends Specification {
+
+    def set = new TypeIndexedSet<Object>(new LinkedHashSet<Object>())
+
+    def "queries elements by type in iteration order"() {
+        when:
+        set.addAll(["a", 1, "b", 2L, "c"])
+
+        then:
+        set.elementsOfType(String) as List == ["a", "b", "c"]
+        set.elementsOfType(Number) as List == [1, 2L]
+        set.elementsOfType(Object) as List == ["a", 1, "b", 2L, "c"]
+        set.elementsOfType(Date).empty
+    }
+
+    def "index is kept up to date when elements are added and removed"() {
+        set.addAll(["a", 1])
+        def strings = set.elementsOfType(String)
+
+        when:
+        set.add("b")
+        set.add(2)
+        set.remove("a")
+
+        then:
+        strings as List == ["b"]
+
+        when:
+        def iterator = set.iterator()
+        while (iterator.hasNext()) {
+            if (iterator.next() == "b") {
+                iterator.remove()
+            }
+        }
+
+        then:
+        strings.empty
+        set as List == [1, 2]
+
+        when:
+        set.add("c")
+        set.clear()
+
+        then:
+        strings.empty
+        set.empty
+    }
+
+    def "index uses the ordering of a sorted backing set"() {
+        def sorted = new TypeIndexedSet<Object>(new TreeSet<Object>({ a, b -> a.toString() <=> b.toString() } as Comparator))
+
+        when:
+        sorted.addAll(["c", "a", "b"])
+        def strings = sorted.elementsOfType(String)
+        sorted.add("aa")
+
+        then:
+        strings as List == ["a", "aa", "b", "c"]
+    }
+
+    def "view of elements cannot be modified"() {
+        when:
+        set.elementsOfType(String).add("a")
+
+        then:
+        thrown(UnsupportedOperationException)
+    }
+}
@@ -194,6 +194,7 @@ class DefaultProjectTest {
             allowing(serviceRegistryMock).get((Type) SoftwareComponentContainer); will(returnValue(softwareComponentsMock))
             allowing(serviceRegistryMock).get((Type) InputNormalizationHandler); will(returnValue(inputNormalizationHandler))
             allowing(serviceRegistryMock).get(ProjectEvaluator); will(returnValue(projectEvaluator))
+            allowing(serviceRegistryMock).get((Type) ProjectAccessListener); will(returnValue(new DefaultProjectAccessListener()))
             allowing(serviceRegistryMock).getFactory(AntBuilder); will(returnValue(antBuilderFactoryMock))
             allowing(serviceRegistryMock).get((Type) ScriptHandler); will(returnValue(scriptHandlerMock))
             allowing(serviceRegistryMock).get((Type) LoggingManagerInternal); will(returnValue(loggingManagerMock))
@@ -240,6 +241,9 @@ class DefaultProjectTest {
             allowing(build).getParent()
             will(returnValue(null))
 
+            allowing(build).getServices()
+            will(returnValue(serviceRegistryMock))
+
             allowing(build).findIdentityPath()
             will(returnValue(Path.ROOT))
             allowing(build).getIdentityPath()
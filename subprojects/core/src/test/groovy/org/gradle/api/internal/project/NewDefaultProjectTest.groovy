@@ -20,6 +20,7 @@ import org.gradle.api.InvalidUserDataException
 import org.gradle.api.artifacts.ConfigurationContainer
 import org.gradle.api.artifacts.dsl.ArtifactHandler
 import org.gradle.api.artifacts.dsl.DependencyHandler
+import org.gradle.internal.service.ServiceRegistry
 import org.gradle.test.fixtures.AbstractProjectBuilderSpec
 
 import static org.gradle.util.TestUtil.createChildProject
@@ -142,4 +143,35 @@ class NewDefaultProjectTest extends AbstractProjectBuilderSpec {
         project.getTasksByName('foo', true).empty
         project.getTasksByName('foo', false).empty
     }
+
+    def "creates services and tasks of a project on first use"() {
+        def child = createChildProject(project, "child")
+
+        expect:
+        field(child, "services") == null
+        field(child, "taskContainer") == null
+
+        when:
+        child.version = "1.2"
+        child.ext.foo = "bar"
+
+        then:
+        field(child, "services") == null
+        field(child, "taskContainer") == null
+
+        when:
+        child.task("bar")
+
+        then:
+        field(child, "services") != null
+        field(child, "taskContainer") != null
+        child.bar == child.tasks.getByName("bar")
+        child.modelRegistry.find("serviceRegistry", ServiceRegistry).is(child.services)
+    }
+
+    private static Object field(ProjectInternal project, String name) {
+        def field = DefaultProject.getDeclaredField(name)
+        field.accessible = true
+        return field.get(project)
+    }
 }
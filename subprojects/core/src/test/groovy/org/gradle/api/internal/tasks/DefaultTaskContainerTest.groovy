@@ -402,6 +402,224 @@ public class DefaultTaskContainerTest extends Specification {
         otherProject
     }
 
+    void "registering a task does not create it"() {
+        def action = Mock(Action)
+
+        when:
+        def provider = container.register("task", CustomTask, action)
+
+        then:
+        0 * taskFactory._
+        0 * action._
+        provider.name == "task"
+        provider.present
+        container.names.contains("task")
+    }
+
+    void "registered task is created and configured when looked up by name"() {
+        given:
+        def action = Mock(Action)
+        def task = task("task", CustomTask)
+        taskFactory.create("task", CustomTask) >> task
+        def provider = container.register("task", CustomTask, action)
+
+        when:
+        def found = container.findByName("task")
+
+        then:
+        found == task
+        1 * action.execute(task)
+
+        when:
+        def result = provider.get()
+
+        then:
+        result == task
+        0 * action._
+    }
+
+    void "registered task is created when the container is iterated"() {
+        given:
+        def task = task("task")
+        taskFactory.create("task", DefaultTask) >> task
+        container.register("task")
+
+        expect:
+        container.toList() == [task]
+        container.size() == 1
+    }
+
+    void "action added to registered task is executed once the task is created"() {
+        given:
+        def action = Mock(Action)
+        def task = task("task")
+        taskFactory.create("task", DefaultTask) >> task
+        def provider = container.register("task")
+
+        when:
+        provider.configure(action)
+
+        then:
+        0 * action._
+
+        when:
+        container.getByName("task")
+
+        then:
+        1 * action.execute(task)
+
+        when:
+        provider.configure(action)
+
+        then:
+        1 * action.execute(task)
+    }
+
+    void "named returns provider for registered task without creating it"() {
+        given:
+        def task = task("task")
+        container.register("task")
+
+        when:
+        def provider = container.named("task")
+
+        then:
+        0 * taskFactory._
+        provider.name == "task"
+
+        when:
+        def result = provider.get()
+
+        then:
+        1 * taskFactory.create("task", DefaultTask) >> task
+        result == task
+    }
+
+    void "configureEach does not create registered tasks"() {
+        given:
+        def action = Mock(Action)
+        def existing = addTask("a")
+        def task = task("b")
+        container.register("b")
+
+        when:
+        container.configureEach(action)
+
+        then:
+        1 * action.execute(existing)
+        0 * action._
+        0 * taskFactory._
+
+        when:
+        container.getByName("b")
+
+        then:
+        1 * taskFactory.create("b", DefaultTask) >> task
+        1 * action.execute(task)
+    }
+
+    void "cannot register task with the same name as an existing task"() {
+        given:
+        addTask("task")
+
+        when:
+        container.register("task")
+
+        then:
+        InvalidUserDataException e = thrown()
+        e.message == "Cannot register task 'task' as a task with that name already exists."
+    }
+
+    void "cannot create task with the same name as a registered task"() {
+        given:
+        def task = task("task")
+        taskFactory.create("task", DefaultTask) >> task
+        container.register("task")
+
+        when:
+        container.create("task")
+
+        then:
+        InvalidUserDataException e = thrown()
+        e.message == "Cannot add ${task} as a task with that name already exists."
+    }
+
+    void "registered tasks are created when a withType view is iterated or sized"() {
+        given:
+        _ * project.getTasks() >> container
+        def a = task("a", CustomTask)
+        def b = task("b")
+        taskFactory.create("a", CustomTask) >> a
+        taskFactory.create("b", DefaultTask) >> b
+        container.register("a", CustomTask)
+        container.register("b")
+
+        expect:
+        container.withType(CustomTask).toList() == [a]
+        container.withType(CustomTask).size() == 1
+        container.withType(CustomTask).names == ["a"] as SortedSet
+    }
+
+    void "registered tasks that cannot match the type of a withType view are not created"() {
+        given:
+        _ * project.getTasks() >> container
+        def b = task("b")
+        container.register("a", CustomTask)
+        container.register("b")
+
+        when:
+        def result = container.withType(DefaultTask).toList()
+
+        then:
+        result == [b]
+        1 * taskFactory.create("b", DefaultTask) >> b
+        0 * taskFactory._
+    }
+
+    void "registered tasks are created when a matching view is iterated or sized"() {
+        given:
+        _ * project.getTasks() >> container
+        def a = task("a")
+        def b = task("b")
+        taskFactory.create("a", DefaultTask) >> a
+        taskFactory.create("b", DefaultTask) >> b
+        container.register("a")
+        container.register("b")
+
+        expect:
+        container.matching { it.name == "a" }.toList() == [a]
+        container.matching { it.name == "a" }.size() == 1
+        container.withType(DefaultTask).matching { it.name == "b" }.toList() == [b]
+    }
+
+    void "failure to create registered task is reported by later lookups"() {
+        given:
+        def failure = new RuntimeException("broken")
+        taskFactory.create("task", DefaultTask) >> { throw failure }
+        container.register("task")
+
+        when:
+        container.getByName("task")
+
+        then:
+        def e = thrown(RuntimeException)
+        e.is(failure)
+
+        when:
+        container.findByName("task")
+
+        then:
+        def e2 = thrown(RuntimeException)
+        e2.is(failure)
+
+        when:
+        container.toList()
+
+        then:
+        def e3 = thrown(RuntimeException)
+        e3.is(failure)
+    }
+
     private TaskInternal task(final String name) {
         task(name, DefaultTask)
     }
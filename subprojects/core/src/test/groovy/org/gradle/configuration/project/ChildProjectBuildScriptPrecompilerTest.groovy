@@ -0,0 +1,178 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration.project
+
+import org.gradle.api.internal.initialization.ClassLoaderScope
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.project.ProjectStateInternal
+import org.gradle.configuration.DefaultScriptPluginFactory
+import org.gradle.groovy.scripts.ScriptCompilationException
+import org.gradle.groovy.scripts.ScriptSource
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import spock.lang.Specification
+
+class ChildProjectBuildScriptPrecompilerTest extends Specification {
+    def scriptPluginFactory = Mock(DefaultScriptPluginFactory)
+    def scope = Mock(ClassLoaderScope)
+    def project = Mock(ProjectInternal)
+    def executorFactory = new DefaultExecutorFactory()
+    def precompiler = new ChildProjectBuildScriptPrecompiler(scriptPluginFactory, executorFactory, 2)
+
+    def setup() {
+        _ * project.classLoaderScope >> scope
+    }
+
+    def cleanup() {
+        precompiler.stop()
+        executorFactory.stop()
+    }
+
+    def "compiles build scripts of unevaluated children"() {
+        def child1 = child("child1")
+        def child2 = child("child2")
+        def child3 = child("child3", true)
+        _ * scope.locked >> true
+        _ * project.childProjects >> [child1: child1, child2: child2, child3: child3]
+
+        when:
+        precompiler.execute(project)
+        precompiler.stop()
+
+        then:
+        1 * scriptPluginFactory.precompileBuildScript(child1)
+        1 * scriptPluginFactory.precompileBuildScript(child2)
+        0 * scriptPluginFactory._
+    }
+
+    def "waits for build script of child to be compiled before it is evaluated"() {
+        def child1 = child("child1")
+        def child2 = child("child2")
+        def compiled = false
+        _ * scope.locked >> true
+        _ * project.childProjects >> [child1: child1, child2: child2]
+        _ * scriptPluginFactory.precompileBuildScript(child1) >> {
+            Thread.sleep(100)
+            compiled = true
+        }
+
+        when:
+        precompiler.execute(project)
+        precompiler.awaitBuildScript().execute(child1)
+
+        then:
+        compiled
+    }
+
+    def "does not compile build scripts when scope of project is not locked"() {
+        _ * scope.locked >> false
+        _ * project.childProjects >> [child1: child("child1"), child2: child("child2")]
+
+        when:
+        precompiler.execute(project)
+
+        then:
+        0 * scriptPluginFactory._
+    }
+
+    def "does not compile build script of single child"() {
+        _ * scope.locked >> true
+        _ * project.childProjects >> [child1: child("child1")]
+
+        when:
+        precompiler.execute(project)
+
+        then:
+        0 * scriptPluginFactory._
+    }
+
+    def "does not compile scripts handled by a scripting language provider"() {
+        _ * scope.locked >> true
+        _ * project.childProjects >> [child1: child("child1", false, "build.gradle.kts"), child2: child("child2", false, "build.gradle.kts")]
+
+        when:
+        precompiler.execute(project)
+
+        then:
+        0 * scriptPluginFactory._
+    }
+
+    def "rethrows failure to compile build script when child is evaluated"() {
+        def child1 = child("child1")
+        def child2 = child("child2")
+        def failure = new ScriptCompilationException("broken", new RuntimeException(), Stub(ScriptSource), 1)
+        _ * scope.locked >> true
+        _ * project.childProjects >> [child1: child1, child2: child2]
+        _ * scriptPluginFactory.precompileBuildScript(child2)
+
+        when:
+        precompiler.execute(project)
+        precompiler.awaitBuildScript().execute(child1)
+
+        then:
+        1 * scriptPluginFactory.precompileBuildScript(child1) >> { throw failure }
+        def e = thrown(ScriptCompilationException)
+        e.is(failure)
+
+        when:
+        precompiler.awaitBuildScript().execute(child2)
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "ignores other failures, so that the build script is compiled again when child is evaluated"() {
+        def child1 = child("child1")
+        def child2 = child("child2")
+        _ * scope.locked >> true
+        _ * project.childProjects >> [child1: child1, child2: child2]
+
+        when:
+        precompiler.execute(project)
+        precompiler.awaitBuildScript().execute(child1)
+        precompiler.awaitBuildScript().execute(child2)
+
+        then:
+        1 * scriptPluginFactory.precompileBuildScript(child1) >> { throw new RuntimeException("broken") }
+        1 * scriptPluginFactory.precompileBuildScript(child2)
+        noExceptionThrown()
+    }
+
+    def "does nothing when evaluating child whose build script was not compiled ahead"() {
+        when:
+        precompiler.awaitBuildScript().execute(child("child1"))
+
+        then:
+        0 * scriptPluginFactory._
+        noExceptionThrown()
+    }
+
+    private ProjectInternal child(String name, boolean executed = false, String fileName = "build.gradle") {
+        def state = Mock(ProjectStateInternal) {
+            _ * getExecuted() >> executed
+            _ * getExecuting() >> false
+        }
+        def source = Mock(ScriptSource) {
+            _ * getFileName() >> fileName
+            _ * getDisplayName() >> "build file for ${name}"
+        }
+        return Mock(ProjectInternal, name: name) {
+            _ * getState() >> state
+            _ * getBuildScriptSource() >> source
+            _ * getDisplayName() >> "project ':${name}'"
+        }
+    }
+}
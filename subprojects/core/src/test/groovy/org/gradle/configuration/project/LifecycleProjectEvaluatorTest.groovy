@@ -179,7 +179,7 @@ class LifecycleProjectEvaluatorTest extends Specification {
         evaluator.evaluate(project, state)
 
         then:
-        buildOperationExecutor.operations.size() == 1
+        buildOperationExecutor.operations.size() == 3
         BuildOperationDescriptor descriptor = buildOperationExecutor.operations[0]
         ConfigureProjectBuildOperationType.Details details = descriptor.details
 
@@ -191,4 +191,24 @@ class LifecycleProjectEvaluatorTest extends Specification {
         details.projectPath == Path.path(':project1').path
     }
 
+    def "notifies beforeEvaluate and afterEvaluate listeners in build operations"() {
+        when:
+        evaluator.evaluate(project, state)
+
+        then:
+        buildOperationExecutor.operations*.displayName == [
+            'Configure project :project1',
+            'Notify beforeEvaluate listeners of :project1',
+            'Notify afterEvaluate listeners of :project1'
+        ]
+
+        and:
+        def beforeEvaluate = buildOperationExecutor.log.mostRecentDetails(NotifyProjectBeforeEvaluatedBuildOperationType)
+        beforeEvaluate.buildPath == ':'
+        beforeEvaluate.projectPath == ':project1'
+        def afterEvaluate = buildOperationExecutor.log.mostRecentDetails(NotifyProjectAfterEvaluatedBuildOperationType)
+        afterEvaluate.buildPath == ':'
+        afterEvaluate.projectPath == ':project1'
+    }
+
 }
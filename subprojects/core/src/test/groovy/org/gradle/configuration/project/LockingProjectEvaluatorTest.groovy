@@ -0,0 +1,115 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration.project
+
+import org.gradle.api.internal.GradleInternal
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.project.ProjectStateInternal
+import org.gradle.internal.concurrent.ParallelismConfigurationManagerFixture
+import org.gradle.internal.resources.DefaultResourceLockCoordinationService
+import org.gradle.internal.work.DefaultWorkerLeaseService
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+import org.gradle.util.Path
+
+class LockingProjectEvaluatorTest extends ConcurrentSpec {
+    def coordinationService = new DefaultResourceLockCoordinationService()
+    def workerLeaseService = new DefaultWorkerLeaseService(coordinationService, new ParallelismConfigurationManagerFixture(true, 4))
+    def locks = new ProjectConfigurationLocks(workerLeaseService, coordinationService)
+    def delegate = Mock(ProjectEvaluator)
+    def evaluator = new LockingProjectEvaluator(delegate, locks)
+    def gradle = Stub(GradleInternal) {
+        getIdentityPath() >> Path.ROOT
+    }
+    def projectA = project(":a")
+    def projectB = project(":b")
+    def projectC = project(":c")
+
+    def "evaluates project while holding its project lock"() {
+        def state = Stub(ProjectStateInternal)
+
+        when:
+        evaluator.evaluate(projectA, state)
+
+        then:
+        1 * delegate.evaluate(projectA, state) >> {
+            assert locks.configuring
+        }
+
+        and:
+        !locks.configuring
+    }
+
+    def "does not lock project that has already been configured"() {
+        def state = Stub(ProjectStateInternal) {
+            getExecuted() >> true
+        }
+
+        when:
+        evaluator.evaluate(projectA, state)
+
+        then:
+        0 * delegate._
+    }
+
+    def "waits for project that is being configured by another thread and keeps the project locks of the current thread while waiting"() {
+        def stateA = Stub(ProjectStateInternal)
+        def stateB = Stub(ProjectStateInternal)
+
+        delegate.evaluate(projectB, stateB) >> {
+            instant.configuringB
+            thread.blockUntil.configuringA
+            thread.block()
+            instant.bConfigured
+        }
+        delegate.evaluate(projectA, stateA) >> {
+            instant.configuringA
+            evaluator.evaluate(projectB, stateB)
+            instant.aConfigured
+        }
+
+        when:
+        async {
+            start {
+                evaluator.evaluate(projectB, stateB)
+            }
+            start {
+                thread.blockUntil.configuringB
+                evaluator.evaluate(projectA, stateA)
+            }
+            start {
+                // Project A is not handed to another thread while it waits for project B
+                thread.blockUntil.configuringA
+                locks.configure(projectC) {
+                    locks.beforeAccessingProject(projectA)
+                    instant.cAccessedA
+                }
+            }
+        }
+
+        then:
+        instant.aConfigured > instant.bConfigured
+        instant.cAccessedA > instant.aConfigured
+    }
+
+    private ProjectInternal project(String path) {
+        return Stub(ProjectInternal) {
+            getIdentityPath() >> Path.path(path)
+            getGradle() >> gradle
+            getDisplayName() >> "project '$path'"
+        }
+    }
+}
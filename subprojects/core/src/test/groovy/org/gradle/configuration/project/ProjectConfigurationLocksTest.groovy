@@ -0,0 +1,198 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration.project
+
+import org.gradle.api.CircularReferenceException
+import org.gradle.api.Transformer
+import org.gradle.api.internal.GradleInternal
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.internal.concurrent.ParallelismConfigurationManagerFixture
+import org.gradle.internal.resources.DefaultResourceLockCoordinationService
+import org.gradle.internal.resources.ResourceLock
+import org.gradle.internal.resources.ResourceLockState
+import org.gradle.internal.work.DefaultWorkerLeaseService
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+import org.gradle.util.Path
+
+import java.util.concurrent.atomic.AtomicBoolean
+
+class ProjectConfigurationLocksTest extends ConcurrentSpec {
+    def coordinationService = new DefaultResourceLockCoordinationService()
+    def workerLeaseService = new DefaultWorkerLeaseService(coordinationService, new ParallelismConfigurationManagerFixture(true, 4))
+    def locks = new ProjectConfigurationLocks(workerLeaseService, coordinationService)
+    def gradle = Stub(GradleInternal) {
+        getIdentityPath() >> Path.ROOT
+    }
+    def projectA = project(":a")
+    def projectB = project(":b")
+    def projectC = project(":c")
+
+    def "runs configuration action for project"() {
+        def action = Mock(Runnable)
+
+        when:
+        locks.configure(projectA, action)
+
+        then:
+        1 * action.run() >> {
+            assert locks.configuring
+            assert lockIsHeld(projectA)
+        }
+
+        and:
+        !locks.configuring
+        !lockIsHeld(projectA)
+    }
+
+    def "can configure nested projects on the same thread"() {
+        when:
+        locks.configure(projectA) {
+            locks.configure(projectB) {
+                locks.configure(projectA) {
+                    locks.beforeAccessingProject(projectB)
+                    instant.nested
+                }
+            }
+        }
+
+        then:
+        instant.nested
+        !locks.configuring
+    }
+
+    def "waits until project that is being configured by another thread has been configured"() {
+        when:
+        async {
+            start {
+                locks.configure(projectA) {
+                    instant.configuringA
+                    thread.block()
+                    instant.aConfigured
+                }
+            }
+            start {
+                thread.blockUntil.configuringA
+                locks.configure(projectA) {
+                    instant.configuringAAgain
+                }
+            }
+        }
+
+        then:
+        instant.configuringAAgain > instant.aConfigured
+    }
+
+    def "does not hand a project that has been accessed during configuration to another thread until the configuration has completed"() {
+        when:
+        async {
+            start {
+                locks.configure(projectA) {
+                    locks.beforeAccessingProject(projectB)
+                    instant.accessedB
+                    thread.block()
+                    instant.aConfigured
+                }
+            }
+            start {
+                thread.blockUntil.accessedB
+                locks.configure(projectC) {
+                    locks.beforeAccessingProject(projectB)
+                    instant.cAccessedB
+                }
+            }
+        }
+
+        then:
+        instant.cAccessedB > instant.aConfigured
+    }
+
+    def "does not release project lock that was held before configuration"() {
+        when:
+        workerLeaseService.withLocks([lockFor(projectA)]) {
+            locks.configure(projectA) {
+                instant.configured
+            }
+            assert lockIsHeld(projectA)
+        }
+
+        then:
+        instant.configured
+        !lockIsHeld(projectA)
+    }
+
+    def "thread that is not configuring a project does not lock it"() {
+        when:
+        locks.beforeAccessingProject(projectA)
+
+        then:
+        !lockIsHeld(projectA)
+    }
+
+    def "fails when the thread configuring a project is waiting for the current thread"() {
+        when:
+        async {
+            start {
+                locks.configure(projectA) {
+                    instant.configuringA
+                    thread.blockUntil.configuringB
+                    locks.beforeAccessingProject(projectB)
+                    instant.aAccessedB
+                }
+            }
+            start {
+                locks.configure(projectB) {
+                    instant.configuringB
+                    thread.blockUntil.configuringA
+                    thread.block()
+                    locks.beforeAccessingProject(projectA)
+                }
+            }
+        }
+
+        then:
+        def e = thrown(CircularReferenceException)
+        e.message == "Circular referencing during parallel configuration of project ':b' and project ':a'. Projects that depend on each other cannot be configured in parallel."
+
+        and:
+        instant.aAccessedB > instant.configuringB
+    }
+
+    private ProjectInternal project(String path) {
+        return Stub(ProjectInternal) {
+            getIdentityPath() >> Path.path(path)
+            getGradle() >> gradle
+            getDisplayName() >> "project '$path'"
+        }
+    }
+
+    private ResourceLock lockFor(ProjectInternal project) {
+        return workerLeaseService.getProjectLock(":", project.identityPath.toString())
+    }
+
+    private boolean lockIsHeld(ProjectInternal project) {
+        def lock = lockFor(project)
+        def held = new AtomicBoolean()
+        coordinationService.withStateLock(new Transformer<ResourceLockState.Disposition, ResourceLockState>() {
+            @Override
+            ResourceLockState.Disposition transform(ResourceLockState resourceLockState) {
+                held.set(lock.locked)
+                return ResourceLockState.Disposition.FINISHED
+            }
+        })
+        return held.get()
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.scala
+package org.gradle.initialization
+
+import org.gradle.StartParameter
+import org.gradle.api.artifacts.ConfigurationContainer
+import org.gradle.api.initialization.dsl.ScriptHandler
+import org.gradle.api.internal.GradleInternal
+import org.gradle.api.internal.SettingsInternal
+import org.gradle.api.internal.TaskInputsInternal
+import org.gradle.api.internal.TaskInternal
+import org.gradle.api.internal.TaskOutputsInternal
+import org.gradle.api.internal.changedetection.state.FileSystemSnapshotter
+import org.gradle.api.internal.changedetection.state.Snapshot
+import org.gradle.api.internal.file.FileCollectionInternal
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.tasks.TaskExecutionOutcome
+import org.gradle.api.internal.tasks.TaskStateInternal
+import org.gradle.cache.CacheBuilder
+import org.gradle.cache.CacheRepository
+import org.gradle.cache.PersistentCache
+import org.gradle.cache.internal.CleanupActionFactory
+import org.gradle.caching.internal.BuildCacheHasher
+import org.gradle.configuration.ApplyScriptPluginBuildOperationType
+import org.gradle.execution.TaskGraphExecuter
+import org.gradle.groovy.scripts.ScriptSource
+import org.gradle.internal.progress.BuildOperationDescriptor
+import org.gradle.internal.progress.BuildOperationListenerManager
+import org.gradle.internal.resource.ResourceLocation
+import org.gradle.internal.resource.TextResource
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class ConfigurationResultCacheTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def cacheDir = tmpDir.createDir("cache")
+    def rootDir = tmpDir.createDir("root")
+    def inputFile = rootDir.file("src/input.txt").createFile()
+    def outputFile = rootDir.file("build/output.txt").createFile()
+    def startParameter = new StartParameter()
+    def cacheRepository = Stub(CacheRepository)
+    def fileSystemSnapshotter = Stub(FileSystemSnapshotter)
+    def listenerManager = Mock(BuildOperationListenerManager)
+    def taskState = new TaskStateInternal()
+    def taskGraph = Stub(TaskGraphExecuter)
+    def gradle = Stub(GradleInternal)
+
+    def setup() {
+        startParameter.currentDir = rootDir
+        startParameter.gradleUserHomeDir = tmpDir.createDir("user-home")
+        startParameter.systemPropertiesArgs = [(ConfigurationResultCache.SYSPROP): "true"]
+
+        def cacheBuilder = Stub(CacheBuilder)
+        cacheBuilder.withCleanup(_) >> cacheBuilder
+        cacheBuilder.withDisplayName(_) >> cacheBuilder
+        cacheBuilder.withLockOptions(_) >> cacheBuilder
+        cacheBuilder.open() >> Stub(PersistentCache) {
+            getBaseDir() >> cacheDir
+        }
+        cacheRepository.cache("configuration-results") >> cacheBuilder
+
+        fileSystemSnapshotter.snapshotAll(_) >> { File file ->
+            def content = content(file)
+            return { BuildCacheHasher hasher -> hasher.putString(file.path).putString(content) } as Snapshot
+        }
+
+        def task = Stub(TaskInternal) {
+            getState() >> taskState
+            getInputs() >> Stub(TaskInputsInternal) {
+                getFiles() >> files(inputFile)
+            }
+            getOutputs() >> Stub(TaskOutputsInternal) {
+                getFiles() >> files(outputFile)
+            }
+        }
+        taskGraph.getAllTasks() >> [task]
+
+        def project = Stub(ProjectInternal) {
+            getBuildFile() >> rootDir.file("build.gradle")
+            getProjectDir() >> rootDir
+            getBuildscript() >> scriptHandler()
+        }
+        project.getAllprojects() >> [project]
+        def settings = Stub(SettingsInternal) {
+            getSettingsDir() >> rootDir
+            getRootDir() >> rootDir
+            getBuildscript() >> scriptHandler()
+            getSettingsScript() >> Stub(ScriptSource) {
+                getResource() >> Stub(TextResource) {
+                    getLocation() >> Stub(ResourceLocation) {
+                        getFile() >> rootDir.file("settings.gradle")
+                    }
+                }
+            }
+        }
+
+        gradle.getParent() >> null
+        gradle.getTaskGraph() >> taskGraph
+        gradle.getIncludedBuilds() >> []
+        gradle.getSettings() >> settings
+        gradle.getRootProject() >> project
+    }
+
+    def "is not up-to-date for the first build"() {
+        def cache = cache()
+
+        expect:
+        !cache.isUpToDate(gradle)
+    }
+
+    def "is up-to-date when the previous build had all tasks up-to-date and nothing has changed"() {
+        given:
+        buildWithOutcome(TaskExecutionOutcome.UP_TO_DATE)
+
+        expect:
+        cache().isUpToDate(gradle)
+    }
+
+    def "is not up-to-date when a task was executed by the previous build"() {
+        given:
+        buildWithOutcome(TaskExecutionOutcome.EXECUTED)
+
+        expect:
+        !cache().isUpToDate(gradle)
+    }
+
+    def "is not up-to-date when a task input, task output or build script has changed"() {
+        given:
+        buildWithOutcome(TaskExecutionOutcome.UP_TO_DATE)
+
+        when:
+        rootDir.file(path).text = "changed"
+
+        then:
+        !cache().isUpToDate(gradle)
+
+        where:
+        path << ["src/input.txt", "build/output.txt", "build.gradle", "gradle.properties", "settings.gradle", "buildSrc/src/main/groovy/Plugin.groovy"]
+    }
+
+    def "is not up-to-date for a different request"() {
+        given:
+        buildWithOutcome(TaskExecutionOutcome.UP_TO_DATE)
+
+        when:
+        startParameter.taskNames = ["other"]
+
+        then:
+        !cache().isUpToDate(gradle)
+    }
+
+    def "records the build logic applied during a build"() {
+        given:
+        def cache = cache()
+        def script = rootDir.file("gradle/other.gradle").createFile()
+        cache.isUpToDate(gradle)
+        cache.started(applyScript(script), null)
+        taskState.outcome = TaskExecutionOutcome.UP_TO_DATE
+        cache.buildSucceeded(gradle)
+
+        when:
+        script.text = "changed"
+
+        then:
+        !cache().isUpToDate(gradle)
+    }
+
+    def "does not record a build that applied a remote script"() {
+        given:
+        def cache = cache()
+        cache.isUpToDate(gradle)
+        cache.started(applyScript(null, "https://example.com/script.gradle"), null)
+        taskState.outcome = TaskExecutionOutcome.UP_TO_DATE
+        cache.buildSucceeded(gradle)
+
+        expect:
+        !cache().isUpToDate(gradle)
+    }
+
+    def "does nothing when not enabled"() {
+        given:
+        startParameter.systemPropertiesArgs = [:]
+        def cache = cache()
+
+        when:
+        def upToDate = cache.isUpToDate(gradle)
+        cache.buildSucceeded(gradle)
+
+        then:
+        !upToDate
+        0 * listenerManager._
+        cacheDir.list().length == 0
+    }
+
+    def "does nothing for a build with rerun tasks"() {
+        given:
+        buildWithOutcome(TaskExecutionOutcome.UP_TO_DATE)
+        startParameter.rerunTasks = true
+
+        expect:
+        !cache().isUpToDate(gradle)
+    }
+
+    def "listens to build operations while the build runs"() {
+        def cache = cache()
+
+        when:
+        cache.isUpToDate(gradle)
+
+        then:
+        1 * listenerManager.addListener(cache)
+
+        when:
+        cache.buildSucceeded(gradle)
+
+        then:
+        1 * listenerManager.removeListener(cache)
+    }
+
+    private void buildWithOutcome(TaskExecutionOutcome outcome) {
+        def cache = cache()
+        assert !cache.isUpToDate(gradle)
+        taskState.outcome = outcome
+        cache.buildSucceeded(gradle)
+        cache.close()
+    }
+
+    private ConfigurationResultCache cache() {
+        return new ConfigurationResultCache(startParameter, cacheRepository, Stub(CleanupActionFactory), fileSystemSnapshotter, listenerManager)
+    }
+
+    private ScriptHandler scriptHandler() {
+        return Stub(ScriptHandler) {
+            getConfigurations() >> Stub(ConfigurationContainer)
+        }
+    }
+
+    private FileCollectionInternal files(TestFile... files) {
+        return Stub(FileCollectionInternal) {
+            getFiles() >> (files as Set)
+        }
+    }
+
+    private BuildOperationDescriptor applyScript(File file, String uri = null) {
+        def details = Stub(ApplyScriptPluginBuildOperationType.Details) {
+            getFile() >> file?.absolutePath
+            getUri() >> uri
+        }
+        return BuildOperationDescriptor.displayName("Apply script").details(details).build()
+    }
+
+    private static String content(File file) {
+        if (file.isFile()) {
+            return file.text
+        }
+        if (file.isDirectory()) {
+            return file.listFiles().sort().collect { it.name + ":" + content(it) }.join(",")
+        }
+        return "missing"
+    }
+}
@@ -59,6 +59,7 @@ class DefaultGradleLauncherSpec extends Specification {
     def buildConfigurationActionExecuter = Mock(BuildConfigurationActionExecuter.class)
     def buildScopeServices = Mock(ServiceRegistry)
     def taskArtifactStateCacheAccess = Mock(TaskHistoryStore)
+    def configurationResultCache = Mock(ConfigurationResultCache)
 
     private ProjectInternal expectedRootProject
     private ProjectInternal expectedCurrentProject
@@ -131,7 +132,7 @@ class DefaultGradleLauncherSpec extends Specification {
         return new DefaultGradleLauncher(gradleMock, initScriptHandlerMock, settingsLoaderMock, buildLoaderMock,
             buildConfigurerMock, exceptionAnalyserMock, buildBroadcaster,
             modelListenerMock, buildCompletionListener, buildOperationExecutor, buildConfigurationActionExecuter, buildExecuter,
-            buildServices, [otherService])
+            configurationResultCache, buildServices, [otherService])
     }
 
     void testRun() {
@@ -149,6 +150,32 @@ class DefaultGradleLauncherSpec extends Specification {
         result == gradleMock
         expectedBuildOperationsFired()
 
+        and:
+        1 * configurationResultCache.isUpToDate(gradleMock) >> false
+        1 * configurationResultCache.buildSucceeded(gradleMock)
+    }
+
+    void testSkipsConfigurationAndExecutionWhenConfigurationResultIsUpToDate() {
+        when:
+        isRootBuild()
+        DefaultGradleLauncher gradleLauncher = launcher()
+        GradleInternal result = gradleLauncher.executeTasks()
+
+        then:
+        result == gradleMock
+        buildOperationExecutor.operations.empty
+
+        and:
+        1 * configurationResultCache.isUpToDate(gradleMock) >> true
+        1 * buildBroadcaster.buildStarted(gradleMock)
+        1 * buildBroadcaster.buildFinished({ BuildResult result -> result.failure == null })
+        1 * includedBuildControllers.stopTaskExecution()
+        0 * configurationResultCache.buildSucceeded(_)
+        0 * initScriptHandlerMock._
+        0 * settingsLoaderMock._
+        0 * buildLoaderMock._
+        0 * buildConfigurerMock._
+        0 * buildExecuter._
     }
 
     void testRunWithNestedBuild() {
@@ -17,6 +17,11 @@ package org.gradle.initialization;
 
 import org.gradle.StartParameter;
 import org.gradle.api.Project;
+import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory;
+import org.gradle.internal.event.DefaultListenerManager;
+import org.gradle.internal.hash.DefaultContentHasherFactory;
+import org.gradle.internal.hash.DefaultFileHasher;
+import org.gradle.internal.hash.DefaultStreamHasher;
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider;
 import org.gradle.util.GUtil;
 import org.gradle.util.SetSystemProperties;
@@ -49,7 +54,7 @@ public class DefaultGradlePropertiesLoaderTest {
     public void setUp() {
         gradleUserHomeDir = tmpDir.createDir("gradleUserHome");
         settingsDir = tmpDir.createDir("settingsDir");
-        gradlePropertiesLoader = new DefaultGradlePropertiesLoader(startParameter);
+        gradlePropertiesLoader = new DefaultGradlePropertiesLoader(startParameter, new PropertiesFileCache(new DefaultFileHasher(new DefaultStreamHasher(new DefaultContentHasherFactory())), new CrossBuildInMemoryCacheFactory(new DefaultListenerManager())));
         startParameter.setGradleUserHomeDir(gradleUserHomeDir);
     }
 
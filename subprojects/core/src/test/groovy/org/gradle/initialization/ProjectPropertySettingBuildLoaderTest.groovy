@@ -21,6 +21,11 @@ import org.gradle.api.internal.SettingsInternal
 import org.gradle.api.internal.plugins.ExtensionContainerInternal
 import org.gradle.api.internal.project.ProjectInternal
 import org.gradle.api.plugins.ExtraPropertiesExtension
+import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory
+import org.gradle.internal.event.DefaultListenerManager
+import org.gradle.internal.hash.DefaultContentHasherFactory
+import org.gradle.internal.hash.DefaultFileHasher
+import org.gradle.internal.hash.DefaultStreamHasher
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.gradle.util.GUtil
 import org.junit.Rule
@@ -36,7 +41,7 @@ class ProjectPropertySettingBuildLoaderTest extends Specification {
     final IGradlePropertiesLoader propertiesLoader = Mock()
     final File rootProjectDir = tmpDir.createDir('root')
     final File childProjectDir = tmpDir.createDir('child')
-    final ProjectPropertySettingBuildLoader loader = new ProjectPropertySettingBuildLoader(propertiesLoader, target)
+    final ProjectPropertySettingBuildLoader loader = new ProjectPropertySettingBuildLoader(propertiesLoader, target, new PropertiesFileCache(new DefaultFileHasher(new DefaultStreamHasher(new DefaultContentHasherFactory())), new CrossBuildInMemoryCacheFactory(new DefaultListenerManager())))
     final ExtensionContainerInternal rootExtension = Mock()
     final ExtraPropertiesExtension rootProperties = Mock()
     final ExtensionContainerInternal childExtension = Mock()
@@ -68,7 +73,7 @@ class ProjectPropertySettingBuildLoaderTest extends Specification {
 
     def "sets project properties on each project in hierarchy"() {
         given:
-        2 * propertiesLoader.mergeProperties([:]) >> [prop: 'value']
+        1 * propertiesLoader.mergeProperties([:]) >> [prop: 'value']
 
         when:
         loader.load(settings, gradle)
@@ -80,7 +85,7 @@ class ProjectPropertySettingBuildLoaderTest extends Specification {
 
     def "defines extra property for unknown property"() {
         given:
-        2 * propertiesLoader.mergeProperties([:]) >> [prop: 'value']
+        1 * propertiesLoader.mergeProperties([:]) >> [prop: 'value']
 
         when:
         loader.load(settings, gradle)
@@ -104,9 +109,23 @@ class ProjectPropertySettingBuildLoaderTest extends Specification {
         1 * childProperties.set('prop', 'childValue')
     }
 
+    def "merges build properties once for projects without a gradle.properties file"() {
+        given:
+        GUtil.saveProperties(new Properties([prop: 'rootValue']), new File(rootProjectDir, Project.GRADLE_PROPERTIES))
+
+        when:
+        loader.load(settings, gradle)
+
+        then:
+        1 * propertiesLoader.mergeProperties([prop: 'rootValue']) >> [prop: 'rootValue']
+        1 * propertiesLoader.mergeProperties([:]) >> [prop: 'value']
+        1 * rootProperties.set('prop', 'rootValue')
+        1 * childProperties.set('prop', 'value')
+    }
+
     def "defines project properties from Project class"() {
         given:
-        2 * propertiesLoader.mergeProperties([:]) >> [version: '1.0']
+        1 * propertiesLoader.mergeProperties([:]) >> [version: '1.0']
 
         when:
         loader.load(settings, gradle)
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.scala
+package org.gradle.initialization
+
+import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory
+import org.gradle.internal.event.DefaultListenerManager
+import org.gradle.internal.hash.DefaultContentHasherFactory
+import org.gradle.internal.hash.DefaultFileHasher
+import org.gradle.internal.hash.DefaultStreamHasher
+import org.gradle.internal.hash.FileHasher
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class PropertiesFileCacheTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def fileHasher = new DefaultFileHasher(new DefaultStreamHasher(new DefaultContentHasherFactory()))
+    def cache = new PropertiesFileCache(fileHasher, new CrossBuildInMemoryCacheFactory(new DefaultListenerManager()))
+
+    def "returns empty map for missing file"() {
+        expect:
+        cache.loadProperties(tmpDir.file("gradle.properties")).isEmpty()
+        cache.loadProperties(tmpDir.createDir("dir")).isEmpty()
+    }
+
+    def "loads properties from file"() {
+        def file = tmpDir.file("gradle.properties") << "a=1\nb=2\n"
+
+        expect:
+        cache.loadProperties(file) == [a: "1", b: "2"]
+    }
+
+    def "reuses properties while file content is unchanged"() {
+        def file = tmpDir.file("gradle.properties") << "a=1\n"
+
+        when:
+        def first = cache.loadProperties(file)
+        def second = cache.loadProperties(file)
+
+        then:
+        second.is(first)
+    }
+
+    def "reloads properties when file content changes even when length and timestamp are unchanged"() {
+        def file = tmpDir.file("gradle.properties") << "a=1\n"
+        def lastModified = file.lastModified()
+
+        when:
+        cache.loadProperties(file)
+        file.text = "a=2\n"
+        file.lastModified = lastModified
+
+        then:
+        cache.loadProperties(file) == [a: "2"]
+    }
+
+    def "uses file hasher to detect changes"() {
+        def hasher = Mock(FileHasher)
+        def cache = new PropertiesFileCache(hasher, new CrossBuildInMemoryCacheFactory(new DefaultListenerManager()))
+        def file = tmpDir.file("gradle.properties") << "a=1\n"
+
+        when:
+        cache.loadProperties(file)
+        cache.loadProperties(file)
+
+        then:
+        2 * hasher.hash(file) >> fileHasher.hash(file)
+    }
+}
@@ -616,6 +616,48 @@ class BeanDynamicObjectTest extends Specification {
         dynamicObject.invokeMethod("dyno", [12, "a"] as Object[]) == "[12, a]"
     }
 
+    def "can invoke method repeatedly with different closure instances"() {
+        def bean = new Bean()
+        def dynamicObject = new BeanDynamicObject(bean)
+
+        expect:
+        dynamicObject.invokeMethod("withClosure", [{ "a" }] as Object[]) == "a"
+        dynamicObject.invokeMethod("withClosure", [{ "b" }] as Object[]) == "b"
+        dynamicObject.invokeMethod("overlap", [Integer] as Object[]) == Class
+        dynamicObject.invokeMethod("overlap", [0] as Object[]) == Number
+        dynamicObject.invokeMethod("overlap", [Long] as Object[]) == Class
+    }
+
+    def "can invoke method and get property added to meta-class after failed lookup"() {
+        def bean = new Bean()
+        def dynamicObject = new BeanDynamicObject(bean)
+
+        expect:
+        !dynamicObject.hasMethod("added", [12] as Object[])
+        !dynamicObject.hasProperty("addedProp")
+
+        when:
+        bean.metaClass.added = { Integer i -> "[$i]" }
+        bean.metaClass.addedProp = "value"
+
+        then:
+        dynamicObject.hasMethod("added", [12] as Object[])
+        dynamicObject.invokeMethod("added", [12] as Object[]) == "[12]"
+        dynamicObject.getProperty("addedProp") == "value"
+    }
+
+    def "can invoke method added by category after failed lookup"() {
+        def bean = new Bean()
+        def dynamicObject = new BeanDynamicObject(bean)
+
+        expect:
+        !dynamicObject.hasMethod("fromCategory", [12] as Object[])
+        use(BeanCategory) {
+            dynamicObject.invokeMethod("fromCategory", [12] as Object[])
+        } == "[12]"
+        !dynamicObject.hasMethod("fromCategory", [12] as Object[])
+    }
+
     @Unroll
     def "fails when invoke unknown method [#method(#arguments)] of groovy object"() {
         def bean = new Bean(prop: "value")
@@ -752,6 +794,12 @@ class BeanDynamicObjectTest extends Specification {
         }
     }
 
+    static class BeanCategory {
+        static String fromCategory(Bean bean, Integer i) {
+            return "[$i]"
+        }
+    }
+
     static class Bean {
         String prop
 
@@ -798,6 +846,10 @@ class BeanDynamicObjectTest extends Specification {
         Class methodWithValue(Number i) {
             return Number
         }
+
+        Object withClosure(Closure cl) {
+            return cl.call()
+        }
     }
 
     static class EnumBean {
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.process.internal.worker.request
+
+import org.gradle.internal.logging.events.OperationIdentifier
+import org.gradle.internal.serialize.DefaultSerializer
+import org.gradle.internal.serialize.SerializerSpec
+
+class RequestArgumentSerializersTest extends SerializerSpec {
+    def registry = RequestArgumentSerializers.create(getClass().classLoader)
+
+    def "serializes request method name and operation identifier"() {
+        expect:
+        serialize("execute", registry.build(String)) == "execute"
+        serialize(new OperationIdentifier(12), registry.build(Object)) == new OperationIdentifier(12)
+        serialize(null, registry.build(Object)) == null
+    }
+
+    def "serializes request arguments"() {
+        def args = ["a", 12L, [1, 2] as Set, null] as Object[]
+
+        expect:
+        serialize(args, registry.build(Object[])) == args
+        serialize(null, registry.build(Object[])) == null
+        serialize([] as Object[], registry.build(Object[])) == [] as Object[]
+    }
+
+    def "serializes request arguments that need Java serialization together"() {
+        def list = [1, 2]
+        def args = [list, "a", list, new OperationIdentifier(12)] as Object[]
+
+        when:
+        def result = serialize(args, registry.build(Object[]))
+
+        then:
+        result == args
+        result[0].is(result[2])
+    }
+
+    def "serializes request parameter types by name"() {
+        def types = [String, Object[], int, List, RequestArgumentSerializersTest] as Class[]
+
+        expect:
+        serialize(types, registry.build(Class[])) == types
+        serialize(null, registry.build(Class[])) == null
+        serialize([] as Class[], registry.build(Class[])) == [] as Class[]
+        toBytes(types, registry.build(Class[])).length < toBytes(types, new DefaultSerializer<Class[]>()).length
+    }
+
+    def "can only serialize the declared types"() {
+        expect:
+        registry.canSerialize(Object)
+        registry.canSerialize(Object[])
+        registry.canSerialize(Class[])
+        !registry.canSerialize(Throwable)
+    }
+}
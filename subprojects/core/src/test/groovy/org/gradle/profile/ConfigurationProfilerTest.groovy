@@ -0,0 +1,118 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.profile
+
+import groovy.json.JsonSlurper
+import org.gradle.StartParameter
+import org.gradle.api.internal.plugins.ApplyPluginBuildOperationType
+import org.gradle.configuration.project.ConfigureProjectBuildOperationType
+import org.gradle.internal.logging.events.OperationIdentifier
+import org.gradle.internal.progress.BuildOperationDescriptor
+import org.gradle.internal.progress.BuildOperationListenerManager
+import org.gradle.internal.progress.OperationFinishEvent
+import org.gradle.internal.progress.OperationStartEvent
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class ConfigurationProfilerTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def listenerManager = Mock(BuildOperationListenerManager)
+    def startParameter = new StartParameter()
+
+    def "does nothing when not enabled"() {
+        when:
+        def profiler = new ConfigurationProfiler(startParameter, listenerManager)
+        profiler.stop()
+
+        then:
+        0 * listenerManager._
+    }
+
+    def "attributes measured operations to closest measured ancestor"() {
+        given:
+        startParameter.currentDir = tmpDir.testDirectory
+        startParameter.systemPropertiesArgs[ConfigurationProfiler.SYSPROP] = "profile"
+        def profiler = new ConfigurationProfiler(startParameter, listenerManager)
+
+        def configure = operation(1, null, "Configure project :a", Stub(ConfigureProjectBuildOperationType.Details))
+        def unmeasured = operation(2, 1, "Some operation", null)
+        def plugin = operation(3, 2, "Apply plugin 'a'", Stub(ApplyPluginBuildOperationType.Details))
+
+        when:
+        start(profiler, configure)
+        start(profiler, unmeasured)
+        start(profiler, plugin)
+        Thread.sleep(5)
+        finish(profiler, plugin)
+        finish(profiler, unmeasured)
+        Thread.sleep(5)
+        finish(profiler, configure)
+        profiler.stop()
+
+        then:
+        1 * listenerManager.addListener(profiler)
+        1 * listenerManager.removeListener(profiler)
+
+        and:
+        def json = new JsonSlurper().parse(tmpDir.file("profile-configuration.json"))
+        json.frames.size() == 1
+        def configureFrame = json.frames[0]
+        configureFrame.name == "Configure project :a"
+        configureFrame.thread == Thread.currentThread().name
+        configureFrame.children.size() == 1
+        def pluginFrame = configureFrame.children[0]
+        pluginFrame.name == "Apply plugin 'a'"
+        pluginFrame.children.empty
+        pluginFrame.wallTimeNanos >= 5000000
+        configureFrame.wallTimeNanos >= pluginFrame.wallTimeNanos + 5000000
+        configureFrame.selfWallTimeNanos == configureFrame.wallTimeNanos - pluginFrame.wallTimeNanos
+
+        and:
+        def wallStacks = tmpDir.file("profile-wall.folded").readLines()*.replaceAll(/ \d+$/, "")
+        wallStacks == ["Configure project :a", "Configure project :a;Apply plugin 'a'"]
+    }
+
+    def "ignores operations started before profiling began"() {
+        given:
+        startParameter.currentDir = tmpDir.testDirectory
+        startParameter.systemPropertiesArgs[ConfigurationProfiler.SYSPROP] = "profile"
+        def profiler = new ConfigurationProfiler(startParameter, listenerManager)
+        def plugin = operation(3, 2, "Apply plugin 'a'", Stub(ApplyPluginBuildOperationType.Details))
+
+        when:
+        finish(profiler, plugin)
+        profiler.stop()
+
+        then:
+        def json = new JsonSlurper().parse(tmpDir.file("profile-configuration.json"))
+        json.frames.empty
+    }
+
+    private static BuildOperationDescriptor operation(long id, Long parentId, String displayName, Object details) {
+        return BuildOperationDescriptor.displayName(displayName).details(details).build(new OperationIdentifier(id), parentId == null ? null : new OperationIdentifier(parentId))
+    }
+
+    private static void start(ConfigurationProfiler profiler, BuildOperationDescriptor operation) {
+        profiler.started(operation, new OperationStartEvent(0))
+    }
+
+    private static void finish(ConfigurationProfiler profiler, BuildOperationDescriptor operation) {
+        profiler.finished(operation, new OperationFinishEvent(0, 0, null, null))
+    }
+}
@@ -33,13 +33,17 @@ import org.gradle.api.GradleException;
 import org.gradle.api.internal.classloading.GroovySystemLoader;
 import org.gradle.api.internal.classloading.GroovySystemLoaderFactory;
 import org.gradle.api.internal.file.collections.SimpleFileCollection;
+import org.gradle.api.internal.tasks.compile.GroovyCompileClassLoaderCache.CompileClassLoaders;
 import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.api.tasks.WorkResults;
+import org.gradle.internal.Factory;
 import org.gradle.internal.classloader.ClassLoaderUtils;
 import org.gradle.internal.classloader.DefaultClassLoaderFactory;
 import org.gradle.internal.classloader.FilteringClassLoader;
 import org.gradle.internal.classpath.DefaultClassPath;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.hash.HashCode;
 import org.gradle.language.base.internal.compile.Compiler;
 import org.gradle.util.VersionNumber;
 
@@ -54,10 +58,20 @@ import java.util.Map;
 import static org.gradle.internal.FileUtils.hasExtension;
 
 public class ApiGroovyCompiler implements org.gradle.language.base.internal.compile.Compiler<GroovyJavaJointCompileSpec>, Serializable {
+    private static final int MAX_CACHED_CLASS_LOADERS = 8;
+    // Shared by all compilations that run in the same compiler daemon
+    private static final GroovyCompileClassLoaderCache CLASS_LOADER_CACHE = new GroovyCompileClassLoaderCache(MAX_CACHED_CLASS_LOADERS);
+
     private final Compiler<JavaCompileSpec> javaCompiler;
+    private final boolean cacheClassLoaders;
 
-    public ApiGroovyCompiler(Compiler<JavaCompileSpec> javaCompiler) {
+    /**
+     * @param cacheClassLoaders Whether to reuse the compile classpath and AST transform ClassLoaders across compilations with the same compile classpath.
+     * This should only be enabled when compiling in a dedicated compiler daemon, as the cached ClassLoaders keep the files of the compile classpath open.
+     */
+    public ApiGroovyCompiler(Compiler<JavaCompileSpec> javaCompiler, boolean cacheClassLoaders) {
         this.javaCompiler = javaCompiler;
+        this.cacheClassLoaders = cacheClassLoaders;
     }
 
     @Override
@@ -85,36 +99,9 @@ public class ApiGroovyCompiler implements org.gradle.language.base.internal.comp
         jointCompilationOptions.put("keepStubs", spec.getGroovyCompileOptions().isKeepStubs());
         configuration.setJointCompilationOptions(jointCompilationOptions);
 
-        ClassLoader classPathLoader;
-        VersionNumber version = parseGroovyVersion();
-        if (version.compareTo(VersionNumber.parse("2.0")) < 0) {
-            // using a transforming classloader is only required for older buggy Groovy versions
-            classPathLoader = new GroovyCompileTransformingClassLoader(getExtClassLoader(), new DefaultClassPath(spec.getCompileClasspath()));
-        } else {
-            classPathLoader = new DefaultClassLoaderFactory().createIsolatedClassLoader(new DefaultClassPath(spec.getCompileClasspath()));
-        }
-        GroovyClassLoader compileClasspathClassLoader = new GroovyClassLoader(classPathLoader, null);
-        GroovySystemLoader compileClasspathLoader = groovySystemLoaderFactory.forClassLoader(classPathLoader);
-
-        FilteringClassLoader.Spec groovyCompilerClassLoaderSpec = new FilteringClassLoader.Spec();
-        groovyCompilerClassLoaderSpec.allowPackage("org.codehaus.groovy");
-        groovyCompilerClassLoaderSpec.allowPackage("groovy");
-        // Disallow classes from Groovy Jar that reference external classes. Such classes must be loaded from astTransformClassLoader,
-        // or a NoClassDefFoundError will occur. Essentially this is drawing a line between the Groovy compiler and the Groovy
-        // library, albeit only for selected classes that run a high risk of being statically referenced from a transform.
-        groovyCompilerClassLoaderSpec.disallowClass("groovy.util.GroovyTestCase");
-        groovyCompilerClassLoaderSpec.disallowPackage("groovy.servlet");
-        FilteringClassLoader groovyCompilerClassLoader = new FilteringClassLoader(GroovyClassLoader.class.getClassLoader(), groovyCompilerClassLoaderSpec);
-
-        // AST transforms need their own class loader that shares compiler classes with the compiler itself
-        final GroovyClassLoader astTransformClassLoader = new GroovyClassLoader(groovyCompilerClassLoader, null);
-        // can't delegate to compileClasspathLoader because this would result in ASTTransformation interface
-        // (which is implemented by the transform class) being loaded by compileClasspathClassLoader (which is
-        // where the transform class is loaded from)
-        for (File file : spec.getCompileClasspath()) {
-            astTransformClassLoader.addClasspath(file.getPath());
-        }
-        JavaAwareCompilationUnit unit = new JavaAwareCompilationUnit(configuration, compileClasspathClassLoader) {
+        final CompileClassLoaders classLoaders = acquireClassLoaders(spec, groovySystemLoaderFactory, compilerGroovyLoader);
+        final GroovyClassLoader astTransformClassLoader = classLoaders.getAstTransformClassLoader();
+        JavaAwareCompilationUnit unit = new JavaAwareCompilationUnit(configuration, classLoaders.getCompileClasspathClassLoader()) {
             @Override
             public GroovyClassLoader getTransformLoader() {
                 return astTransformClassLoader;
@@ -179,16 +166,78 @@ public class ApiGroovyCompiler implements org.gradle.language.base.internal.comp
             System.err.flush();
             throw new CompilationFailedException();
         } finally {
-            // Remove compile and AST types from the Groovy loader
-            compilerGroovyLoader.discardTypesFrom(classPathLoader);
-            compilerGroovyLoader.discardTypesFrom(astTransformClassLoader);
-            //Discard the compile loader
-            compileClasspathLoader.shutdown();
+            releaseClassLoaders(spec, classLoaders);
         }
 
         return WorkResults.didWork(true);
     }
 
+    private CompileClassLoaders acquireClassLoaders(final GroovyJavaJointCompileSpec spec, final GroovySystemLoaderFactory groovySystemLoaderFactory, final GroovySystemLoader compilerGroovyLoader) {
+        Factory<CompileClassLoaders> factory = new Factory<CompileClassLoaders>() {
+            @Override
+            public CompileClassLoaders create() {
+                return createClassLoaders(spec.getCompileClasspath(), groovySystemLoaderFactory, compilerGroovyLoader);
+            }
+        };
+        HashCode compileClasspathHash = spec.getCompileClasspathHash();
+        if (cacheClassLoaders && compileClasspathHash != null) {
+            return CLASS_LOADER_CACHE.acquire(compileClasspathHash, factory);
+        }
+        return factory.create();
+    }
+
+    private void releaseClassLoaders(GroovyJavaJointCompileSpec spec, CompileClassLoaders classLoaders) {
+        if (cacheClassLoaders && spec.getCompileClasspathHash() != null) {
+            CLASS_LOADER_CACHE.release(classLoaders);
+        } else {
+            classLoaders.stop();
+        }
+    }
+
+    private CompileClassLoaders createClassLoaders(List<File> compileClasspath, GroovySystemLoaderFactory groovySystemLoaderFactory, final GroovySystemLoader compilerGroovyLoader) {
+        final ClassLoader classPathLoader;
+        VersionNumber version = parseGroovyVersion();
+        if (version.compareTo(VersionNumber.parse("2.0")) < 0) {
+            // using a transforming classloader is only required for older buggy Groovy versions
+            classPathLoader = new GroovyCompileTransformingClassLoader(getExtClassLoader(), new DefaultClassPath(compileClasspath));
+        } else {
+            classPathLoader = new DefaultClassLoaderFactory().createIsolatedClassLoader(new DefaultClassPath(compileClasspath));
+        }
+        GroovyClassLoader compileClasspathClassLoader = new GroovyClassLoader(classPathLoader, null);
+        final GroovySystemLoader compileClasspathLoader = groovySystemLoaderFactory.forClassLoader(classPathLoader);
+
+        FilteringClassLoader.Spec groovyCompilerClassLoaderSpec = new FilteringClassLoader.Spec();
+        groovyCompilerClassLoaderSpec.allowPackage("org.codehaus.groovy");
+        groovyCompilerClassLoaderSpec.allowPackage("groovy");
+        // Disallow classes from Groovy Jar that reference external classes. Such classes must be loaded from astTransformClassLoader,
+        // or a NoClassDefFoundError will occur. Essentially this is drawing a line between the Groovy compiler and the Groovy
+        // library, albeit only for selected classes that run a high risk of being statically referenced from a transform.
+        groovyCompilerClassLoaderSpec.disallowClass("groovy.util.GroovyTestCase");
+        groovyCompilerClassLoaderSpec.disallowPackage("groovy.servlet");
+        FilteringClassLoader groovyCompilerClassLoader = new FilteringClassLoader(GroovyClassLoader.class.getClassLoader(), groovyCompilerClassLoaderSpec);
+
+        // AST transforms need their own class loader that shares compiler classes with the compiler itself
+        final GroovyClassLoader astTransformClassLoader = new GroovyClassLoader(groovyCompilerClassLoader, null);
+        // can't delegate to compileClasspathLoader because this would result in ASTTransformation interface
+        // (which is implemented by the transform class) being loaded by compileClasspathClassLoader (which is
+        // where the transform class is loaded from)
+        for (File file : compileClasspath) {
+            astTransformClassLoader.addClasspath(file.getPath());
+        }
+        return new CompileClassLoaders(classPathLoader, compileClasspathClassLoader, astTransformClassLoader, new Stoppable() {
+            @Override
+            public void stop() {
+                // Remove compile and AST types from the Groovy loader
+                compilerGroovyLoader.discardTypesFrom(classPathLoader);
+                compilerGroovyLoader.discardTypesFrom(astTransformClassLoader);
+                //Discard the compile loader
+                compileClasspathLoader.shutdown();
+                ClassLoaderUtils.tryClose(astTransformClassLoader);
+                ClassLoaderUtils.tryClose(classPathLoader);
+            }
+        });
+    }
+
     private boolean shouldProcessAnnotations(GroovyJavaJointCompileSpec spec) {
         return spec.getGroovyCompileOptions().isJavaAnnotationProcessing() && !spec.getAnnotationProcessorPath().isEmpty();
     }
@@ -17,13 +17,16 @@
 package org.gradle.api.internal.tasks.compile;
 
 import org.gradle.api.tasks.compile.GroovyCompileOptions;
+import org.gradle.internal.hash.HashCode;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.util.List;
 
 public class DefaultGroovyJavaJointCompileSpec extends DefaultJavaCompileSpec implements GroovyJavaJointCompileSpec {
     private GroovyCompileOptions compileOptions;
     private List<File> groovyClasspath;
+    private HashCode compileClasspathHash;
 
     @Override
     public GroovyCompileOptions getGroovyCompileOptions() {
@@ -43,4 +46,14 @@ public class DefaultGroovyJavaJointCompileSpec extends DefaultJavaCompileSpec im
     public void setGroovyClasspath(List<File> groovyClasspath) {
         this.groovyClasspath = groovyClasspath;
     }
+
+    @Nullable
+    @Override
+    public HashCode getCompileClasspathHash() {
+        return compileClasspathHash;
+    }
+
+    public void setCompileClasspathHash(@Nullable HashCode compileClasspathHash) {
+        this.compileClasspathHash = compileClasspathHash;
+    }
 }
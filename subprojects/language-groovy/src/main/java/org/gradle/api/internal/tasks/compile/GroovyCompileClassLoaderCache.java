@@ -0,0 +1,130 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile;
+
+import groovy.lang.GroovyClassLoader;
+import org.gradle.internal.Factory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.hash.HashCode;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded, least recently used cache of the ClassLoaders that the Groovy compiler uses to load the compile classpath and AST transforms.
+ *
+ * <p>ClassLoaders are keyed by a hash of the paths and contents of the files in the compile classpath, which is calculated by the build process from
+ * its snapshots of these files. A set of ClassLoaders that is evicted from the cache is only cleaned up once it is no longer used by any compilation.</p>
+ */
+class GroovyCompileClassLoaderCache implements Stoppable {
+    private final int maxSize;
+    private final Map<HashCode, CompileClassLoaders> entries = new LinkedHashMap<HashCode, CompileClassLoaders>(16, 0.75f, true);
+
+    GroovyCompileClassLoaderCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the ClassLoaders for the compile classpath with the given hash, creating them if required. The result must be passed to {@link #release(CompileClassLoaders)} when no longer in use.
+     */
+    public synchronized CompileClassLoaders acquire(HashCode compileClasspathHash, Factory<CompileClassLoaders> factory) {
+        CompileClassLoaders classLoaders = entries.get(compileClasspathHash);
+        if (classLoaders == null) {
+            classLoaders = factory.create();
+            entries.put(compileClasspathHash, classLoaders);
+            evictEntries();
+        }
+        classLoaders.users++;
+        return classLoaders;
+    }
+
+    public synchronized void release(CompileClassLoaders classLoaders) {
+        if (classLoaders.users <= 0) {
+            throw new IllegalStateException("Cannot release ClassLoaders that are not in use.");
+        }
+        classLoaders.users--;
+        if (classLoaders.evicted && classLoaders.users == 0) {
+            classLoaders.stop();
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized void stop() {
+        for (CompileClassLoaders classLoaders : entries.values()) {
+            evict(classLoaders);
+        }
+        entries.clear();
+    }
+
+    private void evictEntries() {
+        Iterator<CompileClassLoaders> iterator = entries.values().iterator();
+        while (entries.size() > maxSize) {
+            CompileClassLoaders eldest = iterator.next();
+            iterator.remove();
+            evict(eldest);
+        }
+    }
+
+    private void evict(CompileClassLoaders classLoaders) {
+        classLoaders.evicted = true;
+        if (classLoaders.users == 0) {
+            classLoaders.stop();
+        }
+    }
+
+    public static class CompileClassLoaders implements Stoppable {
+        private final ClassLoader classPathLoader;
+        private final GroovyClassLoader compileClasspathClassLoader;
+        private final GroovyClassLoader astTransformClassLoader;
+        private final Stoppable cleanup;
+        private int users;
+        private boolean evicted;
+
+        /**
+         * @param cleanup Releases the resources held by the ClassLoaders, once they have been evicted from the cache and are no longer in use.
+         */
+        public CompileClassLoaders(ClassLoader classPathLoader, GroovyClassLoader compileClasspathClassLoader, GroovyClassLoader astTransformClassLoader, Stoppable cleanup) {
+            this.classPathLoader = classPathLoader;
+            this.compileClasspathClassLoader = compileClasspathClassLoader;
+            this.astTransformClassLoader = astTransformClassLoader;
+            this.cleanup = cleanup;
+        }
+
+        public ClassLoader getClassPathLoader() {
+            return classPathLoader;
+        }
+
+        public GroovyClassLoader getCompileClasspathClassLoader() {
+            return compileClasspathClassLoader;
+        }
+
+        public GroovyClassLoader getAstTransformClassLoader() {
+            return astTransformClassLoader;
+        }
+
+        @Override
+        public void stop() {
+            cleanup.stop();
+        }
+    }
+}
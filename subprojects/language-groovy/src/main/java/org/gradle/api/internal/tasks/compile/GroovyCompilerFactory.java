@@ -23,6 +23,7 @@ import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.internal.tasks.compile.daemon.DaemonGroovyCompiler;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.api.tasks.compile.GroovyCompileOptions;
+import org.gradle.internal.os.OperatingSystem;
 import org.gradle.language.base.internal.compile.Compiler;
 import org.gradle.language.base.internal.compile.CompilerFactory;
 import org.gradle.process.internal.DefaultExecActionFactory;
@@ -55,11 +56,23 @@ public class GroovyCompilerFactory implements CompilerFactory<GroovyJavaJointCom
         } else {
             workerFactory = inProcessWorkerFactory;
         }
-        Compiler<GroovyJavaJointCompileSpec> groovyCompiler = new DaemonGroovyCompiler(project.getServices().get(WorkerDirectoryProvider.class).getIdleWorkingDirectory(), new DaemonSideCompiler(), project.getServices().get(ClassPathRegistry.class), workerFactory, fileResolver);
+        Compiler<GroovyJavaJointCompileSpec> groovyCompiler = new DaemonGroovyCompiler(project.getServices().get(WorkerDirectoryProvider.class).getIdleWorkingDirectory(), new DaemonSideCompiler(shouldCacheClassLoaders(groovyOptions)), project.getServices().get(ClassPathRegistry.class), workerFactory, fileResolver);
         return new NormalizingGroovyCompiler(groovyCompiler);
     }
 
+    private static boolean shouldCacheClassLoaders(GroovyCompileOptions groovyOptions) {
+        // Only cache in a forked compiler daemon, which can hold on to the compile classpath ClassLoaders for its whole lifetime.
+        // Cached ClassLoaders keep jars open, which would prevent them from being replaced on Windows
+        return groovyOptions.isFork() && !OperatingSystem.current().isWindows();
+    }
+
     private static class DaemonSideCompiler implements Compiler<GroovyJavaJointCompileSpec>, Serializable {
+        private final boolean cacheClassLoaders;
+
+        DaemonSideCompiler(boolean cacheClassLoaders) {
+            this.cacheClassLoaders = cacheClassLoaders;
+        }
+
         @Override
         public WorkResult execute(GroovyJavaJointCompileSpec spec) {
             DefaultExecActionFactory execHandleFactory = new DefaultExecActionFactory(new IdentityFileResolver());
@@ -70,7 +83,7 @@ public class GroovyCompilerFactory implements CompilerFactory<GroovyJavaJointCom
                 } else {
                     javaCompiler = new JdkJavaCompiler(new JavaHomeBasedJavaCompilerFactory());
                 }
-                Compiler<GroovyJavaJointCompileSpec> groovyCompiler = new ApiGroovyCompiler(javaCompiler);
+                Compiler<GroovyJavaJointCompileSpec> groovyCompiler = new ApiGroovyCompiler(javaCompiler, cacheClassLoaders);
                 return groovyCompiler.execute(spec);
             } finally {
                 execHandleFactory.stop();
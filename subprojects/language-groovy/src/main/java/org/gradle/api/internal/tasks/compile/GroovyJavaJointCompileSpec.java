@@ -16,5 +16,15 @@
 
 package org.gradle.api.internal.tasks.compile;
 
+import org.gradle.internal.hash.HashCode;
+
+import javax.annotation.Nullable;
+
 public interface GroovyJavaJointCompileSpec extends JavaCompileSpec, GroovyCompileSpec {
+    /**
+     * A hash of the paths and contents of the compile classpath, used to reuse the ClassLoaders of an earlier compilation with the same compile classpath.
+     * Null when not known, in which case the ClassLoaders are not reused.
+     */
+    @Nullable
+    HashCode getCompileClasspathHash();
 }
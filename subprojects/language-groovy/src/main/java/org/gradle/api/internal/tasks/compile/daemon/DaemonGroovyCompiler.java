@@ -64,7 +64,8 @@ public class DaemonGroovyCompiler extends AbstractDaemonCompiler<GroovyJavaJoint
             .javaForkOptions(javaForkOptions)
             .classpath(groovyFiles)
             .sharedPackages(SHARED_PACKAGES)
-            .keepAliveMode(KeepAliveMode.SESSION)
+            // Keep the daemon alive between builds, so that the warmed up compiler and the ClassLoaders it caches can be reused
+            .keepAliveMode(KeepAliveMode.DAEMON)
             .build();
 
         return new InvocationContext(invocationWorkingDir, daemonForkOptions);
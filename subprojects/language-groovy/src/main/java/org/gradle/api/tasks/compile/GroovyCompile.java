@@ -23,6 +23,7 @@ import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.JavaVersion;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.file.FileTree;
+import org.gradle.api.internal.changedetection.state.FileSystemSnapshotter;
 import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.internal.tasks.JavaToolChainFactory;
@@ -43,6 +44,9 @@ import org.gradle.api.tasks.PathSensitive;
 import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.TaskAction;
 import org.gradle.api.tasks.WorkResult;
+import org.gradle.caching.internal.BuildCacheHasher;
+import org.gradle.caching.internal.DefaultBuildCacheHasher;
+import org.gradle.internal.hash.HashCode;
 import org.gradle.jvm.toolchain.JavaToolChain;
 import org.gradle.language.base.internal.compile.Compiler;
 import org.gradle.util.GFileUtils;
@@ -74,6 +78,8 @@ public class GroovyCompile extends AbstractCompile {
     protected void compile() {
         checkGroovyClasspathIsNonEmpty();
         DefaultGroovyJavaJointCompileSpec spec = createSpec();
+        // The classpath is only snapshotted once it has been built
+        spec.setCompileClasspathHash(hashCompileClasspath(spec.getCompileClasspath()));
         WorkResult result = getCompiler(spec).execute(spec);
         setDidWork(result.getDidWork());
     }
@@ -112,6 +118,19 @@ public class GroovyCompile extends AbstractCompile {
         return spec;
     }
 
+    /**
+     * Hashes the compile classpath using the snapshots of its files, which the compiler uses to reuse the ClassLoaders of earlier compilations.
+     */
+    private HashCode hashCompileClasspath(List<File> compileClasspath) {
+        FileSystemSnapshotter fileSystemSnapshotter = getServices().get(FileSystemSnapshotter.class);
+        BuildCacheHasher hasher = new DefaultBuildCacheHasher();
+        for (File file : compileClasspath) {
+            hasher.putString(file.getAbsolutePath());
+            fileSystemSnapshotter.snapshotAll(file).appendToHasher(hasher);
+        }
+        return hasher.hash();
+    }
+
     private List<File> calculateAnnotationProcessorClasspath() {
         AnnotationProcessorPathFactory annotationProcessorPathFactory = getServices().get(AnnotationProcessorPathFactory.class);
         FileCollection processorClasspath = annotationProcessorPathFactory.getEffectiveAnnotationProcessorClasspath(compileOptions, getClasspath());
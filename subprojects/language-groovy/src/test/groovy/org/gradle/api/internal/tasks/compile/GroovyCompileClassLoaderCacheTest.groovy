@@ -0,0 +1,117 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile
+
+import org.gradle.api.internal.tasks.compile.GroovyCompileClassLoaderCache.CompileClassLoaders
+import org.gradle.internal.Factory
+import org.gradle.internal.concurrent.Stoppable
+import org.gradle.internal.hash.HashCode
+import spock.lang.Specification
+import spock.lang.Subject
+
+class GroovyCompileClassLoaderCacheTest extends Specification {
+    @Subject cache = new GroovyCompileClassLoaderCache(2)
+
+    def "reuses ClassLoaders for the same compile classpath"() {
+        def factory = Mock(Factory)
+        def classLoaders = classLoaders(Stub(Stoppable))
+
+        when:
+        def first = cache.acquire(HashCode.fromInt(1), factory)
+        cache.release(first)
+        def second = cache.acquire(HashCode.fromInt(1), factory)
+
+        then:
+        1 * factory.create() >> classLoaders
+        first == classLoaders
+        second == classLoaders
+    }
+
+    def "creates new ClassLoaders for a different compile classpath"() {
+        when:
+        def first = cache.acquire(HashCode.fromInt(1), factory(Stub(Stoppable)))
+        cache.release(first)
+        def second = cache.acquire(HashCode.fromInt(2), factory(Stub(Stoppable)))
+
+        then:
+        !second.is(first)
+    }
+
+    def "cleans up least recently used ClassLoaders when cache is full"() {
+        def cleanup1 = Mock(Stoppable)
+        def cleanup2 = Mock(Stoppable)
+        def cleanup3 = Mock(Stoppable)
+        def classpath1 = HashCode.fromInt(1)
+        def classpath2 = HashCode.fromInt(2)
+        def classpath3 = HashCode.fromInt(3)
+
+        when:
+        cache.release(cache.acquire(classpath1, factory(cleanup1)))
+        cache.release(cache.acquire(classpath2, factory(cleanup2)))
+        cache.release(cache.acquire(classpath1, factory(cleanup1)))
+        cache.release(cache.acquire(classpath3, factory(cleanup3)))
+
+        then:
+        1 * cleanup2.stop()
+        0 * cleanup1.stop()
+        0 * cleanup3.stop()
+        cache.size() == 2
+    }
+
+    def "does not clean up evicted ClassLoaders until they are released"() {
+        def cleanup = Mock(Stoppable)
+
+        when:
+        def inUse = cache.acquire(HashCode.fromInt(1), factory(cleanup))
+        cache.release(cache.acquire(HashCode.fromInt(2), factory(Stub(Stoppable))))
+        cache.release(cache.acquire(HashCode.fromInt(3), factory(Stub(Stoppable))))
+
+        then:
+        0 * cleanup.stop()
+
+        when:
+        cache.release(inUse)
+
+        then:
+        1 * cleanup.stop()
+    }
+
+    def "cannot release ClassLoaders that are not in use"() {
+        def classLoaders = cache.acquire(HashCode.fromInt(1), factory(Stub(Stoppable)))
+        cache.release(classLoaders)
+
+        when:
+        cache.release(classLoaders)
+
+        then:
+        thrown(IllegalStateException)
+    }
+
+    private Factory<CompileClassLoaders> factory(Stoppable cleanup) {
+        return new Factory<CompileClassLoaders>() {
+            @Override
+            CompileClassLoaders create() {
+                return classLoaders(cleanup)
+            }
+        }
+    }
+
+    private static CompileClassLoaders classLoaders(Stoppable cleanup) {
+        return new CompileClassLoaders(new URLClassLoader(new URL[0]), new GroovyClassLoader(), new GroovyClassLoader(), cleanup)
+    }
+}
@@ -742,10 +742,7 @@ abstract class AbstractCrossTaskIncrementalJavaCompilationIntegrationTest extend
         impl.noneRecompiled()
     }
 
-    // This test checks the current behavior, not necessarily the desired one.
-    // If all classes are compiled by the same compile task, we do not know if a
-    // change is an abi change or not. Hence, an abi change is always assumed.
-    def "does recompile on non-abi changes inside one project"() {
+    def "does not recompile dependents on non-abi changes inside one project"() {
         java impl: ["class A { }", "class B { A a; }", "class C { B b; }"]
         impl.snapshot { run "compileJava" }
 
@@ -753,6 +750,18 @@ abstract class AbstractCrossTaskIncrementalJavaCompilationIntegrationTest extend
         java impl: ["class A { \n}"]
         run "impl:compileJava"
 
+        then:
+        impl.recompiledClasses 'A'
+    }
+
+    def "does recompile dependents on abi changes inside one project"() {
+        java impl: ["class A { }", "class B { A a; }", "class C { B b; }"]
+        impl.snapshot { run "compileJava" }
+
+        when:
+        java impl: ["class A { String change; }"]
+        run "impl:compileJava"
+
         then:
         impl.recompiledClasses 'A', 'B', 'C'
     }
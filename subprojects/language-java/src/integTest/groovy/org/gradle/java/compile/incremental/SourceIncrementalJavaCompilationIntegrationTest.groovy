@@ -167,7 +167,7 @@ class SourceIncrementalJavaCompilationIntegrationTest extends AbstractIntegratio
         outputs.snapshot { run "compileJava" }
 
         when:
-        java "class A { /* change */ }"
+        java "class A { String change; }"
         run "compileJava"
 
         then:
@@ -191,7 +191,7 @@ class SourceIncrementalJavaCompilationIntegrationTest extends AbstractIntegratio
         outputs.snapshot { run "compileJava" }
 
         when:
-        java "class A { /* change */ }"
+        java "class A { String change; }"
         run "compileJava"
 
         then:
@@ -204,7 +204,7 @@ class SourceIncrementalJavaCompilationIntegrationTest extends AbstractIntegratio
         outputs.snapshot { run "compileJava" }
 
         when:
-        java "class A { /* change */ }"
+        java "class A { String change; }"
         run "compileJava"
 
         then:
@@ -257,6 +257,42 @@ class SourceIncrementalJavaCompilationIntegrationTest extends AbstractIntegratio
         outputs.recompiledClasses 'B', 'A'
     }
 
+    def "changed class keeping its non-private constants does not incur full rebuild"() {
+        java "class A { int foo() { return 1; } }", "class B { final static int x = 1; }", "class C { B b; }"
+        outputs.snapshot { run "compileJava" }
+
+        when:
+        java "class B { final static int x = 1; void bar() { /* change */ } }"
+        run "compileJava"
+
+        then:
+        outputs.recompiledClasses 'B', 'C'
+    }
+
+    def "changed constant value incurs full rebuild"() {
+        java "class A { int foo() { return 1; } }", "class B { final static int x = 1; }", "class C {}"
+        outputs.snapshot { run "compileJava" }
+
+        when:
+        java "class B { final static int x = 2; }"
+        run "compileJava"
+
+        then:
+        outputs.recompiledClasses 'A', 'B', 'C'
+    }
+
+    def "does not recompile dependents on non-abi change"() {
+        java "class A { int foo() { return 1; } }", "class B { A a; }", "class C { B b; }"
+        outputs.snapshot { run "compileJava" }
+
+        when:
+        java "class A { int foo() { return 2; } }"
+        run "compileJava"
+
+        then:
+        outputs.recompiledClasses 'A'
+    }
+
     @NotYetImplemented
     //  Can re-enable with compiler plugins. See gradle/gradle#1474
     def "changing an unused non-private constant incurs partial rebuild"() {
@@ -276,7 +312,7 @@ class SourceIncrementalJavaCompilationIntegrationTest extends AbstractIntegratio
         outputs.snapshot { run "compileJava" }
 
         when:
-        java "class A { /* change */ }"
+        java "class A { String change; }"
         run "compileJava"
 
         then:
@@ -296,7 +332,7 @@ class SourceIncrementalJavaCompilationIntegrationTest extends AbstractIntegratio
 
         when:
         outputs.snapshot()
-        java "class A { /* change */ }"
+        java "class A { String change; }"
         run "compileJava"
 
         then:
@@ -25,14 +25,21 @@ import org.gradle.language.base.internal.tasks.StaleClassCleaner;
 public abstract class CleaningJavaCompilerSupport<T extends JavaCompileSpec> implements org.gradle.language.base.internal.compile.Compiler<T> {
     @Override
     public WorkResult execute(T spec) {
+        deleteStaleClasses(spec);
+
+        Compiler<? super T> compiler = getCompiler();
+        return compiler.execute(spec);
+    }
+
+    /**
+     * Deletes the stale classes for the given spec, without compiling it.
+     */
+    public void deleteStaleClasses(T spec) {
         StaleClassCleaner cleaner = createCleaner(spec);
 
         cleaner.setDestinationDir(spec.getDestinationDir());
         cleaner.setSource(spec.getSource());
         cleaner.execute();
-
-        Compiler<? super T> compiler = getCompiler();
-        return compiler.execute(spec);
     }
 
     protected abstract Compiler<T> getCompiler();
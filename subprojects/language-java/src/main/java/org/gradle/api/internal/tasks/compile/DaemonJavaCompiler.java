@@ -42,16 +42,21 @@ public class DaemonJavaCompiler extends AbstractDaemonCompiler<JavaCompileSpec>
     @Override
     protected InvocationContext toInvocationContext(JavaCompileSpec spec) {
         ForkOptions forkOptions = spec.getCompileOptions().getForkOptions();
+        File invocationWorkingDir = new BaseForkOptionsConverter(fileResolver).transform(forkOptions).getWorkingDir();
+        return new InvocationContext(invocationWorkingDir, toDaemonForkOptions(forkOptions, fileResolver, daemonWorkingDir));
+    }
+
+    /**
+     * Returns the options for the worker daemon that compiles a {@link JavaCompileSpec} with the given fork options.
+     */
+    public static DaemonForkOptions toDaemonForkOptions(ForkOptions forkOptions, FileResolver fileResolver, File daemonWorkingDir) {
         JavaForkOptions javaForkOptions = new BaseForkOptionsConverter(fileResolver).transform(forkOptions);
-        File invocationWorkingDir = javaForkOptions.getWorkingDir();
         javaForkOptions.setWorkingDir(daemonWorkingDir);
 
-        DaemonForkOptions daemonForkOptions = new DaemonForkOptionsBuilder(fileResolver)
+        return new DaemonForkOptionsBuilder(fileResolver)
             .javaForkOptions(javaForkOptions)
             .sharedPackages(SHARED_PACKAGES)
             .keepAliveMode(KeepAliveMode.SESSION)
             .build();
-
-        return new InvocationContext(invocationWorkingDir, daemonForkOptions);
     }
 }
@@ -34,6 +34,10 @@ public class DefaultJavaCompileSpec extends DefaultJvmLanguageCompileSpec implem
         this.compileOptions = new MinimalJavaCompileOptions(compileOptions);
     }
 
+    public void setCompileOptions(MinimalJavaCompileOptions compileOptions) {
+        this.compileOptions = compileOptions;
+    }
+
     @Override
     public List<File> getAnnotationProcessorPath() {
         return annotationProcessorPath;
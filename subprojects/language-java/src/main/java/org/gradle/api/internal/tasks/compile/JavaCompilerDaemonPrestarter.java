@@ -0,0 +1,77 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile;
+
+import org.gradle.api.Task;
+import org.gradle.api.execution.TaskExecutionGraph;
+import org.gradle.api.execution.TaskExecutionGraphListener;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.tasks.compile.CompileOptions;
+import org.gradle.api.tasks.compile.ForkOptions;
+import org.gradle.api.tasks.compile.JavaCompile;
+import org.gradle.process.internal.worker.child.WorkerDirectoryProvider;
+import org.gradle.workers.internal.WorkerDaemonFactory;
+
+/**
+ * Starts the worker daemons that will be needed by forking {@link JavaCompile} tasks as soon as the task graph is known,
+ * so that the daemons start up while upstream tasks run rather than when the compile task starts.
+ *
+ * <p>Disabled unless the {@value #PRESTART_PROPERTY} system property is set to {@code true}.</p>
+ */
+public class JavaCompilerDaemonPrestarter implements TaskExecutionGraphListener {
+    public static final String PRESTART_PROPERTY = "org.gradle.workers.prestart";
+    private static final Logger LOGGER = Logging.getLogger(JavaCompilerDaemonPrestarter.class);
+
+    private final WorkerDaemonFactory workerDaemonFactory;
+    private final WorkerDirectoryProvider workerDirectoryProvider;
+
+    public JavaCompilerDaemonPrestarter(WorkerDaemonFactory workerDaemonFactory, WorkerDirectoryProvider workerDirectoryProvider) {
+        this.workerDaemonFactory = workerDaemonFactory;
+        this.workerDirectoryProvider = workerDirectoryProvider;
+    }
+
+    @Override
+    public void graphPopulated(TaskExecutionGraph graph) {
+        if (!Boolean.getBoolean(PRESTART_PROPERTY)) {
+            return;
+        }
+        for (Task task : graph.getAllTasks()) {
+            if (task instanceof JavaCompile) {
+                CompileOptions compileOptions = ((JavaCompile) task).getOptions();
+                ForkOptions forkOptions = compileOptions.getForkOptions();
+                // Same condition as used to select the daemon compiler
+                if (compileOptions.isFork() && forkOptions.getExecutable() == null && forkOptions.getJavaHome() == null) {
+                    prestart(task, forkOptions);
+                }
+            }
+        }
+    }
+
+    private void prestart(Task task, ForkOptions forkOptions) {
+        try {
+            ProjectInternal project = (ProjectInternal) task.getProject();
+            // The worker daemon factory ignores requests for which a compatible daemon is already idle or starting
+            workerDaemonFactory.prestart(DaemonJavaCompiler.toDaemonForkOptions(forkOptions, project.getFileResolver(), workerDirectoryProvider.getIdleWorkingDirectory()));
+        } catch (Exception e) {
+            // Pre-starting is only an optimization, the task starts its own daemon when it runs
+            LOGGER.info("Could not pre-start worker daemon for " + task + ".", e);
+        }
+    }
+}
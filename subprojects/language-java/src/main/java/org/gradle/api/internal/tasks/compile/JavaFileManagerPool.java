@@ -0,0 +1,218 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile;
+
+import com.google.common.base.Objects;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.hash.FileHasher;
+import org.gradle.internal.hash.HashCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the file managers used by in-process Java compilation, so that later compilations, including those of later builds in the same process,
+ * can reuse the jar indexes built up by earlier ones.
+ *
+ * <p>A file manager caches the contents of the jars it has read. Each pooled file manager remembers the content hash of those jars,
+ * and is discarded when a jar it has read has changed since. The jars are hashed with the file hasher of the build requesting the file manager,
+ * so that changes made between builds are noticed.</p>
+ */
+public class JavaFileManagerPool implements Stoppable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JavaFileManagerPool.class);
+    // Options that set module oriented locations, which cannot be reliably reset once set
+    private static final String[] MODULE_LOCATION_OPTIONS = {"--module-path", "-p", "--upgrade-module-path", "--patch-module", "--system", "--module-source-path"};
+
+    private final int maxIdle;
+    private final List<PooledFileManager> idle = new ArrayList<PooledFileManager>();
+
+    public JavaFileManagerPool(int maxIdle) {
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * Returns a file manager for compiling against the given classpath with the given compiler options, which must be passed to {@link #release(PooledFileManager)}
+     * once the compilation has finished. Pooled file managers that have read a jar of the classpath whose content hash has changed since are discarded.
+     */
+    public PooledFileManager acquire(JavaCompiler compiler, Charset charset, Iterable<File> classpath, List<String> options, FileHasher fileHasher) {
+        if (maxIdle == 0 || setsModuleLocations(options)) {
+            return new PooledFileManager(compiler.getStandardFileManager(null, null, charset), compiler.getClass(), charset, false);
+        }
+        Map<File, HashCode> jarHashes = hashJars(classpath, fileHasher);
+        List<PooledFileManager> stale = new ArrayList<PooledFileManager>();
+        PooledFileManager result = null;
+        synchronized (idle) {
+            Iterator<PooledFileManager> iterator = idle.iterator();
+            while (iterator.hasNext()) {
+                PooledFileManager candidate = iterator.next();
+                if (candidate.compilerType != compiler.getClass() || !Objects.equal(candidate.charset, charset)) {
+                    continue;
+                }
+                iterator.remove();
+                if (candidate.isUpToDate(jarHashes)) {
+                    result = candidate;
+                    break;
+                }
+                stale.add(candidate);
+            }
+        }
+        close(stale);
+        if (result != null && !result.resetLocations()) {
+            close(result);
+            result = null;
+        }
+        if (result == null) {
+            result = new PooledFileManager(compiler.getStandardFileManager(null, null, charset), compiler.getClass(), charset, true);
+        } else {
+            LOGGER.debug("Reusing Java file manager with {} indexed jars.", result.jarHashes.size());
+        }
+        result.jarHashes.putAll(jarHashes);
+        return result;
+    }
+
+    public void release(PooledFileManager fileManager) {
+        if (!fileManager.reusable) {
+            close(fileManager);
+            return;
+        }
+        try {
+            fileManager.getFileManager().flush();
+        } catch (IOException e) {
+            close(fileManager);
+            return;
+        }
+        PooledFileManager evicted = null;
+        synchronized (idle) {
+            idle.add(fileManager);
+            if (idle.size() > maxIdle) {
+                evicted = idle.remove(0);
+            }
+        }
+        if (evicted != null) {
+            close(evicted);
+        }
+    }
+
+    @Override
+    public void stop() {
+        List<PooledFileManager> fileManagers;
+        synchronized (idle) {
+            fileManagers = new ArrayList<PooledFileManager>(idle);
+            idle.clear();
+        }
+        close(fileManagers);
+    }
+
+    private static boolean setsModuleLocations(List<String> options) {
+        for (String option : options) {
+            for (String moduleLocationOption : MODULE_LOCATION_OPTIONS) {
+                if (option.equals(moduleLocationOption) || option.startsWith(moduleLocationOption + "=")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static Map<File, HashCode> hashJars(Iterable<File> classpath, FileHasher fileHasher) {
+        Map<File, HashCode> hashes = new HashMap<File, HashCode>();
+        for (File file : classpath) {
+            // Directories are listed again by each compilation, only the contents of jars are cached
+            if (file.isFile()) {
+                hashes.put(file, fileHasher.hash(file));
+            }
+        }
+        return hashes;
+    }
+
+    private static void close(PooledFileManager fileManager) {
+        try {
+            fileManager.getFileManager().close();
+        } catch (IOException e) {
+            LOGGER.debug("Could not close Java file manager.", e);
+        }
+    }
+
+    private static void close(List<PooledFileManager> fileManagers) {
+        for (PooledFileManager fileManager : fileManagers) {
+            close(fileManager);
+        }
+    }
+
+    public static class PooledFileManager {
+        private final StandardJavaFileManager fileManager;
+        private final Class<?> compilerType;
+        private final Charset charset;
+        private final boolean reusable;
+        private final Map<File, HashCode> jarHashes = new HashMap<File, HashCode>();
+
+        private PooledFileManager(StandardJavaFileManager fileManager, Class<?> compilerType, Charset charset, boolean reusable) {
+            this.fileManager = fileManager;
+            this.compilerType = compilerType;
+            this.charset = charset;
+            this.reusable = reusable;
+        }
+
+        public StandardJavaFileManager getFileManager() {
+            return fileManager;
+        }
+
+        private boolean isUpToDate(Map<File, HashCode> currentHashes) {
+            for (Map.Entry<File, HashCode> entry : currentHashes.entrySet()) {
+                HashCode previousHash = jarHashes.get(entry.getKey());
+                if (previousHash != null && !previousHash.equals(entry.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Resets every location of the file manager, so that locations that the next compilation does not specify do not leak from the previous one.
+         * This includes the module oriented locations of newer JDKs, which some file managers do not allow to be reset. As file managers used with
+         * options that set these locations are not pooled, such a location still has its default value and can be ignored.
+         *
+         * @return false when a location could not be reset, and the file manager must not be reused.
+         */
+        private boolean resetLocations() {
+            for (StandardLocation location : StandardLocation.values()) {
+                try {
+                    fileManager.setLocation(location, null);
+                } catch (IOException e) {
+                    LOGGER.debug("Could not reset location {} of Java file manager.", location, e);
+                    return false;
+                } catch (RuntimeException e) {
+                    // Thrown for some module oriented locations
+                    LOGGER.debug("Java file manager does not support resetting location {}.", location);
+                }
+            }
+            return true;
+        }
+    }
+}
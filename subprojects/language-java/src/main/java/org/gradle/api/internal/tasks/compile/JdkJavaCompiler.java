@@ -20,10 +20,15 @@ import org.gradle.api.internal.tasks.compile.reflect.SourcepathIgnoringProxy;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.api.tasks.WorkResults;
 import org.gradle.internal.Factory;
+import org.gradle.internal.hash.FileHasher;
 import org.gradle.language.base.internal.compile.Compiler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.DiagnosticListener;
 import javax.tools.JavaCompiler;
 import javax.tools.JavaFileObject;
 import javax.tools.StandardJavaFileManager;
@@ -35,35 +40,69 @@ import java.util.List;
 public class JdkJavaCompiler implements Compiler<JavaCompileSpec>, Serializable {
     private static final Logger LOGGER = LoggerFactory.getLogger(JdkJavaCompiler.class);
     private final Factory<JavaCompiler> javaHomeBasedJavaCompilerFactory;
+    // Not available when running in a compiler daemon
+    private final transient JavaFileManagerPool fileManagerPool;
+    private final transient FileHasher fileHasher;
 
     public JdkJavaCompiler(Factory<JavaCompiler> javaHomeBasedJavaCompilerFactory) {
+        this(javaHomeBasedJavaCompilerFactory, null, null);
+    }
+
+    public JdkJavaCompiler(Factory<JavaCompiler> javaHomeBasedJavaCompilerFactory, @Nullable JavaFileManagerPool fileManagerPool, @Nullable FileHasher fileHasher) {
         this.javaHomeBasedJavaCompilerFactory = javaHomeBasedJavaCompilerFactory;
+        this.fileManagerPool = fileManagerPool;
+        this.fileHasher = fileHasher;
     }
 
     @Override
     public WorkResult execute(JavaCompileSpec spec) {
         LOGGER.info("Compiling with JDK Java compiler API.");
 
-        JavaCompiler.CompilationTask task = createCompileTask(spec);
-        boolean success = task.call();
+        JavaCompiler compiler = javaHomeBasedJavaCompilerFactory.create();
+        MinimalJavaCompileOptions compileOptions = spec.getCompileOptions();
+        Charset charset = compileOptions.getEncoding() != null ? Charset.forName(compileOptions.getEncoding()) : null;
+        // When null, the compiler reports diagnostics as they are produced
+        DiagnosticCollector<JavaFileObject> diagnostics = compileOptions.isReportDiagnosticsOnSuccessOnly() ? new DiagnosticCollector<JavaFileObject>() : null;
+        List<String> options = new JavaCompilerArgumentsBuilder(spec).build();
+        boolean success;
+        if (fileManagerPool == null) {
+            success = createCompileTask(spec, options, compiler, compiler.getStandardFileManager(null, null, charset), diagnostics).call();
+        } else {
+            JavaFileManagerPool.PooledFileManager fileManager = fileManagerPool.acquire(compiler, charset, spec.getCompileClasspath(), options, fileHasher);
+            try {
+                success = createCompileTask(spec, options, compiler, fileManager.getFileManager(), diagnostics).call();
+            } finally {
+                fileManagerPool.release(fileManager);
+            }
+        }
         if (!success) {
             throw new CompilationFailedException();
         }
+        if (diagnostics != null) {
+            for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                report(diagnostic);
+            }
+        }
 
         return WorkResults.didWork(true);
     }
 
-    private JavaCompiler.CompilationTask createCompileTask(JavaCompileSpec spec) {
-        List<String> options = new JavaCompilerArgumentsBuilder(spec).build();
-        JavaCompiler compiler = javaHomeBasedJavaCompilerFactory.create();
-        MinimalJavaCompileOptions compileOptions = spec.getCompileOptions();
-        StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(null, null, compileOptions.getEncoding() != null ? Charset.forName(compileOptions.getEncoding()) : null);
+    private static void report(Diagnostic<? extends JavaFileObject> diagnostic) {
+        if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+            LOGGER.error("{}", diagnostic);
+        } else {
+            // Warnings and notes are shown by default when the compiler reports them directly
+            LOGGER.warn("{}", diagnostic);
+        }
+    }
+
+    private JavaCompiler.CompilationTask createCompileTask(JavaCompileSpec spec, List<String> options, JavaCompiler compiler, StandardJavaFileManager standardFileManager, @Nullable DiagnosticListener<JavaFileObject> diagnostics) {
         Iterable<? extends JavaFileObject> compilationUnits = standardFileManager.getJavaFileObjectsFromFiles(spec.getSource());
         StandardJavaFileManager fileManager = standardFileManager;
         if (JavaVersion.current().isJava9Compatible() && emptySourcepathIn(options)) {
             fileManager = (StandardJavaFileManager) SourcepathIgnoringProxy.proxy(standardFileManager, StandardJavaFileManager.class);
         }
-        return compiler.getTask(null, fileManager, null, options, null, compilationUnits);
+        return compiler.getTask(null, fileManager, diagnostics, options, null, compilationUnits);
     }
 
     private static boolean emptySourcepathIn(List<String> options) {
@@ -45,6 +45,7 @@ public class MinimalJavaCompileOptions implements Serializable {
     private boolean verbose;
     private boolean warnings;
     private File annotationProcessorGeneratedSourcesDirectory;
+    private boolean reportDiagnosticsOnSuccessOnly;
 
     public MinimalJavaCompileOptions(final CompileOptions compileOptions) {
         FileCollection sourcepath = compileOptions.getSourcepath();
@@ -71,6 +72,24 @@ public class MinimalJavaCompileOptions implements Serializable {
         this.annotationProcessorGeneratedSourcesDirectory = compileOptions.getAnnotationProcessorGeneratedSourcesDirectory();
     }
 
+    public MinimalJavaCompileOptions(MinimalJavaCompileOptions other) {
+        this.sourcepath = other.sourcepath;
+        this.compilerArgs = other.compilerArgs == null ? null : Lists.newArrayList(other.compilerArgs);
+        this.encoding = other.encoding;
+        this.bootClasspath = other.bootClasspath;
+        this.extensionDirs = other.extensionDirs;
+        this.forkOptions = other.forkOptions;
+        this.debugOptions = other.debugOptions;
+        this.debug = other.debug;
+        this.deprecation = other.deprecation;
+        this.failOnError = other.failOnError;
+        this.listFiles = other.listFiles;
+        this.verbose = other.verbose;
+        this.warnings = other.warnings;
+        this.annotationProcessorGeneratedSourcesDirectory = other.annotationProcessorGeneratedSourcesDirectory;
+        this.reportDiagnosticsOnSuccessOnly = other.reportDiagnosticsOnSuccessOnly;
+    }
+
     public List<File> getSourcepath() {
         return sourcepath;
     }
@@ -182,4 +201,16 @@ public class MinimalJavaCompileOptions implements Serializable {
     public void setAnnotationProcessorGeneratedSourcesDirectory(File annotationProcessorGeneratedSourcesDirectory) {
         this.annotationProcessorGeneratedSourcesDirectory = annotationProcessorGeneratedSourcesDirectory;
     }
+
+    /**
+     * Whether the diagnostics of the compiler are discarded when the compilation fails, for a compilation that is retried when it fails.
+     * Only honored by the JDK compiler API.
+     */
+    public boolean isReportDiagnosticsOnSuccessOnly() {
+        return reportDiagnosticsOnSuccessOnly;
+    }
+
+    public void setReportDiagnosticsOnSuccessOnly(boolean reportDiagnosticsOnSuccessOnly) {
+        this.reportDiagnosticsOnSuccessOnly = reportDiagnosticsOnSuccessOnly;
+    }
 }
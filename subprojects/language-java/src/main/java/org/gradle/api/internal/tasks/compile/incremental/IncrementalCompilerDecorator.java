@@ -43,6 +43,7 @@ public class IncrementalCompilerDecorator {
     private final JarClasspathSnapshotMaker jarClasspathSnapshotMaker;
     private final CompileCaches compileCaches;
     private final CleaningJavaCompiler cleaningCompiler;
+    private final Compiler<JavaCompileSpec> rebuildCompiler;
     private final String displayName;
     private final RecompilationSpecProvider staleClassDetecter;
     private final ClassSetAnalysisUpdater classSetAnalysisUpdater;
@@ -52,13 +53,14 @@ public class IncrementalCompilerDecorator {
     private final IncrementalCompilationInitializer compilationInitializer;
 
     public IncrementalCompilerDecorator(JarClasspathSnapshotMaker jarClasspathSnapshotMaker, CompileCaches compileCaches,
-                                        IncrementalCompilationInitializer compilationInitializer, CleaningJavaCompiler cleaningCompiler, String displayName,
+                                        IncrementalCompilationInitializer compilationInitializer, CleaningJavaCompiler cleaningCompiler, Compiler<JavaCompileSpec> rebuildCompiler, String displayName,
                                         RecompilationSpecProvider staleClassDetecter, ClassSetAnalysisUpdater classSetAnalysisUpdater,
                                         CompilationSourceDirs sourceDirs, FileCollection annotationProcessorPath, AnnotationProcessorDetector annotationProcessorDetector) {
         this.jarClasspathSnapshotMaker = jarClasspathSnapshotMaker;
         this.compileCaches = compileCaches;
         this.compilationInitializer = compilationInitializer;
         this.cleaningCompiler = cleaningCompiler;
+        this.rebuildCompiler = rebuildCompiler;
         this.displayName = displayName;
         this.staleClassDetecter = staleClassDetecter;
         this.classSetAnalysisUpdater = classSetAnalysisUpdater;
@@ -75,21 +77,21 @@ public class IncrementalCompilerDecorator {
     private Compiler<JavaCompileSpec> getCompiler(IncrementalTaskInputs inputs, CompilationSourceDirs sourceDirs) {
         if (!inputs.isIncremental()) {
             LOG.info("{} - is not incremental (e.g. outputs have changed, no previous execution, etc.).", displayName);
-            return cleaningCompiler;
+            return rebuildCompiler;
         }
         if (!sourceDirs.canInferSourceRoots()) {
             LOG.info("{} - is not incremental. Unable to infer the source directories.", displayName);
-            return cleaningCompiler;
+            return rebuildCompiler;
         }
         List<AnnotationProcessorDeclaration> nonIncrementalProcessors = getNonIncrementalProcessors();
         if (!nonIncrementalProcessors.isEmpty()) {
             warnAboutNonIncrementalProcessors(nonIncrementalProcessors);
-            return cleaningCompiler;
+            return rebuildCompiler;
         }
         ClassSetAnalysisData data = compileCaches.getLocalClassSetAnalysisStore().get();
         if (data == null) {
             LOG.info("{} - is not incremental. No class analysis data available from the previous build.", displayName);
-            return cleaningCompiler;
+            return rebuildCompiler;
         }
         PreviousCompilation previousCompilation = new PreviousCompilation(new ClassSetAnalysis(data), compileCaches.getLocalJarClasspathSnapshotStore(), compileCaches.getJarSnapshotCache());
         return new SelectiveCompiler(inputs, previousCompilation, cleaningCompiler, staleClassDetecter, compilationInitializer, jarClasspathSnapshotMaker);
@@ -35,11 +35,23 @@ class JavaChangeProcessor {
     public void processChange(InputFileDetails input, RecompilationSpec spec) {
         String className = sourceToNameConverter.getClassName(input.getFile());
         spec.getClassNames().add(className);
-        DependentsSet actualDependents = previousCompilation.getDependents(className, IntSets.EMPTY_SET);
+        if (input.isRemoved()) {
+            DependentsSet actualDependents = previousCompilation.getDependents(className, IntSets.EMPTY_SET);
+            if (actualDependents.isDependencyToAll()) {
+                spec.setFullRebuildCause(actualDependents.getDescription(), input.getFile());
+                return;
+            }
+            spec.getClassNames().addAll(actualDependents.getDependentClasses());
+            return;
+        }
+        // the constants and the ABI of the changed class are only known once it has been recompiled,
+        // so its dependents are recompiled afterwards if needed, see SelectiveCompiler
+        DependentsSet actualDependents = previousCompilation.getDependents(className, previousCompilation.getConstants(className));
         if (actualDependents.isDependencyToAll()) {
             spec.setFullRebuildCause(actualDependents.getDescription(), input.getFile());
             return;
         }
-        spec.getClassNames().addAll(actualDependents.getDependentClasses());
+        spec.getChangedSourceClasses().add(className);
+        spec.getAbiDependentClasses().addAll(actualDependents.getDependentClasses());
     }
 }
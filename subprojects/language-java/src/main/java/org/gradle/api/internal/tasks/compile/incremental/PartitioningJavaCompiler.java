@@ -0,0 +1,263 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import org.gradle.api.Action;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.internal.file.collections.SimpleFileCollection;
+import org.gradle.api.internal.tasks.compile.CleaningJavaCompiler;
+import org.gradle.api.internal.tasks.compile.CommandLineJavaCompileSpec;
+import org.gradle.api.internal.tasks.compile.DefaultJavaCompileSpec;
+import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
+import org.gradle.api.internal.tasks.compile.MinimalJavaCompileOptions;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData;
+import org.gradle.api.internal.tasks.compile.incremental.deps.LocalClassSetAnalysisStore;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.tasks.WorkResult;
+import org.gradle.api.tasks.WorkResults;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.internal.progress.BuildOperationDescriptor;
+import org.gradle.internal.time.Time;
+import org.gradle.internal.time.Timer;
+import org.gradle.language.base.internal.compile.Compiler;
+import org.gradle.util.GFileUtils;
+
+import java.io.File;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compiles a large source set as several partitions, so that independent parts of the source set are compiled concurrently.
+ *
+ * <p>The partitions are derived from the class dependencies recorded by the previous compilation, see {@link SourcePartitioner}. Each partition
+ * writes its classes to a directory of its own, so that the partitions of a wave do not write to or read from the same directory concurrently.
+ * Once all partitions of a wave have completed, their classes are moved to the destination directory, which the partitions of the following waves
+ * only read from, as part of their compile classpath. Since the sources may have changed since the previous compilation,
+ * the recorded dependencies can be out of date. When any partition fails to compile, all sources are compiled again in a single compilation, which
+ * alone reports the compilation errors and applies the {@code failOnError} option of the task.</p>
+ *
+ * <p>This is only used for full recompilations, and is opt-in, by setting the {@value #PARTITIONING_PROPERTY} system property to {@code true}.</p>
+ */
+public class PartitioningJavaCompiler implements Compiler<JavaCompileSpec> {
+    public static final String PARTITIONING_PROPERTY = "org.gradle.java.compile.partitioned";
+    private static final Logger LOG = Logging.getLogger(PartitioningJavaCompiler.class);
+    private static final int MIN_SOURCE_FILES = 2000;
+    private static final int MIN_PARTITION_SIZE = 500;
+    private static final int MAX_WAVES = 4;
+
+    private final CleaningJavaCompiler delegate;
+    private final LocalClassSetAnalysisStore classSetAnalysisStore;
+    private final CompilationSourceDirs sourceDirs;
+    private final SourceToNameConverter sourceToNameConverter;
+    private final BuildOperationExecutor buildOperationExecutor;
+    private final SourcePartitioner partitioner;
+    private final int minSourceFiles;
+
+    public PartitioningJavaCompiler(CleaningJavaCompiler delegate, LocalClassSetAnalysisStore classSetAnalysisStore, CompilationSourceDirs sourceDirs,
+                                    SourceToNameConverter sourceToNameConverter, BuildOperationExecutor buildOperationExecutor) {
+        this(delegate, classSetAnalysisStore, sourceDirs, sourceToNameConverter, buildOperationExecutor,
+            new SourcePartitioner(MAX_WAVES, Runtime.getRuntime().availableProcessors(), MIN_PARTITION_SIZE), MIN_SOURCE_FILES);
+    }
+
+    PartitioningJavaCompiler(CleaningJavaCompiler delegate, LocalClassSetAnalysisStore classSetAnalysisStore, CompilationSourceDirs sourceDirs,
+                             SourceToNameConverter sourceToNameConverter, BuildOperationExecutor buildOperationExecutor, SourcePartitioner partitioner, int minSourceFiles) {
+        this.delegate = delegate;
+        this.classSetAnalysisStore = classSetAnalysisStore;
+        this.sourceDirs = sourceDirs;
+        this.sourceToNameConverter = sourceToNameConverter;
+        this.buildOperationExecutor = buildOperationExecutor;
+        this.partitioner = partitioner;
+        this.minSourceFiles = minSourceFiles;
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(PARTITIONING_PROPERTY);
+    }
+
+    @Override
+    public WorkResult execute(JavaCompileSpec spec) {
+        List<File> sourceFiles = javaSourceFiles(spec.getSource());
+        if (sourceFiles.size() < minSourceFiles) {
+            return delegate.execute(spec);
+        }
+        List<File> annotationProcessorPath = spec.getAnnotationProcessorPath();
+        if (annotationProcessorPath != null && !annotationProcessorPath.isEmpty()) {
+            LOG.info("Cannot partition compilation, annotation processors may generate sources for any class.");
+            return delegate.execute(spec);
+        }
+        if (!sourceDirs.canInferSourceRoots()) {
+            return delegate.execute(spec);
+        }
+        if (spec instanceof CommandLineJavaCompileSpec) {
+            LOG.info("Cannot partition compilation, each partition would run a separate Java compiler process.");
+            return delegate.execute(spec);
+        }
+        ClassSetAnalysisData analysis = classSetAnalysisStore.get();
+        if (analysis == null) {
+            LOG.info("Cannot partition compilation, no class analysis data available from the previous build.");
+            return delegate.execute(spec);
+        }
+
+        Timer clock = Time.startTimer();
+        List<List<Set<File>>> waves = partitioner.partition(sourceFiles, sourceToNameConverter, analysis);
+        if (waves == null || (waves.size() == 1 && waves.get(0).size() == 1)) {
+            return delegate.execute(spec);
+        }
+        LOG.info("Compiling {} source files in {} waves, partitioning took {}.", sourceFiles.size(), waves.size(), clock.getElapsed());
+
+        delegate.deleteStaleClasses(spec);
+        try {
+            for (int i = 0; i < waves.size(); i++) {
+                compileWave(spec, i, waves.get(i));
+            }
+        } catch (RuntimeException e) {
+            LOG.info("Partitioned compilation failed, compiling all source files together.", e);
+            return delegate.execute(spec);
+        }
+        LOG.info("Partitioned compilation of {} source files completed in {}.", sourceFiles.size(), clock.getElapsed());
+        return WorkResults.didWork(true);
+    }
+
+    private void compileWave(JavaCompileSpec spec, int wave, List<Set<File>> partitions) {
+        final List<CompilePartitionOperation> operations = Lists.newArrayList();
+        for (int i = 0; i < partitions.size(); i++) {
+            String name = "partition " + (i + 1) + " of wave " + (wave + 1);
+            File partitionDir = new File(spec.getTempDir(), "partition-" + wave + "-" + i);
+            GFileUtils.deleteDirectory(partitionDir);
+            operations.add(new CompilePartitionOperation(name, partitionSpec(spec, partitions.get(i), partitionDir)));
+        }
+        buildOperationExecutor.runAll(new Action<BuildOperationQueue<CompilePartitionOperation>>() {
+            @Override
+            public void execute(BuildOperationQueue<CompilePartitionOperation> queue) {
+                for (CompilePartitionOperation operation : operations) {
+                    queue.add(operation);
+                }
+            }
+        });
+        for (CompilePartitionOperation operation : operations) {
+            File partitionClassesDir = operation.spec.getDestinationDir();
+            moveClasses(partitionClassesDir, spec.getDestinationDir());
+            GFileUtils.deleteDirectory(partitionClassesDir.getParentFile());
+        }
+    }
+
+    /**
+     * Creates a copy of the given spec that compiles the given source files into a directory of its own. The classes of the earlier waves,
+     * which have been moved to the destination directory, are added to the compile classpath.
+     */
+    private static JavaCompileSpec partitionSpec(JavaCompileSpec spec, Set<File> sourceFiles, File partitionDir) {
+        JavaCompileSpec partitionSpec = copyOf(spec);
+        partitionSpec.setTempDir(new File(partitionDir, "tmp"));
+        partitionSpec.setDestinationDir(new File(partitionDir, "classes"));
+        GFileUtils.mkdirs(partitionSpec.getDestinationDir());
+        // The options are modified while compiling, so each partition needs its own copy
+        MinimalJavaCompileOptions compileOptions = new MinimalJavaCompileOptions(spec.getCompileOptions());
+        // A partition that fails is compiled again with all other sources, which reports the errors once and applies the failOnError option
+        compileOptions.setFailOnError(true);
+        compileOptions.setReportDiagnosticsOnSuccessOnly(true);
+        setCompileOptions(partitionSpec, compileOptions);
+        partitionSpec.setCompileClasspath(ImmutableList.<File>builder().add(spec.getDestinationDir()).addAll(spec.getCompileClasspath()).build());
+        partitionSpec.setSource(new SimpleFileCollection(sourceFiles));
+        return partitionSpec;
+    }
+
+    /**
+     * Creates a shallow copy of the given spec, of the same type, so that any other settings of the spec also apply to the partitions.
+     */
+    private static JavaCompileSpec copyOf(JavaCompileSpec spec) {
+        try {
+            Constructor<? extends JavaCompileSpec> constructor = spec.getClass().getDeclaredConstructor();
+            constructor.setAccessible(true);
+            JavaCompileSpec copy = constructor.newInstance();
+            for (Class<?> type = spec.getClass(); type != Object.class; type = type.getSuperclass()) {
+                for (Field field : type.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        field.setAccessible(true);
+                        field.set(copy, field.get(spec));
+                    }
+                }
+            }
+            return copy;
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot partition compilation, could not copy " + spec.getClass().getName(), e);
+        }
+    }
+
+    private static void setCompileOptions(JavaCompileSpec spec, MinimalJavaCompileOptions compileOptions) {
+        if (!(spec instanceof DefaultJavaCompileSpec)) {
+            throw new IllegalStateException("Cannot partition compilation, cannot set the compile options of " + spec.getClass().getName());
+        }
+        ((DefaultJavaCompileSpec) spec).setCompileOptions(compileOptions);
+    }
+
+    private static void moveClasses(File fromDir, File toDir) {
+        File[] files = fromDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        GFileUtils.mkdirs(toDir);
+        for (File file : files) {
+            File target = new File(toDir, file.getName());
+            if (file.isDirectory()) {
+                moveClasses(file, target);
+            } else {
+                GFileUtils.deleteQuietly(target);
+                GFileUtils.moveFile(file, target);
+            }
+        }
+    }
+
+    private static List<File> javaSourceFiles(FileCollection source) {
+        List<File> files = Lists.newArrayList();
+        for (File file : source) {
+            if (file.getName().endsWith(".java")) {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    private class CompilePartitionOperation implements RunnableBuildOperation {
+        private final String name;
+        private final JavaCompileSpec spec;
+
+        CompilePartitionOperation(String name, JavaCompileSpec spec) {
+            this.name = name;
+            this.spec = spec;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            // The stale classes have already been deleted for all partitions
+            delegate.getCompiler().execute(spec);
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Compile " + name);
+        }
+    }
+}
@@ -16,8 +16,17 @@
 
 package org.gradle.api.internal.tasks.compile.incremental;
 
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.io.Files;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import it.unimi.dsi.fastutil.ints.IntSets;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.file.FileCollection;
 import org.gradle.api.internal.tasks.compile.CleaningJavaCompiler;
 import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassApiHasher;
+import org.gradle.api.internal.tasks.compile.incremental.asm.ClassDependenciesVisitor;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarClasspathSnapshot;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarClasspathSnapshotProvider;
 import org.gradle.api.internal.tasks.compile.incremental.jar.PreviousCompilation;
@@ -26,10 +35,21 @@ import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
+import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.time.Time;
 import org.gradle.internal.time.Timer;
+import org.gradle.util.internal.PatchedClassReader;
+import org.objectweb.asm.ClassReader;
 
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 class SelectiveCompiler implements org.gradle.language.base.internal.compile.Compiler<JavaCompileSpec> {
     private static final Logger LOG = Logging.getLogger(SelectiveCompiler.class);
@@ -62,18 +82,90 @@ class SelectiveCompiler implements org.gradle.language.base.internal.compile.Com
         }
 
         Collection<String> classNames = recompilationSpec.getClassNames();
+        Collection<String> changedSourceClasses = recompilationSpec.getChangedSourceClasses();
+        Set<String> abiDependentClasses = Sets.newLinkedHashSet(recompilationSpec.getAbiDependentClasses());
+        abiDependentClasses.removeAll(classNames);
+        //the ABI of the previously compiled classes is gone once the stale class files are deleted
+        Map<String, HashCode> previousApi = abiDependentClasses.isEmpty() ? Collections.<String, HashCode>emptyMap() : hashApi(spec.getDestinationDir(), changedSourceClasses);
+        FileCollection source = spec.getSource();
+        List<File> compileClasspath = spec.getCompileClasspath();
+
         incrementalCompilationInitilizer.initializeCompilation(spec, classNames);
         if (spec.getSource().isEmpty()) {
             LOG.info("None of the classes needs to be compiled! Analysis took {}. ", clock.getElapsed());
             return new RecompilationNotNecessary();
         }
 
+        int recompiledClasses = classNames.size();
         try {
             //use the original compiler to avoid cleaning up all the files
+            WorkResult result = cleaningCompiler.getCompiler().execute(spec);
+
+            String classWithChangedConstants = findClassWithChangedConstants(spec.getDestinationDir(), changedSourceClasses);
+            if (classWithChangedConstants != null) {
+                LOG.info("Full recompilation is required because the constants of {} have changed.", classWithChangedConstants);
+                spec.setSource(source);
+                spec.setCompileClasspath(compileClasspath);
+                return cleaningCompiler.execute(spec);
+            }
+            if (abiDependentClasses.isEmpty() || previousApi.equals(hashApi(spec.getDestinationDir(), changedSourceClasses))) {
+                return result;
+            }
+
+            spec.setSource(source);
+            spec.setCompileClasspath(compileClasspath);
+            incrementalCompilationInitilizer.initializeCompilation(spec, abiDependentClasses);
+            recompiledClasses += abiDependentClasses.size();
+            LOG.debug("ABI of changed classes {} has changed, recompiling dependent classes {}", changedSourceClasses, abiDependentClasses);
             return cleaningCompiler.getCompiler().execute(spec);
         } finally {
-            LOG.info("Incremental compilation of {} classes completed in {}.", classNames.size(), clock.getElapsed());
+            LOG.info("Incremental compilation of {} classes completed in {}.", recompiledClasses, clock.getElapsed());
             LOG.debug("Recompiled classes {}", classNames);
         }
     }
+
+    @Nullable
+    private String findClassWithChangedConstants(File destinationDir, Collection<String> classNames) {
+        for (String className : classNames) {
+            IntSet previousConstants = previousCompilation.getConstants(className);
+            if (previousConstants.isEmpty()) {
+                continue;
+            }
+            File classFile = new File(destinationDir, className.replace('.', '/').concat(".class"));
+            IntSet constants = classFile.isFile() ? ClassDependenciesVisitor.retrieveConstants(readClass(classFile)) : IntSets.EMPTY_SET;
+            if (!constants.containsAll(previousConstants)) {
+                return className;
+            }
+        }
+        return null;
+    }
+
+    private static Map<String, HashCode> hashApi(File destinationDir, Collection<String> classNames) {
+        Map<String, HashCode> hashes = Maps.newHashMap();
+        for (String className : classNames) {
+            File classFile = new File(destinationDir, className.replace('.', '/').concat(".class"));
+            final String simpleName = classFile.getName().substring(0, classFile.getName().length() - ".class".length());
+            File[] classFiles = classFile.getParentFile().listFiles(new FilenameFilter() {
+                @Override
+                public boolean accept(File dir, String name) {
+                    return name.endsWith(".class") && (name.equals(simpleName + ".class") || name.startsWith(simpleName + "$"));
+                }
+            });
+            if (classFiles == null) {
+                continue;
+            }
+            for (File file : classFiles) {
+                hashes.put(file.getPath(), ClassApiHasher.hash(readClass(file)));
+            }
+        }
+        return hashes;
+    }
+
+    private static ClassReader readClass(File classFile) {
+        try {
+            return new PatchedClassReader(Files.toByteArray(classFile));
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Unable to read class file: '%s'", classFile), e);
+        }
+    }
 }
@@ -0,0 +1,333 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData;
+import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Splits the source files of a compilation into partitions that can be compiled separately, based on the class dependencies
+ * recorded by the previous compilation.
+ *
+ * <p>Source files whose classes depend on each other, directly or through a cycle, always end up in the same partition. The partitions are
+ * arranged in waves: a partition only depends on the partitions of earlier waves, so all partitions of a wave can be compiled concurrently
+ * once the earlier waves are done.</p>
+ */
+public class SourcePartitioner {
+    private static final Logger LOG = Logging.getLogger(SourcePartitioner.class);
+
+    private final int maxWaves;
+    private final int maxPartitionsPerWave;
+    private final int minPartitionSize;
+
+    public SourcePartitioner(int maxWaves, int maxPartitionsPerWave, int minPartitionSize) {
+        this.maxWaves = maxWaves;
+        this.maxPartitionsPerWave = maxPartitionsPerWave;
+        this.minPartitionSize = minPartitionSize;
+    }
+
+    /**
+     * Returns the waves of partitions to compile in order, or null when the previous analysis does not describe the given source files well
+     * enough to partition them safely. Source files that are unknown to the analysis are compiled in a last partition of their own.
+     */
+    @Nullable
+    public List<List<Set<File>>> partition(Iterable<File> sourceFiles, SourceToNameConverter sourceToNameConverter, ClassSetAnalysisData analysis) {
+        List<File> files = Lists.newArrayList();
+        Map<String, Integer> fileIndexByClassName = Maps.newHashMap();
+        for (File sourceFile : sourceFiles) {
+            if (fileIndexByClassName.put(sourceToNameConverter.getClassName(sourceFile), files.size()) != null) {
+                LOG.info("Cannot partition compilation, multiple source files declare {}.", sourceToNameConverter.getClassName(sourceFile));
+                return null;
+            }
+            files.add(sourceFile);
+        }
+
+        int[][] dependents = new int[files.size()][];
+        boolean[] known = new boolean[files.size()];
+        List<Set<Integer>> dependentSets = Lists.newArrayListWithCapacity(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            dependentSets.add(Sets.<Integer>newHashSet());
+        }
+        for (String className : analysis.getClassNames()) {
+            Integer file = fileIndexByClassName.get(topLevelClassName(className));
+            if (file == null) {
+                // Either the source file was removed or the class is a secondary top level class, which cannot be mapped to its source file
+                LOG.info("Cannot partition compilation, the source file of {} is unknown.", className);
+                return null;
+            }
+            known[file] = true;
+            DependentsSet classDependents = analysis.getDependents(className);
+            if (classDependents == null) {
+                continue;
+            }
+            if (classDependents.isDependencyToAll()) {
+                LOG.info("Cannot partition compilation, {} is a dependency of all classes.", className);
+                return null;
+            }
+            for (String dependent : classDependents.getDependentClasses()) {
+                Integer dependentFile = fileIndexByClassName.get(topLevelClassName(dependent));
+                if (dependentFile == null) {
+                    LOG.info("Cannot partition compilation, the source file of {} is unknown.", dependent);
+                    return null;
+                }
+                if (!dependentFile.equals(file)) {
+                    dependentSets.get(file).add(dependentFile);
+                }
+            }
+        }
+        for (int i = 0; i < files.size(); i++) {
+            Set<Integer> set = dependentSets.get(i);
+            int[] array = new int[set.size()];
+            int j = 0;
+            for (Integer dependent : set) {
+                array[j++] = dependent;
+            }
+            dependents[i] = array;
+        }
+
+        List<Integer> unknownFiles = Lists.newArrayList();
+        for (int i = 0; i < files.size(); i++) {
+            if (!known[i]) {
+                unknownFiles.add(i);
+            }
+        }
+
+        List<List<Set<File>>> waves = plan(files, dependents, known);
+        if (!unknownFiles.isEmpty()) {
+            Set<File> partition = Sets.newLinkedHashSet();
+            for (Integer file : unknownFiles) {
+                partition.add(files.get(file));
+            }
+            waves.add(Collections.singletonList(partition));
+        }
+        return waves;
+    }
+
+    private List<List<Set<File>>> plan(List<File> files, int[][] dependents, boolean[] included) {
+        int[] componentOf = new int[files.size()];
+        int componentCount = findStronglyConnectedComponents(dependents, componentOf);
+
+        // Components are numbered so that a component only depends on components with a higher number
+        int[] componentSize = new int[componentCount];
+        int[] level = new int[componentCount];
+        List<Set<Integer>> componentDependents = Lists.newArrayListWithCapacity(componentCount);
+        for (int i = 0; i < componentCount; i++) {
+            componentDependents.add(Sets.<Integer>newHashSet());
+        }
+        int includedFiles = 0;
+        for (int file = 0; file < files.size(); file++) {
+            if (!included[file]) {
+                continue;
+            }
+            includedFiles++;
+            componentSize[componentOf[file]]++;
+            for (int dependent : dependents[file]) {
+                if (componentOf[dependent] != componentOf[file]) {
+                    componentDependents.get(componentOf[file]).add(componentOf[dependent]);
+                }
+            }
+        }
+        int maxLevel = 0;
+        for (int component = componentCount - 1; component >= 0; component--) {
+            for (Integer dependent : componentDependents.get(component)) {
+                level[dependent] = Math.max(level[dependent], level[component] + 1);
+            }
+            maxLevel = Math.max(maxLevel, level[component]);
+        }
+
+        // Group consecutive levels into waves of roughly the same size
+        int[] levelSize = new int[maxLevel + 1];
+        for (int component = 0; component < componentCount; component++) {
+            levelSize[level[component]] += componentSize[component];
+        }
+        int[] waveOfLevel = new int[maxLevel + 1];
+        int waveCount = 0;
+        int filesSoFar = 0;
+        for (int l = 0; l <= maxLevel; l++) {
+            waveOfLevel[l] = waveCount;
+            filesSoFar += levelSize[l];
+            if ((long) filesSoFar * maxWaves >= (long) (waveCount + 1) * includedFiles) {
+                waveCount++;
+            }
+        }
+        waveCount = Math.max(waveCount, waveOfLevel[maxLevel] + 1);
+
+        // Components of the same wave that depend on each other must be compiled together
+        int[] group = new int[componentCount];
+        for (int component = 0; component < componentCount; component++) {
+            group[component] = component;
+        }
+        for (int component = 0; component < componentCount; component++) {
+            for (Integer dependent : componentDependents.get(component)) {
+                if (waveOfLevel[level[dependent]] == waveOfLevel[level[component]]) {
+                    union(group, component, dependent);
+                }
+            }
+        }
+
+        List<List<Set<File>>> waves = Lists.newArrayList();
+        for (int wave = 0; wave < waveCount; wave++) {
+            Map<Integer, Set<File>> groups = Maps.newLinkedHashMap();
+            int waveSize = 0;
+            for (int file = 0; file < files.size(); file++) {
+                int component = componentOf[file];
+                if (!included[file] || waveOfLevel[level[component]] != wave) {
+                    continue;
+                }
+                int root = find(group, component);
+                Set<File> groupFiles = groups.get(root);
+                if (groupFiles == null) {
+                    groupFiles = Sets.newLinkedHashSet();
+                    groups.put(root, groupFiles);
+                }
+                groupFiles.add(files.get(file));
+                waveSize++;
+            }
+            if (waveSize > 0) {
+                waves.add(binPack(groups.values(), waveSize));
+            }
+        }
+        return waves;
+    }
+
+    private List<Set<File>> binPack(Iterable<Set<File>> groups, int waveSize) {
+        int partitionCount = Math.max(1, Math.min(maxPartitionsPerWave, waveSize / minPartitionSize));
+        List<Set<File>> sortedGroups = Lists.newArrayList(groups);
+        Collections.sort(sortedGroups, new Comparator<Set<File>>() {
+            @Override
+            public int compare(Set<File> o1, Set<File> o2) {
+                return o2.size() - o1.size();
+            }
+        });
+        List<Set<File>> partitions = new ArrayList<Set<File>>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            partitions.add(Sets.<File>newLinkedHashSet());
+        }
+        for (Set<File> groupFiles : sortedGroups) {
+            Set<File> smallest = partitions.get(0);
+            for (Set<File> partition : partitions) {
+                if (partition.size() < smallest.size()) {
+                    smallest = partition;
+                }
+            }
+            smallest.addAll(groupFiles);
+        }
+        List<Set<File>> result = Lists.newArrayListWithCapacity(partitionCount);
+        for (Set<File> partition : partitions) {
+            if (!partition.isEmpty()) {
+                result.add(partition);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Tarjan's algorithm, without recursion so that long dependency chains cannot overflow the stack. Components are numbered in the order
+     * they are completed, which means that every component only has edges to components with a lower number.
+     */
+    private static int findStronglyConnectedComponents(int[][] edges, int[] componentOf) {
+        int nodeCount = edges.length;
+        int[] index = new int[nodeCount];
+        int[] lowLink = new int[nodeCount];
+        int[] nextEdge = new int[nodeCount];
+        boolean[] onStack = new boolean[nodeCount];
+        Arrays.fill(index, -1);
+        int[] stack = new int[nodeCount];
+        int stackSize = 0;
+        int[] callStack = new int[nodeCount];
+        int nextIndex = 0;
+        int componentCount = 0;
+
+        for (int root = 0; root < nodeCount; root++) {
+            if (index[root] != -1) {
+                continue;
+            }
+            int depth = 0;
+            callStack[depth] = root;
+            index[root] = lowLink[root] = nextIndex++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+            while (depth >= 0) {
+                int node = callStack[depth];
+                if (nextEdge[node] < edges[node].length) {
+                    int target = edges[node][nextEdge[node]++];
+                    if (index[target] == -1) {
+                        index[target] = lowLink[target] = nextIndex++;
+                        stack[stackSize++] = target;
+                        onStack[target] = true;
+                        callStack[++depth] = target;
+                    } else if (onStack[target]) {
+                        lowLink[node] = Math.min(lowLink[node], index[target]);
+                    }
+                    continue;
+                }
+                if (lowLink[node] == index[node]) {
+                    int member;
+                    do {
+                        member = stack[--stackSize];
+                        onStack[member] = false;
+                        componentOf[member] = componentCount;
+                    } while (member != node);
+                    componentCount++;
+                }
+                depth--;
+                if (depth >= 0) {
+                    int parent = callStack[depth];
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[node]);
+                }
+            }
+        }
+        return componentCount;
+    }
+
+    private static int find(int[] group, int node) {
+        while (group[node] != node) {
+            group[node] = group[group[node]];
+            node = group[node];
+        }
+        return node;
+    }
+
+    private static void union(int[] group, int a, int b) {
+        int rootA = find(group, a);
+        int rootB = find(group, b);
+        if (rootA != rootB) {
+            group[rootB] = rootA;
+        }
+    }
+
+    private static String topLevelClassName(String className) {
+        int nested = className.indexOf('$', className.lastIndexOf('.') + 1);
+        return nested < 0 ? className : className.substring(0, nested);
+    }
+}
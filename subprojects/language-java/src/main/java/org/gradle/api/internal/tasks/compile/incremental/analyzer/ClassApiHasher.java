@@ -0,0 +1,52 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental.analyzer;
+
+import org.gradle.api.internal.tasks.compile.ApiClassExtractor;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hashing;
+import org.objectweb.asm.ClassReader;
+
+import java.util.Collections;
+
+/**
+ * Hashes the ABI of a class, that is everything a dependent class can be compiled against: its non-private signatures, its super types, its annotations and its constant values.
+ * Method bodies, private members and debug information do not contribute to the hash.
+ */
+public class ClassApiHasher {
+
+    /**
+     * The hash used for classes that cannot be referenced from other sources, like anonymous, local or private inner classes.
+     */
+    public static final HashCode NO_API = HashCode.fromInt(0);
+
+    private ClassApiHasher() {
+    }
+
+    public static HashCode hash(ClassReader reader) {
+        ApiClassExtractor extractor = new ApiClassExtractor(Collections.<String>emptySet());
+        if (!extractor.shouldExtractApiClassFrom(reader)) {
+            return NO_API;
+        }
+        byte[] api = extractor.extractApiClassFrom(reader);
+        if (api == null) {
+            return NO_API;
+        }
+        return Hashing.md5().hashBytes(api);
+    }
+}
@@ -23,9 +23,13 @@ import org.gradle.api.internal.tasks.compile.incremental.analyzer.DefaultClassAn
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassAnalysis;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData;
 import org.gradle.api.internal.tasks.compile.incremental.deps.LocalClassSetAnalysisStore;
+import org.gradle.api.internal.tasks.compile.incremental.jar.DefaultJarEntrySnapshotCache;
 import org.gradle.api.internal.tasks.compile.incremental.jar.DefaultJarSnapshotCache;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarClasspathSnapshotData;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarClasspathSnapshotDataSerializer;
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarEntrySnapshot;
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarEntrySnapshotCache;
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarEntrySnapshotSerializer;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshotCache;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshotData;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshotDataSerializer;
@@ -36,34 +40,55 @@ import org.gradle.cache.FileLockManager;
 import org.gradle.cache.PersistentCache;
 import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.cache.PersistentIndexedCacheParameters;
+import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.serialize.HashCodeSerializer;
 
 import java.io.Closeable;
+import java.util.Collections;
 
 import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
 
 public class DefaultGeneralCompileCaches implements GeneralCompileCaches, Closeable {
     private final ClassAnalysisCache classAnalysisCache;
     private final JarSnapshotCache jarSnapshotCache;
+    private final JarEntrySnapshotCache jarEntrySnapshotCache;
+    /**
+     * The version of the format and meaning of the shared analysis data. Change this when the data changes, for example when jar snapshots start holding
+     * ABI hashes of classes rather than hashes of their content, so that stale data written by an earlier build is discarded.
+     */
+    private static final String GLOBAL_CACHE_VERSION = "2";
+
+    private final PersistentCache globalCache;
     private final PersistentCache cache;
     private final PersistentIndexedCache<String, JarClasspathSnapshotData> taskJarCache;
     private final PersistentIndexedCache<String, ClassSetAnalysisData> taskCompileCache;
 
     public DefaultGeneralCompileCaches(CacheRepository cacheRepository, Gradle gradle, InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory) {
-        cache = cacheRepository
-                .cache(gradle, "javaCompile")
+        // The analysis of classes and jars is keyed by content, so it is shared by all builds and daemons
+        globalCache = cacheRepository
+                .cache("javaCompile")
+                .withProperties(Collections.singletonMap("version", GLOBAL_CACHE_VERSION))
                 .withDisplayName("Java compile cache")
                 .withLockOptions(mode(FileLockManager.LockMode.None)) // Lock on demand
                 .open();
         PersistentIndexedCacheParameters<HashCode, ClassAnalysis> classCacheParameters = new PersistentIndexedCacheParameters<HashCode, ClassAnalysis>("classAnalysis", new HashCodeSerializer(), new ClassAnalysisSerializer())
                 .cacheDecorator(inMemoryCacheDecoratorFactory.decorator(400000, true));
-        this.classAnalysisCache = new DefaultClassAnalysisCache(cache.createCache(classCacheParameters));
+        this.classAnalysisCache = new DefaultClassAnalysisCache(globalCache.createCache(classCacheParameters));
 
         PersistentIndexedCacheParameters<HashCode, JarSnapshotData> jarCacheParameters = new PersistentIndexedCacheParameters<HashCode, JarSnapshotData>("jarAnalysis", new HashCodeSerializer(), new JarSnapshotDataSerializer())
             .cacheDecorator(inMemoryCacheDecoratorFactory.decorator(20000, true));
-        this.jarSnapshotCache = new DefaultJarSnapshotCache(cache.createCache(jarCacheParameters));
+        this.jarSnapshotCache = new DefaultJarSnapshotCache(globalCache.createCache(jarCacheParameters));
 
+        PersistentIndexedCacheParameters<HashCode, JarEntrySnapshot> jarEntryCacheParameters = new PersistentIndexedCacheParameters<HashCode, JarEntrySnapshot>("jarEntryAnalysis", new HashCodeSerializer(), new JarEntrySnapshotSerializer())
+            .cacheDecorator(inMemoryCacheDecoratorFactory.decorator(400000, true));
+        this.jarEntrySnapshotCache = new DefaultJarEntrySnapshotCache(globalCache.createCache(jarEntryCacheParameters));
+
+        cache = cacheRepository
+                .cache(gradle, "javaCompile")
+                .withDisplayName("Java compile cache")
+                .withLockOptions(mode(FileLockManager.LockMode.None)) // Lock on demand
+                .open();
         PersistentIndexedCacheParameters<String, JarClasspathSnapshotData> taskJarCacheParameters = new PersistentIndexedCacheParameters<String, JarClasspathSnapshotData>("taskJars", String.class, new JarClasspathSnapshotDataSerializer())
                 .cacheDecorator(inMemoryCacheDecoratorFactory.decorator(2000, false));
         taskJarCache = cache.createCache(taskJarCacheParameters);
@@ -75,7 +100,7 @@ public class DefaultGeneralCompileCaches implements GeneralCompileCaches, Closea
 
     @Override
     public void close() {
-        cache.close();
+        CompositeStoppable.stoppable(cache, globalCache).stop();
     }
 
     @Override
@@ -88,6 +113,11 @@ public class DefaultGeneralCompileCaches implements GeneralCompileCaches, Closea
         return jarSnapshotCache;
     }
 
+    @Override
+    public JarEntrySnapshotCache getJarEntrySnapshotCache() {
+        return jarEntrySnapshotCache;
+    }
+
     @Override
     public LocalJarClasspathSnapshotStore createLocalJarClasspathSnapshotStore(String taskPath) {
         return new LocalJarClasspathSnapshotStore(taskPath, taskJarCache);
@@ -18,6 +18,7 @@ package org.gradle.api.internal.tasks.compile.incremental.cache;
 
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysisCache;
 import org.gradle.api.internal.tasks.compile.incremental.deps.LocalClassSetAnalysisStore;
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarEntrySnapshotCache;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshotCache;
 import org.gradle.api.internal.tasks.compile.incremental.jar.LocalJarClasspathSnapshotStore;
 
@@ -26,6 +27,8 @@ public interface GeneralCompileCaches {
 
     JarSnapshotCache getJarSnapshotCache();
 
+    JarEntrySnapshotCache getJarEntrySnapshotCache();
+
     LocalJarClasspathSnapshotStore createLocalJarClasspathSnapshotStore(String taskPath);
 
     LocalClassSetAnalysisStore createLocalClassSetAnalysisStore(String taskPath);
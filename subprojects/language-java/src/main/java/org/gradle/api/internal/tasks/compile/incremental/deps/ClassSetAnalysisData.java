@@ -61,6 +61,13 @@ public class ClassSetAnalysisData {
         return filePathToClassName.get(filePath);
     }
 
+    /**
+     * Returns the names of all classes produced by the compilation, including nested classes.
+     */
+    public Set<String> getClassNames() {
+        return classesToConstants.keySet();
+    }
+
     public DependentsSet getDependents(String className) {
         return dependents.get(className);
     }
@@ -16,11 +16,9 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.jar;
 
-import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
 import org.gradle.internal.Factory;
 import org.gradle.internal.hash.FileHasher;
 import org.gradle.internal.hash.HashCode;
-import org.gradle.internal.hash.StreamHasher;
 
 public class CachingJarSnapshotter implements JarSnapshotter {
 
@@ -28,8 +26,8 @@ public class CachingJarSnapshotter implements JarSnapshotter {
     private final FileHasher fileHasher;
     private final JarSnapshotCache cache;
 
-    public CachingJarSnapshotter(StreamHasher streamHasher, FileHasher fileHasher, ClassDependenciesAnalyzer analyzer, JarSnapshotCache cache) {
-        this.snapshotter = new DefaultJarSnapshotter(streamHasher, analyzer);
+    public CachingJarSnapshotter(FileHasher fileHasher, JarEntrySnapshotCache entrySnapshotCache, JarSnapshotCache cache) {
+        this.snapshotter = new DefaultJarSnapshotter(entrySnapshotCache);
         this.fileHasher = fileHasher;
         this.cache = cache;
     }
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental.jar;
+
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.internal.MinimalPersistentCache;
+import org.gradle.internal.hash.HashCode;
+
+/**
+ * Cross-process, global cache of jar entry snapshots. An entry that is unchanged in a new version of a jar is not read or analyzed again.
+ */
+public class DefaultJarEntrySnapshotCache extends MinimalPersistentCache<HashCode, JarEntrySnapshot> implements JarEntrySnapshotCache {
+    public DefaultJarEntrySnapshotCache(PersistentIndexedCache<HashCode, JarEntrySnapshot> cache) {
+        super(cache);
+    }
+}
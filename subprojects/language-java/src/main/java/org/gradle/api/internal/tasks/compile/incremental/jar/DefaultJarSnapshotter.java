@@ -16,60 +16,93 @@
 package org.gradle.api.internal.tasks.compile.incremental.jar;
 
 import com.google.common.collect.Maps;
+import com.google.common.io.ByteStreams;
 import org.gradle.api.UncheckedIOException;
-import org.gradle.api.file.FileVisitDetails;
-import org.gradle.api.file.FileVisitor;
-import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassApiHasher;
+import org.gradle.api.internal.tasks.compile.incremental.asm.ClassDependenciesVisitor;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassAnalysis;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependentsAccumulator;
+import org.gradle.internal.Factory;
 import org.gradle.internal.hash.HashCode;
-import org.gradle.internal.hash.StreamHasher;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.util.internal.PatchedClassReader;
+import org.objectweb.asm.ClassReader;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Enumeration;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 class DefaultJarSnapshotter {
-    private final StreamHasher hasher;
-    private final ClassDependenciesAnalyzer analyzer;
+    private final JarEntrySnapshotCache entrySnapshotCache;
 
-    public DefaultJarSnapshotter(StreamHasher hasher, ClassDependenciesAnalyzer analyzer) {
-        this.hasher = hasher;
-        this.analyzer = analyzer;
+    public DefaultJarSnapshotter(JarEntrySnapshotCache entrySnapshotCache) {
+        this.entrySnapshotCache = entrySnapshotCache;
     }
 
     public JarSnapshot createSnapshot(HashCode hash, JarArchive jarArchive) {
-        final Map<String, HashCode> hashes = Maps.newHashMap();
-        final ClassDependentsAccumulator accumulator = new ClassDependentsAccumulator();
+        Map<String, HashCode> hashes = Maps.newHashMap();
+        ClassDependentsAccumulator accumulator = new ClassDependentsAccumulator();
 
-        jarArchive.contents.visit(new FileVisitor() {
-            public void visitDir(FileVisitDetails dirDetails) {
-            }
-
-            public void visitFile(FileVisitDetails fileDetails) {
-                if (!fileDetails.getName().endsWith(".class")) {
-                    return;
+        try {
+            // Entries that have already been snapshotted, for example in a previous version of the same jar, are not analyzed again.
+            // The snapshots are shared by all builds that use the cache, so are keyed by the content of the entry rather than by its CRC.
+            ZipFile zipFile = new ZipFile(jarArchive.file);
+            try {
+                for (ZipEntry entry : classEntries(zipFile)) {
+                    final byte[] classBytes = readEntry(zipFile, entry);
+                    JarEntrySnapshot snapshot = entrySnapshotCache.get(Hashing.md5().hashBytes(classBytes), new Factory<JarEntrySnapshot>() {
+                        @Override
+                        public JarEntrySnapshot create() {
+                            return snapshot(classBytes);
+                        }
+                    });
+                    accumulator.addClass(snapshot.getAnalysis());
+                    hashes.put(snapshot.getAnalysis().getClassName(), snapshot.getApiHash());
                 }
+            } finally {
+                zipFile.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not snapshot " + jarArchive.file, e);
+        }
 
-                HashCode classFileHash;
-                InputStream inputStream = fileDetails.open();
-                try {
-                    classFileHash = hasher.hash(inputStream);
-                } finally {
-                    try {
-                        inputStream.close();
-                    } catch (IOException e) {
-                        throw new UncheckedIOException(e);
-                    }
-                }
+        return new JarSnapshot(new JarSnapshotData(hash, hashes, accumulator.getAnalysis()));
+    }
 
-                ClassAnalysis analysis = analyzer.getClassAnalysis(classFileHash, fileDetails);
-                accumulator.addClass(analysis);
+    private static Iterable<ZipEntry> classEntries(ZipFile zipFile) {
+        // Use a stable order, the order of the central directory is up to the tool that created the jar
+        Map<String, ZipEntry> entriesByName = new TreeMap<String, ZipEntry>();
+        Enumeration<? extends ZipEntry> entries = zipFile.entries();
+        while (entries.hasMoreElements()) {
+            ZipEntry entry = entries.nextElement();
+            if (!entry.isDirectory() && entry.getName().endsWith(".class")) {
+                entriesByName.put(entry.getName(), entry);
+            }
+        }
+        return entriesByName.values();
+    }
 
-                hashes.put(analysis.getClassName(), classFileHash);
+    private static byte[] readEntry(ZipFile zipFile, ZipEntry entry) {
+        try {
+            InputStream inputStream = zipFile.getInputStream(entry);
+            try {
+                return ByteStreams.toByteArray(inputStream);
+            } finally {
+                inputStream.close();
             }
-        });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + entry.getName() + " from " + zipFile.getName(), e);
+        }
+    }
 
-        return new JarSnapshot(new JarSnapshotData(hash, hashes, accumulator.getAnalysis()));
+    private static JarEntrySnapshot snapshot(byte[] classBytes) {
+        ClassReader reader = new PatchedClassReader(classBytes);
+        ClassAnalysis analysis = ClassDependenciesVisitor.analyze(reader.getClassName().replace("/", "."), reader);
+        // only the ABI of a class matters to the classes compiled against it
+        return new JarEntrySnapshot(analysis, ClassApiHasher.hash(reader));
     }
 }
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental.jar;
+
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassAnalysis;
+import org.gradle.internal.hash.HashCode;
+
+/**
+ * The analysis and the ABI hash of a class file from a jar.
+ */
+public class JarEntrySnapshot {
+    private final ClassAnalysis analysis;
+    private final HashCode apiHash;
+
+    public JarEntrySnapshot(ClassAnalysis analysis, HashCode apiHash) {
+        this.analysis = analysis;
+        this.apiHash = apiHash;
+    }
+
+    public ClassAnalysis getAnalysis() {
+        return analysis;
+    }
+
+    public HashCode getApiHash() {
+        return apiHash;
+    }
+}
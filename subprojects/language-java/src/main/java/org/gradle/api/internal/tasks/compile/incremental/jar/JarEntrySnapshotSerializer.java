@@ -0,0 +1,45 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental.jar;
+
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysisSerializer;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassAnalysis;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.serialize.AbstractSerializer;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.HashCodeSerializer;
+
+public class JarEntrySnapshotSerializer extends AbstractSerializer<JarEntrySnapshot> {
+
+    private final ClassAnalysisSerializer analysisSerializer = new ClassAnalysisSerializer();
+    private final HashCodeSerializer hashCodeSerializer = new HashCodeSerializer();
+
+    @Override
+    public JarEntrySnapshot read(Decoder decoder) throws Exception {
+        ClassAnalysis analysis = analysisSerializer.read(decoder);
+        HashCode apiHash = hashCodeSerializer.read(decoder);
+        return new JarEntrySnapshot(analysis, apiHash);
+    }
+
+    @Override
+    public void write(Encoder encoder, JarEntrySnapshot value) throws Exception {
+        analysisSerializer.write(encoder, value.getAnalysis());
+        hashCodeSerializer.write(encoder, value.getApiHash());
+    }
+}
@@ -55,6 +55,10 @@ public class PreviousCompilation {
         return jarSnapshots.get(file);
     }
 
+    public IntSet getConstants(String className) {
+        return analysis.getData().getConstants(className);
+    }
+
     public DependentsSet getDependents(String className, IntSet newConstants) {
         IntSet constants = new IntOpenHashSet(analysis.getData().getConstants(className));
         constants.removeAll(newConstants);
@@ -23,12 +23,28 @@ import java.util.LinkedHashSet;
 public class RecompilationSpec {
 
     private final Collection<String> classesToCompile = new NormalizingClassNamesSet();
+    private final Collection<String> changedSourceClasses = new LinkedHashSet<String>();
+    private final Collection<String> abiDependentClasses = new NormalizingClassNamesSet();
     private String fullRebuildCause;
 
     public Collection<String> getClassNames() {
         return classesToCompile;
     }
 
+    /**
+     * The classes whose sources changed. Their ABI and constants are compared with the ones from the previous compilation once they have been recompiled.
+     */
+    public Collection<String> getChangedSourceClasses() {
+        return changedSourceClasses;
+    }
+
+    /**
+     * The dependents of the changed source classes. They only need to be recompiled if the ABI of one of the changed source classes changed.
+     */
+    public Collection<String> getAbiDependentClasses() {
+        return abiDependentClasses;
+    }
+
     public boolean isFullRebuildNeeded() {
         return fullRebuildCause != null;
     }
@@ -17,6 +17,7 @@ package org.gradle.api.internal.tasks.compile
 
 import org.gradle.api.internal.file.FileResolver
 import org.gradle.internal.Factory
+import org.gradle.internal.hash.FileHasher
 import org.gradle.process.internal.ExecHandleFactory
 import org.gradle.workers.internal.WorkerDaemonFactory
 import spock.lang.Specification
@@ -25,7 +26,7 @@ import javax.tools.JavaCompiler
 
 class DefaultJavaCompilerFactoryTest extends Specification {
     Factory<JavaCompiler> javaCompilerFinder = Mock()
-    def factory = new DefaultJavaCompilerFactory({new File("daemon-work-dir")}, Mock(WorkerDaemonFactory), javaCompilerFinder, Mock(FileResolver), Mock(ExecHandleFactory))
+    def factory = new DefaultJavaCompilerFactory({new File("daemon-work-dir")}, Mock(WorkerDaemonFactory), javaCompilerFinder, Mock(FileResolver), Mock(ExecHandleFactory), Stub(JavaFileManagerPool), Stub(FileHasher))
 
     def "creates in-process compiler when JavaCompileSpec is provided"() {
         expect:
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.scala
+package org.gradle.api.internal.tasks.compile
+
+import org.gradle.api.Task
+import org.gradle.api.execution.TaskExecutionGraph
+import org.gradle.api.internal.file.FileResolver
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.tasks.compile.CompileOptions
+import org.gradle.api.tasks.compile.JavaCompile
+import org.gradle.process.internal.worker.child.WorkerDirectoryProvider
+import org.gradle.util.SetSystemProperties
+import org.gradle.util.TestUtil
+import org.gradle.workers.internal.DaemonForkOptions
+import org.gradle.workers.internal.KeepAliveMode
+import org.gradle.workers.internal.WorkerDaemonFactory
+import org.junit.Rule
+import spock.lang.Specification
+
+class JavaCompilerDaemonPrestarterTest extends Specification {
+    @Rule SetSystemProperties systemProperties = new SetSystemProperties((JavaCompilerDaemonPrestarter.PRESTART_PROPERTY): "true")
+
+    def workerDaemonFactory = Mock(WorkerDaemonFactory)
+    def workingDir = new File("worker-working-dir")
+    def workerDirectoryProvider = Stub(WorkerDirectoryProvider) {
+        getIdleWorkingDirectory() >> workingDir
+    }
+    def fileResolver = Stub(FileResolver) {
+        resolve(_) >> { Object path -> new File(path.toString()) }
+    }
+    def project = Stub(ProjectInternal) {
+        getFileResolver() >> fileResolver
+    }
+    def graph = Mock(TaskExecutionGraph)
+    def prestarter = new JavaCompilerDaemonPrestarter(workerDaemonFactory, workerDirectoryProvider)
+
+    def "starts daemon for fork enabled compile task"() {
+        def task = compileTask(true)
+        task.options.forkOptions.memoryMaximumSize = "512m"
+
+        when:
+        prestarter.graphPopulated(graph)
+
+        then:
+        1 * graph.allTasks >> [task]
+        1 * workerDaemonFactory.prestart(_) >> { DaemonForkOptions options ->
+            assert options.keepAliveMode == KeepAliveMode.SESSION
+            assert options.javaForkOptions.maxHeapSize == "512m"
+            assert options.javaForkOptions.workingDir == workingDir
+        }
+        0 * workerDaemonFactory._
+    }
+
+    def "starts daemon for each fork enabled compile task"() {
+        when:
+        prestarter.graphPopulated(graph)
+
+        then:
+        1 * graph.allTasks >> [compileTask(true), compileTask(false), compileTask(true)]
+        2 * workerDaemonFactory.prestart(_)
+        0 * workerDaemonFactory._
+    }
+
+    def "does not start daemon for compile task that does not fork"() {
+        when:
+        prestarter.graphPopulated(graph)
+
+        then:
+        1 * graph.allTasks >> [compileTask(false)]
+        0 * workerDaemonFactory._
+    }
+
+    def "does not start daemon for compile task that forks a different executable or Java home"() {
+        def withExecutable = compileTask(true)
+        withExecutable.options.forkOptions.executable = "javac"
+        def withJavaHome = compileTask(true)
+        withJavaHome.options.forkOptions.javaHome = new File("java-home")
+
+        when:
+        prestarter.graphPopulated(graph)
+
+        then:
+        1 * graph.allTasks >> [withExecutable, withJavaHome]
+        0 * workerDaemonFactory._
+    }
+
+    def "ignores tasks other than Java compile tasks"() {
+        when:
+        prestarter.graphPopulated(graph)
+
+        then:
+        1 * graph.allTasks >> [Stub(Task)]
+        0 * workerDaemonFactory._
+    }
+
+    def "does nothing when pre-starting is not enabled"() {
+        given:
+        System.clearProperty(JavaCompilerDaemonPrestarter.PRESTART_PROPERTY)
+
+        when:
+        prestarter.graphPopulated(graph)
+
+        then:
+        0 * graph._
+        0 * workerDaemonFactory._
+    }
+
+    def "failure to pre-start daemon does not fail the build"() {
+        when:
+        prestarter.graphPopulated(graph)
+
+        then:
+        1 * graph.allTasks >> [compileTask(true), compileTask(true)]
+        2 * workerDaemonFactory.prestart(_) >> { throw new IllegalStateException("Cannot start daemon") }
+        noExceptionThrown()
+    }
+
+    private JavaCompile compileTask(boolean fork) {
+        def options = new CompileOptions(TestUtil.objectFactory())
+        options.fork = fork
+        return Stub(JavaCompile) {
+            getOptions() >> options
+            getProject() >> project
+        }
+    }
+}
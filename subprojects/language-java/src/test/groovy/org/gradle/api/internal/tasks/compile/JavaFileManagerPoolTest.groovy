@@ -0,0 +1,146 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile
+
+import org.gradle.internal.hash.FileHasher
+import org.gradle.internal.hash.HashCode
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import javax.tools.JavaCompiler
+import javax.tools.StandardJavaFileManager
+import javax.tools.StandardLocation
+import javax.tools.ToolProvider
+
+class JavaFileManagerPoolTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def jar = tmpDir.createFile("lib.jar")
+    def hashes = [(jar): HashCode.fromInt(1)]
+    def fileHasher = Stub(FileHasher) {
+        hash(_) >> { File file -> hashes[file] }
+    }
+    def compiler = Mock(JavaCompiler)
+    def pool = new JavaFileManagerPool(1)
+
+    def "reuses file manager for later compilation"() {
+        def fileManager = Mock(StandardJavaFileManager)
+
+        when:
+        def first = pool.acquire(compiler, null, [jar], [], fileHasher)
+        pool.release(first)
+        def second = pool.acquire(compiler, null, [jar], [], fileHasher)
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, null) >> fileManager
+        second.fileManager == fileManager
+        1 * fileManager.flush()
+        0 * fileManager.close()
+    }
+
+    def "discards file manager when a jar it has read has changed"() {
+        def fileManager1 = Mock(StandardJavaFileManager)
+        def fileManager2 = Mock(StandardJavaFileManager)
+
+        when:
+        pool.release(pool.acquire(compiler, null, [jar], [], fileHasher))
+        hashes[jar] = HashCode.fromInt(2)
+        def second = pool.acquire(compiler, null, [jar], [], fileHasher)
+
+        then:
+        2 * compiler.getStandardFileManager(null, null, null) >>> [fileManager1, fileManager2]
+        second.fileManager == fileManager2
+        1 * fileManager1.close()
+    }
+
+    def "discards file manager when a jar it has read has changed in a later build"() {
+        def fileManager1 = Mock(StandardJavaFileManager)
+        def fileManager2 = Mock(StandardJavaFileManager)
+        def laterBuildFileHasher = Stub(FileHasher) {
+            hash(jar) >> HashCode.fromInt(2)
+        }
+
+        when:
+        pool.release(pool.acquire(compiler, null, [jar], [], fileHasher))
+        def second = pool.acquire(compiler, null, [jar], [], laterBuildFileHasher)
+
+        then:
+        2 * compiler.getStandardFileManager(null, null, null) >>> [fileManager1, fileManager2]
+        second.fileManager == fileManager2
+        1 * fileManager1.close()
+    }
+
+    def "does not keep more than the maximum number of idle file managers"() {
+        def fileManager1 = Mock(StandardJavaFileManager)
+        def fileManager2 = Mock(StandardJavaFileManager)
+        compiler.getStandardFileManager(null, null, null) >>> [fileManager1, fileManager2]
+
+        when:
+        def first = pool.acquire(compiler, null, [jar], [], fileHasher)
+        def second = pool.acquire(compiler, null, [jar], [], fileHasher)
+        pool.release(first)
+        pool.release(second)
+
+        then:
+        1 * fileManager1.close()
+        0 * fileManager2.close()
+
+        when:
+        pool.stop()
+
+        then:
+        1 * fileManager2.close()
+    }
+
+    def "resets locations set by options of previous compilation"() {
+        def javaCompiler = ToolProvider.systemJavaCompiler
+        def headerDir = tmpDir.createDir("headers")
+        def outputDir = tmpDir.createDir("classes")
+
+        when:
+        def first = pool.acquire(javaCompiler, null, [jar], [], fileHasher)
+        javaCompiler.getTask(null, first.fileManager, null, ["-h", headerDir.path, "-d", outputDir.path], null, [])
+        assert first.fileManager.getLocation(StandardLocation.NATIVE_HEADER_OUTPUT).toList() == [headerDir]
+        pool.release(first)
+        def second = pool.acquire(javaCompiler, null, [jar], [], fileHasher)
+
+        then:
+        second.fileManager.is(first.fileManager)
+        second.fileManager.getLocation(StandardLocation.NATIVE_HEADER_OUTPUT) == null
+        second.fileManager.getLocation(StandardLocation.CLASS_OUTPUT) == null
+
+        cleanup:
+        pool.stop()
+    }
+
+    def "does not reuse file manager used with options that set module locations"() {
+        def fileManager1 = Mock(StandardJavaFileManager)
+        def fileManager2 = Mock(StandardJavaFileManager)
+
+        when:
+        pool.release(pool.acquire(compiler, null, [jar], ["--module-path", "modules"], fileHasher))
+        def second = pool.acquire(compiler, null, [jar], [], fileHasher)
+
+        then:
+        2 * compiler.getStandardFileManager(null, null, null) >>> [fileManager1, fileManager2]
+        1 * fileManager1.close()
+        second.fileManager == fileManager2
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental
+
+import org.gradle.api.internal.TaskOutputsInternal
+import org.gradle.api.internal.file.collections.SimpleFileCollection
+import org.gradle.api.internal.tasks.compile.CleaningJavaCompiler
+import org.gradle.api.internal.tasks.compile.CompilationFailedException
+import org.gradle.api.internal.tasks.compile.DefaultJavaCompileSpec
+import org.gradle.api.internal.tasks.compile.JavaCompileSpec
+import org.gradle.api.internal.tasks.compile.NormalizingJavaCompiler
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData
+import org.gradle.api.internal.tasks.compile.incremental.deps.LocalClassSetAnalysisStore
+import org.gradle.api.tasks.WorkResults
+import org.gradle.api.tasks.compile.CompileOptions
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.language.base.internal.compile.Compiler
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.TestUtil
+import org.junit.Rule
+import spock.lang.Specification
+
+class PartitioningJavaCompilerTest extends Specification {
+    @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
+    def a = temp.file("src/A.java")
+    def b = temp.file("src/B.java")
+    def rawCompiler = Mock(Compiler)
+    def analysisStore = Stub(LocalClassSetAnalysisStore) {
+        get() >> new ClassSetAnalysisData([:], [:], [:], [:] as Map<String, Set<String>>)
+    }
+    def sourceDirs = Stub(CompilationSourceDirs) {
+        canInferSourceRoots() >> true
+    }
+    def partitioner = Stub(SourcePartitioner) {
+        partition(_, _, _) >> [[[a] as Set, [b] as Set]]
+    }
+    def taskOutputs = Stub(TaskOutputsInternal) {
+        getPreviousOutputFiles() >> ([] as Set)
+    }
+    def compiler = new PartitioningJavaCompiler(new CleaningJavaCompiler(new NormalizingJavaCompiler(rawCompiler), taskOutputs), analysisStore, sourceDirs, new SourceToNameConverter(sourceDirs), new TestBuildOperationExecutor(), partitioner, 1)
+    def spec = new DefaultJavaCompileSpec()
+
+    def setup() {
+        spec.source = new SimpleFileCollection(a, b)
+        spec.compileClasspath = []
+        spec.destinationDir = temp.file("classes")
+        spec.tempDir = temp.file("tmp")
+        spec.compileOptions = new CompileOptions(TestUtil.objectFactory())
+    }
+
+    def "compiles partitions that fail on error and report diagnostics only when they succeed"() {
+        given:
+        spec.compileOptions.failOnError = false
+
+        when:
+        def result = compiler.execute(spec)
+
+        then:
+        2 * rawCompiler.execute(_) >> { JavaCompileSpec partition ->
+            assert partition.source.files.size() == 1
+            assert partition.compileOptions.failOnError
+            assert partition.compileOptions.reportDiagnosticsOnSuccessOnly
+            WorkResults.didWork(true)
+        }
+        0 * rawCompiler._
+        result.didWork
+    }
+
+    def "compiles each partition into a directory of its own and moves the classes to the destination directory"() {
+        given:
+        spec.workingDir = temp.file("work")
+        spec.sourceCompatibility = "1.7"
+        def partitionClassesDirs = []
+
+        when:
+        compiler.execute(spec)
+
+        then:
+        2 * rawCompiler.execute(_) >> { JavaCompileSpec partition ->
+            assert partition.destinationDir != spec.destinationDir
+            assert partition.destinationDir.directory
+            assert !partitionClassesDirs.contains(partition.destinationDir)
+            assert partition.workingDir == spec.workingDir
+            assert partition.sourceCompatibility == "1.7"
+            assert partition.compileClasspath == [spec.destinationDir]
+            partitionClassesDirs << partition.destinationDir
+            def name = partition.source.singleFile.name.replace(".java", ".class")
+            new File(partition.destinationDir, "org/" + name).with {
+                parentFile.mkdirs()
+                text = name
+            }
+            WorkResults.didWork(true)
+        }
+        0 * rawCompiler._
+
+        and:
+        temp.file("classes/org/A.class").text == "A.class"
+        temp.file("classes/org/B.class").text == "B.class"
+        partitionClassesDirs.every { !it.exists() }
+    }
+
+    def "compiles later waves against the classes of earlier waves"() {
+        given:
+        def compiler = new PartitioningJavaCompiler(new CleaningJavaCompiler(new NormalizingJavaCompiler(rawCompiler), taskOutputs), analysisStore, sourceDirs, new SourceToNameConverter(sourceDirs), new TestBuildOperationExecutor(), Stub(SourcePartitioner) {
+            partition(_, _, _) >> [[[a] as Set], [[b] as Set]]
+        }, 1)
+
+        when:
+        compiler.execute(spec)
+
+        then:
+        1 * rawCompiler.execute({ it.source.files == [a] as Set }) >> { JavaCompileSpec partition ->
+            new File(partition.destinationDir, "A.class").text = "A"
+            WorkResults.didWork(true)
+        }
+
+        then:
+        1 * rawCompiler.execute({ it.source.files == [b] as Set }) >> { JavaCompileSpec partition ->
+            assert partition.compileClasspath.first() == spec.destinationDir
+            assert new File(spec.destinationDir, "A.class").file
+            assert !new File(partition.destinationDir, "A.class").exists()
+            WorkResults.didWork(true)
+        }
+        0 * rawCompiler._
+    }
+
+    def "compiles all sources together when a partition fails and failOnError is false"() {
+        given:
+        spec.compileOptions.failOnError = false
+
+        when:
+        def result = compiler.execute(spec)
+
+        then:
+        1 * rawCompiler.execute({ it.source.files == [a] as Set }) >> WorkResults.didWork(true)
+        1 * rawCompiler.execute({ it.source.files == [b] as Set }) >> { throw new CompilationFailedException() }
+
+        then:
+        1 * rawCompiler.execute({ it.source.files == [a, b] as Set }) >> { JavaCompileSpec all ->
+            assert !all.compileOptions.failOnError
+            assert !all.compileOptions.reportDiagnosticsOnSuccessOnly
+            WorkResults.didWork(true)
+        }
+        0 * rawCompiler._
+        result.didWork
+    }
+
+    def "applies failOnError option to the compilation of all sources"() {
+        given:
+        spec.compileOptions.failOnError = failOnError
+        rawCompiler.execute(_) >> { throw new CompilationFailedException() }
+
+        when:
+        def result = null
+        def failure = null
+        try {
+            result = compiler.execute(spec)
+        } catch (CompilationFailedException e) {
+            failure = e
+        }
+
+        then:
+        (failure != null) == failOnError
+        failOnError || !result.didWork
+
+        where:
+        failOnError << [true, false]
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental
+
+import it.unimi.dsi.fastutil.ints.IntSets
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData
+import org.gradle.api.internal.tasks.compile.incremental.deps.DefaultDependentsSet
+import org.gradle.api.internal.tasks.compile.incremental.deps.DependencyToAll
+import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class SourcePartitionerTest extends Specification {
+
+    @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
+    def srcDirs = Stub(CompilationSourceDirs) {
+        getSourceRoots() >> [temp.file("src")]
+    }
+    def converter = new SourceToNameConverter(srcDirs)
+
+    def "compiles independent classes concurrently"() {
+        def partitioner = new SourcePartitioner(4, 2, 1)
+
+        when:
+        def waves = partitioner.partition(sources("A", "B", "C", "D"), converter, analysis(A: ["B"], C: ["D"]))
+
+        then:
+        names(waves) == [[["A"], ["C"]], [["B"], ["D"]]]
+    }
+
+    def "keeps classes that depend on each other in the same partition"() {
+        def partitioner = new SourcePartitioner(4, 4, 1)
+
+        when:
+        def waves = partitioner.partition(sources("A", "B", "C", "D"), converter, analysis(A: ["B"], B: ["C"], C: ["B"], D: []))
+
+        then:
+        names(waves) == [[["A"], ["D"]], [["B", "C"]]]
+    }
+
+    def "groups dependent classes of the same wave into one partition"() {
+        def partitioner = new SourcePartitioner(1, 4, 1)
+
+        when:
+        def waves = partitioner.partition(sources("A", "B", "C", "D"), converter, analysis(A: ["B"], C: ["D"]))
+
+        then:
+        names(waves) == [[["A", "B"], ["C", "D"]]]
+    }
+
+    def "maps nested classes to the source file of their top level class"() {
+        def partitioner = new SourcePartitioner(4, 4, 1)
+
+        when:
+        def waves = partitioner.partition(sources("A", "B"), converter, analysis(A: [], 'A$Inner': ["B"], 'B$1': []))
+
+        then:
+        names(waves) == [[["A"]], [["B"]]]
+    }
+
+    def "compiles source files unknown to the analysis last"() {
+        def partitioner = new SourcePartitioner(4, 4, 1)
+
+        when:
+        def waves = partitioner.partition(sources("A", "B", "New"), converter, analysis(A: [], B: []))
+
+        then:
+        names(waves) == [[["A"], ["B"]], [["New"]]]
+    }
+
+    def "limits the number of partitions per wave by size"() {
+        def partitioner = new SourcePartitioner(4, 4, 2)
+
+        when:
+        def waves = partitioner.partition(sources("A", "B", "C", "D", "E"), converter, analysis(A: [], B: [], C: [], D: [], E: []))
+
+        then:
+        waves.size() == 1
+        waves[0].size() == 2
+        waves[0]*.size().sum() == 5
+    }
+
+    def "does not partition when a class is a dependency of all classes"() {
+        def partitioner = new SourcePartitioner(4, 4, 1)
+        def data = new ClassSetAnalysisData([:], [A: DependencyToAll.INSTANCE] as Map<String, DependentsSet>, [A: IntSets.EMPTY_SET, B: IntSets.EMPTY_SET], [:] as Map<String, Set<String>>)
+
+        expect:
+        partitioner.partition(sources("A", "B"), converter, data) == null
+    }
+
+    def "does not partition when the source file of a class is unknown"() {
+        def partitioner = new SourcePartitioner(4, 4, 1)
+
+        expect:
+        partitioner.partition(sources("A"), converter, analysis(A: ["Removed"], Removed: [])) == null
+    }
+
+    private List<File> sources(String... classNames) {
+        classNames.collect { temp.file("src/${it}.java") }
+    }
+
+    private static ClassSetAnalysisData analysis(Map<String, List<String>> dependents) {
+        def dependentsMap = dependents.collectEntries { name, classes -> [name, new DefaultDependentsSet(classes as Set)] } as Map<String, DependentsSet>
+        def constants = dependents.collectEntries { name, classes -> [name, IntSets.EMPTY_SET] }
+        new ClassSetAnalysisData([:], dependentsMap, constants, [:] as Map<String, Set<String>>)
+    }
+
+    private static List<List<List<String>>> names(List<List<Set<File>>> waves) {
+        waves.collect { wave -> wave.collect { partition -> partition.collect { it.name - ".java" }.sort() } }
+    }
+}
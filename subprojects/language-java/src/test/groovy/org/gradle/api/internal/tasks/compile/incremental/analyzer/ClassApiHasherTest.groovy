@@ -0,0 +1,73 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental.analyzer
+
+import org.objectweb.asm.ClassReader
+import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.MethodVisitor
+import org.objectweb.asm.Opcodes
+import spock.lang.Specification
+
+class ClassApiHasherTest extends Specification {
+
+    def "method bodies and private members do not contribute to the hash"() {
+        expect:
+        hash(classWith(1)) == hash(classWith(2))
+        hash(classWith(1)) == hash(classWith(1) { it.visitField(Opcodes.ACC_PRIVATE, "hidden", "I", null, null) })
+        hash(classWith(1)) == hash(classWith(1) { it.visitMethod(Opcodes.ACC_PRIVATE, "hidden", "()V", null, null).visitEnd() })
+    }
+
+    def "non-private members contribute to the hash"() {
+        expect:
+        hash(classWith(1)) != hash(classWith(1) { it.visitField(Opcodes.ACC_PUBLIC, "visible", "I", null, null) })
+        hash(classWith(1)) != hash(classWith(1) { it.visitMethod(0, "visible", "()V", null, null).visitEnd() })
+    }
+
+    def "constant values contribute to the hash"() {
+        expect:
+        hash(classWith(1) { it.visitField(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL, "X", "I", null, 1) }) !=
+            hash(classWith(1) { it.visitField(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL, "X", "I", null, 2) })
+    }
+
+    def "anonymous classes have no API"() {
+        expect:
+        hash(classWith("Foo\$1", 1)) == ClassApiHasher.NO_API
+    }
+
+    private static hash(byte[] bytes) {
+        ClassApiHasher.hash(new ClassReader(bytes))
+    }
+
+    private static byte[] classWith(int returnValue, Closure members = {}) {
+        classWith("Foo", returnValue, members)
+    }
+
+    private static byte[] classWith(String name, int returnValue, Closure members = {}) {
+        def writer = new ClassWriter(ClassWriter.COMPUTE_MAXS)
+        writer.visit(Opcodes.V1_6, Opcodes.ACC_PUBLIC, name, null, "java/lang/Object", null)
+        MethodVisitor method = writer.visitMethod(Opcodes.ACC_PUBLIC, "value", "()I", null, null)
+        method.visitCode()
+        method.visitLdcInsn(returnValue)
+        method.visitInsn(Opcodes.IRETURN)
+        method.visitMaxs(0, 0)
+        method.visitEnd()
+        members(writer)
+        writer.visitEnd()
+        writer.toByteArray()
+    }
+}
@@ -14,74 +14,110 @@
  * limitations under the License.
  */
 
-
-
 package org.gradle.api.internal.tasks.compile.incremental.jar
 
+import it.unimi.dsi.fastutil.ints.IntSets
 import org.gradle.api.file.FileTree
-import org.gradle.api.file.FileVisitor
-import org.gradle.api.internal.file.DefaultFileVisitDetails
-import org.gradle.api.internal.file.collections.DefaultDirectoryFileTreeFactory
-import org.gradle.api.internal.file.collections.FileTreeAdapter
-import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer
-import org.gradle.api.internal.tasks.compile.incremental.deps.ClassAnalysis
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassApiHasher
+import org.gradle.api.internal.tasks.compile.incremental.test.SomeClass
+import org.gradle.api.internal.tasks.compile.incremental.test.SomeOtherClass
+import org.gradle.api.internal.tasks.compile.incremental.test.YetAnotherClass
+import org.gradle.internal.Factory
 import org.gradle.internal.hash.HashCode
-import org.gradle.internal.hash.StreamHasher
+import org.gradle.test.fixtures.file.TestFile
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
-import org.gradle.util.UsesNativeServices
 import org.junit.Rule
+import org.objectweb.asm.ClassReader
 import spock.lang.Specification
 import spock.lang.Subject
 
-@UsesNativeServices
 class DefaultJarSnapshotterTest extends Specification {
 
     @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
 
-    def hasher = Mock(StreamHasher)
-    def classDependenciesAnalyzer = Mock(ClassDependenciesAnalyzer)
-    @Subject snapshotter = new DefaultJarSnapshotter(hasher, classDependenciesAnalyzer)
+    def entrySnapshots = [:]
+    def entrySnapshotCache = Stub(JarEntrySnapshotCache) {
+        get(_, _) >> { HashCode key, Factory<JarEntrySnapshot> factory ->
+            if (!entrySnapshots.containsKey(key)) {
+                entrySnapshots[key] = factory.create()
+            }
+            entrySnapshots[key]
+        }
+    }
+    @Subject snapshotter = new DefaultJarSnapshotter(entrySnapshotCache)
+
+    def "creates snapshot for a jar without classes"() {
+        def jarFile = jar("a.jar", ["app.properties": "foo=bar".bytes])
 
-    def "creates snapshot for an empty jar"() {
         expect:
-        def snapshot = snapshotter.createSnapshot(HashCode.fromInt(123), new JarArchive(new File("a.jar"), new FileTreeAdapter(new DefaultDirectoryFileTreeFactory().create(new File("missing")))))
+        def snapshot = snapshotter.createSnapshot(HashCode.fromInt(123), new JarArchive(jarFile, Stub(FileTree)))
         snapshot.hashes.isEmpty()
         snapshot.analysis
     }
 
     def "creates snapshot of a jar with classes"() {
-        def f1 = temp.createFile("foo/Foo.class")
-        def f2 = temp.createFile("foo/com/Foo2.class")
-        def f3 = temp.createFile("foo/com/app.properties")
-        def jarFile = temp.file("foo")
-        def f1Hash = HashCode.fromInt(1)
-        def f2Hash = HashCode.fromInt(2)
-        def f1Details = new DefaultFileVisitDetails(f1, null, null)
-        def f2Details = new DefaultFileVisitDetails(f2, null, null)
+        def jarFile = jar("a.jar", [
+            (classPath(SomeClass)): classBytes(SomeClass),
+            (classPath(SomeOtherClass)): classBytes(SomeOtherClass),
+            "com/app.properties": "foo=bar".bytes
+        ])
 
-        def jarFileTree = Mock(FileTree)
+        when:
+        def snapshot = snapshotter.createSnapshot(HashCode.fromInt(123), new JarArchive(jarFile, Stub(FileTree)))
+
+        then:
+        snapshot.hash == HashCode.fromInt(123)
+        snapshot.hashes == [(SomeClass.name): apiHash(SomeClass), (SomeOtherClass.name): apiHash(SomeOtherClass)]
+        snapshot.analysis.getRelevantDependents(SomeClass.name, IntSets.EMPTY_SET).dependentClasses == [SomeOtherClass.name] as Set
+    }
+
+    def "reuses the snapshots of entries that did not change"() {
+        def jar1 = jar("a1.jar", [(classPath(SomeClass)): classBytes(SomeClass), (classPath(SomeOtherClass)): classBytes(SomeOtherClass)])
+        def jar2 = jar("a2.jar", [(classPath(SomeClass)): classBytes(SomeClass), (classPath(YetAnotherClass)): classBytes(YetAnotherClass)])
 
         when:
-        def snapshot = snapshotter.createSnapshot(HashCode.fromInt(123), new JarArchive(jarFile, jarFileTree))
+        def snapshot1 = snapshotter.createSnapshot(HashCode.fromInt(1), new JarArchive(jar1, Stub(FileTree)))
+        def snapshot2 = snapshotter.createSnapshot(HashCode.fromInt(2), new JarArchive(jar2, Stub(FileTree)))
 
         then:
-        1 * jarFileTree.visit(_) >> { FileVisitor visitor ->
-            visitor.visitFile(f1Details)
-            visitor.visitFile(f2Details)
-            visitor.visitFile(new DefaultFileVisitDetails(f3, null, null))
-        }
-        1 * hasher.hash(_) >> f1Hash
-        1 * classDependenciesAnalyzer.getClassAnalysis(f1Hash, f1Details) >> Stub(ClassAnalysis) {
-            getClassName() >> "Foo"
-        }
-        1 * hasher.hash(_) >> f2Hash
-        1 * classDependenciesAnalyzer.getClassAnalysis(f2Hash, f2Details) >> Stub(ClassAnalysis) {
-            getClassName() >> "com.Foo2"
+        entrySnapshots.size() == 3
+        snapshot1.hashes[SomeClass.name] == snapshot2.hashes[SomeClass.name]
+        snapshot2.classes == [SomeClass.name, YetAnotherClass.name] as Set
+    }
+
+    def "does not reuse the snapshot of an entry whose content changed"() {
+        def jar1 = jar("a1.jar", [(classPath(SomeClass)): classBytes(SomeClass)])
+        def jar2 = jar("a2.jar", [(classPath(SomeClass)): classBytes(SomeOtherClass)])
+
+        when:
+        def snapshot1 = snapshotter.createSnapshot(HashCode.fromInt(1), new JarArchive(jar1, Stub(FileTree)))
+        def snapshot2 = snapshotter.createSnapshot(HashCode.fromInt(2), new JarArchive(jar2, Stub(FileTree)))
+
+        then:
+        entrySnapshots.size() == 2
+        snapshot1.classes == [SomeClass.name] as Set
+        snapshot2.classes == [SomeOtherClass.name] as Set
+    }
+
+    private TestFile jar(String name, Map<String, byte[]> entries) {
+        def contents = temp.createDir(name + "-contents")
+        entries.each { path, bytes ->
+            contents.file(path).bytes = bytes
         }
-        0 * _._
+        def jarFile = temp.file(name)
+        contents.zipTo(jarFile)
+        jarFile
+    }
 
-        and:
-        snapshot.hashes == ["Foo": f1Hash, "com.Foo2": f2Hash]
-        snapshot.analysis
+    private static String classPath(Class aClass) {
+        aClass.getName().replace(".", "/") + ".class"
+    }
+
+    private static byte[] classBytes(Class aClass) {
+        aClass.classLoader.getResourceAsStream(classPath(aClass)).bytes
+    }
+
+    private static HashCode apiHash(Class aClass) {
+        ClassApiHasher.hash(new ClassReader(classBytes(aClass)))
     }
 }
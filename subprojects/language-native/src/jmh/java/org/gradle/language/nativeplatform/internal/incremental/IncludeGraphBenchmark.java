@@ -0,0 +1,249 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.language.nativeplatform.internal.incremental;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.internal.changedetection.state.FileHashSnapshot;
+import org.gradle.api.internal.changedetection.state.FileSnapshot;
+import org.gradle.api.internal.changedetection.state.FileSystemSnapshotter;
+import org.gradle.api.internal.changedetection.state.FileTreeSnapshot;
+import org.gradle.api.internal.changedetection.state.MissingFileSnapshot;
+import org.gradle.api.internal.changedetection.state.RegularFileSnapshot;
+import org.gradle.api.internal.changedetection.state.Snapshot;
+import org.gradle.api.internal.file.FileTreeInternal;
+import org.gradle.api.internal.file.collections.DirectoryFileTree;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.language.nativeplatform.internal.IncludeDirectives;
+import org.gradle.language.nativeplatform.internal.incremental.sourceparser.CSourceParser;
+import org.gradle.language.nativeplatform.internal.incremental.sourceparser.RegexBackedCSourceParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Processes the source files of a synthetic component, whose headers form a forest of include trees. Each source file includes the roots of a few trees,
+ * so the same header subtrees are reachable from many source files.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@State(Scope.Benchmark)
+public class IncludeGraphBenchmark {
+    private static final int TREES = 20;
+    private static final int DEPTH = 4;
+    private static final int FAN_OUT = 4;
+    private static final int TREES_PER_SOURCE = 3;
+
+    @Param({"2000"})
+    int sourceFileCount;
+
+    @Param({"1", "4"})
+    int threads;
+
+    private File root;
+    private List<File> sourceFiles;
+    private IncrementalCompileFilesFactory filesFactory;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        root = Files.createTempDir();
+        File includeDir = new File(root, "include");
+        for (int tree = 0; tree < TREES; tree++) {
+            writeHeader(includeDir, tree, 0, 0);
+        }
+        File sourceDir = new File(root, "src");
+        sourceFiles = new ArrayList<File>(sourceFileCount);
+        for (int i = 0; i < sourceFileCount; i++) {
+            StringBuilder source = new StringBuilder();
+            for (int j = 0; j < TREES_PER_SOURCE; j++) {
+                source.append("#include \"").append(headerName((i + j * 7) % TREES, 0, 0)).append("\"\n");
+            }
+            source.append("int function").append(i).append("() { return 0; }\n");
+            File sourceFile = new File(sourceDir, "source" + i + ".cpp");
+            write(sourceFile, source.toString());
+            sourceFiles.add(sourceFile);
+        }
+
+        FileSystemSnapshotter snapshotter = new HashingFileSystemSnapshotter();
+        SourceIncludesParser parser = new DefaultSourceIncludesParser(new InMemoryCachingParser(new RegexBackedCSourceParser()), false);
+        SourceIncludesResolver resolver = new DefaultSourceIncludesResolver(ImmutableList.of(includeDir), snapshotter);
+        filesFactory = new IncrementalCompileFilesFactory(parser, resolver, snapshotter);
+        executor = Executors.newFixedThreadPool(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdown();
+        deleteRecursively(root);
+    }
+
+    @Benchmark
+    public IncrementalCompilation processSourceFiles() throws Exception {
+        final IncementalCompileSourceProcessor processor = filesFactory.filesFor(null);
+        List<Future<?>> results = new ArrayList<Future<?>>();
+        int batchSize = (sourceFiles.size() + threads - 1) / threads;
+        for (int start = 0; start < sourceFiles.size(); start += batchSize) {
+            final List<File> batch = sourceFiles.subList(start, Math.min(start + batchSize, sourceFiles.size()));
+            results.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    for (File sourceFile : batch) {
+                        processor.processSource(sourceFile);
+                    }
+                    return null;
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        return processor.getResult();
+    }
+
+    private static void writeHeader(File includeDir, int tree, int depth, int index) {
+        StringBuilder header = new StringBuilder();
+        if (depth < DEPTH) {
+            for (int child = 0; child < FAN_OUT; child++) {
+                int childIndex = index * FAN_OUT + child;
+                header.append("#include \"").append(headerName(tree, depth + 1, childIndex)).append("\"\n");
+                writeHeader(includeDir, tree, depth + 1, childIndex);
+            }
+        }
+        header.append("#define VALUE_").append(tree).append('_').append(depth).append('_').append(index).append(" 1\n");
+        write(new File(includeDir, headerName(tree, depth, index)), header.toString());
+    }
+
+    private static String headerName(int tree, int depth, int index) {
+        return "tree" + tree + "/level" + depth + "/header" + index + ".h";
+    }
+
+    private static void write(File file, String content) {
+        try {
+            Files.createParentDirs(file);
+            Files.write(content.getBytes("utf-8"), file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+    /**
+     * Caches the parsed files, the same way the persistent parser cache does in a real build.
+     */
+    private static class InMemoryCachingParser implements CSourceParser {
+        private final CSourceParser delegate;
+        private final ConcurrentMap<File, IncludeDirectives> parsed = new ConcurrentHashMap<File, IncludeDirectives>();
+
+        InMemoryCachingParser(CSourceParser delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public IncludeDirectives parseSource(File sourceFile) {
+            IncludeDirectives includeDirectives = parsed.get(sourceFile);
+            if (includeDirectives == null) {
+                includeDirectives = delegate.parseSource(sourceFile);
+                parsed.put(sourceFile, includeDirectives);
+            }
+            return includeDirectives;
+        }
+    }
+
+    /**
+     * Caches the file snapshots, the same way the file system mirror does during a real build.
+     */
+    private static class HashingFileSystemSnapshotter implements FileSystemSnapshotter {
+        private final ConcurrentMap<File, FileSnapshot> snapshots = new ConcurrentHashMap<File, FileSnapshot>();
+
+        @Override
+        public boolean exists(File file) {
+            return file.exists();
+        }
+
+        @Override
+        public FileSnapshot snapshotSelf(File file) {
+            FileSnapshot snapshot = snapshots.get(file);
+            if (snapshot == null) {
+                snapshot = file.isFile()
+                    ? new RegularFileSnapshot(file.getPath(), null, true, new FileHashSnapshot(hash(file)))
+                    : new MissingFileSnapshot(file.getPath(), null);
+                snapshots.put(file, snapshot);
+            }
+            return snapshot;
+        }
+
+        private static HashCode hash(File file) {
+            try {
+                return Hashing.md5().hashBytes(Files.toByteArray(file));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public Snapshot snapshotAll(File file) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FileTreeSnapshot snapshotDirectoryTree(File dir) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FileTreeSnapshot snapshotDirectoryTree(DirectoryFileTree dirTree) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<FileSnapshot> snapshotTree(FileTreeInternal tree) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -20,6 +20,7 @@ import org.gradle.api.internal.changedetection.changes.DiscoveredInputRecorder;
 import org.gradle.internal.operations.logging.BuildOperationLogger;
 import org.gradle.nativeplatform.internal.AbstractBinaryToolSpec;
 import org.gradle.nativeplatform.toolchain.internal.NativeCompileSpec;
+import org.gradle.nativeplatform.toolchain.internal.ObjectFileCache;
 
 import java.io.File;
 import java.util.ArrayList;
@@ -46,6 +47,7 @@ public abstract class AbstractNativeCompileSpec extends AbstractBinaryToolSpec i
     private Map<File, IncludeDirectives> sourceFileIncludeDirectives;
     private String preCompiledHeader;
     private DiscoveredInputRecorder discoveredInputRecorder;
+    private ObjectFileCache objectFileCache;
 
     @Override
     public List<File> getIncludeRoots() {
@@ -219,4 +221,14 @@ public abstract class AbstractNativeCompileSpec extends AbstractBinaryToolSpec i
     public void setSourceFileIncludeDirectives(Map<File, IncludeDirectives> map) {
         this.sourceFileIncludeDirectives = map;
     }
+
+    @Override
+    public ObjectFileCache getObjectFileCache() {
+        return objectFileCache;
+    }
+
+    @Override
+    public void setObjectFileCache(ObjectFileCache objectFileCache) {
+        this.objectFileCache = objectFileCache;
+    }
 }
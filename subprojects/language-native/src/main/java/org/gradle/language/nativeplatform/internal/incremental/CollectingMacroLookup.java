@@ -26,6 +26,11 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Collects the macros visible at a location in the include graph. The sources of macros are collected lazily, the first time the macros are queried.
+ *
+ * <p>Once fully appended to, an instance can be shared by several threads. Querying it is thread-safe.</p>
+ */
 public class CollectingMacroLookup implements MacroLookup {
     private final List<MacroSource> uncollected = new ArrayList<MacroSource>();
     private Map<File, IncludeDirectives> visible;
@@ -54,7 +59,7 @@ public class CollectingMacroLookup implements MacroLookup {
     }
 
     @Override
-    public Iterator<IncludeDirectives> iterator() {
+    public synchronized Iterator<IncludeDirectives> iterator() {
         collectAll();
         if (visible == null) {
             return Collections.emptyIterator();
@@ -62,7 +67,7 @@ public class CollectingMacroLookup implements MacroLookup {
         return visible.values().iterator();
     }
 
-    public void appendTo(CollectingMacroLookup lookup) {
+    public synchronized void appendTo(CollectingMacroLookup lookup) {
         collectAll();
         if (visible != null) {
             for (Map.Entry<File, IncludeDirectives> entry : visible.entrySet()) {
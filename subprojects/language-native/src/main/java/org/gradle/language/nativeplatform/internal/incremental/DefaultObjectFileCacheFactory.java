@@ -0,0 +1,183 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.language.nativeplatform.internal.incremental;
+
+import com.google.common.io.Files;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.FileLockManager;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.internal.CleanupActionFactory;
+import org.gradle.cache.internal.FixedAgeOldestCacheCleanup;
+import org.gradle.internal.Factory;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.language.base.compile.CompilerVersion;
+import org.gradle.nativeplatform.toolchain.internal.ObjectFileCache;
+import org.gradle.util.GFileUtils;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
+/**
+ * Caches object files in the Gradle user home directory, so that they can be reused by other tasks and builds on the same machine.
+ *
+ * <p>An object file is keyed on the compiler version, the compiler arguments, and the path and content of the source file and of every header file it includes.
+ * The paths are part of the key because the compiler writes them into the object file, for example in debug information.</p>
+ *
+ * <p>This is opt-in, by setting the {@value #OBJECT_FILE_CACHE_PROPERTY} system property to {@code true}.</p>
+ */
+public class DefaultObjectFileCacheFactory implements ObjectFileCacheFactory, Closeable {
+    public static final String OBJECT_FILE_CACHE_PROPERTY = "org.gradle.native.compile.objectcache";
+    private static final int REMOVE_UNUSED_ENTRIES_AFTER_DAYS = 7;
+
+    private final CacheRepository cacheRepository;
+    private final CleanupActionFactory cleanupActionFactory;
+    private PersistentCache cache;
+
+    public DefaultObjectFileCacheFactory(CacheRepository cacheRepository, CleanupActionFactory cleanupActionFactory) {
+        this.cacheRepository = cacheRepository;
+        this.cleanupActionFactory = cleanupActionFactory;
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(OBJECT_FILE_CACHE_PROPERTY);
+    }
+
+    @Nullable
+    @Override
+    public ObjectFileCache create(CompilerVersion compilerVersion, CompilationState compilationState) {
+        if (!isEnabled()) {
+            return null;
+        }
+        return new CompilationObjectFileCache(getCache(), compilerVersion, compilationState);
+    }
+
+    private synchronized PersistentCache getCache() {
+        if (cache == null) {
+            cache = cacheRepository
+                .cache("nativeObjectFiles")
+                .withCleanup(cleanupActionFactory.create(new FixedAgeOldestCacheCleanup(REMOVE_UNUSED_ENTRIES_AFTER_DAYS)))
+                .withDisplayName("native object file cache")
+                .withLockOptions(mode(FileLockManager.LockMode.None)) // Lock on demand
+                .open();
+        }
+        return cache;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (cache != null) {
+            cache.close();
+            cache = null;
+        }
+    }
+
+    private static class CompilationObjectFileCache implements ObjectFileCache {
+        private final PersistentCache cache;
+        private final CompilerVersion compilerVersion;
+        private final CompilationState compilationState;
+
+        CompilationObjectFileCache(PersistentCache cache, CompilerVersion compilerVersion, CompilationState compilationState) {
+            this.cache = cache;
+            this.compilerVersion = compilerVersion;
+            this.compilationState = compilationState;
+        }
+
+        @Nullable
+        @Override
+        public HashCode getCacheKey(File sourceFile, Iterable<String> args) {
+            SourceFileState sourceFileState = compilationState.getState(sourceFile);
+            if (sourceFileState == null) {
+                return null;
+            }
+            Hasher hasher = Hashing.md5().newHasher();
+            hasher.putString(compilerVersion.getType());
+            hasher.putString(compilerVersion.getVendor());
+            hasher.putString(compilerVersion.getVersion());
+            for (String arg : args) {
+                hasher.putString(arg);
+                if (arg.startsWith("@")) {
+                    // An options file, which holds the remaining arguments
+                    File optionsFile = new File(arg.substring(1));
+                    if (optionsFile.isFile()) {
+                        hasher.putHash(hash(optionsFile));
+                    }
+                }
+            }
+            hasher.putString(sourceFile.getAbsolutePath());
+            hasher.putHash(sourceFileState.getHash());
+            for (IncludeFileState includeFileState : sourceFileState.getResolvedIncludes()) {
+                hasher.putString(includeFileState.getIncludeFile().getAbsolutePath());
+                hasher.putHash(includeFileState.getHash());
+            }
+            return hasher.hash();
+        }
+
+        @Override
+        public boolean load(final HashCode key, final File objectFile) {
+            // Lock other processes out, as cleanup may be running in another process
+            return cache.withFileLock(new Factory<Boolean>() {
+                @Override
+                public Boolean create() {
+                    File cachedFile = new File(cache.getBaseDir(), key.toString());
+                    if (!cachedFile.isFile()) {
+                        return false;
+                    }
+                    // Mark as recently used
+                    GFileUtils.touch(cachedFile);
+                    GFileUtils.copyFile(cachedFile, objectFile);
+                    return true;
+                }
+            });
+        }
+
+        @Override
+        public void store(final HashCode key, final File objectFile) {
+            cache.withFileLock(new Runnable() {
+                @Override
+                public void run() {
+                    File cachedFile = new File(cache.getBaseDir(), key.toString());
+                    try {
+                        // Copy to a temporary file first, so that other processes never see a partially written object file
+                        File tempFile = File.createTempFile(key.toString(), ".tmp", cache.getBaseDir());
+                        Files.copy(objectFile, tempFile);
+                        if (!tempFile.renameTo(cachedFile)) {
+                            GFileUtils.deleteQuietly(tempFile);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        }
+
+        private static HashCode hash(File file) {
+            try {
+                return Hashing.md5().hashBytes(Files.toByteArray(file));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
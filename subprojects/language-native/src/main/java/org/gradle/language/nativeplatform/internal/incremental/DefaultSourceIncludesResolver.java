@@ -32,22 +32,25 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class DefaultSourceIncludesResolver implements SourceIncludesResolver {
     private final List<File> includePaths;
     private final FileSystemSnapshotter fileSystemSnapshotter;
-    private final Map<File, Map<String, IncludeFileImpl>> includeRoots;
+    private final ConcurrentMap<File, Map<String, IncludeFileImpl>> includeRoots;
+    private final ConcurrentMap<File, List<File>> quotedSearchPaths;
 
     public DefaultSourceIncludesResolver(List<File> includePaths, FileSystemSnapshotter fileSystemSnapshotter) {
         this.includePaths = includePaths;
         this.fileSystemSnapshotter = fileSystemSnapshotter;
-        this.includeRoots = new HashMap<File, Map<String, IncludeFileImpl>>();
+        this.includeRoots = new ConcurrentHashMap<File, Map<String, IncludeFileImpl>>();
+        this.quotedSearchPaths = new ConcurrentHashMap<File, List<File>>();
     }
 
     @Override
@@ -250,13 +253,19 @@ public class DefaultSourceIncludesResolver implements SourceIncludesResolver {
 
     private List<File> prependSourceDir(File sourceFile, List<File> includePaths) {
         File sourceDir = sourceFile.getParentFile();
+        List<File> quotedSearchPath = quotedSearchPaths.get(sourceDir);
+        if (quotedSearchPath != null) {
+            return quotedSearchPath;
+        }
         if (includePaths.size() > 1 && includePaths.get(0).equals(sourceDir)) {
             // Source dir already at the start of the path, just use the include path
-            return includePaths;
+            quotedSearchPath = includePaths;
+        } else {
+            quotedSearchPath = new ArrayList<File>(includePaths.size() + 1);
+            quotedSearchPath.add(sourceDir);
+            quotedSearchPath.addAll(includePaths);
         }
-        List<File> quotedSearchPath = new ArrayList<File>(includePaths.size() + 1);
-        quotedSearchPath.add(sourceDir);
-        quotedSearchPath.addAll(includePaths);
+        quotedSearchPaths.putIfAbsent(sourceDir, quotedSearchPath);
         return quotedSearchPath;
     }
 
@@ -264,13 +273,13 @@ public class DefaultSourceIncludesResolver implements SourceIncludesResolver {
         for (File searchDir : searchPath) {
             Map<String, IncludeFileImpl> searchedIncludes = includeRoots.get(searchDir);
             if (searchedIncludes == null) {
-                searchedIncludes = new HashMap<String, IncludeFileImpl>();
-                includeRoots.put(searchDir, searchedIncludes);
+                includeRoots.putIfAbsent(searchDir, new ConcurrentHashMap<String, IncludeFileImpl>());
+                searchedIncludes = includeRoots.get(searchDir);
             }
-            if (searchedIncludes.containsKey(include)) {
-                IncludeFileImpl includeFile = searchedIncludes.get(include);
-                if (includeFile.snapshot.getType() == FileType.RegularFile) {
-                    dependencies.resolved(includeFile);
+            IncludeFileImpl searchedInclude = searchedIncludes.get(include);
+            if (searchedInclude != null) {
+                if (searchedInclude.snapshot.getType() == FileType.RegularFile) {
+                    dependencies.resolved(searchedInclude);
                     return;
                 }
                 continue;
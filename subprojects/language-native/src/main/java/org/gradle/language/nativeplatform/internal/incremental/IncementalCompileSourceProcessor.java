@@ -19,6 +19,9 @@ package org.gradle.language.nativeplatform.internal.incremental;
 import java.io.File;
 
 public interface IncementalCompileSourceProcessor {
+    /**
+     * Processes the given source file. May be called concurrently for different source files.
+     */
     void processSource(File sourceFile);
 
     IncrementalCompilation getResult();
@@ -20,6 +20,7 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import org.gradle.api.internal.changedetection.state.FileSnapshot;
 import org.gradle.api.internal.changedetection.state.FileSystemSnapshotter;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.file.FileType;
 import org.gradle.internal.hash.HashCode;
 import org.gradle.language.nativeplatform.internal.Include;
@@ -32,11 +33,16 @@ import javax.annotation.Nullable;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 public class IncrementalCompileFilesFactory {
 
@@ -59,15 +65,18 @@ public class IncrementalCompileFilesFactory {
         return new DefaultIncementalCompileSourceProcessor(previousCompileState);
     }
 
+    /**
+     * Source files may be processed concurrently. The details of each visited file, and the include graph of those files whose includes do not depend on
+     * macros, are shared between all source files.
+     */
     private class DefaultIncementalCompileSourceProcessor implements IncementalCompileSourceProcessor {
         private final CompilationState previous;
         private final BuildableCompilationState current = new BuildableCompilationState();
-        private final List<File> toRecompile = new ArrayList<File>();
-        private final Set<File> existingHeaders = Sets.newHashSet();
-        private final Map<File, IncludeDirectives> includeDirectivesMap = new HashMap<File, IncludeDirectives>();
-        private final Map<File, FileDetails> visitedFiles = new HashMap<File, FileDetails>();
-        int traversalCount;
-        private boolean hasUnresolvedHeaders;
+        private final Set<File> toRecompile = Sets.newConcurrentHashSet();
+        private final Set<File> existingHeaders = Sets.newConcurrentHashSet();
+        private final Map<File, IncludeDirectives> includeDirectivesMap = new ConcurrentHashMap<File, IncludeDirectives>();
+        private final ConcurrentMap<File, FutureTask<FileDetails>> visitedFiles = new ConcurrentHashMap<File, FutureTask<FileDetails>>();
+        private volatile boolean hasUnresolvedHeaders;
 
         DefaultIncementalCompileSourceProcessor(CompilationState previousCompileState) {
             this.previous = previousCompileState == null ? new CompilationState() : previousCompileState;
@@ -75,7 +84,10 @@ public class IncrementalCompileFilesFactory {
 
         @Override
         public IncrementalCompilation getResult() {
-            return new DefaultIncrementalCompilation(current.snapshot(), toRecompile, getRemovedSources(), existingHeaders, hasUnresolvedHeaders, includeDirectivesMap);
+            // Source files are processed concurrently, so use a stable order
+            List<File> recompile = new ArrayList<File>(toRecompile);
+            Collections.sort(recompile);
+            return new DefaultIncrementalCompilation(current.snapshot(), recompile, getRemovedSources(), existingHeaders, hasUnresolvedHeaders, includeDirectivesMap);
         }
 
         @Override
@@ -99,7 +111,7 @@ public class IncrementalCompileFilesFactory {
             CollectingMacroLookup visibleMacros = new CollectingMacroLookup();
             FileVisitResult result = visitFile(sourceFile, fileSnapshot, visibleMacros, new HashSet<File>(), true);
             ArrayList<IncludeFileState> includedFiles = new ArrayList<IncludeFileState>();
-            result.collectFilesInto(++traversalCount, includedFiles);
+            result.collectFilesInto(Collections.newSetFromMap(new IdentityHashMap<FileVisitResult, Boolean>()), includedFiles);
             SourceFileState newState = new SourceFileState(fileSnapshot.getContent().getContentMd5(), ImmutableSet.copyOf(includedFiles));
             current.setState(sourceFile, newState);
             includeDirectivesMap.put(sourceFile, result.includeDirectives);
@@ -111,8 +123,8 @@ public class IncrementalCompileFilesFactory {
         }
 
         private FileVisitResult visitFile(File file, FileSnapshot fileSnapshot, CollectingMacroLookup visibleMacros, Set<File> visited, boolean isSourceFile) {
-            FileDetails fileDetails = visitedFiles.get(file);
-            if (fileDetails != null && fileDetails.results != null) {
+            FileDetails fileDetails = fileDetailsFor(file, fileSnapshot);
+            if (fileDetails.results != null) {
                 // A file that we can safely reuse the result for
                 visibleMacros.append(fileDetails.results);
                 return fileDetails.results;
@@ -123,13 +135,6 @@ public class IncrementalCompileFilesFactory {
                 return new FileVisitResult(file);
             }
 
-            if (fileDetails == null) {
-                HashCode newHash = fileSnapshot.getContent().getContentMd5();
-                IncludeDirectives includeDirectives = sourceIncludesParser.parseIncludes(file);
-                fileDetails = new FileDetails(new IncludeFileState(newHash, file), includeDirectives);
-                visitedFiles.put(file, fileDetails);
-            }
-
             CollectingMacroLookup includedFileDirectives = new CollectingMacroLookup();
             visibleMacros.append(file, fileDetails.directives);
 
@@ -166,6 +171,36 @@ public class IncrementalCompileFilesFactory {
             return visitResult;
         }
 
+        /**
+         * Parses each file at most once, including when the file is visited concurrently while processing several source files. Other threads that
+         * visit the file wait for the parsing thread rather than parsing the file again.
+         */
+        private FileDetails fileDetailsFor(final File file, final FileSnapshot fileSnapshot) {
+            FutureTask<FileDetails> fileDetails = visitedFiles.get(file);
+            if (fileDetails == null) {
+                FutureTask<FileDetails> newFileDetails = new FutureTask<FileDetails>(new Callable<FileDetails>() {
+                    @Override
+                    public FileDetails call() {
+                        HashCode newHash = fileSnapshot.getContent().getContentMd5();
+                        IncludeDirectives includeDirectives = sourceIncludesParser.parseIncludes(file);
+                        return new FileDetails(new IncludeFileState(newHash, file), includeDirectives);
+                    }
+                });
+                fileDetails = visitedFiles.putIfAbsent(file, newFileDetails);
+                if (fileDetails == null) {
+                    fileDetails = newFileDetails;
+                    fileDetails.run();
+                }
+            }
+            try {
+                return fileDetails.get();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            } catch (ExecutionException e) {
+                throw UncheckedException.throwAsUncheckedException(e.getCause());
+            }
+        }
+
         private List<File> getRemovedSources() {
             List<File> removed = new ArrayList<File>();
             for (File previousSource : previous.getSourceInputs()) {
@@ -191,7 +226,7 @@ public class IncrementalCompileFilesFactory {
         final IncludeDirectives directives;
         // Non-null when the result of visiting this file can be reused
         @Nullable
-        FileVisitResult results;
+        volatile FileVisitResult results;
 
         FileDetails(IncludeFileState state, IncludeDirectives directives) {
             this.state = state;
@@ -209,7 +244,6 @@ public class IncrementalCompileFilesFactory {
         private final IncludeDirectives includeDirectives;
         private final List<FileVisitResult> included;
         private final CollectingMacroLookup includeFileDirectives;
-        int traversalCount;
 
         FileVisitResult(File file, IncludeFileResolutionResult result, IncludeFileState fileState, IncludeDirectives includeDirectives, List<FileVisitResult> included, CollectingMacroLookup dependentIncludeDirectives) {
             this.file = file;
@@ -235,18 +269,17 @@ public class IncrementalCompileFilesFactory {
             }
         }
 
-        void collectFilesInto(int traversal, List<IncludeFileState> files) {
-            if (traversalCount == traversal) {
+        void collectFilesInto(Set<FileVisitResult> seen, List<IncludeFileState> files) {
+            if (!seen.add(this)) {
                 // Already seen during this traversal, skip
                 return;
             }
 
             // Collect files
-            traversalCount = traversal;
             if (fileState != null) {
                 files.add(fileState);
                 for (FileVisitResult include : included) {
-                    include.collectFilesInto(traversal, files);
+                    include.collectFilesInto(seen, files);
                 }
             }
         }
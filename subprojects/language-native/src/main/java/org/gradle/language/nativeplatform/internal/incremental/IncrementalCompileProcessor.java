@@ -15,16 +15,25 @@
  */
 package org.gradle.language.nativeplatform.internal.incremental;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import org.gradle.api.Action;
 import org.gradle.cache.PersistentStateCache;
 import org.gradle.internal.operations.BuildOperationContext;
 import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
 import org.gradle.internal.operations.CallableBuildOperation;
+import org.gradle.internal.operations.RunnableBuildOperation;
 import org.gradle.internal.progress.BuildOperationDescriptor;
 
 import java.io.File;
 import java.util.Collection;
+import java.util.List;
 
 public class IncrementalCompileProcessor {
+    // The number of source files processed by each build operation, large enough to keep the cost of the operation itself low
+    private static final int BATCH_SIZE = 100;
+
     private final PersistentStateCache<CompilationState> previousCompileStateCache;
     private final IncrementalCompileFilesFactory incrementalCompileFilesFactory;
     private final BuildOperationExecutor buildOperationExecutor;
@@ -40,10 +49,22 @@ public class IncrementalCompileProcessor {
             @Override
             public IncrementalCompilation call(BuildOperationContext context) {
                 CompilationState previousCompileState = previousCompileStateCache.get();
-                IncementalCompileSourceProcessor processor = incrementalCompileFilesFactory.filesFor(previousCompileState);
-                for (File sourceFile : sourceFiles) {
-                    processor.processSource(sourceFile);
+                final IncementalCompileSourceProcessor processor = incrementalCompileFilesFactory.filesFor(previousCompileState);
+                final List<List<File>> batches = Lists.partition(ImmutableList.copyOf(sourceFiles), BATCH_SIZE);
+                if (batches.size() <= 1) {
+                    for (File sourceFile : sourceFiles) {
+                        processor.processSource(sourceFile);
+                    }
+                    return processor.getResult();
                 }
+                buildOperationExecutor.runAll(new Action<BuildOperationQueue<RunnableBuildOperation>>() {
+                    @Override
+                    public void execute(BuildOperationQueue<RunnableBuildOperation> queue) {
+                        for (List<File> batch : batches) {
+                            queue.add(new ProcessSourceFilesBatch(processor, batch));
+                        }
+                    }
+                });
                 return processor.getResult();
             }
 
@@ -69,4 +90,25 @@ public class IncrementalCompileProcessor {
         });
     }
 
+    private static class ProcessSourceFilesBatch implements RunnableBuildOperation {
+        private final IncementalCompileSourceProcessor processor;
+        private final List<File> sourceFiles;
+
+        ProcessSourceFilesBatch(IncementalCompileSourceProcessor processor, List<File> sourceFiles) {
+            this.processor = processor;
+            this.sourceFiles = sourceFiles;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            for (File sourceFile : sourceFiles) {
+                processor.processSource(sourceFile);
+            }
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Processing " + sourceFiles.size() + " source files");
+        }
+    }
 }
@@ -20,9 +20,14 @@ import org.gradle.api.internal.TaskOutputsInternal;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.api.tasks.WorkResults;
 import org.gradle.cache.PersistentStateCache;
+import org.gradle.language.base.compile.CompilerVersion;
 import org.gradle.language.base.internal.compile.Compiler;
+import org.gradle.language.base.internal.compile.VersionAwareCompiler;
 import org.gradle.language.base.internal.tasks.SimpleStaleClassCleaner;
 import org.gradle.nativeplatform.toolchain.internal.NativeCompileSpec;
+import org.gradle.nativeplatform.toolchain.internal.ObjectFileCache;
+
+import javax.annotation.Nullable;
 
 @NonNullApi
 public class IncrementalNativeCompiler<T extends NativeCompileSpec> implements Compiler<T> {
@@ -30,17 +35,20 @@ public class IncrementalNativeCompiler<T extends NativeCompileSpec> implements C
     private final TaskOutputsInternal outputs;
     private final PersistentStateCache<CompilationState> compileStateCache;
     private final IncrementalCompilation incrementalCompilation;
+    private final ObjectFileCacheFactory objectFileCacheFactory;
 
-    public IncrementalNativeCompiler(TaskOutputsInternal outputs, Compiler<T> delegateCompiler, PersistentStateCache<CompilationState> compileStateCache, IncrementalCompilation incrementalCompilation) {
+    public IncrementalNativeCompiler(TaskOutputsInternal outputs, Compiler<T> delegateCompiler, PersistentStateCache<CompilationState> compileStateCache, IncrementalCompilation incrementalCompilation, ObjectFileCacheFactory objectFileCacheFactory) {
         this.outputs = outputs;
         this.delegateCompiler = delegateCompiler;
         this.compileStateCache = compileStateCache;
         this.incrementalCompilation = incrementalCompilation;
+        this.objectFileCacheFactory = objectFileCacheFactory;
     }
 
     @Override
     public WorkResult execute(final T spec) {
         spec.setSourceFileIncludeDirectives(incrementalCompilation.getSourceFileIncludeDirectives());
+        spec.setObjectFileCache(createObjectFileCache());
 
         WorkResult workResult;
         if (spec.isIncrementalCompile()) {
@@ -70,6 +78,16 @@ public class IncrementalNativeCompiler<T extends NativeCompileSpec> implements C
         return compileResult;
     }
 
+    @Nullable
+    private ObjectFileCache createObjectFileCache() {
+        // The cache key is made from the resolved includes, so cannot be calculated when some includes could not be resolved
+        if (!(delegateCompiler instanceof VersionAwareCompiler) || incrementalCompilation.isUnresolvedHeaders()) {
+            return null;
+        }
+        CompilerVersion compilerVersion = ((VersionAwareCompiler<?>) delegateCompiler).getVersion();
+        return objectFileCacheFactory.create(compilerVersion, incrementalCompilation.getFinalState());
+    }
+
     private boolean cleanPreviousOutputs(NativeCompileSpec spec) {
         SimpleStaleClassCleaner cleaner = new SimpleStaleClassCleaner(outputs);
         cleaner.setDestinationDir(spec.getObjectFileDir());
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.language.nativeplatform.internal.incremental;
+
+import org.gradle.language.base.compile.CompilerVersion;
+import org.gradle.nativeplatform.toolchain.internal.ObjectFileCache;
+
+import javax.annotation.Nullable;
+
+public interface ObjectFileCacheFactory {
+    /**
+     * Creates a cache for the object files of a compilation, or returns null when object files should not be cached.
+     *
+     * @param compilerVersion The compiler used for the compilation.
+     * @param compilationState The state of the source files and their resolved includes.
+     */
+    @Nullable
+    ObjectFileCache create(CompilerVersion compilerVersion, CompilationState compilationState);
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser;
+
+import java.nio.charset.Charset;
+
+/**
+ * Scans the raw bytes of a source file for lines that may contain a preprocessor directive. Applies the same filtering as {@link PreprocessingReader}, so that
+ * comments are replaced by a single space and line continuations are removed, but only decodes the lines whose first non-whitespace character is {@code #}.
+ * All other lines are skipped without being copied or converted to characters.
+ *
+ * <p>Can only be used for encodings where a byte in the ASCII range always represents the ASCII character, see {@link #canScan(Charset)}.</p>
+ */
+class PreprocessorDirectiveScanner {
+    private final byte[] input;
+    private final int end;
+    private final Charset charset;
+    private int pos;
+
+    /**
+     * Whether or not the scanner is currently in the middle of a string literal.
+     */
+    private boolean inString;
+
+    /**
+     * Whether or not the last char has been a backslash.
+     */
+    private boolean quoted;
+
+    /**
+     * The filtered bytes of the current line, only collected for lines that may contain a directive.
+     */
+    private byte[] line = new byte[128];
+    private int lineLength;
+
+    PreprocessorDirectiveScanner(byte[] input, Charset charset) {
+        this.input = input;
+        this.end = input.length;
+        this.charset = charset;
+    }
+
+    static boolean canScan(Charset charset) {
+        String name = charset.name();
+        return name.equals("UTF-8") || name.equals("US-ASCII") || name.startsWith("ISO-8859-") || name.startsWith("windows-125");
+    }
+
+    /**
+     * Collects the next line that may contain a directive into the given buffer. Does not include the line separators.
+     *
+     * @return true if a line is available, false when the end of the input has been reached.
+     */
+    public boolean readNextDirectiveLine(StringBuilder buffer) {
+        while (true) {
+            int result = scanLine();
+            if (result == NO_LINE) {
+                return false;
+            }
+            if (result == DIRECTIVE_LINE) {
+                buffer.append(new String(line, 0, lineLength, charset));
+                return true;
+            }
+        }
+    }
+
+    private static final int NO_LINE = 0;
+    private static final int OTHER_LINE = 1;
+    private static final int DIRECTIVE_LINE = 2;
+
+    /**
+     * Scans the next line of filtered input, collecting its content only if it may contain a directive.
+     */
+    private int scanLine() {
+        lineLength = 0;
+        // Until the first non-whitespace character has been seen, it is not known whether this line contains a directive
+        boolean leading = true;
+        boolean collect = true;
+        boolean read = false;
+        int ch;
+        while ((ch = read()) >= 0) {
+            if (ch == '\n') {
+                return lineType(leading, collect);
+            }
+            if (ch == '\r') {
+                int next = next();
+                if (next != '\n') {
+                    pushBack(next);
+                }
+                return lineType(leading, collect);
+            }
+            read = true;
+            if (leading && !isWhitespace(ch)) {
+                leading = false;
+                // Non-ASCII characters are decoded so the parser can decide
+                collect = ch == '#' || ch >= 0x80;
+            }
+            if (collect) {
+                append(ch);
+            }
+        }
+        return read ? lineType(leading, collect) : NO_LINE;
+    }
+
+    private static int lineType(boolean leading, boolean collect) {
+        return !leading && collect ? DIRECTIVE_LINE : OTHER_LINE;
+    }
+
+    /**
+     * Same as the whitespace handling in {@link RegexBackedCSourceParser}, for ASCII characters.
+     */
+    private static boolean isWhitespace(int ch) {
+        return ch < 0x80 && (Character.isWhitespace(ch) || ch == 0);
+    }
+
+    private void append(int ch) {
+        if (lineLength == line.length) {
+            byte[] newLine = new byte[line.length * 2];
+            System.arraycopy(line, 0, newLine, 0, lineLength);
+            line = newLine;
+        }
+        line[lineLength++] = (byte) ch;
+    }
+
+    /**
+     * Returns the next character in the filtered input, using the same rules as {@link PreprocessingReader}.
+     */
+    private int read() {
+        int ch = next();
+
+        if (ch == '\\') {
+            if (discardNewLine()) {
+                return read();
+            }
+        }
+
+        if (ch == '"' && !quoted) {
+            inString = !inString;
+            quoted = false;
+        } else if (ch == '\\') {
+            quoted = !quoted;
+        } else {
+            quoted = false;
+            if (!inString) {
+                if (ch == '/') {
+                    ch = next();
+                    if (ch == '/') {
+                        while (ch != '\n' && ch != -1 && ch != '\r') {
+                            ch = next();
+                        }
+                    } else if (ch == '*') {
+                        while (ch != -1) {
+                            ch = next();
+                            if (ch == '*') {
+                                ch = next();
+                                while (ch == '*') {
+                                    ch = next();
+                                }
+
+                                if (ch == '/') {
+                                    ch = ' ';
+                                    break;
+                                }
+                            }
+                        }
+                    } else {
+                        pushBack(ch);
+                        ch = '/';
+                    }
+                }
+            }
+        }
+
+        return ch;
+    }
+
+    private boolean discardNewLine() {
+        int nextChar = next();
+        if (nextChar == '\n') {
+            return true; // '\\\n' discarded from input
+        } else if (nextChar == '\r') {
+            int followingChar = next();
+            if (followingChar == '\n') {
+                return true; // '\\\r\n' discarded from input
+            }
+            pushBack(followingChar);
+            pushBack(nextChar);
+            return false;
+        } else {
+            pushBack(nextChar);
+            return false;
+        }
+    }
+
+    private int next() {
+        if (pos < end) {
+            return input[pos++] & 0xff;
+        }
+        return -1;
+    }
+
+    /**
+     * Pushes back the character most recently returned by {@link #next()}. Characters must be pushed back in reverse order.
+     */
+    private void pushBack(int ch) {
+        if (ch != -1) {
+            pos--;
+        }
+    }
+}
@@ -19,6 +19,7 @@ package org.gradle.language.nativeplatform.internal.incremental.sourceparser;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.google.common.io.Files;
 import org.apache.commons.io.IOUtils;
 import org.gradle.api.GradleException;
 import org.gradle.language.nativeplatform.internal.Expression;
@@ -34,6 +35,7 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.Reader;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -49,6 +51,10 @@ public class RegexBackedCSourceParser implements CSourceParser {
     @Override
     public IncludeDirectives parseSource(File sourceFile) {
         try {
+            Charset charset = Charset.defaultCharset();
+            if (PreprocessorDirectiveScanner.canScan(charset)) {
+                return parseSource(new PreprocessorDirectiveScanner(Files.toByteArray(sourceFile), charset));
+            }
             Reader fileReader = new FileReader(sourceFile);
             try {
                 return parseSource(fileReader);
@@ -72,22 +78,44 @@ public class RegexBackedCSourceParser implements CSourceParser {
             if (!lineReader.readNextLine(buffer.value)) {
                 break;
             }
-            buffer.consumeWhitespace();
-            if (!buffer.consume('#')) {
-                continue;
-            }
-            buffer.consumeWhitespace();
-            if (buffer.consume("define")) {
-                parseDefineDirectiveBody(buffer, macros, macroFunctions);
-            } else if (buffer.consume("include")) {
-                parseIncludeOrImportDirectiveBody(buffer, false, includes);
-            } else if (buffer.consume("import")) {
-                parseIncludeOrImportDirectiveBody(buffer, true, includes);
+            parseDirective(buffer, includes, macros, macroFunctions);
+        }
+        return new DefaultIncludeDirectives(ImmutableList.copyOf(includes), ImmutableList.copyOf(macros), ImmutableList.copyOf(macroFunctions));
+    }
+
+    private IncludeDirectives parseSource(PreprocessorDirectiveScanner scanner) {
+        Set<Include> includes = Sets.newLinkedHashSet();
+        List<Macro> macros = Lists.newArrayList();
+        List<MacroFunction> macroFunctions = Lists.newArrayList();
+        Buffer buffer = new Buffer();
+        while (true) {
+            buffer.reset();
+            if (!scanner.readNextDirectiveLine(buffer.value)) {
+                break;
             }
+            parseDirective(buffer, includes, macros, macroFunctions);
         }
         return new DefaultIncludeDirectives(ImmutableList.copyOf(includes), ImmutableList.copyOf(macros), ImmutableList.copyOf(macroFunctions));
     }
 
+    /**
+     * Parses a line of source, collecting the details of any directive it contains. Consumes all input.
+     */
+    private void parseDirective(Buffer buffer, Collection<Include> includes, Collection<Macro> macros, Collection<MacroFunction> macroFunctions) {
+        buffer.consumeWhitespace();
+        if (!buffer.consume('#')) {
+            return;
+        }
+        buffer.consumeWhitespace();
+        if (buffer.consume("define")) {
+            parseDefineDirectiveBody(buffer, macros, macroFunctions);
+        } else if (buffer.consume("include")) {
+            parseIncludeOrImportDirectiveBody(buffer, false, includes);
+        } else if (buffer.consume("import")) {
+            parseIncludeOrImportDirectiveBody(buffer, true, includes);
+        }
+    }
+
     /**
      * Parses an #include/#import directive body. Consumes all input.
      */
@@ -18,7 +18,17 @@ package org.gradle.language.nativeplatform.internal.incremental
 import com.google.common.collect.ImmutableList
 import org.gradle.api.internal.changedetection.state.TestFileSnapshotter
 import org.gradle.cache.PersistentStateCache
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.concurrent.ParallelismConfigurationManagerFixture
+import org.gradle.internal.operations.DefaultBuildOperationIdFactory
+import org.gradle.internal.operations.DefaultBuildOperationQueueFactory
 import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.internal.progress.BuildOperationListener
+import org.gradle.internal.progress.DefaultBuildOperationExecutor
+import org.gradle.internal.progress.NoOpProgressLoggerFactory
+import org.gradle.internal.resources.DefaultResourceLockCoordinationService
+import org.gradle.internal.time.Clock
+import org.gradle.internal.work.DefaultWorkerLeaseService
 import org.gradle.language.nativeplatform.internal.IncludeDirectives
 import org.gradle.language.nativeplatform.internal.IncludeType
 import org.gradle.language.nativeplatform.internal.incremental.sourceparser.DefaultIncludeDirectives
@@ -386,6 +396,46 @@ class IncrementalCompileProcessorTest extends Specification {
         result.unresolvedHeaders
     }
 
+    def "processes source files in batches and shares included files between them"() {
+        given:
+        def parallelismConfiguration = new ParallelismConfigurationManagerFixture(true, 4)
+        def workerLeaseService = new DefaultWorkerLeaseService(new DefaultResourceLockCoordinationService(), parallelismConfiguration)
+        def executorFactory = new DefaultExecutorFactory()
+        def buildOperationExecutor = new DefaultBuildOperationExecutor(
+            Mock(BuildOperationListener), Mock(Clock), new NoOpProgressLoggerFactory(),
+            new DefaultBuildOperationQueueFactory(workerLeaseService), executorFactory, new DefaultResourceLockCoordinationService(), parallelismConfiguration, new DefaultBuildOperationIdFactory())
+        def parallelProcessor = new IncrementalCompileProcessor(stateCache, new IncrementalCompileFilesFactory(includesParser, dependencyResolver, fileSystemSnapshotter), buildOperationExecutor)
+        def workerLease = workerLeaseService.getWorkerLease().start()
+
+        def sources = (1..250).collect { sourceFile("batch${it}") }
+        graph[dep1] = []
+        sources.each { source ->
+            graph[source] = [dep1]
+            parse(source)
+            resolve(source)
+        }
+
+        when:
+        def result = parallelProcessor.processSourceFiles(sources)
+
+        then:
+        // Give the other batches the chance to visit the header while it is being parsed
+        1 * includesParser.parseIncludes(dep1) >> {
+            Thread.sleep(100)
+            includes([])
+        }
+
+        and:
+        result.recompile == sources.sort(false)
+        result.finalState.sourceInputs == sources as Set
+        result.existingHeaders == [dep1] as Set
+
+        cleanup:
+        workerLease?.leaseFinish()
+        workerLeaseService?.stop()
+        executorFactory?.stop()
+    }
+
     def checkCompile(Map<String, List<File>> args) {
         parseAndResolve()
         with (state) {
@@ -20,8 +20,11 @@ import org.gradle.api.internal.TaskOutputsInternal
 import org.gradle.api.internal.file.TestFiles
 import org.gradle.api.tasks.WorkResults
 import org.gradle.cache.PersistentStateCache
+import org.gradle.language.base.compile.CompilerVersion
 import org.gradle.language.base.internal.compile.Compiler
+import org.gradle.language.base.internal.compile.VersionAwareCompiler
 import org.gradle.nativeplatform.toolchain.internal.NativeCompileSpec
+import org.gradle.nativeplatform.toolchain.internal.ObjectFileCache
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.gradle.util.UsesNativeServices
 import org.junit.Rule
@@ -36,7 +39,8 @@ class IncrementalNativeCompilerTest extends Specification {
     def compileStateCache = Mock(PersistentStateCache)
     def headerDependenciesCollector = new DefaultHeaderDependenciesCollector(TestFiles.directoryFileTreeFactory())
     def incrementalCompilation = Mock(IncrementalCompilation)
-    def compiler = new IncrementalNativeCompiler(outputs, delegateCompiler, compileStateCache, incrementalCompilation)
+    def objectFileCacheFactory = Mock(ObjectFileCacheFactory)
+    def compiler = new IncrementalNativeCompiler(outputs, delegateCompiler, compileStateCache, incrementalCompilation, objectFileCacheFactory)
 
     def "updates spec for incremental compilation"() {
         def spec = Mock(NativeCompileSpec)
@@ -86,4 +90,44 @@ class IncrementalNativeCompilerTest extends Specification {
         result.didWork
         outputFile.assertDoesNotExist()
     }
+
+    def "uses object file cache for compiler with known version"() {
+        def spec = Mock(NativeCompileSpec)
+        def compilerVersion = Stub(CompilerVersion)
+        def versionAwareCompiler = new VersionAwareCompiler(delegateCompiler, compilerVersion)
+        def compiler = new IncrementalNativeCompiler(outputs, versionAwareCompiler, compileStateCache, incrementalCompilation, objectFileCacheFactory)
+        def finalState = new CompilationState()
+        def objectFileCache = Stub(ObjectFileCache)
+
+        given:
+        spec.incrementalCompile >> true
+        incrementalCompilation.finalState >> finalState
+        incrementalCompilation.unresolvedHeaders >> false
+
+        when:
+        compiler.execute(spec)
+
+        then:
+        1 * objectFileCacheFactory.create(compilerVersion, finalState) >> objectFileCache
+        1 * spec.setObjectFileCache(objectFileCache)
+        1 * delegateCompiler.execute(spec)
+    }
+
+    def "does not use object file cache when some includes cannot be resolved"() {
+        def spec = Mock(NativeCompileSpec)
+        def compiler = new IncrementalNativeCompiler(outputs, new VersionAwareCompiler(delegateCompiler, Stub(CompilerVersion)), compileStateCache, incrementalCompilation, objectFileCacheFactory)
+
+        given:
+        spec.incrementalCompile >> true
+        incrementalCompilation.finalState >> new CompilationState()
+        incrementalCompilation.unresolvedHeaders >> true
+
+        when:
+        compiler.execute(spec)
+
+        then:
+        0 * objectFileCacheFactory._
+        1 * spec.setObjectFileCache(null)
+        1 * delegateCompiler.execute(spec)
+    }
 }
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.nio.charset.Charset
+
+class PreprocessorDirectiveScannerTest extends Specification {
+    private static final Charset UTF_8 = Charset.forName("UTF-8")
+
+    List<String> directiveLines(String input, Charset charset = UTF_8) {
+        def scanner = new PreprocessorDirectiveScanner(input.getBytes(charset), charset)
+        def result = []
+        def line = new StringBuilder()
+        while (scanner.readNextDirectiveLine(line)) {
+            result << line.toString()
+            line.setLength(0)
+        }
+        return result
+    }
+
+    def "reads from empty text"() {
+        expect:
+        directiveLines("") == []
+    }
+
+    @Unroll
+    def "collects only directive lines"() {
+        expect:
+        directiveLines("int a;\n#include <a.h>\n  # define X 1\n\nx # y\n\t#import \"b.h\"".replace('\n', eol)) == ["#include <a.h>", "  # define X 1", "\t#import \"b.h\""]
+
+        where:
+        eol << ['\n', '\r', '\r\n']
+    }
+
+    def "ignores directives inside comments"() {
+        expect:
+        directiveLines("""/*
+#include "a.h"
+*/
+#include "b/*.h"
+#include "c*/.h"
+// comment \\
+#include "d.h"
+#include "e.h" // comment
+""") == ['#include "b/*.h"', '#include "c*/.h"', '#include "d.h"', '#include "e.h" ']
+    }
+
+    def "applies comment and line continuation handling to directive lines"() {
+        expect:
+        directiveLines("/* lead */#/* a */define \\\nX /*\n */ 1") == [" # define X   1"]
+    }
+
+    def "decodes non-ASCII characters using the given charset"() {
+        expect:
+        directiveLines("#include \"\u00e9t\u00e9.h\"\n\u00e9\n", charset) == ["#include \"\u00e9t\u00e9.h\"", "\u00e9"]
+
+        where:
+        charset << [UTF_8, Charset.forName("ISO-8859-1")]
+    }
+
+    def "can scan ASCII compatible encodings only"() {
+        expect:
+        PreprocessorDirectiveScanner.canScan(Charset.forName(name)) == canScan
+
+        where:
+        name         | canScan
+        "UTF-8"      | true
+        "US-ASCII"   | true
+        "ISO-8859-1" | true
+        "UTF-16"     | false
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser
+
+import org.gradle.language.nativeplatform.internal.IncludeDirectives
+
+/**
+ * Runs the parser tests against the {@link java.io.Reader} based implementation, which is used when the source encoding cannot be scanned as bytes.
+ */
+class ReaderBackedCSourceParserTest extends RegexBackedCSourceParserTest {
+    @Override
+    IncludeDirectives getParsedSource() {
+        sourceFile.withReader { reader -> parser.parseSource(reader) }
+    }
+}
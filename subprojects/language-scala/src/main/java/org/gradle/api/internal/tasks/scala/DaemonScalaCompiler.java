@@ -73,7 +73,8 @@ public class DaemonScalaCompiler<T extends ScalaJavaJointCompileSpec> extends Ab
             .javaForkOptions(javaForkOptions)
             .classpath(zincClasspath)
             .sharedPackages(SHARED_PACKAGES)
-            .keepAliveMode(KeepAliveMode.SESSION)
+            // Keep the daemon alive between builds, so that the compilers and analysis it holds in memory can be reused
+            .keepAliveMode(KeepAliveMode.DAEMON)
             .build();
 
         return new InvocationContext(invocationWorkingDir, daemonForkOptions);
@@ -16,7 +16,11 @@
 
 package org.gradle.api.internal.tasks.scala;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.typesafe.zinc.Compiler;
 import com.typesafe.zinc.SbtJars;
 import com.typesafe.zinc.ScalaLocation;
@@ -29,6 +33,10 @@ import org.gradle.cache.PersistentCache;
 import org.gradle.cache.internal.CacheRepositoryServices;
 import org.gradle.internal.Factory;
 import org.gradle.internal.SystemProperties;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
 import org.gradle.internal.jvm.Jvm;
 import org.gradle.internal.nativeintegration.services.NativeServices;
 import org.gradle.internal.service.DefaultServiceRegistry;
@@ -42,13 +50,59 @@ import xsbti.compile.JavaCompiler;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
 
 public class ZincScalaCompilerFactory {
     private static final Logger LOGGER = Logging.getLogger(ZincScalaCompilerFactory.class);
 
-    static Compiler createParallelSafeCompiler(final Iterable<File> scalaClasspath, final Iterable<File> zincClasspath, final xsbti.Logger logger, File gradleUserHome) {
+    /**
+     * The compilers created by this daemon, keyed by the Scala and Zinc classpath. The compiler daemon is kept alive between builds, so these
+     * are reused by later builds. Compilers are discarded when the daemon runs low on memory.
+     */
+    private static final Cache<HashCode, Compiler> COMPILERS = CacheBuilder.newBuilder().maximumSize(20).softValues().build();
+
+    static Compiler createParallelSafeCompiler(final Iterable<File> scalaClasspath, final Iterable<File> zincClasspath, final xsbti.Logger logger, final File gradleUserHome) {
+        return getOrCreateCompiler(scalaClasspath, zincClasspath, new Callable<Compiler>() {
+            @Override
+            public Compiler call() {
+                return doCreateParallelSafeCompiler(scalaClasspath, zincClasspath, logger, gradleUserHome);
+            }
+        });
+    }
+
+    @VisibleForTesting
+    static Compiler getOrCreateCompiler(Iterable<File> scalaClasspath, Iterable<File> zincClasspath, Callable<Compiler> factory) {
+        try {
+            return COMPILERS.get(classpathHash(scalaClasspath, zincClasspath), factory);
+        } catch (ExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        } catch (UncheckedExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        }
+    }
+
+    private static HashCode classpathHash(Iterable<File> scalaClasspath, Iterable<File> zincClasspath) {
+        Hasher hasher = Hashing.md5().newHasher();
+        hashClasspath(hasher, scalaClasspath);
+        hashClasspath(hasher, zincClasspath);
+        return hasher.hash();
+    }
+
+    private static void hashClasspath(Hasher hasher, Iterable<File> classpath) {
+        int count = 0;
+        for (File file : classpath) {
+            hasher.putString(file.getAbsolutePath());
+            hasher.putLong(file.length());
+            hasher.putLong(file.lastModified());
+            count++;
+        }
+        hasher.putInt(count);
+    }
+
+    private static Compiler doCreateParallelSafeCompiler(final Iterable<File> scalaClasspath, final Iterable<File> zincClasspath, final xsbti.Logger logger, File gradleUserHome) {
         File zincCacheHomeDir = new File(System.getProperty(ZincScalaCompilerUtil.ZINC_CACHE_HOME_DIR_SYSTEM_PROPERTY, gradleUserHome.getAbsolutePath()));
         CacheRepository cacheRepository = ZincCompilerServices.getInstance(zincCacheHomeDir).get(CacheRepository.class);
 
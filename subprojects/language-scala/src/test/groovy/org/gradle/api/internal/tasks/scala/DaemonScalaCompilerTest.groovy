@@ -0,0 +1,74 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.scala
+package org.gradle.api.internal.tasks.scala
+
+import org.gradle.api.internal.file.FileResolver
+import org.gradle.api.tasks.compile.CompileOptions
+import org.gradle.language.base.internal.compile.Compiler
+import org.gradle.language.scala.tasks.BaseScalaCompileOptions
+import org.gradle.util.TestUtil
+import org.gradle.workers.internal.KeepAliveMode
+import org.gradle.workers.internal.WorkerDaemonFactory
+import spock.lang.Specification
+
+class DaemonScalaCompilerTest extends Specification {
+    def workingDir = new File("daemon-working-dir")
+    def delegate = Mock(Compiler)
+    def workerDaemonFactory = Mock(WorkerDaemonFactory)
+    def fileResolver = Mock(FileResolver)
+    def zincClasspath = [new File("zinc.jar"), new File("zinc-dep.jar")]
+    def compiler = new DaemonScalaCompiler<ScalaJavaJointCompileSpec>(workingDir, delegate, workerDaemonFactory, zincClasspath, fileResolver)
+    def spec = new DefaultScalaJavaJointCompileSpec()
+
+    def setup() {
+        _ * fileResolver.resolve(_) >> { Object path -> new File(path.toString()) }
+        spec.compileOptions = new CompileOptions(TestUtil.objectFactory())
+        spec.scalaCompileOptions = new BaseScalaCompileOptions()
+    }
+
+    def "keeps daemon alive between builds"() {
+        when:
+        def context = compiler.toInvocationContext(spec)
+
+        then:
+        context.daemonForkOptions.keepAliveMode == KeepAliveMode.DAEMON
+    }
+
+    def "passes Zinc classpath and shared packages to daemon options"() {
+        when:
+        def context = compiler.toInvocationContext(spec)
+
+        then:
+        context.daemonForkOptions.classpath == zincClasspath
+        context.daemonForkOptions.sharedPackages.contains("com.typesafe.zinc")
+        context.daemonForkOptions.javaForkOptions.workingDir == workingDir
+    }
+
+    def "merges Java and Scala fork settings into daemon options"() {
+        given:
+        spec.compileOptions.forkOptions.memoryMaximumSize = "256m"
+        spec.scalaCompileOptions.forkOptions.memoryMaximumSize = "512m"
+        spec.scalaCompileOptions.forkOptions.memoryInitialSize = "128m"
+
+        when:
+        def context = compiler.toInvocationContext(spec)
+
+        then:
+        context.daemonForkOptions.javaForkOptions.minHeapSize == "128m"
+        context.daemonForkOptions.javaForkOptions.maxHeapSize == "512m"
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.scala
+package org.gradle.api.internal.tasks.scala
+
+import com.typesafe.zinc.Compiler
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+
+class ZincScalaCompilerFactoryTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def scalaClasspath = [tmpDir.file("scala-library.jar").createFile(), tmpDir.file("scala-compiler.jar").createFile()]
+    def zincClasspath = [tmpDir.file("zinc.jar").createFile()]
+    def factory = Mock(Callable)
+
+    def "reuses compiler for the same Scala and Zinc classpath"() {
+        def compiler = Stub(Compiler)
+
+        when:
+        def first = ZincScalaCompilerFactory.getOrCreateCompiler(scalaClasspath, zincClasspath, factory)
+        def second = ZincScalaCompilerFactory.getOrCreateCompiler(scalaClasspath.collect { new File(it.path) }, zincClasspath.collect { new File(it.path) }, factory)
+
+        then:
+        1 * factory.call() >> compiler
+        0 * _
+
+        and:
+        first.is(compiler)
+        second.is(compiler)
+    }
+
+    def "creates new compiler for a different classpath"() {
+        def compiler1 = Stub(Compiler)
+        def compiler2 = Stub(Compiler)
+        def compiler3 = Stub(Compiler)
+
+        when:
+        def first = ZincScalaCompilerFactory.getOrCreateCompiler(scalaClasspath, zincClasspath, factory)
+        def differentZinc = ZincScalaCompilerFactory.getOrCreateCompiler(scalaClasspath, zincClasspath + [tmpDir.file("zinc-dep.jar").createFile()], factory)
+        def differentScala = ZincScalaCompilerFactory.getOrCreateCompiler(scalaClasspath.take(1), zincClasspath, factory)
+
+        then:
+        3 * factory.call() >>> [compiler1, compiler2, compiler3]
+        0 * _
+
+        and:
+        first.is(compiler1)
+        differentZinc.is(compiler2)
+        differentScala.is(compiler3)
+    }
+
+    def "creates new compiler when a classpath entry changes"() {
+        def compiler1 = Stub(Compiler)
+        def compiler2 = Stub(Compiler)
+
+        when:
+        def first = ZincScalaCompilerFactory.getOrCreateCompiler(scalaClasspath, zincClasspath, factory)
+        zincClasspath[0].text = "changed"
+        def second = ZincScalaCompilerFactory.getOrCreateCompiler(scalaClasspath, zincClasspath, factory)
+
+        then:
+        2 * factory.call() >>> [compiler1, compiler2]
+        0 * _
+
+        and:
+        first.is(compiler1)
+        second.is(compiler2)
+    }
+
+    def "propagates failure to create compiler and does not cache it"() {
+        def failure = new RuntimeException("broken")
+        def compiler = Stub(Compiler)
+
+        when:
+        ZincScalaCompilerFactory.getOrCreateCompiler(scalaClasspath, zincClasspath, factory)
+
+        then:
+        1 * factory.call() >> { throw failure }
+        def e = thrown(RuntimeException)
+        e.is(failure)
+
+        when:
+        def result = ZincScalaCompilerFactory.getOrCreateCompiler(scalaClasspath, zincClasspath, factory)
+
+        then:
+        1 * factory.call() >> compiler
+        result.is(compiler)
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.remote.internal.hub;
+
+import org.gradle.api.Action;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.remote.ConnectionAcceptor;
+import org.gradle.internal.remote.MessagingClient;
+import org.gradle.internal.remote.MessagingServer;
+import org.gradle.internal.remote.ObjectConnection;
+import org.gradle.internal.remote.internal.inet.UnixDomainSockets;
+import org.gradle.internal.remote.services.MessagingServices;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.DefaultSerializerRegistry;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.Serializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.Serializable;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of a stream of small messages, such as test output or log events, sent between two {@link MessageHub} backed connections over loopback,
+ * with registered serializers and with the Java serialization fallback for the message parameters. Also measures the round trip time of a single message
+ * and its reply, as for the requests made to daemons and workers. Compares the loopback TCP transport with Unix domain sockets, where the JVM supports them.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@State(Scope.Benchmark)
+public class MessageHubBenchmark {
+    private static final int MESSAGES_PER_INVOCATION = 1000;
+    private static final OutputMessage MESSAGE = new OutputMessage(123L, "Some output written by a test", false);
+
+    @Param({"registered", "java"})
+    String serialization;
+
+    @Param({"tcp", "unix"})
+    String transport;
+
+    private MessagingServices serverServices;
+    private MessagingServices clientServices;
+    private ConnectionAcceptor acceptor;
+    private ObjectConnection serverConnection;
+    private ObjectConnection clientConnection;
+    private CountingReceiver receiver;
+    private MessageReceiver sender;
+    private CountingReceiver replyReceiver;
+    private RequestReceiver requestSender;
+
+    @Setup(Level.Trial)
+    public void setup() throws InterruptedException {
+        if (transport.equals("unix") && !UnixDomainSockets.isSupported()) {
+            throw new IllegalStateException("Unix domain sockets are not supported by this JVM.");
+        }
+        System.setProperty(UnixDomainSockets.ENABLED_PROPERTY, String.valueOf(transport.equals("unix")));
+        serverServices = new MessagingServices();
+        clientServices = new MessagingServices();
+        final BlockingQueue<ObjectConnection> connections = new LinkedBlockingQueue<ObjectConnection>();
+        acceptor = serverServices.get(MessagingServer.class).accept(new Action<ObjectConnection>() {
+            @Override
+            public void execute(ObjectConnection connection) {
+                connections.add(connection);
+            }
+        });
+        clientConnection = clientServices.get(MessagingClient.class).getConnection(acceptor.getAddress());
+        serverConnection = connections.take();
+
+        receiver = new CountingReceiver();
+        serverConnection.addIncoming(MessageReceiver.class, receiver);
+        sender = clientConnection.addOutgoing(MessageReceiver.class);
+
+        serverConnection.addIncoming(RequestReceiver.class, new ReplyingReceiver(serverConnection.addOutgoing(ReplyReceiver.class)));
+        replyReceiver = new CountingReceiver();
+        clientConnection.addIncoming(ReplyReceiver.class, replyReceiver);
+        requestSender = clientConnection.addOutgoing(RequestReceiver.class);
+        if (serialization.equals("registered")) {
+            serverConnection.useParameterSerializers(registry());
+            clientConnection.useParameterSerializers(registry());
+        }
+        serverConnection.connect();
+        clientConnection.connect();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        CompositeStoppable.stoppable(clientConnection, serverConnection, acceptor, clientServices, serverServices).stop();
+        System.clearProperty(UnixDomainSockets.ENABLED_PROPERTY);
+    }
+
+    @Benchmark
+    public void sendMessages() throws InterruptedException {
+        CountDownLatch received = receiver.expect(MESSAGES_PER_INVOCATION);
+        for (int i = 0; i < MESSAGES_PER_INVOCATION; i++) {
+            sender.output(MESSAGE);
+        }
+        received.await();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void roundTrip() throws InterruptedException {
+        CountDownLatch replied = replyReceiver.expect(1);
+        requestSender.request(MESSAGE);
+        replied.await();
+    }
+
+    private static DefaultSerializerRegistry registry() {
+        DefaultSerializerRegistry registry = new DefaultSerializerRegistry(false);
+        registry.register(OutputMessage.class, new OutputMessageSerializer());
+        return registry;
+    }
+
+    public interface MessageReceiver {
+        void output(OutputMessage message);
+    }
+
+    public interface RequestReceiver {
+        void request(OutputMessage message);
+    }
+
+    public interface ReplyReceiver {
+        void reply(OutputMessage message);
+    }
+
+    private static class ReplyingReceiver implements RequestReceiver {
+        private final ReplyReceiver replies;
+
+        ReplyingReceiver(ReplyReceiver replies) {
+            this.replies = replies;
+        }
+
+        @Override
+        public void request(OutputMessage message) {
+            replies.reply(message);
+        }
+    }
+
+    private static class CountingReceiver implements MessageReceiver, ReplyReceiver {
+        private volatile CountDownLatch received;
+
+        CountDownLatch expect(int count) {
+            received = new CountDownLatch(count);
+            return received;
+        }
+
+        @Override
+        public void output(OutputMessage message) {
+            received.countDown();
+        }
+
+        @Override
+        public void reply(OutputMessage message) {
+            received.countDown();
+        }
+    }
+
+    public static class OutputMessage implements Serializable {
+        private final long testId;
+        private final String text;
+        private final boolean stdErr;
+
+        OutputMessage(long testId, String text, boolean stdErr) {
+            this.testId = testId;
+            this.text = text;
+            this.stdErr = stdErr;
+        }
+    }
+
+    private static class OutputMessageSerializer implements Serializer<OutputMessage> {
+        @Override
+        public OutputMessage read(Decoder decoder) throws Exception {
+            return new OutputMessage(decoder.readLong(), decoder.readString(), decoder.readBoolean());
+        }
+
+        @Override
+        public void write(Encoder encoder, OutputMessage value) throws Exception {
+            encoder.writeLong(value.testId);
+            encoder.writeString(value.text);
+            encoder.writeBoolean(value.stdErr);
+        }
+    }
+}
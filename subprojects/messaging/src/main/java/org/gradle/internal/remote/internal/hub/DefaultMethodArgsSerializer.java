@@ -21,6 +21,7 @@ import org.gradle.internal.serialize.Encoder;
 import org.gradle.internal.serialize.Serializer;
 import org.gradle.internal.serialize.SerializerRegistry;
 
+import java.util.ArrayList;
 import java.util.List;
 
 class DefaultMethodArgsSerializer implements MethodArgsSerializer {
@@ -38,45 +39,87 @@ class DefaultMethodArgsSerializer implements MethodArgsSerializer {
         if (types.length == 0) {
             return new EmptyArraySerializer();
         }
-        SerializerRegistry selected = null;
-        for (SerializerRegistry serializerRegistry : serializerRegistries) {
-            if (serializerRegistry.canSerialize(types[0])) {
-                selected = serializerRegistry;
-                break;
-            }
+        SerializerRegistry[] selected = new SerializerRegistry[types.length];
+        boolean hasRegisteredType = false;
+        for (int i = 0; i < types.length; i++) {
+            selected[i] = registryFor(types[i]);
+            hasRegisteredType |= selected[i] != null;
         }
-        if (selected == null) {
+        if (!hasRegisteredType) {
             return defaultArgsSerializer.forTypes(types);
         }
 
+        // Use the registered serializers where possible, and write the remaining args together using the default
         final Serializer<Object>[] serializers = new Serializer[types.length];
+        List<Class<?>> remainingTypes = new ArrayList<Class<?>>();
         for (int i = 0; i < types.length; i++) {
             Class<?> type = types[i];
-            serializers[i] = (Serializer<Object>) selected.build(type);
+            if (selected[i] != null) {
+                serializers[i] = (Serializer<Object>) selected[i].build(type);
+            } else {
+                remainingTypes.add(type);
+            }
         }
-        return new ArraySerializer(serializers);
+        Serializer<Object[]> remainingSerializer = remainingTypes.isEmpty() ? null : defaultArgsSerializer.forTypes(remainingTypes.toArray(new Class<?>[0]));
+        return new ArraySerializer(serializers, remainingTypes.size(), remainingSerializer);
+    }
+
+    private SerializerRegistry registryFor(Class<?> type) {
+        for (SerializerRegistry serializerRegistry : serializerRegistries) {
+            if (serializerRegistry.canSerialize(type)) {
+                return serializerRegistry;
+            }
+        }
+        return null;
     }
 
     private static class ArraySerializer implements Serializer<Object[]> {
         private final Serializer<Object>[] serializers;
+        private final int remainingCount;
+        private final Serializer<Object[]> remainingSerializer;
 
-        ArraySerializer(Serializer<Object>[] serializers) {
+        /**
+         * @param serializers The serializer for each arg, or null for the args that are written together by the remaining serializer.
+         */
+        ArraySerializer(Serializer<Object>[] serializers, int remainingCount, Serializer<Object[]> remainingSerializer) {
             this.serializers = serializers;
+            this.remainingCount = remainingCount;
+            this.remainingSerializer = remainingSerializer;
         }
 
         @Override
         public Object[] read(Decoder decoder) throws Exception {
             Object[] result = new Object[serializers.length];
             for (int i = 0; i < serializers.length; i++) {
-                result[i] = serializers[i].read(decoder);
+                if (serializers[i] != null) {
+                    result[i] = serializers[i].read(decoder);
+                }
+            }
+            if (remainingCount > 0) {
+                Object[] remaining = remainingSerializer.read(decoder);
+                int next = 0;
+                for (int i = 0; i < serializers.length; i++) {
+                    if (serializers[i] == null) {
+                        result[i] = remaining[next++];
+                    }
+                }
             }
             return result;
         }
 
         @Override
         public void write(Encoder encoder, Object[] value) throws Exception {
+            Object[] remaining = remainingCount > 0 ? new Object[remainingCount] : null;
+            int next = 0;
             for (int i = 0; i < value.length; i++) {
-                serializers[i].write(encoder, value[i]);
+                if (serializers[i] != null) {
+                    serializers[i].write(encoder, value[i]);
+                } else {
+                    remaining[next++] = value[i];
+                }
+            }
+            if (remaining != null) {
+                remainingSerializer.write(encoder, remaining);
             }
         }
     }
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote.internal.inet;
+
+import java.io.File;
+import java.net.InetAddress;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A {@link MultiChoiceAddress} that can also be reached over a Unix domain socket. Clients that support Unix domain sockets try the socket file first,
+ * and fall back to the TCP port and addresses.
+ */
+public class DomainSocketAddress extends MultiChoiceAddress {
+    private final File socketFile;
+
+    public DomainSocketAddress(UUID canonicalAddress, int port, List<InetAddress> candidates, File socketFile) {
+        super(canonicalAddress, port, candidates);
+        this.socketFile = socketFile;
+    }
+
+    public File getSocketFile() {
+        return socketFile;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "[" + getCanonicalAddress() + " socket:" + socketFile + ", port:" + getPort() + ", addresses:" + getCandidates() + "]";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return super.equals(o) && ((DomainSocketAddress) o).socketFile.equals(socketFile);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+
+    @Override
+    public MultiChoiceAddress addAddresses(Iterable<InetAddress> candidates) {
+        MultiChoiceAddress address = super.addAddresses(candidates);
+        return new DomainSocketAddress(address.getCanonicalAddress(), address.getPort(), address.getCandidates(), socketFile);
+    }
+}
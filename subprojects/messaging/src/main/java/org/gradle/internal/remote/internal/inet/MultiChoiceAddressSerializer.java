@@ -20,6 +20,7 @@ import org.gradle.internal.serialize.Decoder;
 import org.gradle.internal.serialize.Encoder;
 import org.gradle.internal.serialize.Serializer;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.util.ArrayList;
@@ -37,6 +38,10 @@ public class MultiChoiceAddressSerializer implements Serializer<MultiChoiceAddre
             InetAddress address = InetAddress.getByAddress(decoder.readBinary());
             addresses.add(address);
         }
+        if (decoder.readBoolean()) {
+            File socketFile = new File(decoder.readString());
+            return new DomainSocketAddress(canonicalAddress, port, addresses, socketFile);
+        }
         return new MultiChoiceAddress(canonicalAddress, port, addresses);
     }
 
@@ -50,5 +55,11 @@ public class MultiChoiceAddressSerializer implements Serializer<MultiChoiceAddre
         for (InetAddress inetAddress : address.getCandidates()) {
             encoder.writeBinary(inetAddress.getAddress());
         }
+        if (address instanceof DomainSocketAddress) {
+            encoder.writeBoolean(true);
+            encoder.writeString(((DomainSocketAddress) address).getSocketFile().getPath());
+        } else {
+            encoder.writeBoolean(false);
+        }
     }
 }
@@ -32,6 +32,9 @@ class SocketConnectCompletion implements ConnectCompletion {
 
     @Override
     public String toString() {
+        if (UnixDomainSockets.isUnixDomainSocket(socket)) {
+            return UnixDomainSockets.getDisplayName(socket);
+        }
         return socket.socket().getLocalSocketAddress() + " to " + socket.socket().getRemoteSocketAddress();
     }
 
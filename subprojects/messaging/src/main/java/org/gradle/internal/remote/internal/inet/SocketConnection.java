@@ -41,8 +41,8 @@ import java.nio.channels.SocketChannel;
 public class SocketConnection<T> implements RemoteConnection<T> {
     private static final Logger LOGGER = LoggerFactory.getLogger(SocketConnection.class);
     private final SocketChannel socket;
-    private final SocketInetAddress localAddress;
-    private final SocketInetAddress remoteAddress;
+    private final Object localAddress;
+    private final Object remoteAddress;
     private final ObjectWriter<T> objectWriter;
     private final ObjectReader<T> objectReader;
     private final InputStream instr;
@@ -55,15 +55,25 @@ public class SocketConnection<T> implements RemoteConnection<T> {
             // NOTE: we use non-blocking IO as there is no reliable way when using blocking IO to shutdown reads while
             // keeping writes active. For example, Socket.shutdownInput() does not work on Windows.
             socket.configureBlocking(false);
+            if (!UnixDomainSockets.isUnixDomainSocket(socket)) {
+                // NOTE: messages are buffered and explicitly flushed by this connection, so there is no benefit in also having the
+                // OS delay sending small packets. Doing so adds latency to request/response style traffic, such as daemon and worker requests.
+                socket.socket().setTcpNoDelay(true);
+            }
             outstr = new SocketOutputStream(socket);
             instr = new SocketInputStream(socket);
         } catch (IOException e) {
             throw UncheckedException.throwAsUncheckedException(e);
         }
-        InetSocketAddress localSocketAddress = (InetSocketAddress) socket.socket().getLocalSocketAddress();
-        localAddress = new SocketInetAddress(localSocketAddress.getAddress(), localSocketAddress.getPort());
-        InetSocketAddress remoteSocketAddress = (InetSocketAddress) socket.socket().getRemoteSocketAddress();
-        remoteAddress = new SocketInetAddress(remoteSocketAddress.getAddress(), remoteSocketAddress.getPort());
+        if (UnixDomainSockets.isUnixDomainSocket(socket)) {
+            localAddress = UnixDomainSockets.getDisplayName(socket);
+            remoteAddress = localAddress;
+        } else {
+            InetSocketAddress localSocketAddress = (InetSocketAddress) socket.socket().getLocalSocketAddress();
+            localAddress = new SocketInetAddress(localSocketAddress.getAddress(), localSocketAddress.getPort());
+            InetSocketAddress remoteSocketAddress = (InetSocketAddress) socket.socket().getRemoteSocketAddress();
+            remoteAddress = new SocketInetAddress(remoteSocketAddress.getAddress(), remoteSocketAddress.getPort());
+        }
         objectReader = messageSerializer.newReader(streamSerializer.newDecoder(instr));
         encoder = streamSerializer.newEncoder(outstr);
         objectWriter = messageSerializer.newWriter(encoder);
@@ -29,6 +29,8 @@ import org.gradle.internal.remote.internal.IncomingConnector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
+import java.io.File;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.nio.channels.ClosedChannelException;
@@ -37,6 +39,10 @@ import java.nio.channels.SocketChannel;
 import java.util.List;
 import java.util.UUID;
 
+/**
+ * Accepts connections on a loopback or remote TCP port. Where {@link UnixDomainSockets#isEnabled()}, also accepts connections on a Unix domain socket
+ * in the temporary directory, and advertises it with a {@link DomainSocketAddress} so that local clients can connect without going through the TCP stack.
+ */
 public class TcpIncomingConnector implements IncomingConnector {
     private static final Logger LOGGER = LoggerFactory.getLogger(TcpIncomingConnector.class);
     private final ExecutorFactory executorFactory;
@@ -62,11 +68,16 @@ public class TcpIncomingConnector implements IncomingConnector {
 
         UUID id = idGenerator.generateId();
         List<InetAddress> addresses = addressFactory.getCommunicationAddresses();
-        final Address address = new MultiChoiceAddress(id, localPort, addresses);
+        final File socketFile = new File(System.getProperty("java.io.tmpdir"), "gradle-" + id + ".sock");
+        final ServerSocketChannel domainServerSocket = bindDomainSocket(socketFile);
+        final Address address = domainServerSocket == null ? new MultiChoiceAddress(id, localPort, addresses) : new DomainSocketAddress(id, localPort, addresses, socketFile);
         LOGGER.debug("Listening on {}.", address);
 
         final ManagedExecutor executor = executorFactory.create("Incoming " + (allowRemote ? "remote" : "local")+ " TCP Connector on port " + localPort);
         executor.execute(new Receiver(serverSocket, action, allowRemote));
+        if (domainServerSocket != null) {
+            executor.execute(new Receiver(domainServerSocket, action, allowRemote));
+        }
 
         return new ConnectionAcceptor() {
             public Address getAddress() {
@@ -74,7 +85,10 @@ public class TcpIncomingConnector implements IncomingConnector {
             }
 
             public void requestStop() {
-                CompositeStoppable.stoppable(serverSocket).stop();
+                CompositeStoppable.stoppable(serverSocket, domainServerSocket).stop();
+                if (domainServerSocket != null) {
+                    socketFile.delete();
+                }
             }
 
             public void stop() {
@@ -84,6 +98,19 @@ public class TcpIncomingConnector implements IncomingConnector {
         };
     }
 
+    @Nullable
+    private static ServerSocketChannel bindDomainSocket(File socketFile) {
+        if (!UnixDomainSockets.isEnabled()) {
+            return null;
+        }
+        try {
+            return UnixDomainSockets.bind(socketFile);
+        } catch (Exception e) {
+            LOGGER.debug("Could not listen on Unix domain socket {}, using TCP only.", socketFile, e);
+            return null;
+        }
+    }
+
     private class Receiver implements Runnable {
         private final ServerSocketChannel serverSocket;
         private final Action<ConnectCompletion> action;
@@ -100,14 +127,19 @@ public class TcpIncomingConnector implements IncomingConnector {
                 try {
                     while (true) {
                         final SocketChannel socket = serverSocket.accept();
-                        InetSocketAddress remoteSocketAddress = (InetSocketAddress) socket.socket().getRemoteSocketAddress();
-                        InetAddress remoteInetAddress = remoteSocketAddress.getAddress();
-                        if (!allowRemote && !addressFactory.isCommunicationAddress(remoteInetAddress)) {
-                            LOGGER.error("Cannot accept connection from remote address {}.", remoteInetAddress);
-                            socket.close();
-                            continue;
+                        if (UnixDomainSockets.isUnixDomainSocket(socket)) {
+                            // Can only be connected to from this machine
+                            LOGGER.debug("Accepted connection on {}.", UnixDomainSockets.getDisplayName(socket));
+                        } else {
+                            InetSocketAddress remoteSocketAddress = (InetSocketAddress) socket.socket().getRemoteSocketAddress();
+                            InetAddress remoteInetAddress = remoteSocketAddress.getAddress();
+                            if (!allowRemote && !addressFactory.isCommunicationAddress(remoteInetAddress)) {
+                                LOGGER.error("Cannot accept connection from remote address {}.", remoteInetAddress);
+                                socket.close();
+                                continue;
+                            }
+                            LOGGER.debug("Accepted connection from {} to {}.", socket.socket().getRemoteSocketAddress(), socket.socket().getLocalSocketAddress());
                         }
-                        LOGGER.debug("Accepted connection from {} to {}.", socket.socket().getRemoteSocketAddress(), socket.socket().getLocalSocketAddress());
                         try {
                             action.execute(new SocketConnectCompletion(socket));
                         } catch (Throwable t) {
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote.internal.inet;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.os.OperatingSystem;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.SocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Opens Unix domain socket channels on Linux. The JDK supports these from Java 16, so they are accessed reflectively as this project compiles for older versions.
+ * When they are not available, connections use loopback TCP only.
+ *
+ * <p>Can be disabled by setting the {@value #ENABLED_PROPERTY} system property to {@code false}.</p>
+ */
+public class UnixDomainSockets {
+    public static final String ENABLED_PROPERTY = "org.gradle.internal.remote.unixDomainSockets";
+
+    private static final Object UNIX_PROTOCOL_FAMILY;
+    private static final Method ADDRESS_OF;
+    private static final Method OPEN_SERVER;
+    private static final Method OPEN_CLIENT;
+    private static final Method BIND;
+    private static final Method GET_LOCAL_ADDRESS;
+    private static final Method GET_REMOTE_ADDRESS;
+
+    static {
+        Object unixProtocolFamily = null;
+        Method addressOf = null;
+        Method openServer = null;
+        Method openClient = null;
+        Method bind = null;
+        Method getLocalAddress = null;
+        Method getRemoteAddress = null;
+        try {
+            Class<?> protocolFamilyType = Class.forName("java.net.ProtocolFamily");
+            unixProtocolFamily = Class.forName("java.net.StandardProtocolFamily").getField("UNIX").get(null);
+            addressOf = Class.forName("java.net.UnixDomainSocketAddress").getMethod("of", String.class);
+            openServer = ServerSocketChannel.class.getMethod("open", protocolFamilyType);
+            openClient = SocketChannel.class.getMethod("open", protocolFamilyType);
+            bind = ServerSocketChannel.class.getMethod("bind", SocketAddress.class);
+            getLocalAddress = SocketChannel.class.getMethod("getLocalAddress");
+            getRemoteAddress = SocketChannel.class.getMethod("getRemoteAddress");
+        } catch (Exception e) {
+            // Not supported by this JVM
+            unixProtocolFamily = null;
+        }
+        UNIX_PROTOCOL_FAMILY = unixProtocolFamily;
+        ADDRESS_OF = addressOf;
+        OPEN_SERVER = openServer;
+        OPEN_CLIENT = openClient;
+        BIND = bind;
+        GET_LOCAL_ADDRESS = getLocalAddress;
+        GET_REMOTE_ADDRESS = getRemoteAddress;
+    }
+
+    private UnixDomainSockets() {
+    }
+
+    /**
+     * Returns true when this JVM and operating system can use Unix domain sockets.
+     */
+    public static boolean isSupported() {
+        return UNIX_PROTOCOL_FAMILY != null && OperatingSystem.current().isLinux();
+    }
+
+    /**
+     * Returns true when Unix domain sockets should be used for new connections.
+     */
+    public static boolean isEnabled() {
+        return isSupported() && !"false".equals(System.getProperty(ENABLED_PROPERTY));
+    }
+
+    static ServerSocketChannel bind(File socketFile) throws IOException {
+        ServerSocketChannel channel = (ServerSocketChannel) invoke(OPEN_SERVER, null, UNIX_PROTOCOL_FAMILY);
+        try {
+            invoke(BIND, channel, invoke(ADDRESS_OF, null, socketFile.getAbsolutePath()));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return channel;
+    }
+
+    static SocketChannel connect(File socketFile) throws IOException {
+        SocketChannel channel = (SocketChannel) invoke(OPEN_CLIENT, null, UNIX_PROTOCOL_FAMILY);
+        try {
+            channel.connect((SocketAddress) invoke(ADDRESS_OF, null, socketFile.getAbsolutePath()));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return channel;
+    }
+
+    /**
+     * Returns true when the given channel is connected over a Unix domain socket. Such channels do not have a {@link java.net.Socket} adapter.
+     */
+    static boolean isUnixDomainSocket(SocketChannel channel) {
+        try {
+            channel.socket();
+            return false;
+        } catch (UnsupportedOperationException e) {
+            return true;
+        }
+    }
+
+    static String getDisplayName(SocketChannel channel) {
+        try {
+            // The client end of a connection is unnamed, so use the server's path instead
+            Object address = invoke(GET_LOCAL_ADDRESS, channel);
+            if (address.toString().length() == 0) {
+                address = invoke(GET_REMOTE_ADDRESS, channel);
+            }
+            return "unix domain socket " + address;
+        } catch (IOException e) {
+            return "unix domain socket";
+        }
+    }
+
+    private static Object invoke(Method method, Object target, Object... args) throws IOException {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        } catch (IllegalAccessException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+}
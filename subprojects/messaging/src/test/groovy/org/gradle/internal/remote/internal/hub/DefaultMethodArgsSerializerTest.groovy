@@ -52,4 +52,36 @@ class DefaultMethodArgsSerializerTest extends SerializerSpec {
         expect:
         this.serializer.forTypes([String, Long, String] as Class[]) == serializer
     }
+
+    def "uses the default serializer only for args that no serializer registry knows about"() {
+        given:
+        registry1.register(String, BaseSerializerFactory.STRING_SERIALIZER)
+        def serializer = new DefaultMethodArgsSerializer([registry1, registry2], new JavaSerializationBackedMethodArgsSerializer(getClass().classLoader))
+
+        expect:
+        def arraySerializer = serializer.forTypes([Long, String, List] as Class[])
+        serialize([12L, "a", ["b", "c"]] as Object[], arraySerializer) == [12L, "a", ["b", "c"]] as Object[]
+    }
+
+    def "writes the args that no serializer registry knows about together using the default serializer"() {
+        given:
+        registry1.register(String, BaseSerializerFactory.STRING_SERIALIZER)
+        def javaSerializer = new JavaSerializationBackedMethodArgsSerializer(getClass().classLoader)
+        def list = ["b", "c"]
+
+        when:
+        def arraySerializer = serializer.forTypes([Long, String, List, Object] as Class[])
+
+        then:
+        1 * defaultArgsBuilder.forTypes([Long, List, Object] as Class[]) >> javaSerializer.forTypes([Long, List, Object] as Class[])
+        0 * defaultArgsBuilder._
+
+        when:
+        def result = serialize([12L, "a", list, list] as Object[], arraySerializer)
+
+        then:
+        result == [12L, "a", list, list] as Object[]
+        // Written to the same stream, so references between args are preserved
+        result[2].is(result[3])
+    }
 }
@@ -24,4 +24,16 @@ class MultiChoiceAddressSerializerTest extends SerializerSpec {
         expect:
         serialize(address, new MultiChoiceAddressSerializer()) == address
     }
+
+    def "serializes a unix domain socket address"() {
+        def address = new DomainSocketAddress(UUID.randomUUID(), 1234, [InetAddress.getByName(null)], new File("/tmp/gradle.sock"))
+
+        when:
+        def result = serialize(address, new MultiChoiceAddressSerializer())
+
+        then:
+        result instanceof DomainSocketAddress
+        result == address
+        result.socketFile == address.socketFile
+    }
 }
@@ -28,6 +28,7 @@ import org.gradle.internal.serialize.Serializers
 import org.gradle.test.fixtures.concurrent.ConcurrentSpec
 import org.gradle.util.ports.ReleasingPortAllocator
 import org.junit.Rule
+import spock.lang.IgnoreIf
 import spock.lang.Issue
 import spock.lang.Shared
 import spock.lang.Timeout
@@ -75,6 +76,44 @@ class TcpConnectorTest extends ConcurrentSpec {
         connection?.stop()
     }
 
+    @IgnoreIf({ !UnixDomainSockets.isSupported() })
+    def "client connects to server over unix domain socket when supported"() {
+        Action action = Mock()
+
+        when:
+        def acceptor = incomingConnector.accept(action, false)
+        def completion = outgoingConnector.connect(acceptor.address)
+        def connection = completion.create(serializer)
+
+        then:
+        acceptor.address instanceof DomainSocketAddress
+        ((DomainSocketAddress) acceptor.address).socketFile.exists()
+        completion.toString().startsWith("unix domain socket")
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+    }
+
+    @IgnoreIf({ !UnixDomainSockets.isSupported() })
+    def "client falls back to TCP when unix domain socket is not available"() {
+        Action action = Mock()
+
+        when:
+        def acceptor = incomingConnector.accept(action, false)
+        def socketFile = ((DomainSocketAddress) acceptor.address).socketFile
+        socketFile.delete()
+        def completion = outgoingConnector.connect(acceptor.address)
+        def connection = completion.create(serializer)
+
+        then:
+        !completion.toString().startsWith("unix domain socket")
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+    }
+
     def "server executes action when incoming connection received"() {
         Action action = Mock()
 
@@ -280,6 +319,24 @@ class TcpConnectorTest extends ConcurrentSpec {
         acceptor?.stop()
     }
 
+    def "disables delayed sending of small packets for connection"() {
+        given:
+        def action = Mock(Action)
+        def acceptor = incomingConnector.accept(action, false)
+        def communicationAddress = addressFactory.getCommunicationAddresses().find { it instanceof Inet6Address }
+        def socketChannel = SocketChannel.open(new InetSocketAddress(communicationAddress, acceptor.address.port))
+
+        when:
+        def connection = new SocketConnectCompletion(socketChannel).create(serializer)
+
+        then:
+        socketChannel.socket().tcpNoDelay
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+    }
+
     @Issue("GRADLE-2316")
     def "detects self connect when outgoing connection binds to same port"() {
         given:
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.nativeplatform.toolchain.internal;
+
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.operations.logging.BuildOperationLogger;
+import org.gradle.internal.progress.BuildOperationDescriptor;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An invocation that compiles a single translation unit, whose object file can be loaded from and stored in an {@link ObjectFileCache}.
+ */
+class CacheableCompileInvocation implements CommandLineToolInvocation {
+    private final CommandLineToolInvocation delegate;
+    private final ObjectFileCache cache;
+    private final HashCode cacheKey;
+    private final File objectFile;
+
+    CacheableCompileInvocation(CommandLineToolInvocation delegate, ObjectFileCache cache, HashCode cacheKey, File objectFile) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.cacheKey = cacheKey;
+        this.objectFile = objectFile;
+    }
+
+    /**
+     * Restores the object file from the cache.
+     *
+     * @return true if restored, false if the object file must be compiled.
+     */
+    boolean loadFromCache() {
+        return cache.load(cacheKey, objectFile);
+    }
+
+    void storeInCache() {
+        cache.store(cacheKey, objectFile);
+    }
+
+    @Override
+    public List<File> getPath() {
+        return delegate.getPath();
+    }
+
+    @Override
+    public Map<String, String> getEnvironment() {
+        return delegate.getEnvironment();
+    }
+
+    @Override
+    public File getWorkDirectory() {
+        return delegate.getWorkDirectory();
+    }
+
+    @Override
+    public Iterable<String> getArgs() {
+        return delegate.getArgs();
+    }
+
+    @Override
+    public BuildOperationLogger getLogger() {
+        return delegate.getLogger();
+    }
+
+    @Override
+    public BuildOperationDescriptor.Builder description() {
+        return delegate.description();
+    }
+}
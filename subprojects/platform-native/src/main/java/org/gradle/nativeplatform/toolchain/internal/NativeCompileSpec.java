@@ -19,6 +19,7 @@ package org.gradle.nativeplatform.toolchain.internal;
 import org.gradle.language.nativeplatform.internal.IncludeDirectives;
 import org.gradle.nativeplatform.internal.BinaryToolSpec;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.util.Collection;
 import java.util.List;
@@ -89,4 +90,12 @@ public interface NativeCompileSpec extends BinaryToolSpec {
     Map<File, IncludeDirectives> getSourceFileIncludeDirectives();
 
     void setSourceFileIncludeDirectives(Map<File, IncludeDirectives> map);
+
+    /**
+     * The cache to load object files from and store them in, or null when object files should not be cached.
+     */
+    @Nullable
+    ObjectFileCache getObjectFileCache();
+
+    void setObjectFileCache(@Nullable ObjectFileCache objectFileCache);
 }
@@ -27,6 +27,7 @@ import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.api.tasks.WorkResults;
 import org.gradle.internal.FileUtils;
+import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.operations.BuildOperationQueue;
 import org.gradle.internal.os.OperatingSystem;
@@ -48,7 +49,7 @@ public abstract class NativeCompiler<T extends NativeCompileSpec> extends Abstra
     private final CompilerOutputFileNamingSchemeFactory compilerOutputFileNamingSchemeFactory;
 
     public NativeCompiler(BuildOperationExecutor buildOperationExecutor, CompilerOutputFileNamingSchemeFactory compilerOutputFileNamingSchemeFactory, CommandLineToolInvocationWorker commandLineToolInvocationWorker, CommandLineToolContext invocationContext, ArgsTransformer<T> argsTransformer, Transformer<T, T> specTransformer, String objectFileExtension, boolean useCommandFile, WorkerLeaseService workerLeaseService) {
-        super(buildOperationExecutor, commandLineToolInvocationWorker, invocationContext, argsTransformer, useCommandFile, workerLeaseService);
+        super(buildOperationExecutor, new ObjectFileCachingInvocationWorker(commandLineToolInvocationWorker), invocationContext, argsTransformer, useCommandFile, workerLeaseService);
         this.compilerOutputFileNamingSchemeFactory = compilerOutputFileNamingSchemeFactory;
         this.objectFileExtension = objectFileExtension;
         this.specTransformer = specTransformer;
@@ -139,10 +140,27 @@ public abstract class NativeCompiler<T extends NativeCompileSpec> extends Abstra
 
     protected CommandLineToolInvocation createPerFileInvocation(List<String> genericArgs, File sourceFile, File objectDir, T spec) {
         List<String> sourceArgs = getSourceArgs(sourceFile);
-        List<String> outputArgs = getOutputArgs(spec, getOutputFileDir(sourceFile, objectDir, objectFileExtension));
+        File objectFile = getOutputFileDir(sourceFile, objectDir, objectFileExtension);
+        List<String> outputArgs = getOutputArgs(spec, objectFile);
         List<String> pchArgs = maybeGetPCHArgs(spec, sourceFile);
 
-        return newInvocation("compiling ".concat(sourceFile.getName()), objectDir, buildPerFileArgs(genericArgs, sourceArgs, outputArgs, pchArgs), spec.getOperationLogger());
+        CommandLineToolInvocation invocation = newInvocation("compiling ".concat(sourceFile.getName()), objectDir, buildPerFileArgs(genericArgs, sourceArgs, outputArgs, pchArgs), spec.getOperationLogger());
+        ObjectFileCache objectFileCache = spec.getObjectFileCache();
+        // The pre-compiled header is built by a separate task, so it is not part of the cache key
+        if (objectFileCache != null && pchArgs.isEmpty() && canCacheObjectFiles()) {
+            HashCode cacheKey = objectFileCache.getCacheKey(sourceFile, Iterables.concat(genericArgs, sourceArgs));
+            if (cacheKey != null) {
+                return new CacheableCompileInvocation(invocation, objectFileCache, cacheKey, objectFile);
+            }
+        }
+        return invocation;
+    }
+
+    /**
+     * Can the output of this compiler be stored in an {@link ObjectFileCache}? Only compilers that produce a single output file for each source file can be cached.
+     */
+    protected boolean canCacheObjectFiles() {
+        return false;
     }
 
     protected Iterable<String> buildPerFileArgs(List<String> genericArgs, List<String> sourceArgs, List<String> outputArgs, List<String> pchArgs) {
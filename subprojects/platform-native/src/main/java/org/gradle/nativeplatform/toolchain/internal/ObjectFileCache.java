@@ -0,0 +1,48 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.nativeplatform.toolchain.internal;
+
+import org.gradle.internal.hash.HashCode;
+
+import javax.annotation.Nullable;
+import java.io.File;
+
+/**
+ * A cache of the object files produced by compiling individual translation units.
+ */
+public interface ObjectFileCache {
+    /**
+     * Calculates the cache key for compiling the given source file with the given arguments. The arguments should not include those that specify the location of the output file.
+     *
+     * @return the key, or null when the output of the compilation cannot be cached.
+     */
+    @Nullable
+    HashCode getCacheKey(File sourceFile, Iterable<String> args);
+
+    /**
+     * Copies the object file with the given key from the cache to the given location.
+     *
+     * @return true if the object file was found in the cache, false if not.
+     */
+    boolean load(HashCode key, File objectFile);
+
+    /**
+     * Copies the given object file into the cache.
+     */
+    void store(HashCode key, File objectFile);
+}
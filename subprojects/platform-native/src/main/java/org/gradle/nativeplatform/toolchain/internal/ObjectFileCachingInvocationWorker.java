@@ -0,0 +1,56 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.nativeplatform.toolchain.internal;
+
+import org.gradle.internal.operations.BuildOperationContext;
+
+/**
+ * Skips compiling a translation unit when its object file can be restored from the cache, and stores the object file in the cache after it has been compiled.
+ */
+class ObjectFileCachingInvocationWorker implements CommandLineToolInvocationWorker {
+    private final CommandLineToolInvocationWorker delegate;
+
+    ObjectFileCachingInvocationWorker(CommandLineToolInvocationWorker delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return delegate.getDisplayName();
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+
+    @Override
+    public void execute(CommandLineToolInvocation invocation, BuildOperationContext context) {
+        if (!(invocation instanceof CacheableCompileInvocation)) {
+            delegate.execute(invocation, context);
+            return;
+        }
+        CacheableCompileInvocation cacheableInvocation = (CacheableCompileInvocation) invocation;
+        if (cacheableInvocation.loadFromCache()) {
+            invocation.getLogger().operationSuccess(invocation.description().build().getDisplayName(), "Object file loaded from cache.");
+            return;
+        }
+        delegate.execute(invocation, context);
+        cacheableInvocation.storeInCache();
+    }
+}
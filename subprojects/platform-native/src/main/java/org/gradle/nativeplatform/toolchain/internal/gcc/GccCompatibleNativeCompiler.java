@@ -43,6 +43,11 @@ class GccCompatibleNativeCompiler<T extends NativeCompileSpec> extends NativeCom
         return Arrays.asList("-o", outputFile.getAbsolutePath());
     }
 
+    @Override
+    protected boolean canCacheObjectFiles() {
+        return true;
+    }
+
     @Override
     protected void addOptionsFileArgs(List<String> args, File tempDir) {
         OptionsFileArgsWriter writer = new GccOptionsFileArgsWriter(tempDir);
@@ -163,6 +163,7 @@ abstract class NativeCompilerTest extends Specification {
             getPreCompiledHeader() >> null
             getPrefixHeaderFile() >> null
             getPreCompiledHeaderObjectFile() >> null
+            getObjectFileCache() >> null
         }
 
         and:
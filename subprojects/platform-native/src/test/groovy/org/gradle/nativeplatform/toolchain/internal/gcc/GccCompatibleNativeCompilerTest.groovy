@@ -16,8 +16,12 @@
 
 package org.gradle.nativeplatform.toolchain.internal.gcc
 
+import org.gradle.internal.concurrent.GradleThread
+import org.gradle.internal.hash.HashCode
+import org.gradle.internal.operations.logging.BuildOperationLogger
 import org.gradle.nativeplatform.toolchain.internal.NativeCompileSpec
 import org.gradle.nativeplatform.toolchain.internal.NativeCompilerTest
+import org.gradle.nativeplatform.toolchain.internal.ObjectFileCache
 
 abstract class GccCompatibleNativeCompilerTest extends NativeCompilerTest {
     @Override
@@ -38,4 +42,41 @@ abstract class GccCompatibleNativeCompilerTest extends NativeCompilerTest {
         args == [ '-o', outputFile.absoluteFile.toString() ]
     }
 
+    def "does not compile source files whose object file is loaded from cache"() {
+        given:
+        GradleThread.setManaged()
+
+        def compiler = getCompiler()
+        def testDir = tmpDirProvider.testDirectory
+        def sourceFiles = [ testDir.file("source1.ext"), testDir.file("source2.ext") ]
+        def objectFileCache = Mock(ObjectFileCache)
+        def key1 = HashCode.fromInt(1)
+        def key2 = HashCode.fromInt(2)
+
+        when:
+        def compileSpec = Stub(getCompileSpecType()) {
+            getTempDir() >> testDir
+            getObjectFileDir() >> testDir.file("output/objects")
+            getSourceFiles() >> sourceFiles
+            getOperationLogger() >> Mock(BuildOperationLogger)
+            getPreCompiledHeader() >> null
+            getPrefixHeaderFile() >> null
+            getPreCompiledHeaderObjectFile() >> null
+            getObjectFileCache() >> objectFileCache
+        }
+
+        and:
+        compiler.execute(compileSpec)
+
+        then:
+        1 * objectFileCache.getCacheKey(sourceFiles[0], _) >> key1
+        1 * objectFileCache.getCacheKey(sourceFiles[1], _) >> key2
+        1 * objectFileCache.load(key1, _) >> true
+        1 * objectFileCache.load(key2, _) >> false
+        1 * commandLineTool.execute(_, _)
+        1 * objectFileCache.store(key2, _)
+
+        cleanup:
+        GradleThread.setUnmanaged()
+    }
 }
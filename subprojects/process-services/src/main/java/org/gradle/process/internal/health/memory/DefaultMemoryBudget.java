@@ -0,0 +1,217 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal.health.memory;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A memory budget whose size is read from the {@value #MEMORY_BUDGET_PROPERTY} system property, for example {@code 48g}. The budget is unlimited when the property is not set.
+ *
+ * A reservation that is larger than the whole budget is reduced to the size of the budget, so that it can still proceed once it is the only one.
+ * When no memory has been returned to the budget for some time, a waiting reservation proceeds over budget rather than waiting forever,
+ * for example when all of the budget is held by processes that are only stopped after the waiting process has run. This time is read from the
+ * {@value #STALL_TIMEOUT_PROPERTY} system property in milliseconds, and defaults to 30 seconds. A value of 0 disables the timeout, so that a reservation
+ * waits until enough memory has been returned. A warning is logged whenever a process is started over budget.
+ */
+public class DefaultMemoryBudget implements MemoryBudget {
+    public static final String MEMORY_BUDGET_PROPERTY = "org.gradle.workers.memoryBudget";
+    public static final String STALL_TIMEOUT_PROPERTY = "org.gradle.workers.memoryBudget.stallTimeout";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MemoryBudget.class);
+    private static final long DEFAULT_STALL_TIMEOUT_MILLIS = 30000;
+    private static final long POLL_INTERVAL_MILLIS = 1000;
+
+    private final Long fixedBudgetBytes;
+    private final Long fixedStallTimeoutMillis;
+    private final Object lock = new Object();
+    private final Object holdersLock = new Object();
+    private final List<MemoryHolder> holders = new ArrayList<MemoryHolder>();
+    private long reservedBytes;
+    private long lastReleaseTime;
+    private int waitCount;
+    private long waitTimeMillis;
+
+    public DefaultMemoryBudget() {
+        this(null, null);
+    }
+
+    @VisibleForTesting
+    DefaultMemoryBudget(Long fixedBudgetBytes, Long fixedStallTimeoutMillis) {
+        this.fixedBudgetBytes = fixedBudgetBytes;
+        this.fixedStallTimeoutMillis = fixedStallTimeoutMillis;
+    }
+
+    @Override
+    public MemoryReservation reserve(String displayName, long memoryAmountBytes) {
+        long budgetBytes = getBudgetBytes();
+        if (budgetBytes <= 0 || memoryAmountBytes <= 0) {
+            return new DefaultMemoryReservation(0);
+        }
+
+        long amount = Math.min(memoryAmountBytes, budgetBytes);
+        long stallTimeoutMillis = getStallTimeoutMillis();
+        long startTime = System.currentTimeMillis();
+        boolean waited = false;
+        while (true) {
+            long shortfall;
+            synchronized (lock) {
+                if (reservedBytes + amount <= budgetBytes) {
+                    reservedBytes += amount;
+                    break;
+                }
+                shortfall = reservedBytes + amount - budgetBytes;
+            }
+
+            if (!waited) {
+                LOGGER.info("Memory budget of {}MB exhausted, waiting for {}MB to become available to start {}", budgetBytes / 1024 / 1024, shortfall / 1024 / 1024, displayName);
+                waited = true;
+            }
+            // Ask the holders outside of the lock, as releasing memory means stopping processes, which in turn release their reservations
+            attemptToRelease(shortfall);
+
+            synchronized (lock) {
+                if (reservedBytes + amount <= budgetBytes) {
+                    reservedBytes += amount;
+                    break;
+                }
+                long now = System.currentTimeMillis();
+                long lastProgress = Math.max(startTime, lastReleaseTime);
+                if (stallTimeoutMillis > 0 && now - lastProgress >= stallTimeoutMillis) {
+                    LOGGER.warn("No memory was returned to the worker memory budget of {}MB for {}ms, starting {} over budget. Set the {} system property to change how long to wait, or to 0 to wait until memory is returned.",
+                        budgetBytes / 1024 / 1024, now - lastProgress, displayName, STALL_TIMEOUT_PROPERTY);
+                    reservedBytes += amount;
+                    break;
+                }
+                try {
+                    lock.wait(POLL_INTERVAL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    reservedBytes += amount;
+                    break;
+                }
+            }
+        }
+
+        if (waited) {
+            long duration = System.currentTimeMillis() - startTime;
+            synchronized (lock) {
+                waitCount++;
+                waitTimeMillis += duration;
+            }
+            LOGGER.info("Waited {}ms for memory budget to start {}", duration, displayName);
+        }
+        return new DefaultMemoryReservation(amount);
+    }
+
+    private void attemptToRelease(long memoryAmountBytes) {
+        List<MemoryHolder> memoryHolders;
+        synchronized (holdersLock) {
+            memoryHolders = new ArrayList<MemoryHolder>(holders);
+        }
+        long toRelease = memoryAmountBytes;
+        for (MemoryHolder holder : memoryHolders) {
+            toRelease -= holder.attemptToRelease(toRelease);
+            if (toRelease <= 0) {
+                break;
+            }
+        }
+    }
+
+    private long getBudgetBytes() {
+        if (fixedBudgetBytes != null) {
+            return fixedBudgetBytes;
+        }
+        return MemoryAmount.parseNotation(System.getProperty(MEMORY_BUDGET_PROPERTY));
+    }
+
+    private long getStallTimeoutMillis() {
+        if (fixedStallTimeoutMillis != null) {
+            return fixedStallTimeoutMillis;
+        }
+        String value = System.getProperty(STALL_TIMEOUT_PROPERTY);
+        if (value == null) {
+            return DEFAULT_STALL_TIMEOUT_MILLIS;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("Cannot parse value '%s' of the %s system property, expected a number of milliseconds.", value, STALL_TIMEOUT_PROPERTY), e);
+        }
+    }
+
+    @Override
+    public void addMemoryHolder(MemoryHolder holder) {
+        synchronized (holdersLock) {
+            holders.add(holder);
+        }
+    }
+
+    @Override
+    public void removeMemoryHolder(MemoryHolder holder) {
+        synchronized (holdersLock) {
+            holders.remove(holder);
+        }
+    }
+
+    @Override
+    public int getWaitCount() {
+        synchronized (lock) {
+            return waitCount;
+        }
+    }
+
+    @Override
+    public long getWaitTimeMillis() {
+        synchronized (lock) {
+            return waitTimeMillis;
+        }
+    }
+
+    @VisibleForTesting
+    long getReservedBytes() {
+        synchronized (lock) {
+            return reservedBytes;
+        }
+    }
+
+    private class DefaultMemoryReservation implements MemoryReservation {
+        private final long amount;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        DefaultMemoryReservation(long amount) {
+            this.amount = amount;
+        }
+
+        @Override
+        public void release() {
+            if (amount == 0 || !released.compareAndSet(false, true)) {
+                return;
+            }
+            synchronized (lock) {
+                reservedBytes -= amount;
+                lastReleaseTime = System.currentTimeMillis();
+                lock.notifyAll();
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal.health.memory;
+
+/**
+ * A build-wide budget of memory that the heaps of worker processes are reserved from before the processes are started.
+ */
+public interface MemoryBudget {
+
+    /**
+     * Reserves an amount of memory from the budget, blocking while the budget is exhausted.
+     *
+     * Registered memory holders are asked to release memory while waiting.
+     *
+     * @param displayName The display name of the process that memory is reserved for
+     * @param memoryAmountBytes The amount of memory to reserve in bytes
+     * @return The reservation, which should be released when the process has stopped
+     */
+    MemoryReservation reserve(String displayName, long memoryAmountBytes);
+
+    /**
+     * Register a memory resource holder that is asked to release memory when the budget is exhausted.
+     *
+     * @param holder The memory resource holder to register
+     */
+    void addMemoryHolder(MemoryHolder holder);
+
+    /**
+     * Unregister a memory resource holder.
+     *
+     * @param holder The memory resource holder to unregister
+     */
+    void removeMemoryHolder(MemoryHolder holder);
+
+    /**
+     * Returns the number of reservations that had to wait for the budget, since this budget was created.
+     */
+    int getWaitCount();
+
+    /**
+     * Returns the total time in milliseconds that reservations have waited for the budget, since this budget was created.
+     */
+    long getWaitTimeMillis();
+}
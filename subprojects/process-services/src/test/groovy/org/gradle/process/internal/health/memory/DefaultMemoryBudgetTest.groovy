@@ -0,0 +1,172 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal.health.memory
+
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
+
+class DefaultMemoryBudgetTest extends ConcurrentSpec {
+    @Rule
+    SetSystemProperties systemProperties = new SetSystemProperties()
+    def gb = MemoryAmount.of('1g').bytes
+
+    def "does not limit reservations when no budget is configured"() {
+        def budget = new DefaultMemoryBudget(-1L, 30000L)
+
+        when:
+        budget.reserve("process 1", 100 * gb)
+        budget.reserve("process 2", 100 * gb)
+
+        then:
+        budget.reservedBytes == 0
+        budget.waitCount == 0
+    }
+
+    def "reserves and releases memory within the budget"() {
+        def budget = new DefaultMemoryBudget(4 * gb, 30000L)
+
+        when:
+        def reservation1 = budget.reserve("process 1", 1 * gb)
+        def reservation2 = budget.reserve("process 2", 2 * gb)
+
+        then:
+        budget.reservedBytes == 3 * gb
+
+        when:
+        reservation1.release()
+        reservation1.release()
+
+        then:
+        budget.reservedBytes == 2 * gb
+
+        when:
+        reservation2.release()
+
+        then:
+        budget.reservedBytes == 0
+        budget.waitCount == 0
+    }
+
+    def "reservation larger than the budget is reduced to the budget"() {
+        def budget = new DefaultMemoryBudget(4 * gb, 30000L)
+
+        when:
+        budget.reserve("process", 8 * gb)
+
+        then:
+        budget.reservedBytes == 4 * gb
+    }
+
+    def "waits for memory to be released when budget is exhausted"() {
+        def budget = new DefaultMemoryBudget(4 * gb, 30000L)
+        def reservation1 = budget.reserve("process 1", 3 * gb)
+
+        when:
+        async {
+            start {
+                budget.reserve("process 2", 2 * gb)
+                instant.reserved
+            }
+            thread.block()
+            instant.releasing
+            reservation1.release()
+        }
+
+        then:
+        instant.reserved > instant.releasing
+        budget.reservedBytes == 2 * gb
+        budget.waitCount == 1
+        budget.waitTimeMillis >= 0
+    }
+
+    def "asks memory holders to release memory when budget is exhausted"() {
+        def budget = new DefaultMemoryBudget(4 * gb, 30000L)
+        def reservation1 = budget.reserve("process 1", 3 * gb)
+        def holder = Mock(MemoryHolder)
+        budget.addMemoryHolder(holder)
+
+        when:
+        budget.reserve("process 2", 2 * gb)
+
+        then:
+        1 * holder.attemptToRelease(gb) >> {
+            reservation1.release()
+            return gb
+        }
+        budget.reservedBytes == 2 * gb
+    }
+
+    def "proceeds over budget when no memory is released for some time"() {
+        def budget = new DefaultMemoryBudget(4 * gb, 100L)
+        budget.reserve("process 1", 3 * gb)
+
+        when:
+        budget.reserve("process 2", 2 * gb)
+
+        then:
+        budget.reservedBytes == 5 * gb
+        budget.waitCount == 1
+    }
+
+    def "reads time to wait for memory to be returned from system property"() {
+        System.setProperty(DefaultMemoryBudget.STALL_TIMEOUT_PROPERTY, "100")
+        def budget = new DefaultMemoryBudget(4 * gb, null)
+        budget.reserve("process 1", 3 * gb)
+
+        when:
+        budget.reserve("process 2", 2 * gb)
+
+        then:
+        budget.reservedBytes == 5 * gb
+        budget.waitCount == 1
+    }
+
+    def "waits until memory is released when the stall timeout is disabled"() {
+        System.setProperty(DefaultMemoryBudget.STALL_TIMEOUT_PROPERTY, "0")
+        def budget = new DefaultMemoryBudget(4 * gb, null)
+        def reservation1 = budget.reserve("process 1", 3 * gb)
+
+        when:
+        async {
+            start {
+                budget.reserve("process 2", 2 * gb)
+                instant.reserved
+            }
+            thread.block()
+            thread.block()
+            instant.releasing
+            reservation1.release()
+        }
+
+        then:
+        instant.reserved > instant.releasing
+        budget.reservedBytes == 2 * gb
+    }
+
+    def "reports invalid stall timeout"() {
+        System.setProperty(DefaultMemoryBudget.STALL_TIMEOUT_PROPERTY, "30s")
+        def budget = new DefaultMemoryBudget(4 * gb, null)
+
+        when:
+        budget.reserve("process", gb)
+
+        then:
+        def e = thrown(IllegalArgumentException)
+        e.message == "Cannot parse value '30s' of the org.gradle.workers.memoryBudget.stallTimeout system property, expected a number of milliseconds."
+    }
+}
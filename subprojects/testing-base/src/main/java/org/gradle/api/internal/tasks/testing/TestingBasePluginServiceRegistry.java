@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.tasks.testing;
 
+import org.gradle.api.internal.tasks.testing.junit.result.TestOutputStoreFactory;
 import org.gradle.api.internal.tasks.testing.operations.TestExecutionBuildOperationBuildSessionScopeServices;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.scopes.AbstractPluginServiceRegistry;
@@ -25,6 +26,13 @@ public class TestingBasePluginServiceRegistry extends AbstractPluginServiceRegis
     @Override
     public void registerBuildSessionServices(ServiceRegistration registration) {
         registration.addProvider(new TestExecutionBuildOperationBuildSessionScopeServices());
+        registration.addProvider(new TestingBuildSessionScopeServices());
+    }
+
+    private static class TestingBuildSessionScopeServices {
+        TestOutputStoreFactory createTestOutputStoreFactory() {
+            return new TestOutputStoreFactory(Long.getLong(TestOutputStoreFactory.MAX_OUTPUT_BYTES_PER_TEST_PROPERTY, 0));
+        }
     }
 
 }
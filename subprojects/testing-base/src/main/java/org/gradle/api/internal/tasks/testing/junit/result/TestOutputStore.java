@@ -16,29 +16,72 @@
 
 package org.gradle.api.internal.tasks.testing.junit.result;
 
-import com.esotericsoftware.kryo.io.Input;
-import com.esotericsoftware.kryo.io.Output;
 import com.google.common.collect.ImmutableMap;
+import org.apache.commons.io.IOUtils;
 import org.gradle.api.UncheckedIOException;
 import org.gradle.api.tasks.testing.TestOutputEvent;
-import org.gradle.internal.io.RandomAccessFileInputStream;
+import org.gradle.internal.SystemProperties;
 import org.gradle.internal.UncheckedException;
+import org.gradle.internal.io.RandomAccessFileInputStream;
 import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
 import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
 
 import java.io.*;
 import java.nio.charset.Charset;
-import java.util.LinkedHashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
+/**
+ * Stores the output of test classes and test cases.
+ *
+ * <p>The output file is a sequence of independently deflated blocks, so that a region of output can be read without decompressing the whole file.
+ * The index file is laid out as fixed width tables sorted by id, so that a reader only needs to load the block and class tables up front and
+ * can look up the regions of an individual test case directly from disk.</p>
+ *
+ * <p>Index file layout:</p>
+ * <pre>
+ * header:       version (int), block count (int), class count (int)
+ * block table:  logical start (long), file offset (long)
+ * class table:  class id (long), stdout start/stop (long, long), stderr start/stop (long, long), test table offset (long), test count (int)
+ * test tables:  test id (long), stdout start/stop (long, long), stderr start/stop (long, long)
+ * </pre>
+ */
 public class TestOutputStore {
 
+    static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+    private static final int INDEX_FORMAT_VERSION = 2;
+    private static final int HEADER_SIZE = 3 * 4;
+    private static final int BLOCK_ENTRY_SIZE = 2 * 8;
+    private static final int CLASS_ENTRY_SIZE = 6 * 8 + 4;
+    private static final int TEST_ENTRY_SIZE = 5 * 8;
+
     private final File resultsDir;
     private final Charset messageStorageCharset;
+    private final long maxOutputBytesPerTest;
+    private final int blockSize;
 
     public TestOutputStore(File resultsDir) {
+        this(resultsDir, 0);
+    }
+
+    /**
+     * @param maxOutputBytesPerTest the maximum number of bytes of output to keep per test case and destination, or 0 to keep everything.
+     */
+    public TestOutputStore(File resultsDir, long maxOutputBytesPerTest) {
+        this(resultsDir, maxOutputBytesPerTest, DEFAULT_BLOCK_SIZE);
+    }
+
+    TestOutputStore(File resultsDir, long maxOutputBytesPerTest, int blockSize) {
         this.resultsDir = resultsDir;
         this.messageStorageCharset = Charset.forName("UTF-8");
+        this.maxOutputBytesPerTest = maxOutputBytesPerTest;
+        this.blockSize = blockSize;
     }
 
     File getOutputsFile() {
@@ -49,6 +92,14 @@ public class TestOutputStore {
         return new File(resultsDir, getOutputsFile().getName() + ".idx");
     }
 
+    private byte[] encode(String message) {
+        try {
+            return message.getBytes(messageStorageCharset.name());
+        } catch (UnsupportedEncodingException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
     private static class Region {
         long start;
         long stop;
@@ -62,24 +113,42 @@ public class TestOutputStore {
             this.start = start;
             this.stop = stop;
         }
+
+        void include(Region other) {
+            if (other.start < 0) {
+                return;
+            }
+            if (start < 0 || other.start < start) {
+                start = other.start;
+            }
+            if (other.stop > stop) {
+                stop = other.stop;
+            }
+        }
     }
 
     private static class TestCaseRegion {
         Region stdOutRegion = new Region();
         Region stdErrRegion = new Region();
+        long stdOutBytes;
+        long stdErrBytes;
+        boolean stdOutTruncated;
+        boolean stdErrTruncated;
     }
 
     public class Writer implements Closeable {
+        private final BlockCompressingOutputStream blocks;
         private final KryoBackedEncoder output;
 
-        private final Map<Long, Map<Long, TestCaseRegion>> index = new LinkedHashMap<Long, Map<Long, TestCaseRegion>>();
+        private final Map<Long, Map<Long, TestCaseRegion>> index = new TreeMap<Long, Map<Long, TestCaseRegion>>();
 
         public Writer() {
             try {
-                output = new KryoBackedEncoder(new FileOutputStream(getOutputsFile()));
+                blocks = new BlockCompressingOutputStream(new FileOutputStream(getOutputsFile()), blockSize);
             } catch (FileNotFoundException e) {
                 throw new UncheckedIOException(e);
             }
+            output = new KryoBackedEncoder(blocks);
         }
 
         @Override
@@ -94,38 +163,71 @@ public class TestOutputStore {
 
         public void onOutput(long classId, long testId, TestOutputEvent outputEvent) {
             boolean stdout = outputEvent.getDestination() == TestOutputEvent.Destination.StdOut;
-            mark(classId, testId, stdout);
+            TestCaseRegion region = testCaseRegion(classId, testId);
+
+            byte[] bytes = encode(outputEvent.getMessage());
+            if (maxOutputBytesPerTest > 0) {
+                bytes = applyLimit(region, stdout, bytes);
+                if (bytes == null) {
+                    return;
+                }
+            }
+
+            mark(region, stdout);
 
             output.writeBoolean(stdout);
             output.writeSmallLong(classId);
             output.writeSmallLong(testId);
-
-            byte[] bytes;
-            try {
-                bytes = outputEvent.getMessage().getBytes(messageStorageCharset.name());
-            } catch (UnsupportedEncodingException e) {
-                throw UncheckedException.throwAsUncheckedException(e);
-            }
             output.writeSmallInt(bytes.length);
             output.writeBytes(bytes, 0, bytes.length);
         }
 
-        private void mark(long classId, long testId, boolean isStdout) {
-            if (!index.containsKey(classId)) {
-                index.put(classId, new LinkedHashMap<Long, TestCaseRegion>());
+        /**
+         * Returns the bytes to write for the given message, the truncation marker when the message pushes the output over the limit, or null when the output has already been truncated.
+         */
+        private byte[] applyLimit(TestCaseRegion region, boolean stdout, byte[] bytes) {
+            if (stdout ? region.stdOutTruncated : region.stdErrTruncated) {
+                return null;
+            }
+            long written = stdout ? region.stdOutBytes : region.stdErrBytes;
+            if (written + bytes.length > maxOutputBytesPerTest) {
+                if (stdout) {
+                    region.stdOutTruncated = true;
+                } else {
+                    region.stdErrTruncated = true;
+                }
+                String lineSeparator = SystemProperties.getInstance().getLineSeparator();
+                return encode(lineSeparator + "[Output truncated: exceeded limit of " + maxOutputBytesPerTest + " bytes]" + lineSeparator);
+            }
+            if (stdout) {
+                region.stdOutBytes += bytes.length;
+            } else {
+                region.stdErrBytes += bytes.length;
             }
+            return bytes;
+        }
 
+        private TestCaseRegion testCaseRegion(long classId, long testId) {
             Map<Long, TestCaseRegion> testCaseRegions = index.get(classId);
-            if (!testCaseRegions.containsKey(testId)) {
-                TestCaseRegion region = new TestCaseRegion();
-                testCaseRegions.put(testId, region);
+            if (testCaseRegions == null) {
+                testCaseRegions = new TreeMap<Long, TestCaseRegion>();
+                index.put(classId, testCaseRegions);
             }
 
             TestCaseRegion region = testCaseRegions.get(testId);
+            if (region == null) {
+                region = new TestCaseRegion();
+                testCaseRegions.put(testId, region);
+            }
+            return region;
+        }
 
+        private void mark(TestCaseRegion region, boolean isStdout) {
             Region streamRegion = isStdout ? region.stdOutRegion : region.stdErrRegion;
 
-            int total = output.getWritePosition();
+            // The encoder tracks its position as an int, so use the position of the underlying stream, which does not overflow for large outputs
+            output.flush();
+            long total = blocks.getWritePosition();
             if (streamRegion.start < 0) {
                 streamRegion.start = total;
             }
@@ -133,93 +235,194 @@ public class TestOutputStore {
         }
 
         private void writeIndex() {
-            Output indexOutput;
+            DataOutputStream indexOutput;
             try {
-                indexOutput = new Output(new FileOutputStream(getIndexFile()));
+                indexOutput = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(getIndexFile())));
             } catch (FileNotFoundException e) {
                 throw new UncheckedIOException(e);
             }
 
-
             try {
-                indexOutput.writeInt(index.size(), true);
-
-                for (Map.Entry<Long, Map<Long, TestCaseRegion>> classEntry : index.entrySet()) {
-                    Long classId = classEntry.getKey();
-                    Map<Long, TestCaseRegion> regions = classEntry.getValue();
-
-                    indexOutput.writeLong(classId, true);
-                    indexOutput.writeInt(regions.size(), true);
-
-                    for (Map.Entry<Long, TestCaseRegion> testCaseEntry : regions.entrySet()) {
-                        long id = testCaseEntry.getKey();
-                        TestCaseRegion region = testCaseEntry.getValue();
-                        indexOutput.writeLong(id, true);
-                        indexOutput.writeLong(region.stdOutRegion.start);
-                        indexOutput.writeLong(region.stdOutRegion.stop);
-                        indexOutput.writeLong(region.stdErrRegion.start);
-                        indexOutput.writeLong(region.stdErrRegion.stop);
+                try {
+                    List<Long> blockStarts = blocks.getBlockLogicalStarts();
+                    List<Long> blockOffsets = blocks.getBlockFileOffsets();
+                    indexOutput.writeInt(INDEX_FORMAT_VERSION);
+                    indexOutput.writeInt(blockStarts.size());
+                    indexOutput.writeInt(index.size());
+
+                    for (int i = 0; i < blockStarts.size(); i++) {
+                        indexOutput.writeLong(blockStarts.get(i));
+                        indexOutput.writeLong(blockOffsets.get(i));
+                    }
+
+                    long testTableOffset = HEADER_SIZE + (long) blockStarts.size() * BLOCK_ENTRY_SIZE + (long) index.size() * CLASS_ENTRY_SIZE;
+                    for (Map.Entry<Long, Map<Long, TestCaseRegion>> classEntry : index.entrySet()) {
+                        Map<Long, TestCaseRegion> regions = classEntry.getValue();
+                        Region stdOut = new Region();
+                        Region stdErr = new Region();
+                        for (TestCaseRegion region : regions.values()) {
+                            stdOut.include(region.stdOutRegion);
+                            stdErr.include(region.stdErrRegion);
+                        }
+
+                        indexOutput.writeLong(classEntry.getKey());
+                        writeRegion(indexOutput, stdOut);
+                        writeRegion(indexOutput, stdErr);
+                        indexOutput.writeLong(testTableOffset);
+                        indexOutput.writeInt(regions.size());
+                        testTableOffset += (long) regions.size() * TEST_ENTRY_SIZE;
                     }
+
+                    for (Map<Long, TestCaseRegion> regions : index.values()) {
+                        for (Map.Entry<Long, TestCaseRegion> testCaseEntry : regions.entrySet()) {
+                            TestCaseRegion region = testCaseEntry.getValue();
+                            indexOutput.writeLong(testCaseEntry.getKey());
+                            writeRegion(indexOutput, region.stdOutRegion);
+                            writeRegion(indexOutput, region.stdErrRegion);
+                        }
+                    }
+                } finally {
+                    indexOutput.close();
                 }
-            } finally {
-                indexOutput.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
         }
+
+        private void writeRegion(DataOutputStream indexOutput, Region region) throws IOException {
+            indexOutput.writeLong(region.start);
+            indexOutput.writeLong(region.stop);
+        }
     }
 
     public Writer writer() {
         return new Writer();
     }
 
-    private static class Index {
-        final ImmutableMap<Long, Index> children;
-        final Region stdOut;
-        final Region stdErr;
+    /**
+     * Buffers the bytes written to it and writes them to the target stream as deflated blocks of at most the given size.
+     * Each block is written as its uncompressed length, its compressed length and the compressed bytes.
+     */
+    private static class BlockCompressingOutputStream extends OutputStream {
+        private final DataOutputStream target;
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private final byte[] buffer;
+        private byte[] compressed;
+        private int count;
+        private long logicalPosition;
+        private long filePosition;
+        private final List<Long> blockLogicalStarts = new ArrayList<Long>();
+        private final List<Long> blockFileOffsets = new ArrayList<Long>();
+
+        BlockCompressingOutputStream(OutputStream target, int blockSize) {
+            this.target = new DataOutputStream(target);
+            this.buffer = new byte[blockSize];
+            this.compressed = new byte[blockSize];
+        }
 
-        private Index(Region stdOut, Region stdErr) {
-            this.children = ImmutableMap.of();
-            this.stdOut = stdOut;
-            this.stdErr = stdErr;
+        List<Long> getBlockLogicalStarts() {
+            return blockLogicalStarts;
         }
 
-        private Index(ImmutableMap<Long, Index> children, Region stdOut, Region stdErr) {
-            this.children = children;
-            this.stdOut = stdOut;
-            this.stdErr = stdErr;
+        long getWritePosition() {
+            return logicalPosition + count;
         }
-    }
 
-    private static class IndexBuilder {
-        final Region stdOut = new Region();
-        final Region stdErr = new Region();
+        List<Long> getBlockFileOffsets() {
+            return blockFileOffsets;
+        }
 
-        private final ImmutableMap.Builder<Long, Index> children = ImmutableMap.builder();
+        @Override
+        public void write(int b) throws IOException {
+            if (count == buffer.length) {
+                writeBlock();
+            }
+            buffer[count++] = (byte) b;
+        }
 
-        void add(long key, Index index) {
-            if (stdOut.start < 0) {
-                stdOut.start = index.stdOut.start;
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (count == buffer.length) {
+                    writeBlock();
+                }
+                int chunk = Math.min(length, buffer.length - count);
+                System.arraycopy(bytes, offset, buffer, count, chunk);
+                count += chunk;
+                offset += chunk;
+                length -= chunk;
             }
-            if (stdErr.start < 0) {
-                stdErr.start = index.stdErr.start;
+        }
+
+        @Override
+        public void flush() {
+            // Only complete blocks are written, so that flushing the encoder does not produce many small blocks
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                writeBlock();
+                target.close();
+            } finally {
+                deflater.end();
             }
-            if (index.stdOut.stop > stdOut.stop) {
-                stdOut.stop = index.stdOut.stop;
+        }
+
+        private void writeBlock() throws IOException {
+            if (count == 0) {
+                return;
             }
-            if (index.stdErr.stop > stdErr.stop) {
-                stdErr.stop = index.stdErr.stop;
+            deflater.reset();
+            deflater.setInput(buffer, 0, count);
+            deflater.finish();
+            int compressedLength = 0;
+            while (!deflater.finished()) {
+                if (compressedLength == compressed.length) {
+                    byte[] larger = new byte[compressed.length * 2];
+                    System.arraycopy(compressed, 0, larger, 0, compressedLength);
+                    compressed = larger;
+                }
+                compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
             }
 
-            children.put(key, index);
+            blockLogicalStarts.add(logicalPosition);
+            blockFileOffsets.add(filePosition);
+            target.writeInt(count);
+            target.writeInt(compressedLength);
+            target.write(compressed, 0, compressedLength);
+
+            logicalPosition += count;
+            filePosition += 8 + compressedLength;
+            count = 0;
         }
+    }
 
-        Index build() {
-            return new Index(children.build(), stdOut, stdErr);
+    private static class ClassIndex {
+        final Region stdOut;
+        final Region stdErr;
+        final long testTableOffset;
+        final int testCount;
+
+        private ClassIndex(Region stdOut, Region stdErr, long testTableOffset, int testCount) {
+            this.stdOut = stdOut;
+            this.stdErr = stdErr;
+            this.testTableOffset = testTableOffset;
+            this.testCount = testCount;
         }
     }
 
     public class Reader implements Closeable {
-        private final Index index;
+        private final ImmutableMap<Long, ClassIndex> index;
+        private final long[] blockLogicalStarts;
+        private final long[] blockFileOffsets;
+        private final RandomAccessFile indexFile;
         private final RandomAccessFile dataFile;
+        private final Inflater inflater;
+        private byte[] compressed;
+        private byte[] block;
+        private int blockLength;
+        private int loadedBlock = -1;
 
         public Reader() {
             File indexFile = getIndexFile();
@@ -230,57 +433,74 @@ public class TestOutputStore {
                     throw new IllegalStateException(String.format("Test outputs data file '%s' exists but the index file '%s' does not", outputsFile, indexFile));
                 }
 
-                Input input;
                 try {
-                    input = new Input(new FileInputStream(indexFile));
+                    this.indexFile = new RandomAccessFile(indexFile, "r");
                 } catch (FileNotFoundException e) {
                     throw new UncheckedIOException(e);
                 }
 
-                IndexBuilder rootBuilder = null;
+                ImmutableMap.Builder<Long, ClassIndex> indexBuilder = ImmutableMap.builder();
+                boolean opened = false;
                 try {
-                    int numClasses = input.readInt(true);
-                    rootBuilder = new IndexBuilder();
+                    DataInputStream input = new DataInputStream(new BufferedInputStream(new RandomAccessFileInputStream(this.indexFile)));
+                    int version = input.readInt();
+                    if (version != INDEX_FORMAT_VERSION) {
+                        throw new IllegalStateException(String.format("Test outputs index file '%s' has unsupported format version %d", indexFile, version));
+                    }
+                    int numBlocks = input.readInt();
+                    int numClasses = input.readInt();
+
+                    blockLogicalStarts = new long[numBlocks];
+                    blockFileOffsets = new long[numBlocks];
+                    for (int blockCounter = 0; blockCounter < numBlocks; ++blockCounter) {
+                        blockLogicalStarts[blockCounter] = input.readLong();
+                        blockFileOffsets[blockCounter] = input.readLong();
+                    }
 
                     for (int classCounter = 0; classCounter < numClasses; ++classCounter) {
-                        long classId = input.readLong(true);
-                        IndexBuilder classBuilder = new IndexBuilder();
-
-                        int numEntries = input.readInt(true);
-                        for (int entryCounter = 0; entryCounter < numEntries; ++entryCounter) {
-                            long testId = input.readLong(true);
-                            Region stdOut = new Region(input.readLong(), input.readLong());
-                            Region stdErr = new Region(input.readLong(), input.readLong());
-                            classBuilder.add(testId, new Index(stdOut, stdErr));
-                        }
-
-                        rootBuilder.add(classId, classBuilder.build());
+                        long classId = input.readLong();
+                        Region stdOut = new Region(input.readLong(), input.readLong());
+                        Region stdErr = new Region(input.readLong(), input.readLong());
+                        long testTableOffset = input.readLong();
+                        int testCount = input.readInt();
+                        indexBuilder.put(classId, new ClassIndex(stdOut, stdErr, testTableOffset, testCount));
                     }
-                } finally {
-                    input.close();
-                }
-
-                index = rootBuilder.build();
 
-                try {
+                    index = indexBuilder.build();
                     dataFile = new RandomAccessFile(getOutputsFile(), "r");
-                } catch (FileNotFoundException e) {
+                    opened = true;
+                } catch (IOException e) {
                     throw new UncheckedIOException(e);
+                } finally {
+                    if (!opened) {
+                        // The index file stays open only when this reader can be used, and is then closed by close()
+                        IOUtils.closeQuietly(this.indexFile);
+                    }
                 }
+                inflater = new Inflater();
             } else { // no outputs file
                 if (indexFile.exists()) {
                     throw new IllegalStateException(String.format("Test outputs data file '%s' does not exist but the index file '%s' does", outputsFile, indexFile));
                 }
 
                 index = null;
+                blockLogicalStarts = null;
+                blockFileOffsets = null;
+                this.indexFile = null;
                 dataFile = null;
+                inflater = null;
             }
         }
 
         @Override
         public void close() throws IOException {
             if (dataFile != null) {
-                dataFile.close();
+                try {
+                    dataFile.close();
+                    indexFile.close();
+                } finally {
+                    inflater.end();
+                }
             }
         }
 
@@ -289,7 +509,7 @@ public class TestOutputStore {
                 return false;
             }
 
-            Index classIndex = index.children.get(classId);
+            ClassIndex classIndex = index.get(classId);
             if (classIndex == null) {
                 return false;
             } else {
@@ -315,29 +535,33 @@ public class TestOutputStore {
                 return;
             }
 
-            Index targetIndex = index.children.get(classId);
-            if (targetIndex != null && testId != 0) {
-                targetIndex = targetIndex.children.get(testId);
-            }
-
-            if (targetIndex == null) {
+            ClassIndex classIndex = index.get(classId);
+            if (classIndex == null) {
                 return;
             }
 
             boolean stdout = destination == TestOutputEvent.Destination.StdOut;
-            Region region = stdout ? targetIndex.stdOut : targetIndex.stdErr;
 
-            if (region.start < 0) {
-                return;
-            }
+            try {
+                Region region;
+                if (testId != 0) {
+                    region = readTestRegion(classIndex, testId, stdout);
+                    if (region == null) {
+                        return;
+                    }
+                } else {
+                    region = stdout ? classIndex.stdOut : classIndex.stdErr;
+                }
 
-            boolean ignoreClassLevel = !allClassOutput && testId != 0;
-            boolean ignoreTestLevel = !allClassOutput && testId == 0;
+                if (region.start < 0) {
+                    return;
+                }
+
+                boolean ignoreClassLevel = !allClassOutput && testId != 0;
+                boolean ignoreTestLevel = !allClassOutput && testId == 0;
 
-            try {
-                dataFile.seek(region.start);
                 long maxPos = region.stop - region.start;
-                KryoBackedDecoder decoder = new KryoBackedDecoder(new RandomAccessFileInputStream(dataFile));
+                KryoBackedDecoder decoder = new KryoBackedDecoder(new BlockInputStream(region.start));
                 while (decoder.getReadPosition() <= maxPos) {
                     boolean readStdout = decoder.readBoolean();
                     long readClassId = decoder.readSmallLong();
@@ -381,6 +605,139 @@ public class TestOutputStore {
                 throw new UncheckedIOException(e1);
             }
         }
+
+        /**
+         * Locates the entry for the given test in the sorted test table of the class, without loading the table.
+         */
+        private Region readTestRegion(ClassIndex classIndex, long testId, boolean stdout) throws IOException {
+            int low = 0;
+            int high = classIndex.testCount - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                long entryOffset = classIndex.testTableOffset + (long) mid * TEST_ENTRY_SIZE;
+                indexFile.seek(entryOffset);
+                long candidate = indexFile.readLong();
+                if (candidate < testId) {
+                    low = mid + 1;
+                } else if (candidate > testId) {
+                    high = mid - 1;
+                } else {
+                    if (!stdout) {
+                        indexFile.seek(entryOffset + 3 * 8);
+                    }
+                    return new Region(indexFile.readLong(), indexFile.readLong());
+                }
+            }
+            return null;
+        }
+
+        private int findBlock(long logicalPosition) {
+            int low = 0;
+            int high = blockLogicalStarts.length - 1;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (blockLogicalStarts[mid] <= logicalPosition) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low;
+        }
+
+        private void loadBlock(int blockIndex) throws IOException {
+            if (blockIndex == loadedBlock) {
+                return;
+            }
+            dataFile.seek(blockFileOffsets[blockIndex]);
+            int uncompressedLength = dataFile.readInt();
+            int compressedLength = dataFile.readInt();
+            if (compressed == null || compressed.length < compressedLength) {
+                compressed = new byte[compressedLength];
+            }
+            if (block == null || block.length < uncompressedLength) {
+                block = new byte[uncompressedLength];
+            }
+            dataFile.readFully(compressed, 0, compressedLength);
+
+            // Invalidate the current block until it has been fully decompressed
+            loadedBlock = -1;
+            inflater.reset();
+            inflater.setInput(compressed, 0, compressedLength);
+            int length = 0;
+            try {
+                while (length < uncompressedLength) {
+                    int read = inflater.inflate(block, length, uncompressedLength - length);
+                    if (read == 0 && (inflater.finished() || inflater.needsInput())) {
+                        throw new IOException(String.format("Test outputs data file '%s' is corrupt", getOutputsFile()));
+                    }
+                    length += read;
+                }
+            } catch (DataFormatException e) {
+                throw new IOException(String.format("Test outputs data file '%s' is corrupt", getOutputsFile()), e);
+            }
+            blockLength = uncompressedLength;
+            loadedBlock = blockIndex;
+        }
+
+        /**
+         * Reads the uncompressed output, starting at the given logical position. Shares the decompression buffers of the reader, so only one of these may be in use at a time.
+         */
+        private class BlockInputStream extends InputStream {
+            private int currentBlock;
+            private int position;
+
+            BlockInputStream(long logicalPosition) throws IOException {
+                currentBlock = findBlock(logicalPosition);
+                position = (int) (logicalPosition - blockLogicalStarts[currentBlock]);
+            }
+
+            private boolean ensureAvailable() throws IOException {
+                loadBlock(currentBlock);
+                while (position >= blockLength) {
+                    if (currentBlock + 1 >= blockLogicalStarts.length) {
+                        return false;
+                    }
+                    position -= blockLength;
+                    currentBlock++;
+                    loadBlock(currentBlock);
+                }
+                return true;
+            }
+
+            @Override
+            public int read() throws IOException {
+                if (!ensureAvailable()) {
+                    return -1;
+                }
+                return block[position++] & 0xff;
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) throws IOException {
+                if (length == 0) {
+                    return 0;
+                }
+                if (!ensureAvailable()) {
+                    return -1;
+                }
+                int count = Math.min(length, blockLength - position);
+                System.arraycopy(block, position, bytes, offset, count);
+                position += count;
+                return count;
+            }
+
+            @Override
+            public long skip(long n) throws IOException {
+                long skipped = 0;
+                while (skipped < n && ensureAvailable()) {
+                    int count = (int) Math.min(n - skipped, blockLength - position);
+                    position += count;
+                    skipped += count;
+                }
+                return skipped;
+            }
+        }
     }
 
     // IMPORTANT: return must be closed when done with.
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.junit.result;
+
+import java.io.File;
+
+/**
+ * Creates the {@link TestOutputStore} that a test task writes its output to, applying the limit on the output kept per test case.
+ */
+public class TestOutputStoreFactory {
+    public static final String MAX_OUTPUT_BYTES_PER_TEST_PROPERTY = "org.gradle.internal.testing.maxOutputBytesPerTest";
+
+    private final long maxOutputBytesPerTest;
+
+    /**
+     * @param maxOutputBytesPerTest the maximum number of bytes of output to keep per test case and destination, or 0 to keep everything.
+     */
+    public TestOutputStoreFactory(long maxOutputBytesPerTest) {
+        this.maxOutputBytesPerTest = maxOutputBytesPerTest;
+    }
+
+    public TestOutputStore createStore(File resultsDir) {
+        return new TestOutputStore(resultsDir, maxOutputBytesPerTest);
+    }
+}
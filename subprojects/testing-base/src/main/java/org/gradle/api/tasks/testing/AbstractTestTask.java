@@ -38,6 +38,7 @@ import org.gradle.api.internal.tasks.testing.junit.result.InMemoryTestResultsPro
 import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult;
 import org.gradle.api.internal.tasks.testing.junit.result.TestOutputAssociation;
 import org.gradle.api.internal.tasks.testing.junit.result.TestOutputStore;
+import org.gradle.api.internal.tasks.testing.junit.result.TestOutputStoreFactory;
 import org.gradle.api.internal.tasks.testing.junit.result.TestReportDataCollector;
 import org.gradle.api.internal.tasks.testing.junit.result.TestResultSerializer;
 import org.gradle.api.internal.tasks.testing.junit.result.TestResultsProvider;
@@ -153,6 +154,11 @@ public abstract class AbstractTestTask extends ConventionTask implements Verific
         throw new UnsupportedOperationException();
     }
 
+    @Inject
+    protected TestOutputStoreFactory getTestOutputStoreFactory() {
+        throw new UnsupportedOperationException();
+    }
+
     /**
      * Creates test executer. For internal use only.
      *
@@ -435,7 +441,7 @@ public abstract class AbstractTestTask extends ConventionTask implements Verific
         getProject().mkdir(binaryResultsDir);
 
         Map<String, TestClassResult> results = new HashMap<String, TestClassResult>();
-        TestOutputStore testOutputStore = new TestOutputStore(binaryResultsDir);
+        TestOutputStore testOutputStore = getTestOutputStoreFactory().createStore(binaryResultsDir);
 
         TestOutputStore.Writer outputWriter = testOutputStore.writer();
         TestReportDataCollector testReportDataCollector = new TestReportDataCollector(results, outputWriter);
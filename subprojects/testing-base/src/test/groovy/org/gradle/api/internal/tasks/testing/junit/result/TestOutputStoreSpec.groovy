@@ -169,6 +169,61 @@ class TestOutputStoreSpec extends WorkspaceTest {
         thrown(IllegalStateException)
     }
 
+    def "can read output spanning many compressed blocks"() {
+        def store = new TestOutputStore(testDirectory, 0, 16)
+
+        when:
+        def writer = store.writer()
+        100.times { i ->
+            writer.onOutput(i % 3 + 1, i % 5 + 1, output(StdOut, "[out-$i]"))
+        }
+        writer.close()
+        def reader = store.reader()
+
+        then:
+        collectOutput(reader, 2, 3, StdOut) == (0..<100).findAll { it % 3 == 1 && it % 5 == 2 }.collect { "[out-$it]" }.join("")
+        collectAllOutput(reader, 3, StdOut) == (0..<100).findAll { it % 3 == 2 }.collect { "[out-$it]" }.join("")
+        collectOutput(reader, 2, 6, StdOut) == ""
+
+        cleanup:
+        reader.close()
+    }
+
+    def "compresses output"() {
+        when:
+        def writer = output.writer()
+        1000.times {
+            writer.onOutput(1, 1, output(StdOut, "some repetitive test output\n"))
+        }
+        writer.close()
+
+        then:
+        output.outputsFile.length() < 1000 * "some repetitive test output\n".length() / 10
+    }
+
+    def "truncates output of a test case that exceeds the limit"() {
+        def store = new TestOutputStore(testDirectory, 10)
+        def lineSeparator = System.getProperty("line.separator")
+
+        when:
+        def writer = store.writer()
+        writer.onOutput(1, 1, output(StdOut, "[out-1]"))
+        writer.onOutput(1, 1, output(StdOut, "[out-2]"))
+        writer.onOutput(1, 1, output(StdOut, "[out-3]"))
+        writer.onOutput(1, 1, output(StdErr, "[err-1]"))
+        writer.onOutput(1, 2, output(StdOut, "[out-4]"))
+        writer.close()
+        def reader = store.reader()
+
+        then:
+        collectOutput(reader, 1, 1, StdOut) == "[out-1]${lineSeparator}[Output truncated: exceeded limit of 10 bytes]${lineSeparator}"
+        collectOutput(reader, 1, 1, StdErr) == "[err-1]"
+        collectOutput(reader, 1, 2, StdOut) == "[out-4]"
+
+        cleanup:
+        reader.close()
+    }
+
     String collectAllOutput(TestOutputStore.Reader reader, long classId, TestOutputEvent.Destination destination) {
         def writer = new StringWriter()
         reader.writeAllOutput(classId, destination, writer)
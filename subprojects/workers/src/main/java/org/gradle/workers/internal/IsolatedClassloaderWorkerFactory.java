@@ -16,6 +16,8 @@
 
 package org.gradle.workers.internal;
 
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
 import org.gradle.api.internal.AsmBackedClassGenerator;
 import org.gradle.api.internal.DefaultInstantiatorFactory;
 import org.gradle.api.internal.classloading.GroovySystemLoader;
@@ -23,15 +25,21 @@ import org.gradle.api.internal.classloading.GroovySystemLoaderFactory;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.Logger;
 import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory;
+import org.gradle.internal.Factory;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.classloader.CachingClassLoader;
 import org.gradle.internal.classloader.ClassLoaderFactory;
+import org.gradle.internal.classloader.ClassLoaderUtils;
+import org.gradle.internal.classloader.ClasspathHasher;
 import org.gradle.internal.classloader.ClasspathUtil;
 import org.gradle.internal.classloader.FilteringClassLoader;
 import org.gradle.internal.classloader.MultiParentClassLoader;
 import org.gradle.internal.classloader.VisitableURLClassLoader;
+import org.gradle.internal.classpath.ClassPath;
 import org.gradle.internal.classpath.DefaultClassPath;
+import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.event.DefaultListenerManager;
+import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.io.ClassLoaderObjectInputStream;
 import org.gradle.internal.operations.BuildOperationContext;
 import org.gradle.internal.operations.BuildOperationExecutor;
@@ -51,17 +59,22 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.List;
 import java.util.concurrent.Callable;
 
-public class IsolatedClassloaderWorkerFactory implements WorkerFactory {
+public class IsolatedClassloaderWorkerFactory implements WorkerFactory, Stoppable {
+    private static final int MAX_CACHED_CLASSLOADERS = 16;
 
     private final ClassLoaderFactory classLoaderFactory;
+    private final ClasspathHasher classpathHasher;
     private final WorkerLeaseRegistry workerLeaseRegistry;
     private final BuildOperationExecutor buildOperationExecutor;
     private final GroovySystemLoaderFactory groovySystemLoaderFactory = new GroovySystemLoaderFactory();
+    private final WorkerClassLoaderCache classLoaderCache = new WorkerClassLoaderCache(MAX_CACHED_CLASSLOADERS);
 
-    public IsolatedClassloaderWorkerFactory(ClassLoaderFactory classLoaderFactory, WorkerLeaseRegistry workerLeaseRegistry, BuildOperationExecutor buildOperationExecutor) {
+    public IsolatedClassloaderWorkerFactory(ClassLoaderFactory classLoaderFactory, ClasspathHasher classpathHasher, WorkerLeaseRegistry workerLeaseRegistry, BuildOperationExecutor buildOperationExecutor) {
         this.classLoaderFactory = classLoaderFactory;
+        this.classpathHasher = classpathHasher;
         this.workerLeaseRegistry = workerLeaseRegistry;
         this.buildOperationExecutor = buildOperationExecutor;
     }
@@ -101,11 +114,14 @@ public class IsolatedClassloaderWorkerFactory implements WorkerFactory {
         return IsolationMode.CLASSLOADER;
     }
 
-    private DefaultWorkResult executeInWorkerClassLoader(ActionExecutionSpec spec, DaemonForkOptions forkOptions) {
-        ClassLoader actionClasspathLoader = createActionClasspathLoader(forkOptions);
-        GroovySystemLoader actionClasspathGroovy = groovySystemLoaderFactory.forClassLoader(actionClasspathLoader);
+    @Override
+    public void stop() {
+        classLoaderCache.stop();
+    }
 
-        ClassLoader workerClassLoader = createWorkerClassLoader(actionClasspathLoader, forkOptions.getSharedPackages(), spec.getClass());
+    private DefaultWorkResult executeInWorkerClassLoader(ActionExecutionSpec spec, DaemonForkOptions forkOptions) {
+        WorkerClassLoaderCache.CachedClassLoader cachedClassLoader = acquireWorkerClassLoader(forkOptions, spec.getClass());
+        ClassLoader workerClassLoader = cachedClassLoader.getClassLoader();
 
         ClassLoader previousContextLoader = Thread.currentThread().getContextClassLoader();
         try {
@@ -116,14 +132,32 @@ public class IsolatedClassloaderWorkerFactory implements WorkerFactory {
         } catch (Exception e) {
             throw UncheckedException.throwAsUncheckedException(e);
         } finally {
-            // Eventually shutdown any leaky groovy runtime loaded from action classpath loader
-            actionClasspathGroovy.shutdown();
             Thread.currentThread().setContextClassLoader(previousContextLoader);
+            classLoaderCache.release(cachedClassLoader);
         }
     }
 
-    private ClassLoader createActionClasspathLoader(DaemonForkOptions forkOptions) {
-        return classLoaderFactory.createIsolatedClassLoader(new DefaultClassPath(forkOptions.getClasspath()));
+    private WorkerClassLoaderCache.CachedClassLoader acquireWorkerClassLoader(DaemonForkOptions forkOptions, final Class<?> actionClass) {
+        final ClassPath classPath = new DefaultClassPath(forkOptions.getClasspath());
+        final Iterable<String> sharedPackages = forkOptions.getSharedPackages();
+        WorkerClassLoaderKey key = new WorkerClassLoaderKey(classpathHasher.hash(classPath), sharedPackages, actionClass.getClassLoader());
+        return classLoaderCache.acquire(key, new Factory<WorkerClassLoaderCache.CachedClassLoader>() {
+            @Override
+            public WorkerClassLoaderCache.CachedClassLoader create() {
+                final ClassLoader actionClasspathLoader = classLoaderFactory.createIsolatedClassLoader(classPath);
+                final GroovySystemLoader actionClasspathGroovy = groovySystemLoaderFactory.forClassLoader(actionClasspathLoader);
+                final ClassLoader workerClassLoader = createWorkerClassLoader(actionClasspathLoader, sharedPackages, actionClass);
+                return new WorkerClassLoaderCache.CachedClassLoader(workerClassLoader, new Stoppable() {
+                    @Override
+                    public void stop() {
+                        // Eventually shutdown any leaky groovy runtime loaded from action classpath loader
+                        actionClasspathGroovy.shutdown();
+                        ClassLoaderUtils.tryClose(workerClassLoader);
+                        ClassLoaderUtils.tryClose(actionClasspathLoader);
+                    }
+                });
+            }
+        });
     }
 
     private ClassLoader createWorkerClassLoader(ClassLoader actionClasspathLoader, Iterable<String> sharedPackages, Class<?> actionClass) {
@@ -168,10 +202,47 @@ public class IsolatedClassloaderWorkerFactory implements WorkerFactory {
         return (DefaultWorkResult) ois.readObject();
     }
 
+    /**
+     * Identifies worker ClassLoaders that can be reused, by the content of the action classpath, the packages shared from it and the ClassLoader that provides Gradle's classes.
+     */
+    private static class WorkerClassLoaderKey {
+        private final HashCode classpathHash;
+        private final List<String> sharedPackages;
+        private final ClassLoader actionClassLoader;
+
+        WorkerClassLoaderKey(HashCode classpathHash, Iterable<String> sharedPackages, ClassLoader actionClassLoader) {
+            this.classpathHash = classpathHash;
+            this.sharedPackages = ImmutableList.copyOf(sharedPackages);
+            this.actionClassLoader = actionClassLoader;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            WorkerClassLoaderKey that = (WorkerClassLoaderKey) o;
+            return classpathHash.equals(that.classpathHash)
+                && sharedPackages.equals(that.sharedPackages)
+                && Objects.equal(actionClassLoader, that.actionClassLoader);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(classpathHash, sharedPackages, actionClassLoader);
+        }
+    }
+
     /**
      * This is serialized across into the worker ClassLoader and then executed.
      */
     private static class WorkerCallable implements Callable<Object>, Serializable {
+        // Worker ClassLoaders are reused, so each one keeps its own copy of these services
+        private static DefaultInstantiatorFactory instantiatorFactory;
+
         private final ActionExecutionSpec spec;
 
         private WorkerCallable(ActionExecutionSpec spec) {
@@ -180,10 +251,15 @@ public class IsolatedClassloaderWorkerFactory implements WorkerFactory {
 
         @Override
         public Object call() throws Exception {
-            // TODO - reuse these services, either by making the global instances visible or by reusing the worker ClassLoaders and retaining a reference to them
-            DefaultInstantiatorFactory instantiatorFactory = new DefaultInstantiatorFactory(new AsmBackedClassGenerator(), new CrossBuildInMemoryCacheFactory(new DefaultListenerManager()));
-            WorkerProtocol<ActionExecutionSpec> worker = new DefaultWorkerServer(instantiatorFactory.inject());
+            WorkerProtocol<ActionExecutionSpec> worker = new DefaultWorkerServer(getInstantiatorFactory().inject());
             return worker.execute(spec);
         }
+
+        private static synchronized DefaultInstantiatorFactory getInstantiatorFactory() {
+            if (instantiatorFactory == null) {
+                instantiatorFactory = new DefaultInstantiatorFactory(new AsmBackedClassGenerator(), new CrossBuildInMemoryCacheFactory(new DefaultListenerManager()));
+            }
+            return instantiatorFactory;
+        }
     }
 }
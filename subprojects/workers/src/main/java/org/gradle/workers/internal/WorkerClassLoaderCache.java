@@ -0,0 +1,109 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.workers.internal;
+
+import org.gradle.internal.Factory;
+import org.gradle.internal.concurrent.Stoppable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded, least recently used cache of the ClassLoaders used to run work in {@link org.gradle.workers.IsolationMode#CLASSLOADER} isolation.
+ *
+ * <p>A ClassLoader that is evicted from the cache is only cleaned up once it is no longer used by any work item.</p>
+ */
+public class WorkerClassLoaderCache implements Stoppable {
+    private final int maxSize;
+    private final Map<Object, CachedClassLoader> entries = new LinkedHashMap<Object, CachedClassLoader>(16, 0.75f, true);
+
+    public WorkerClassLoaderCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the ClassLoader for the given key, creating it if required. The result must be passed to {@link #release(CachedClassLoader)} when no longer in use.
+     */
+    public synchronized CachedClassLoader acquire(Object key, Factory<CachedClassLoader> factory) {
+        CachedClassLoader classLoader = entries.get(key);
+        if (classLoader == null) {
+            classLoader = factory.create();
+            entries.put(key, classLoader);
+            evictEntries();
+        }
+        classLoader.users++;
+        return classLoader;
+    }
+
+    public synchronized void release(CachedClassLoader classLoader) {
+        if (classLoader.users <= 0) {
+            throw new IllegalStateException("Cannot release ClassLoader that is not in use: " + classLoader.getClassLoader());
+        }
+        classLoader.users--;
+        if (classLoader.evicted && classLoader.users == 0) {
+            classLoader.cleanup.stop();
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized void stop() {
+        for (CachedClassLoader classLoader : entries.values()) {
+            evict(classLoader);
+        }
+        entries.clear();
+    }
+
+    private void evictEntries() {
+        Iterator<CachedClassLoader> iterator = entries.values().iterator();
+        while (entries.size() > maxSize) {
+            CachedClassLoader eldest = iterator.next();
+            iterator.remove();
+            evict(eldest);
+        }
+    }
+
+    private void evict(CachedClassLoader classLoader) {
+        classLoader.evicted = true;
+        if (classLoader.users == 0) {
+            classLoader.cleanup.stop();
+        }
+    }
+
+    public static class CachedClassLoader {
+        private final ClassLoader classLoader;
+        private final Stoppable cleanup;
+        private int users;
+        private boolean evicted;
+
+        /**
+         * @param cleanup Releases the resources held by the ClassLoader, once it has been evicted from the cache and is no longer in use.
+         */
+        public CachedClassLoader(ClassLoader classLoader, Stoppable cleanup) {
+            this.classLoader = classLoader;
+            this.cleanup = cleanup;
+        }
+
+        public ClassLoader getClassLoader() {
+            return classLoader;
+        }
+    }
+}
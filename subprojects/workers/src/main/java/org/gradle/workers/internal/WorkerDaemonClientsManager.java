@@ -22,7 +22,10 @@ import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.api.specs.Spec;
 import org.gradle.initialization.SessionLifecycleListener;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
 import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.logging.LoggingManagerInternal;
@@ -33,26 +36,41 @@ import org.gradle.util.CollectionUtils;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 public class WorkerDaemonClientsManager implements Stoppable {
 
     private static final Logger LOGGER = Logging.getLogger(WorkerDaemonClientsManager.class);
+    // Roughly the time it takes to start a new worker daemon
+    private static final long DEFAULT_PRESTART_WAIT_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
 
     private final Object lock = new Object();
     private final List<WorkerDaemonClient> allClients = new ArrayList<WorkerDaemonClient>();
     private final List<WorkerDaemonClient> idleClients = new ArrayList<WorkerDaemonClient>();
+    private final Set<WorkerDaemonClient> prestartedClients = new HashSet<WorkerDaemonClient>();
+    private final List<DaemonForkOptions> pendingPrestarts = new ArrayList<DaemonForkOptions>();
 
     private final WorkerDaemonStarter workerDaemonStarter;
+    private final ManagedExecutor prestartExecutor;
     private final ListenerManager listenerManager;
     private final LoggingManagerInternal loggingManager;
     private final SessionLifecycleListener stopSessionScopeWorkers;
     private final OutputEventListener logLevelChangeEventListener;
+    private final long prestartWaitTimeoutMillis;
     private LogLevel currentLogLevel;
 
-    public WorkerDaemonClientsManager(WorkerDaemonStarter workerDaemonStarter, ListenerManager listenerManager, LoggingManagerInternal loggingManager) {
+    public WorkerDaemonClientsManager(WorkerDaemonStarter workerDaemonStarter, ListenerManager listenerManager, LoggingManagerInternal loggingManager, ExecutorFactory executorFactory) {
+        this(workerDaemonStarter, listenerManager, loggingManager, executorFactory, DEFAULT_PRESTART_WAIT_TIMEOUT_MILLIS);
+    }
+
+    WorkerDaemonClientsManager(WorkerDaemonStarter workerDaemonStarter, ListenerManager listenerManager, LoggingManagerInternal loggingManager, ExecutorFactory executorFactory, long prestartWaitTimeoutMillis) {
+        this.prestartWaitTimeoutMillis = prestartWaitTimeoutMillis;
         this.workerDaemonStarter = workerDaemonStarter;
+        this.prestartExecutor = executorFactory.create("Worker daemon pre-start");
         this.listenerManager = listenerManager;
         this.loggingManager = loggingManager;
         this.stopSessionScopeWorkers = new StopSessionScopedWorkers();
@@ -62,9 +80,31 @@ public class WorkerDaemonClientsManager implements Stoppable {
         this.currentLogLevel = loggingManager.getLevel();
     }
 
+    /**
+     * Reserves an idle client that is compatible with the given options. When a compatible client is currently being pre-started, waits a bounded
+     * time for it rather than returning null. Returns null when the pre-started client is not ready in time, so that the caller starts a new client.
+     */
     // TODO - should supply and check for the same parameters as passed to reserveNewClient()
     public WorkerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions) {
-        return reserveIdleClient(forkOptions, idleClients);
+        synchronized (lock) {
+            long deadline = System.currentTimeMillis() + prestartWaitTimeoutMillis;
+            while (true) {
+                WorkerDaemonClient client = reserveIdleClient(forkOptions, idleClients);
+                if (client != null || !isPrestarting(forkOptions)) {
+                    return client;
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    LOGGER.info("Timed out waiting for pre-started worker daemon, starting a new one.");
+                    return null;
+                }
+                try {
+                    lock.wait(remaining);
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+        }
     }
 
     WorkerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions, List<WorkerDaemonClient> clients) {
@@ -74,6 +114,7 @@ public class WorkerDaemonClientsManager implements Stoppable {
                 WorkerDaemonClient candidate = it.next();
                 if (candidate.isCompatibleWith(forkOptions)) {
                     it.remove();
+                    prestartedClients.remove(candidate);
                     if (candidate.getLogLevel() != currentLogLevel) {
                         // TODO: Send a message to workers to change their log level rather than stopping
                         LOGGER.info("Log level has changed, stopping idle worker daemon with out-of-date log level.");
@@ -96,6 +137,53 @@ public class WorkerDaemonClientsManager implements Stoppable {
         return client;
     }
 
+    /**
+     * Starts a client for the given options in the background and adds it to the idle clients, so that it is ready by the time work is submitted for it.
+     * Does nothing when a compatible client is already idle or being started. A pre-started client that has not been used by the end of the build session is stopped.
+     */
+    public void prestartClient(final Class<? extends WorkerProtocol<ActionExecutionSpec>> workerProtocolImplementationClass, final DaemonForkOptions forkOptions) {
+        synchronized (lock) {
+            for (WorkerDaemonClient idleClient : idleClients) {
+                if (idleClient.isCompatibleWith(forkOptions)) {
+                    return;
+                }
+            }
+            if (isPrestarting(forkOptions)) {
+                return;
+            }
+            pendingPrestarts.add(forkOptions);
+        }
+        prestartExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    WorkerDaemonClient client = workerDaemonStarter.startDaemon(workerProtocolImplementationClass, forkOptions);
+                    synchronized (lock) {
+                        allClients.add(client);
+                        idleClients.add(client);
+                        prestartedClients.add(client);
+                    }
+                } catch (Exception e) {
+                    LOGGER.info("Could not pre-start worker daemon.", e);
+                } finally {
+                    synchronized (lock) {
+                        pendingPrestarts.remove(forkOptions);
+                        lock.notifyAll();
+                    }
+                }
+            }
+        });
+    }
+
+    private boolean isPrestarting(DaemonForkOptions forkOptions) {
+        for (DaemonForkOptions pending : pendingPrestarts) {
+            if (pending.isCompatibleWith(forkOptions)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public void release(WorkerDaemonClient client) {
         synchronized (lock) {
             idleClients.add(client);
@@ -104,10 +192,12 @@ public class WorkerDaemonClientsManager implements Stoppable {
 
     @Override
     public void stop() {
+        prestartExecutor.stop();
         synchronized (lock) {
             stopWorkers(allClients);
             allClients.clear();
             idleClients.clear();
+            prestartedClients.clear();
             listenerManager.removeListener(stopSessionScopeWorkers);
             loggingManager.removeOutputEventListener(logLevelChangeEventListener);
         }
@@ -140,6 +230,7 @@ public class WorkerDaemonClientsManager implements Stoppable {
             LOGGER.info("Stopped {} worker daemon(s).", clientsToStop.size());
             idleClients.removeAll(clientsToStop);
             allClients.removeAll(clientsToStop);
+            prestartedClients.removeAll(clientsToStop);
         }
     }
 
@@ -153,7 +244,7 @@ public class WorkerDaemonClientsManager implements Stoppable {
                 List<WorkerDaemonClient> sessionScopedClients = CollectionUtils.filter(allClients, new Spec<WorkerDaemonClient>() {
                     @Override
                     public boolean isSatisfiedBy(WorkerDaemonClient client) {
-                        return client.getKeepAliveMode() == KeepAliveMode.SESSION;
+                        return client.getKeepAliveMode() == KeepAliveMode.SESSION || prestartedClients.contains(client);
                     }
                 });
                 stopWorkers(sessionScopedClients);
@@ -25,6 +25,7 @@ import org.gradle.internal.progress.BuildOperationDescriptor;
 import org.gradle.internal.progress.BuildOperationState;
 import org.gradle.internal.work.WorkerLeaseRegistry;
 import org.gradle.internal.work.WorkerLeaseRegistry.WorkerLease;
+import org.gradle.process.internal.health.memory.MemoryBudget;
 import org.gradle.process.internal.health.memory.MemoryManager;
 import org.gradle.process.internal.health.memory.TotalPhysicalMemoryProvider;
 import org.gradle.workers.IsolationMode;
@@ -36,15 +37,18 @@ import org.gradle.workers.IsolationMode;
 public class WorkerDaemonFactory implements WorkerFactory, Stoppable {
     private final WorkerDaemonClientsManager clientsManager;
     private final MemoryManager memoryManager;
+    private final MemoryBudget memoryBudget;
     private final WorkerDaemonExpiration workerDaemonExpiration;
     private final WorkerLeaseRegistry workerLeaseRegistry;
     private final BuildOperationExecutor buildOperationExecutor;
 
-    public WorkerDaemonFactory(WorkerDaemonClientsManager clientsManager, MemoryManager memoryManager, WorkerLeaseRegistry workerLeaseRegistry, BuildOperationExecutor buildOperationExecutor) {
+    public WorkerDaemonFactory(WorkerDaemonClientsManager clientsManager, MemoryManager memoryManager, MemoryBudget memoryBudget, WorkerLeaseRegistry workerLeaseRegistry, BuildOperationExecutor buildOperationExecutor) {
         this.clientsManager = clientsManager;
         this.memoryManager = memoryManager;
+        this.memoryBudget = memoryBudget;
         this.workerDaemonExpiration = new WorkerDaemonExpiration(clientsManager, getTotalPhysicalMemory());
         memoryManager.addMemoryHolder(workerDaemonExpiration);
+        memoryBudget.addMemoryHolder(workerDaemonExpiration);
         this.workerLeaseRegistry = workerLeaseRegistry;
         this.buildOperationExecutor = buildOperationExecutor;
     }
@@ -91,6 +95,13 @@ public class WorkerDaemonFactory implements WorkerFactory, Stoppable {
         };
     }
 
+    /**
+     * Starts a worker daemon with the given options in the background, so that work submitted later with compatible options does not have to wait for the daemon to start.
+     */
+    public void prestart(DaemonForkOptions forkOptions) {
+        clientsManager.prestartClient(WorkerDaemonServer.class, forkOptions);
+    }
+
     @Override
     public IsolationMode getIsolationMode() {
         return IsolationMode.PROCESS;
@@ -99,6 +110,7 @@ public class WorkerDaemonFactory implements WorkerFactory, Stoppable {
     @Override
     public void stop() {
         memoryManager.removeMemoryHolder(workerDaemonExpiration);
+        memoryBudget.removeMemoryHolder(workerDaemonExpiration);
     }
 
     private static long getTotalPhysicalMemory() {
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.workers.internal
+
+import org.gradle.internal.Factory
+import org.gradle.internal.concurrent.Stoppable
+import spock.lang.Specification
+import spock.lang.Subject
+
+class WorkerClassLoaderCacheTest extends Specification {
+    @Subject cache = new WorkerClassLoaderCache(2)
+
+    def "reuses ClassLoader for the same key"() {
+        def factory = Mock(Factory)
+        def classLoader = new WorkerClassLoaderCache.CachedClassLoader(Stub(ClassLoader), Stub(Stoppable))
+
+        when:
+        def first = cache.acquire("key", factory)
+        cache.release(first)
+        def second = cache.acquire("key", factory)
+
+        then:
+        1 * factory.create() >> classLoader
+        first == classLoader
+        second == classLoader
+    }
+
+    def "cleans up least recently used ClassLoader when cache is full"() {
+        def cleanup1 = Mock(Stoppable)
+        def cleanup2 = Mock(Stoppable)
+        def cleanup3 = Mock(Stoppable)
+
+        when:
+        cache.release(cache.acquire("key1", factory(cleanup1)))
+        cache.release(cache.acquire("key2", factory(cleanup2)))
+        cache.release(cache.acquire("key1", factory(cleanup1)))
+        cache.release(cache.acquire("key3", factory(cleanup3)))
+
+        then:
+        1 * cleanup2.stop()
+        0 * cleanup1.stop()
+        0 * cleanup3.stop()
+        cache.size() == 2
+    }
+
+    def "does not clean up evicted ClassLoader until it is released"() {
+        def cleanup = Mock(Stoppable)
+
+        when:
+        def inUse = cache.acquire("key1", factory(cleanup))
+        cache.release(cache.acquire("key2", factory(Stub(Stoppable))))
+        cache.release(cache.acquire("key3", factory(Stub(Stoppable))))
+
+        then:
+        0 * cleanup.stop()
+
+        when:
+        cache.release(inUse)
+
+        then:
+        1 * cleanup.stop()
+    }
+
+    def "cleans up all ClassLoaders when stopped"() {
+        def cleanup1 = Mock(Stoppable)
+        def cleanup2 = Mock(Stoppable)
+
+        when:
+        cache.release(cache.acquire("key1", factory(cleanup1)))
+        def inUse = cache.acquire("key2", factory(cleanup2))
+        cache.stop()
+
+        then:
+        1 * cleanup1.stop()
+        0 * cleanup2.stop()
+        cache.size() == 0
+
+        when:
+        cache.release(inUse)
+
+        then:
+        1 * cleanup2.stop()
+    }
+
+    def "cannot release ClassLoader that is not in use"() {
+        def classLoader = cache.acquire("key", factory(Stub(Stoppable)))
+        cache.release(classLoader)
+
+        when:
+        cache.release(classLoader)
+
+        then:
+        thrown(IllegalStateException)
+    }
+
+    private Factory<WorkerClassLoaderCache.CachedClassLoader> factory(Stoppable cleanup) {
+        return new Factory<WorkerClassLoaderCache.CachedClassLoader>() {
+            @Override
+            WorkerClassLoaderCache.CachedClassLoader create() {
+                return new WorkerClassLoaderCache.CachedClassLoader(new URLClassLoader(new URL[0]), cleanup)
+            }
+        }
+    }
+}
@@ -19,6 +19,8 @@ package org.gradle.workers.internal
 import org.gradle.api.Transformer
 import org.gradle.api.logging.LogLevel
 import org.gradle.initialization.SessionLifecycleListener
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.internal.concurrent.ManagedExecutor
 import org.gradle.internal.event.DefaultListenerManager
 import org.gradle.internal.event.ListenerManager
 import org.gradle.internal.logging.LoggingManagerInternal
@@ -32,12 +34,13 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
     def workingDir = new File("some-dir")
 
     def options = Stub(DaemonForkOptions)
+    def compatibleOptions = Stub(DaemonForkOptions) { isCompatibleWith(_) >> true }
     def starter = Stub(WorkerDaemonStarter)
     def serverImpl = Stub(WorkerProtocol)
     def listenerManager = Stub(ListenerManager)
     def loggingManager = Stub(LoggingManagerInternal)
 
-    @Subject manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager)
+    @Subject manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, executorFactory)
 
     def "does not reserve idle client when no clients"() {
         expect:
@@ -91,7 +94,7 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
 
     def "can stop session-scoped clients"() {
         listenerManager = new DefaultListenerManager()
-        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager)
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, executorFactory)
         def client1 = Mock(WorkerDaemonClient)
         def client2 = Mock(WorkerDaemonClient)
         starter.startDaemon(serverImpl.class, options) >>> [client1, client2]
@@ -110,7 +113,7 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
 
     def "Stopping session-scoped clients does not stop other clients"() {
         listenerManager = new DefaultListenerManager()
-        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager)
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, executorFactory)
         def client1 = Mock(WorkerDaemonClient)
         def client2 = Mock(WorkerDaemonClient)
         starter.startDaemon(serverImpl.class, options) >>> [client1, client2]
@@ -158,7 +161,7 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         loggingManager.getLevel() >> LogLevel.INFO
 
         when:
-        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager)
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, executorFactory)
 
         then:
         listener != null
@@ -230,4 +233,81 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         0 * client2.stop()
         1 * client3.stop()
     }
+
+    def "pre-started client is reserved as an idle client"() {
+        def client = Mock(WorkerDaemonClient) {
+            isCompatibleWith(_) >> true
+            getLogLevel() >> LogLevel.DEBUG
+        }
+        starter.startDaemon(serverImpl.class, compatibleOptions) >> client
+
+        when:
+        manager.prestartClient(serverImpl.class, compatibleOptions)
+
+        then:
+        manager.reserveIdleClient(compatibleOptions) == client
+    }
+
+    def "stops waiting for pre-started client after a timeout"() {
+        def neverRunningExecutorFactory = Stub(ExecutorFactory) {
+            create(_) >> Stub(ManagedExecutor)
+        }
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, neverRunningExecutorFactory, 100)
+
+        when:
+        manager.prestartClient(serverImpl.class, compatibleOptions)
+
+        then:
+        manager.reserveIdleClient(compatibleOptions) == null
+    }
+
+    def "does not pre-start client when compatible client is idle"() {
+        def starter = Mock(WorkerDaemonStarter)
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, synchronousExecutorFactory())
+        def client = Mock(WorkerDaemonClient) {
+            isCompatibleWith(_) >> true
+        }
+
+        when:
+        manager.reserveNewClient(serverImpl.class, compatibleOptions)
+        manager.release(client)
+        manager.prestartClient(serverImpl.class, compatibleOptions)
+
+        then:
+        1 * starter.startDaemon(serverImpl.class, compatibleOptions) >> client
+    }
+
+    def "stops unused pre-started clients at the end of the session"() {
+        listenerManager = new DefaultListenerManager()
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, synchronousExecutorFactory())
+        def client1 = Mock(WorkerDaemonClient) {
+            isCompatibleWith(compatibleOptions) >> true
+            isCompatibleWith(_) >> false
+            getLogLevel() >> LogLevel.DEBUG
+            getKeepAliveMode() >> KeepAliveMode.DAEMON
+        }
+        def client2 = Mock(WorkerDaemonClient) {
+            isCompatibleWith(_) >> false
+            getKeepAliveMode() >> KeepAliveMode.DAEMON
+        }
+        starter.startDaemon(serverImpl.class, _) >>> [client1, client2]
+
+        when:
+        manager.prestartClient(serverImpl.class, compatibleOptions)
+        manager.release(manager.reserveIdleClient(compatibleOptions))
+        manager.prestartClient(serverImpl.class, Stub(DaemonForkOptions))
+        listenerManager.getBroadcaster(SessionLifecycleListener).beforeComplete()
+
+        then:
+        0 * client1.stop()
+        1 * client2.stop()
+    }
+
+    def synchronousExecutorFactory() {
+        return Stub(ExecutorFactory) {
+            create(_) >> Stub(ManagedExecutor) {
+                execute(_) >> { Runnable action -> action.run() }
+            }
+        }
+    }
 }
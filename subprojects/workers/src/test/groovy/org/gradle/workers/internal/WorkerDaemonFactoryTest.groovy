@@ -20,6 +20,7 @@ import org.gradle.internal.operations.BuildOperationExecutor
 import org.gradle.internal.progress.BuildOperationState
 import org.gradle.internal.work.WorkerLeaseRegistry
 import org.gradle.internal.work.WorkerLeaseRegistry.WorkerLease
+import org.gradle.process.internal.health.memory.MemoryBudget
 import org.gradle.process.internal.health.memory.MemoryManager
 import spock.lang.Specification
 import spock.lang.Subject
@@ -31,13 +32,14 @@ class WorkerDaemonFactoryTest extends Specification {
     def clientsManager = Mock(WorkerDaemonClientsManager)
     def client = Mock(WorkerDaemonClient)
     def memoryManager = Mock(MemoryManager)
+    def memoryBudget = Mock(MemoryBudget)
     def workerLeaseRegistry = Mock(WorkerLeaseRegistry)
     def buildOperationExecutor = Mock(BuildOperationExecutor)
     def workerOperation = Mock(WorkerLease)
     def buildOperation = Mock(BuildOperationState)
     def completion = Mock(WorkerLeaseCompletion)
 
-    @Subject factory = new WorkerDaemonFactory(clientsManager, memoryManager, workerLeaseRegistry, buildOperationExecutor)
+    @Subject factory = new WorkerDaemonFactory(clientsManager, memoryManager, memoryBudget, workerLeaseRegistry, buildOperationExecutor)
 
     def workingDir = new File("some-dir")
     def options = Stub(DaemonForkOptions)
@@ -112,7 +114,7 @@ class WorkerDaemonFactoryTest extends Specification {
         WorkerDaemonExpiration workerDaemonExpiration
 
         when:
-        def factory = new WorkerDaemonFactory(clientsManager, memoryManager, workerLeaseRegistry, buildOperationExecutor)
+        def factory = new WorkerDaemonFactory(clientsManager, memoryManager, memoryBudget, workerLeaseRegistry, buildOperationExecutor)
 
         then:
         1 * memoryManager.addMemoryHolder(_) >> { args -> workerDaemonExpiration = args[0] }
@@ -124,6 +126,22 @@ class WorkerDaemonFactoryTest extends Specification {
         1 * memoryManager.removeMemoryHolder(_) >> { args -> assert args[0] == workerDaemonExpiration }
     }
 
+    def "registers/deregisters a worker daemon expiration with the memory budget"() {
+        WorkerDaemonExpiration workerDaemonExpiration
+
+        when:
+        def factory = new WorkerDaemonFactory(clientsManager, memoryManager, memoryBudget, workerLeaseRegistry, buildOperationExecutor)
+
+        then:
+        1 * memoryBudget.addMemoryHolder(_) >> { args -> workerDaemonExpiration = args[0] }
+
+        when:
+        factory.stop()
+
+        then:
+        1 * memoryBudget.removeMemoryHolder(_) >> { args -> assert args[0] == workerDaemonExpiration }
+    }
+
     def "build operation is started and finished when client is executed"() {
         when:
         factory.getWorker(options).execute(spec)